@@ -0,0 +1,41 @@
+package com.ntdoc.notangdoccore.common;
+
+import org.springframework.web.multipart.MultipartFile;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+
+/**
+ * 文件内容哈希（SHA-256，十六进制小写），用于识别内容相同的文件
+ */
+public final class ContentHash {
+
+    private ContentHash() {
+    }
+
+    /**
+     * 按块读取计算，不把整个文件读入内存
+     */
+    public static String sha256(MultipartFile file) throws IOException {
+        MessageDigest digest = newDigest();
+        try (InputStream in = file.getInputStream()) {
+            byte[] buffer = new byte[8192];
+            int n;
+            while ((n = in.read(buffer)) != -1) {
+                digest.update(buffer, 0, n);
+            }
+        }
+        return HexFormat.of().formatHex(digest.digest());
+    }
+
+    private static MessageDigest newDigest() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+    }
+}
@@ -0,0 +1,63 @@
+package com.ntdoc.notangdoccore.common;
+
+import java.util.Arrays;
+
+/**
+ * Count-Min Sketch：固定内存估计每个键的计数，只会高估不会低估
+ * 宽度取不小于给定值的 2 的幂，每行用不同种子混合哈希后取低位
+ */
+public final class CountMinSketch {
+
+    private final int depth;
+    private final int mask;
+    private final int[][] counts;
+
+    public CountMinSketch(int depth, int width) {
+        if (depth < 1 || width < 1) {
+            throw new IllegalArgumentException("depth and width must be positive");
+        }
+        this.depth = depth;
+        int size = Integer.highestOneBit(width);
+        if (size < width) {
+            size <<= 1;
+        }
+        this.mask = size - 1;
+        this.counts = new int[depth][size];
+    }
+
+    public void add(long key, int count) {
+        for (int row = 0; row < depth; row++) {
+            int index = index(key, row);
+            counts[row][index] = (int) Math.min((long) counts[row][index] + count, Integer.MAX_VALUE);
+        }
+    }
+
+    public int estimate(long key) {
+        int min = Integer.MAX_VALUE;
+        for (int row = 0; row < depth; row++) {
+            min = Math.min(min, counts[row][index(key, row)]);
+        }
+        return min;
+    }
+
+    public void clear() {
+        for (int[] row : counts) {
+            Arrays.fill(row, 0);
+        }
+    }
+
+    public int width() {
+        return mask + 1;
+    }
+
+    private int index(long key, int row) {
+        return (int) mix(key + (row + 1) * 0x9E3779B97F4A7C15L) & mask;
+    }
+
+    // SplitMix64 的混合函数
+    private static long mix(long z) {
+        z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+        z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+        return z ^ (z >>> 31);
+    }
+}
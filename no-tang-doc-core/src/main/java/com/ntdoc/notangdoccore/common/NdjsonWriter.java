@@ -0,0 +1,51 @@
+package com.ntdoc.notangdoccore.common;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+
+/**
+ * NDJSON 输出：每条记录写成一行 JSON，写完即可丢弃，不在内存中累积整个结果
+ * 每写 FLUSH_EVERY 条刷新一次，客户端可以边接收边处理
+ */
+public class NdjsonWriter implements Closeable {
+
+    static final int FLUSH_EVERY = 100;
+
+    private final JsonGenerator generator;
+    private final ObjectWriter writer;
+    private int unflushed;
+
+    public NdjsonWriter(ObjectMapper objectMapper, OutputStream out) throws IOException {
+        this.generator = objectMapper.getFactory().createGenerator(out);
+        // 输出流属于容器，关闭生成器时不关闭它
+        this.generator.disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+        this.generator.setRootValueSeparator(null);
+        this.writer = objectMapper.writer()
+                .without(SerializationFeature.INDENT_OUTPUT, SerializationFeature.FLUSH_AFTER_WRITE_VALUE);
+    }
+
+    public void write(Object record) {
+        try {
+            writer.writeValue(generator, record);
+            generator.writeRaw('\n');
+            if (++unflushed >= FLUSH_EVERY) {
+                generator.flush();
+                unflushed = 0;
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        generator.close();
+    }
+}
@@ -0,0 +1,41 @@
+package com.ntdoc.notangdoccore.common;
+
+import java.util.Collection;
+import java.util.LinkedHashSet;
+import java.util.Set;
+
+/**
+ * 稀疏字段集：解析 fields=a,b,c 查询参数，列表接口只查询和输出请求的字段
+ */
+public final class SparseFields {
+
+    private SparseFields() {
+    }
+
+    /**
+     * @param fields  逗号分隔的字段名，可为空
+     * @param allowed 允许的字段名
+     * @return 请求的字段（保持请求顺序）；参数为空时返回 null，表示返回全部字段
+     * @throws IllegalArgumentException 含不支持的字段
+     */
+    public static Set<String> parse(String fields, Collection<String> allowed) {
+        if (fields == null || fields.isBlank()) {
+            return null;
+        }
+        Set<String> result = new LinkedHashSet<>();
+        for (String field : fields.split(",")) {
+            String name = field.trim();
+            if (name.isEmpty()) {
+                continue;
+            }
+            if (!allowed.contains(name)) {
+                throw new IllegalArgumentException("不支持的字段: " + name);
+            }
+            result.add(name);
+        }
+        if (result.isEmpty()) {
+            throw new IllegalArgumentException("fields 参数不能为空");
+        }
+        return result;
+    }
+}
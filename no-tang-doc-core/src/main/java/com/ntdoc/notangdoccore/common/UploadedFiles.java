@@ -0,0 +1,37 @@
+package com.ntdoc.notangdoccore.common;
+
+import org.springframework.util.StringUtils;
+import org.springframework.web.multipart.MultipartFile;
+
+/**
+ * 上传文件校验，新建文档与上传新版本共用同一套限制
+ */
+public final class UploadedFiles {
+
+    // 单个文件大小上限 100MB
+    public static final long MAX_SIZE = 100 * 1024 * 1024;
+    public static final int MAX_FILENAME_LENGTH = 255;
+
+    private UploadedFiles() {
+    }
+
+    /**
+     * 文件不能为空、不能超过大小上限，文件名不能为空或过长
+     *
+     * @throws IllegalArgumentException 校验不通过
+     */
+    public static void validate(MultipartFile file) {
+        if (file == null || file.isEmpty()) {
+            throw new IllegalArgumentException("文件不能为空");
+        }
+
+        if (file.getSize() > MAX_SIZE) {
+            throw new IllegalArgumentException("文件大小不能超过100MB");
+        }
+
+        String filename = file.getOriginalFilename();
+        if (!StringUtils.hasText(filename) || filename.length() > MAX_FILENAME_LENGTH) {
+            throw new IllegalArgumentException("文件名无效或过长");
+        }
+    }
+}
@@ -0,0 +1,18 @@
+package com.ntdoc.notangdoccore.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+
+/**
+ * 调用者身份（JWT sub -> 本地用户）缓存配置
+ */
+@Component
+@ConfigurationProperties(prefix = "ntdoc.caller-identity")
+@Data
+public class CallerIdentityProperties {
+    private int maxEntries = 10_000;            // 最多缓存的用户数，超出按最久未访问淘汰
+    private Duration ttl = Duration.ofMinutes(10); // 缓存有效期，过期后重新与数据库同步
+}
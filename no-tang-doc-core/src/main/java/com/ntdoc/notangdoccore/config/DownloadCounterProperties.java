@@ -0,0 +1,15 @@
+package com.ntdoc.notangdoccore.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+/**
+ * 下载次数写回缓冲配置
+ */
+@Component
+@ConfigurationProperties(prefix = "ntdoc.download-counter")
+@Data
+public class DownloadCounterProperties {
+    private int flushBatchSize = 500; // 每个事务批量更新的文档数
+}
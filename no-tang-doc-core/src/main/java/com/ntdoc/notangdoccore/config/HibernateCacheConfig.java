@@ -0,0 +1,98 @@
+package com.ntdoc.notangdoccore.config;
+
+import com.github.benmanes.caffeine.jcache.configuration.CaffeineConfiguration;
+import com.github.benmanes.caffeine.jcache.spi.CaffeineCachingProvider;
+import lombok.extern.slf4j.Slf4j;
+import org.hibernate.cache.jcache.ConfigSettings;
+import org.hibernate.cfg.AvailableSettings;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernatePropertiesCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import javax.cache.CacheManager;
+import javax.cache.Caching;
+import javax.cache.spi.CachingProvider;
+import java.net.URI;
+import java.time.Duration;
+import java.util.LinkedHashSet;
+import java.util.OptionalLong;
+import java.util.Set;
+import java.util.UUID;
+
+/**
+ * Hibernate 二级缓存：实体 User / Team / Tag 及其自然主键查找、标签查询缓存
+ * 所有区域在启动时按配置预先创建，避免 Hibernate 以无界默认配置自动创建
+ */
+@Slf4j
+@Configuration
+@ConditionalOnProperty(prefix = "ntdoc.hibernate-cache", name = "enabled", havingValue = "true", matchIfMissing = true)
+public class HibernateCacheConfig {
+
+    static final String USERS = "users";
+    static final String USERS_NATURAL_ID = "users-natural-id";
+    static final String TEAMS = "teams";
+    static final String TAGS = "tags";
+    static final String TAGS_NATURAL_ID = "tags-natural-id";
+    static final String TAG_QUERIES = "tag-queries";
+    // Hibernate 内置的查询缓存区域
+    static final String QUERY_RESULTS = "default-query-results-region";
+    static final String UPDATE_TIMESTAMPS = "default-update-timestamps-region";
+
+    private static final Set<String> REQUIRED_REGIONS = Set.of(
+            USERS, USERS_NATURAL_ID, TEAMS, TAGS, TAGS_NATURAL_ID, TAG_QUERIES, QUERY_RESULTS, UPDATE_TIMESTAMPS);
+
+    /**
+     * 每个应用上下文独立的 CacheManager（测试中多个上下文不共享、不互相关闭）
+     */
+    @Bean(destroyMethod = "close")
+    public CacheManager hibernateCacheManager(HibernateCacheProperties properties) {
+        CachingProvider provider = Caching.getCachingProvider(CaffeineCachingProvider.class.getName());
+        CacheManager cacheManager = provider.getCacheManager(
+                URI.create("urn:ntdoc:hibernate-cache:" + UUID.randomUUID()), getClass().getClassLoader());
+
+        Set<String> regions = new LinkedHashSet<>(REQUIRED_REGIONS);
+        regions.addAll(properties.getRegions().keySet());
+        for (String region : regions) {
+            cacheManager.createCache(region, toConfiguration(region, properties));
+        }
+        log.info("Hibernate second-level cache regions created: {}", regions);
+        return cacheManager;
+    }
+
+    @Bean
+    public HibernatePropertiesCustomizer hibernateCacheCustomizer(CacheManager hibernateCacheManager,
+                                                                  HibernateCacheProperties properties) {
+        return hibernateProperties -> {
+            hibernateProperties.put(AvailableSettings.USE_SECOND_LEVEL_CACHE, true);
+            hibernateProperties.put(AvailableSettings.USE_QUERY_CACHE, true);
+            hibernateProperties.put(AvailableSettings.CACHE_REGION_FACTORY, "jcache");
+            hibernateProperties.put(ConfigSettings.CACHE_MANAGER, hibernateCacheManager);
+            hibernateProperties.put(ConfigSettings.MISSING_CACHE_STRATEGY, "create-warn");
+            hibernateProperties.put(AvailableSettings.GENERATE_STATISTICS, properties.isStatistics());
+        };
+    }
+
+    static CaffeineConfiguration<Object, Object> toConfiguration(String region, HibernateCacheProperties properties) {
+        HibernateCacheProperties.Region settings = properties.getRegions().get(region);
+        long maxSize = settings != null && settings.getMaxSize() != null
+                ? settings.getMaxSize() : properties.getDefaultMaxSize();
+        Duration ttl = settings != null && settings.getTtl() != null
+                ? settings.getTtl() : properties.getDefaultTtl();
+        // 时间戳区域记录表的最后修改时间，淘汰或过期会让查询缓存读到旧结果，必须不限容量、不过期
+        if (UPDATE_TIMESTAMPS.equals(region)) {
+            maxSize = 0;
+            ttl = Duration.ZERO;
+        }
+
+        CaffeineConfiguration<Object, Object> configuration = new CaffeineConfiguration<>();
+        configuration.setStatisticsEnabled(properties.isStatistics());
+        if (maxSize > 0) {
+            configuration.setMaximumSize(OptionalLong.of(maxSize));
+        }
+        if (ttl != null && !ttl.isZero() && !ttl.isNegative()) {
+            configuration.setExpireAfterWrite(OptionalLong.of(ttl.toNanos()));
+        }
+        return configuration;
+    }
+}
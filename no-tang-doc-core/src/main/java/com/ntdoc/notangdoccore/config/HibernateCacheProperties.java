@@ -0,0 +1,29 @@
+package com.ntdoc.notangdoccore.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Hibernate 二级缓存配置（JCache / Caffeine），按区域设置容量与过期时间
+ */
+@Component
+@ConfigurationProperties(prefix = "ntdoc.hibernate-cache")
+@Data
+public class HibernateCacheProperties {
+    private boolean enabled = true;                     // 是否启用二级缓存
+    private boolean statistics = true;                  // 是否收集缓存统计（导出到 Micrometer）
+    private long defaultMaxSize = 10_000;               // 未单独配置的区域默认容量
+    private Duration defaultTtl = Duration.ofMinutes(10); // 未单独配置的区域默认过期时间（写入后）
+    private Map<String, Region> regions = new LinkedHashMap<>();
+
+    @Data
+    public static class Region {
+        private Long maxSize;  // 0 表示不限容量
+        private Duration ttl;  // 0 表示不过期
+    }
+}
@@ -0,0 +1,21 @@
+package com.ntdoc.notangdoccore.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+
+/**
+ * 资源服务器 JWT 校验配置：已验证令牌缓存与 JWK 集后台刷新
+ */
+@Component
+@ConfigurationProperties(prefix = "ntdoc.jwt-cache")
+@Data
+public class JwtCacheProperties {
+    private int maxEntries = 10_000;                         // 最多缓存的令牌数，超出按最久未访问淘汰
+    private Duration maxTtl = Duration.ofMinutes(10);        // 单个令牌的最长缓存时间，同时不超过令牌的 exp
+    private Duration jwkCacheTtl = Duration.ofMinutes(15);   // JWK 集缓存有效期
+    private Duration jwkRefreshAhead = Duration.ofMinutes(1); // 缓存到期前多久在后台刷新
+    private Duration jwkRefreshTimeout = Duration.ofSeconds(15); // 等待刷新结果的最长时间
+}
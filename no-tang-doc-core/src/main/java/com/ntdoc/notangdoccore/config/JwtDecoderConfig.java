@@ -0,0 +1,84 @@
+package com.ntdoc.notangdoccore.config;
+
+import com.nimbusds.jose.JWSAlgorithm;
+import com.nimbusds.jose.KeySourceException;
+import com.nimbusds.jose.jwk.JWK;
+import com.nimbusds.jose.jwk.JWKMatcher;
+import com.nimbusds.jose.jwk.JWKSelector;
+import com.nimbusds.jose.jwk.source.JWKSource;
+import com.nimbusds.jose.jwk.source.JWKSourceBuilder;
+import com.nimbusds.jose.proc.JWSVerificationKeySelector;
+import com.nimbusds.jose.proc.SecurityContext;
+import com.nimbusds.jwt.proc.DefaultJWTProcessor;
+import com.ntdoc.notangdoccore.security.CachingJwtDecoder;
+import com.ntdoc.notangdoccore.security.KeycloakJwtGrantedAuthoritiesConverter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.event.EventListener;
+import org.springframework.security.oauth2.jwt.JwtValidators;
+import org.springframework.security.oauth2.jwt.NimbusJwtDecoder;
+
+import java.net.MalformedURLException;
+import java.net.URI;
+import java.util.List;
+
+/**
+ * 资源服务器的 JWT 解码器：
+ * JWK 集由后台定时在到期前刷新（密钥轮换时不阻塞请求），启动完成时预取一次；
+ * 已验证的令牌按摘要缓存到 exp，重复使用同一令牌的请求跳过签名校验和权限构建
+ */
+@Slf4j
+@Configuration
+public class JwtDecoderConfig {
+
+    static final String JWK_SOURCE_BEAN = "keycloakJwkSource";
+
+    @Value("${spring.security.oauth2.resourceserver.jwt.jwk-set-uri}")
+    private String jwkSetUri;
+
+    @Value("${spring.security.oauth2.client.registration.keycloak.client-id}")
+    private String keycloakClientId;
+
+    @Bean(JWK_SOURCE_BEAN)
+    public JWKSource<SecurityContext> keycloakJwkSource(JwtCacheProperties properties) throws MalformedURLException {
+        return JWKSourceBuilder.<SecurityContext>create(URI.create(jwkSetUri).toURL())
+                .cache(properties.getJwkCacheTtl().toMillis(), properties.getJwkRefreshTimeout().toMillis())
+                .refreshAheadCache(properties.getJwkRefreshAhead().toMillis(), true)
+                .build();
+    }
+
+    @Bean
+    public CachingJwtDecoder jwtDecoder(JWKSource<SecurityContext> keycloakJwkSource,
+                                        JwtCacheProperties properties,
+                                        MeterRegistry meterRegistry) {
+        DefaultJWTProcessor<SecurityContext> processor = new DefaultJWTProcessor<>();
+        processor.setJWSKeySelector(new JWSVerificationKeySelector<>(JWSAlgorithm.RS256, keycloakJwkSource));
+        // 时间戳等声明由 Spring 的校验器检查
+        processor.setJWTClaimsSetVerifier((claims, context) -> {
+        });
+        NimbusJwtDecoder delegate = new NimbusJwtDecoder(processor);
+        delegate.setJwtValidator(JwtValidators.createDefault());
+
+        return new CachingJwtDecoder(delegate, new KeycloakJwtGrantedAuthoritiesConverter(keycloakClientId),
+                properties, meterRegistry);
+    }
+
+    /**
+     * 启动完成后预取 JWK 集，第一个请求不必等待远程获取
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    @SuppressWarnings("unchecked")
+    public void prefetchJwkSet(ApplicationReadyEvent event) {
+        JWKSource<SecurityContext> source = event.getApplicationContext().getBean(JWK_SOURCE_BEAN, JWKSource.class);
+        try {
+            List<JWK> keys = source.get(new JWKSelector(new JWKMatcher.Builder().build()), null);
+            log.info("JWK set prefetched: {} keys from {}", keys.size(), jwkSetUri);
+        } catch (KeySourceException e) {
+            log.warn("JWK set prefetch failed, keys will be fetched on first request: {}", e.getMessage());
+        }
+    }
+}
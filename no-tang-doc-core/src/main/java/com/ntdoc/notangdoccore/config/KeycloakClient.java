@@ -2,24 +2,41 @@ package com.ntdoc.notangdoccore.config;
 
 import com.ntdoc.notangdoccore.dto.keycloak.AuthExchangeRequest;
 import com.ntdoc.notangdoccore.exception.KeycloakClientException;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.http.*;
+import org.springframework.http.client.ClientHttpRequestFactory;
+import org.springframework.http.converter.FormHttpMessageConverter;
+import org.springframework.security.oauth2.client.http.OAuth2ErrorResponseErrorHandler;
 import org.springframework.security.oauth2.client.endpoint.*;
 import org.springframework.security.oauth2.client.registration.ClientRegistration;
 import org.springframework.security.oauth2.client.registration.ClientRegistrationRepository;
 import org.springframework.security.oauth2.core.*;
 import org.springframework.security.oauth2.core.endpoint.*;
+import org.springframework.security.oauth2.core.http.converter.OAuth2AccessTokenResponseHttpMessageConverter;
 import org.springframework.stereotype.Component;
 import org.springframework.util.LinkedMultiValueMap;
 import org.springframework.util.MultiValueMap;
+import org.springframework.web.client.RestClient;
 import org.springframework.web.client.RestTemplate;
 
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Clock;
 import java.time.Duration;
 import java.time.Instant;
 import java.util.HashMap;
+import java.util.HexFormat;
 import java.util.Map;
 import java.util.Objects;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
 
 @Component
 @Slf4j
@@ -28,15 +45,41 @@ public class KeycloakClient {
     private final OAuth2AccessTokenResponseClient<OAuth2AuthorizationCodeGrantRequest> authCodeClient;
     private final OAuth2AccessTokenResponseClient<OAuth2RefreshTokenGrantRequest> refreshTokenClient;
     private final RestTemplate restTemplate;
+    private final MeterRegistry meterRegistry;
+    private final Counter coalescedRefreshes;
+    private final Duration refreshShareWindow;
+    private final Clock clock;
+
+    // 刷新令牌摘要 -> 进行中或刚完成的刷新，同一令牌的并发刷新只向 Keycloak 发一次请求
+    private final ConcurrentHashMap<String, SharedRefresh> refreshes = new ConcurrentHashMap<>();
 
     private final String issuerUri;
     private final String clientId;
     private final String clientSecret;
 
+    /**
+     * 令牌交换、刷新和登出共用 {@link KeycloakHttpConfig} 中带超时的连接池
+     */
+    @Autowired
     public KeycloakClient(ClientRegistrationRepository registrations,
+                          ClientHttpRequestFactory keycloakRequestFactory,
+                          MeterRegistry meterRegistry,
+                          KeycloakProperties properties,
                           @Value("${spring.security.oauth2.client.registration.keycloak.client-id}") String clientId,
                           @Value("${spring.security.oauth2.client.registration.keycloak.client-secret}") String clientSecret,
                           @Value("${spring.security.oauth2.client.provider.keycloak.issuer-uri}") String issuerUri) {
+        this(registrations, keycloakRequestFactory, meterRegistry, properties, clientId, clientSecret, issuerUri,
+                Clock.systemUTC());
+    }
+
+    KeycloakClient(ClientRegistrationRepository registrations,
+                   ClientHttpRequestFactory keycloakRequestFactory,
+                   MeterRegistry meterRegistry,
+                   KeycloakProperties properties,
+                   String clientId,
+                   String clientSecret,
+                   String issuerUri,
+                   Clock clock) {
         log.info("[KeycloakClient:init] Starting initialization. issuerUri={}, incomingClientId={}", issuerUri, clientId);
         ClientRegistration reg = registrations.findByRegistrationId("keycloak");
         if (reg == null) {
@@ -44,9 +87,29 @@ public class KeycloakClient {
             throw new IllegalStateException("Client registration 'keycloak' not found");
         }
         this.clientRegistration = reg;
-        this.authCodeClient = new RestClientAuthorizationCodeTokenResponseClient();
-        this.refreshTokenClient = new RestClientRefreshTokenTokenResponseClient();
-        this.restTemplate = new RestTemplate();
+        // 与默认令牌客户端相同的转换器和错误处理，只替换底层传输
+        RestClient tokenRestClient = RestClient.builder()
+                .requestFactory(keycloakRequestFactory)
+                .messageConverters(converters -> {
+                    converters.clear();
+                    converters.add(new FormHttpMessageConverter());
+                    converters.add(new OAuth2AccessTokenResponseHttpMessageConverter());
+                })
+                .defaultStatusHandler(new OAuth2ErrorResponseErrorHandler())
+                .build();
+        RestClientAuthorizationCodeTokenResponseClient authCodeClient = new RestClientAuthorizationCodeTokenResponseClient();
+        authCodeClient.setRestClient(tokenRestClient);
+        RestClientRefreshTokenTokenResponseClient refreshTokenClient = new RestClientRefreshTokenTokenResponseClient();
+        refreshTokenClient.setRestClient(tokenRestClient);
+        this.authCodeClient = authCodeClient;
+        this.refreshTokenClient = refreshTokenClient;
+        this.restTemplate = new RestTemplate(keycloakRequestFactory);
+        this.meterRegistry = meterRegistry;
+        this.coalescedRefreshes = Counter.builder("ntdoc.keycloak.refresh.coalesced")
+                .description("Refresh calls answered by a concurrent refresh of the same token")
+                .register(meterRegistry);
+        this.refreshShareWindow = properties.getRefresh().getShareWindow();
+        this.clock = clock;
         this.issuerUri = issuerUri;
         this.clientId = clientId;
         this.clientSecret = clientSecret;
@@ -80,8 +143,11 @@ public class KeycloakClient {
         OAuth2AuthorizationExchange exchange = new OAuth2AuthorizationExchange(authorizationRequest, authorizationResponse);
         OAuth2AuthorizationCodeGrantRequest grantRequest = new OAuth2AuthorizationCodeGrantRequest(clientRegistration, exchange);
         log.info("[exchangeCode:tokenRequest] Sending authorization_code grant to tokenUri={}", clientRegistration.getProviderDetails().getTokenUri());
+        Timer.Sample sample = Timer.start(meterRegistry);
+        boolean success = false;
         try {
             OAuth2AccessTokenResponse tokenResponse = authCodeClient.getTokenResponse(grantRequest);
+            success = true;
             logTokenResponse("exchangeCode:success", tokenResponse);
             return toMap(tokenResponse);
         } catch (OAuth2AuthorizationException ex) {
@@ -91,6 +157,7 @@ public class KeycloakClient {
                     err != null ? err.getDescription() : ex.getMessage());
             throw wrap("authorization_code", ex);
         } finally {
+            record(sample, "authorization_code", success);
             log.info("[exchangeCode:end] Completed code exchange flow");
         }
     }
@@ -101,14 +168,44 @@ public class KeycloakClient {
             log.warn("[refresh:validate] Missing refresh_token");
             throw new KeycloakClientException("invalid_request","Missing refresh_token",400, Map.of());
         }
+
+        Instant now = clock.instant();
+        refreshes.values().removeIf(r -> r.expired(now));
+        String key = digest(refreshTokenValue);
+        SharedRefresh candidate = new SharedRefresh();
+        SharedRefresh shared = refreshes.compute(key, (k, current) ->
+                current == null || current.expired(now) ? candidate : current);
+        if (shared != candidate) {
+            // 同一刷新令牌已有请求在进行或刚完成：共享其结果（轮换的刷新令牌只能成功使用一次）
+            coalescedRefreshes.increment();
+            log.info("[refresh:coalesced] Sharing concurrent refresh result. tokenMasked={}", safe(refreshTokenValue));
+            return new HashMap<>(shared.await());
+        }
+
+        try {
+            Map<String,Object> result = doRefresh(refreshTokenValue);
+            candidate.complete(result, clock.instant().plus(refreshShareWindow));
+            return new HashMap<>(result);
+        } catch (RuntimeException | Error e) {
+            // 失败不缓存：等待中的请求收到同样的错误，之后的请求重新刷新
+            refreshes.remove(key, candidate);
+            candidate.fail(e);
+            throw e;
+        }
+    }
+
+    private Map<String,Object> doRefresh(String refreshTokenValue) {
         OAuth2RefreshToken refreshToken = new OAuth2RefreshToken(refreshTokenValue, Instant.now().minusSeconds(60));
         OAuth2AccessToken dummyAccessToken = new OAuth2AccessToken(OAuth2AccessToken.TokenType.BEARER,
                 "expired", Instant.now().minusSeconds(3600), Instant.now().minusSeconds(300));
         OAuth2RefreshTokenGrantRequest refreshRequest = new OAuth2RefreshTokenGrantRequest(
                 clientRegistration, dummyAccessToken, refreshToken);
         log.info("[refresh:tokenRequest] Sending refresh_token grant to tokenUri={}", clientRegistration.getProviderDetails().getTokenUri());
+        Timer.Sample sample = Timer.start(meterRegistry);
+        boolean success = false;
         try {
             OAuth2AccessTokenResponse tokenResponse = refreshTokenClient.getTokenResponse(refreshRequest);
+            success = true;
             logTokenResponse("refresh:success", tokenResponse);
             return toMap(tokenResponse);
         } catch (OAuth2AuthorizationException ex) {
@@ -118,6 +215,7 @@ public class KeycloakClient {
                     err != null ? err.getDescription() : ex.getMessage());
             throw wrap("refresh_token", ex);
         } finally {
+            record(sample, "refresh_token", success);
             log.info("[refresh:end] Completed refresh flow");
         }
     }
@@ -144,16 +242,75 @@ public class KeycloakClient {
         HttpHeaders headers = new HttpHeaders();
         headers.setContentType(MediaType.APPLICATION_FORM_URLENCODED);
         HttpEntity<MultiValueMap<String,String>> entity = new HttpEntity<>(form, headers);
+        Timer.Sample sample = Timer.start(meterRegistry);
+        boolean success = false;
         try {
             restTemplate.postForEntity(logoutEndpoint, entity, Void.class);
+            success = true;
             log.info("[logout:success] Logout request accepted by server");
         } catch (Exception e) {
             log.error("[logout:error] Logout request failed: {}", e.getMessage());
         } finally {
+            record(sample, "logout", success);
             log.info("[logout:end] Completed logout flow");
         }
     }
 
+    private static String digest(String token) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            return HexFormat.of().formatHex(digest.digest(token.getBytes(StandardCharsets.UTF_8)));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+    }
+
+    /**
+     * 一次刷新：完成前 expiresAt 为空（不过期），完成后保留 share-window
+     */
+    private static final class SharedRefresh {
+        private final CompletableFuture<Map<String,Object>> result = new CompletableFuture<>();
+        private volatile Instant expiresAt;
+
+        void complete(Map<String,Object> value, Instant expiresAt) {
+            this.expiresAt = expiresAt;
+            result.complete(value);
+        }
+
+        void fail(Throwable e) {
+            result.completeExceptionally(e);
+        }
+
+        boolean expired(Instant now) {
+            Instant at = expiresAt;
+            return at != null && !now.isBefore(at);
+        }
+
+        Map<String,Object> await() {
+            try {
+                return result.join();
+            } catch (CompletionException e) {
+                if (e.getCause() instanceof RuntimeException cause) {
+                    throw cause;
+                }
+                if (e.getCause() instanceof Error cause) {
+                    throw cause;
+                }
+                throw e;
+            }
+        }
+    }
+
+    // 按端点和结果记录 Keycloak 请求耗时（含超时失败）
+    private void record(Timer.Sample sample, String endpoint, boolean success) {
+        sample.stop(Timer.builder("ntdoc.keycloak.requests")
+                .description("Latency of token exchange, refresh and logout calls to Keycloak")
+                .tag("endpoint", endpoint)
+                .tag("outcome", success ? "success" : "error")
+                .publishPercentileHistogram()
+                .register(meterRegistry));
+    }
+
     private void logTokenResponse(String phase, OAuth2AccessTokenResponse resp) {
         if (resp == null) {
             log.warn("[{}] Token response is null", phase);
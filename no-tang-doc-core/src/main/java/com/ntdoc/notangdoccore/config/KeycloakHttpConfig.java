@@ -0,0 +1,32 @@
+package com.ntdoc.notangdoccore.config;
+
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.http.client.JdkClientHttpRequestFactory;
+
+import java.net.http.HttpClient;
+
+/**
+ * Keycloak 令牌端点共用的 HTTP 客户端：连接复用（keep-alive 连接池）并设置连接、读取超时，
+ * Keycloak 变慢时 /api/auth/** 的请求线程最多等待 read-timeout
+ */
+@Configuration
+public class KeycloakHttpConfig {
+
+    @Bean(destroyMethod = "close")
+    public HttpClient keycloakHttpClient(KeycloakProperties properties) {
+        return HttpClient.newBuilder()
+                .version(HttpClient.Version.HTTP_1_1)
+                .connectTimeout(properties.getHttp().getConnectTimeout())
+                .followRedirects(HttpClient.Redirect.NEVER)
+                .build();
+    }
+
+    @Bean
+    public JdkClientHttpRequestFactory keycloakRequestFactory(HttpClient keycloakHttpClient,
+                                                              KeycloakProperties properties) {
+        JdkClientHttpRequestFactory factory = new JdkClientHttpRequestFactory(keycloakHttpClient);
+        factory.setReadTimeout(properties.getHttp().getReadTimeout());
+        return factory;
+    }
+}
@@ -3,6 +3,8 @@ package com.ntdoc.notangdoccore.config;
 import lombok.Data;
 import org.springframework.boot.context.properties.ConfigurationProperties;
 
+import java.time.Duration;
+
 @Data
 @ConfigurationProperties(prefix = "keycloak")
 public class KeycloakProperties {
@@ -10,6 +12,9 @@ public class KeycloakProperties {
     private String authServerUrl;
     private Admin admin = new Admin();
     private Client client = new Client();
+    private Provisioning provisioning = new Provisioning();
+    private Http http = new Http();
+    private Refresh refresh = new Refresh();
 
     @Data
     public static class Admin {
@@ -17,6 +22,10 @@ public class KeycloakProperties {
         private String username;
         private String password;
         private String clientId = "admin-cli"; // 使用内置 admin-cli
+        private int connectionPoolSize = 20; // 管理客户端 HTTP 连接池大小
+        private Duration connectTimeout = Duration.ofSeconds(5);
+        private Duration readTimeout = Duration.ofSeconds(10);
+        private Duration tokenMinValidity = Duration.ofSeconds(30); // 管理令牌剩余有效期低于此值时提前刷新
     }
 
     @Data
@@ -24,5 +33,22 @@ public class KeycloakProperties {
         private String id;
         private String secret; // 可能为空（public client）
     }
-}
 
+    @Data
+    public static class Provisioning {
+        private int threads = 4; // 同时向 Keycloak 创建用户的线程数
+        private int queueCapacity = 200; // 排队中的注册请求上限，超出直接拒绝
+        private Duration timeout = Duration.ofSeconds(30); // 注册请求在队列中的最长等待时间，开始创建后不再超时
+    }
+
+    @Data
+    public static class Http {
+        private Duration connectTimeout = Duration.ofSeconds(3); // 令牌交换、刷新、登出请求的连接超时
+        private Duration readTimeout = Duration.ofSeconds(10); // 等待 Keycloak 响应的最长时间
+    }
+
+    @Data
+    public static class Refresh {
+        private Duration shareWindow = Duration.ofSeconds(5); // 同一刷新令牌的刷新结果在此时间内共享给并发请求
+    }
+}
@@ -0,0 +1,50 @@
+package com.ntdoc.notangdoccore.config;
+
+import com.ntdoc.notangdoccore.dto.document.MetadataCondition;
+import jakarta.annotation.PostConstruct;
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.regex.Pattern;
+
+/**
+ * 文档元数据配置
+ * indexed-keys 列出已在 document 表上提升为生成列（并建索引）的元数据键；
+ * 新增提升键需同时添加 Liquibase 生成列变更，查询会直接使用该列命中索引
+ */
+@Component
+@ConfigurationProperties(prefix = "ntdoc.metadata")
+@Data
+public class MetadataProperties {
+
+    private static final Pattern COLUMN_NAME = Pattern.compile("^[a-z_][a-z0-9_]*$");
+
+    private List<IndexedKey> indexedKeys = new ArrayList<>();
+
+    @Data
+    public static class IndexedKey {
+        private String key;                                                // 元数据键
+        private String column;                                             // 生成列名
+        private MetadataCondition.ValueType type = MetadataCondition.ValueType.STRING;
+    }
+
+    // 列名会拼接进 SQL，启动时校验
+    @PostConstruct
+    void validate() {
+        for (IndexedKey indexedKey : indexedKeys) {
+            if (indexedKey.getColumn() == null || !COLUMN_NAME.matcher(indexedKey.getColumn()).matches()) {
+                throw new IllegalStateException("Invalid metadata column name: " + indexedKey.getColumn());
+            }
+        }
+    }
+
+    public Optional<IndexedKey> findIndexedKey(String key) {
+        return indexedKeys.stream()
+                .filter(k -> k.getKey().equals(key))
+                .findFirst();
+    }
+}
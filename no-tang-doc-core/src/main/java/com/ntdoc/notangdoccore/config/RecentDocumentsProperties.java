@@ -0,0 +1,17 @@
+package com.ntdoc.notangdoccore.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+/**
+ * 最近使用文档（内存环形缓冲）配置
+ */
+@Component
+@ConfigurationProperties(prefix = "ntdoc.recent-documents")
+@Data
+public class RecentDocumentsProperties {
+    private int capacity = 50;          // 每个用户保留的最近文档数
+    private int maxUsers = 10_000;      // 内存中最多保留的用户数，超出按最久未访问淘汰
+    private int rebuildScanLimit = 500; // 从日志表重建时最多扫描的日志条数
+}
@@ -0,0 +1,14 @@
+package com.ntdoc.notangdoccore.config;
+
+import lombok.NoArgsConstructor;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Profile;
+import org.springframework.scheduling.annotation.EnableScheduling;
+
+//定时任务支持配置（索引提交、对账、清理等后台任务）
+@EnableScheduling
+@Configuration
+@NoArgsConstructor
+@Profile("!test")
+public class SchedulingConfig {
+}
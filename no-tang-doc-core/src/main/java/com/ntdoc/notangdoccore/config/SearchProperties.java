@@ -0,0 +1,18 @@
+package com.ntdoc.notangdoccore.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+/**
+ * 全文检索配置（Lucene 本地索引）
+ */
+@Component
+@ConfigurationProperties(prefix = "ntdoc.search")
+@Data
+public class SearchProperties {
+    private String indexDir = "data/search-index"; // 索引目录
+    private boolean rebuildOnStartup = true;       // 启动时若索引为空则从数据库重建
+    private int rebuildBatchSize = 500;            // 重建时每批加载的文档数
+    private int maxPageSize = 100;                 // 单次查询最大返回条数
+}
@@ -1,8 +1,7 @@
 package com.ntdoc.notangdoccore.config;
 
-import com.ntdoc.notangdoccore.security.KeycloakJwtGrantedAuthoritiesConverter;
+import com.ntdoc.notangdoccore.security.CachingJwtDecoder;
 import org.springframework.beans.factory.annotation.Autowired;
-import org.springframework.beans.factory.annotation.Value;
 import org.springframework.boot.context.properties.EnableConfigurationProperties;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
@@ -29,9 +28,6 @@ public class SecurityConfig {
     @Autowired
     private CorsProps corsProps;
 
-    @Value("${spring.security.oauth2.client.registration.keycloak.client-id}")
-    private String keycloakClientId;
-
     @Bean
     public SecurityFilterChain securityFilterChain(HttpSecurity http,
                                                    JwtAuthenticationConverter jwtAuthenticationConverter) throws Exception {
@@ -58,10 +54,13 @@ public class SecurityConfig {
         return http.build();
     }
 
+    /**
+     * 权限随已验证的令牌一起缓存，见 {@link JwtDecoderConfig}
+     */
     @Bean
-    public JwtAuthenticationConverter jwtAuthenticationConverter() {
+    public JwtAuthenticationConverter jwtAuthenticationConverter(CachingJwtDecoder jwtDecoder) {
         JwtAuthenticationConverter converter = new JwtAuthenticationConverter();
-        converter.setJwtGrantedAuthoritiesConverter(new KeycloakJwtGrantedAuthoritiesConverter(keycloakClientId));
+        converter.setJwtGrantedAuthoritiesConverter(jwtDecoder::authorities);
         return converter;
     }
 
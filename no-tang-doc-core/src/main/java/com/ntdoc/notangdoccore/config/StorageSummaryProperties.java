@@ -0,0 +1,15 @@
+package com.ntdoc.notangdoccore.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+/**
+ * 用户存储汇总配置
+ */
+@Component
+@ConfigurationProperties(prefix = "ntdoc.storage-summary")
+@Data
+public class StorageSummaryProperties {
+    private int reconcileBatchSize = 500;  // 对账时每批检查的用户ID区间大小
+}
@@ -0,0 +1,18 @@
+package com.ntdoc.notangdoccore.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+
+/**
+ * 团队权限（teamId + 用户 -> 角色、状态）缓存配置
+ */
+@Component
+@ConfigurationProperties(prefix = "ntdoc.team-access")
+@Data
+public class TeamAccessProperties {
+    private int maxEntries = 20_000;              // 最多缓存的 (团队, 用户) 组合，超出按最久未访问淘汰
+    private Duration ttl = Duration.ofMinutes(5); // 缓存有效期，兜底其他实例上的成员变更
+}
@@ -0,0 +1,15 @@
+package com.ntdoc.notangdoccore.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+/**
+ * 团队成员数对账配置
+ */
+@Component
+@ConfigurationProperties(prefix = "ntdoc.team-member-count")
+@Data
+public class TeamMemberCountProperties {
+    private int reconcileBatchSize = 1000;  // 对账时每批检查的团队ID区间大小
+}
@@ -0,0 +1,18 @@
+package com.ntdoc.notangdoccore.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+
+/**
+ * 文档回收站配置
+ */
+@Component
+@ConfigurationProperties(prefix = "ntdoc.trash")
+@Data
+public class TrashProperties {
+    private Duration retention = Duration.ofDays(30);  // 删除后可恢复的期限
+    private int purgeBatchSize = 500;                  // 清理任务每批物理删除的文档数
+}
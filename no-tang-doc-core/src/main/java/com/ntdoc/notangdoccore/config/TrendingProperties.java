@@ -0,0 +1,19 @@
+package com.ntdoc.notangdoccore.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+/**
+ * 热门文档（Count-Min Sketch + Top-K）配置
+ */
+@Component
+@ConfigurationProperties(prefix = "ntdoc.trending")
+@Data
+public class TrendingProperties {
+    private int topK = 50;              // 每个窗口保留的候选文档数，也是单次查询的最大条数
+    private int sketchDepth = 4;        // Sketch 行数
+    private int sketchWidth = 2048;     // 全站 Sketch 每行的计数器数
+    private int teamSketchWidth = 128;  // 团队 Sketch 每行的计数器数（团队内文档少，可以更窄）
+    private int maxTeams = 200;         // 内存中最多跟踪的团队数，超出按最久未访问淘汰
+}
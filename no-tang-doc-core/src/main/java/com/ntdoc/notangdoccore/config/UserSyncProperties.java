@@ -0,0 +1,20 @@
+package com.ntdoc.notangdoccore.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+
+/**
+ * 从 Keycloak 同步用户目录的配置
+ */
+@Component
+@ConfigurationProperties(prefix = "ntdoc.user-sync")
+@Data
+public class UserSyncProperties {
+    private boolean enabled = true;
+    private int pageSize = 100;                          // 每页从 Keycloak 读取的用户数，每页一个事务写入
+    private Duration pageDelay = Duration.ofMillis(200); // 两页之间的间隔，限制对 Keycloak 和数据库的压力
+    private int maxPagesPerRun = 50;                     // 单次任务最多同步的页数，未完成的部分下次继续
+}
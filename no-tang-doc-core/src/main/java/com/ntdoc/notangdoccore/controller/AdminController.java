@@ -0,0 +1,100 @@
+package com.ntdoc.notangdoccore.controller;
+
+import com.ntdoc.notangdoccore.dto.common.ApiResponse;
+import com.ntdoc.notangdoccore.service.DocumentSearchService;
+import com.ntdoc.notangdoccore.service.StorageSummaryService;
+import com.ntdoc.notangdoccore.service.TagBitmapIndexService;
+import com.ntdoc.notangdoccore.service.TagSuggestionService;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+/**
+ * 管理员运维接口（/api/admin/** 需要 ADMIN 角色）
+ */
+@Slf4j
+@RestController
+@RequestMapping("/api/admin")
+@RequiredArgsConstructor
+@Tag(name = "系统管理", description = "索引重建、数据对账等运维操作")
+public class AdminController {
+
+    private final DocumentSearchService documentSearchService;
+    private final StorageSummaryService storageSummaryService;
+    private final TagBitmapIndexService tagBitmapIndexService;
+    private final TagSuggestionService tagSuggestionService;
+
+    /**
+     * 从数据库全量重建全文检索索引
+     */
+    @PostMapping("/search/reindex")
+    @Operation(summary = "重建全文检索索引", description = "从数据库全量重建 Lucene 索引")
+    public ResponseEntity<ApiResponse<Long>> rebuildSearchIndex() {
+        try {
+            log.info("Received request to rebuild search index");
+            long count = documentSearchService.rebuildIndex();
+            return ResponseEntity.ok(ApiResponse.success("索引重建成功", count));
+        } catch (Exception e) {
+            log.error("Failed to rebuild search index", e);
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
+                    .body(ApiResponse.error(500, "索引重建失败: " + e.getMessage()));
+        }
+    }
+
+    /**
+     * 立即对账用户存储汇总（平时由定时任务执行）
+     */
+    @PostMapping("/storage/reconcile")
+    @Operation(summary = "对账存储汇总", description = "按文档表重新核对用户存储汇总并修复偏差")
+    public ResponseEntity<ApiResponse<Long>> reconcileStorageSummary() {
+        try {
+            log.info("Received request to reconcile storage summary");
+            long repaired = storageSummaryService.reconcile();
+            return ResponseEntity.ok(ApiResponse.success("对账完成", repaired));
+        } catch (Exception e) {
+            log.error("Failed to reconcile storage summary", e);
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
+                    .body(ApiResponse.error(500, "对账失败: " + e.getMessage()));
+        }
+    }
+
+    /**
+     * 从数据库重建内存标签位图索引
+     */
+    @PostMapping("/tags/reindex")
+    @Operation(summary = "重建标签索引", description = "从数据库重建内存标签位图索引")
+    public ResponseEntity<ApiResponse<Long>> rebuildTagIndex() {
+        try {
+            log.info("Received request to rebuild tag index");
+            long count = tagBitmapIndexService.rebuild();
+            return ResponseEntity.ok(ApiResponse.success("标签索引重建成功", count));
+        } catch (Exception e) {
+            log.error("Failed to rebuild tag index", e);
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
+                    .body(ApiResponse.error(500, "标签索引重建失败: " + e.getMessage()));
+        }
+    }
+
+    /**
+     * 从数据库重建标签自动补全索引
+     */
+    @PostMapping("/tags/suggest/reindex")
+    @Operation(summary = "重建标签补全索引", description = "从数据库重新统计标签使用次数")
+    public ResponseEntity<ApiResponse<Long>> rebuildTagSuggestionIndex() {
+        try {
+            log.info("Received request to rebuild tag suggestion index");
+            long count = tagSuggestionService.rebuild();
+            return ResponseEntity.ok(ApiResponse.success("标签补全索引重建成功", count));
+        } catch (Exception e) {
+            log.error("Failed to rebuild tag suggestion index", e);
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
+                    .body(ApiResponse.error(500, "标签补全索引重建失败: " + e.getMessage()));
+        }
+    }
+}
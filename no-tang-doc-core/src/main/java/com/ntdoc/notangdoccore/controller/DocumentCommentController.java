@@ -6,17 +6,20 @@ import com.ntdoc.notangdoccore.entity.Document;
 import com.ntdoc.notangdoccore.entity.DocumentComment;
 import com.ntdoc.notangdoccore.repository.DocumentRepository;
 import com.ntdoc.notangdoccore.service.DocumentCommentService;
+import com.ntdoc.notangdoccore.service.ResourceVersionService;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.Parameter;
 import io.swagger.v3.oas.annotations.tags.Tag;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.CacheControl;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.core.annotation.AuthenticationPrincipal;
 import org.springframework.security.oauth2.jwt.Jwt;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
 
 import java.util.List;
 
@@ -32,6 +35,7 @@ public class DocumentCommentController {
 
     private final DocumentCommentService commentService;
     private final DocumentRepository documentRepository;
+    private final ResourceVersionService resourceVersionService;
 
     /**
      * 创建文档评论
@@ -91,7 +95,8 @@ public class DocumentCommentController {
             @PathVariable Long documentId,
             @Parameter(description = "团队ID（可选）")
             @RequestParam(value = "teamId", required = false) Long teamId,
-            @AuthenticationPrincipal Jwt jwt) {
+            @AuthenticationPrincipal Jwt jwt,
+            WebRequest webRequest) {
 
         try {
             log.info("Received request to get comments: documentId={}, teamId={}",
@@ -99,6 +104,12 @@ public class DocumentCommentController {
 
             String userKcId = jwt.getClaimAsString("sub");
 
+            // ETag 绑定调用者，不同用户之间不能复用；评论未变化时直接返回 304
+            String etag = resourceVersionService.etag(ResourceVersionService.Scope.COMMENTS, documentId, teamId, userKcId);
+            if (etag != null && webRequest.checkNotModified(etag)) {
+                return ResponseEntity.status(HttpStatus.NOT_MODIFIED).build();
+            }
+
             List<DocumentComment> comments = commentService.getDocumentComments(
                     documentId, teamId, userKcId);
 
@@ -115,7 +126,9 @@ public class DocumentCommentController {
             log.info("Retrieved {} comments for document: documentId={}",
                     comments.size(), documentId);
 
-            return ResponseEntity.ok(ApiResponse.success("获取评论列表成功", response));
+            return ResponseEntity.ok()
+                    .cacheControl(CacheControl.noCache().cachePrivate())
+                    .body(ApiResponse.success("获取评论列表成功", response));
 
         } catch (SecurityException e) {
             log.warn("Access denied for getting comments: documentId={}", documentId);
@@ -1,10 +1,18 @@
 package com.ntdoc.notangdoccore.controller;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.ntdoc.notangdoccore.common.NdjsonWriter;
+import com.ntdoc.notangdoccore.common.SparseFields;
 import com.ntdoc.notangdoccore.dto.common.ApiResponse;
 import com.ntdoc.notangdoccore.dto.document.*;
+import com.ntdoc.notangdoccore.dto.storage.StorageSummaryResponse;
 import com.ntdoc.notangdoccore.entity.Document;
+import com.ntdoc.notangdoccore.exception.DocumentException;
 import com.ntdoc.notangdoccore.service.DocumentService;
 import com.ntdoc.notangdoccore.service.DocumentTagService;
+import com.ntdoc.notangdoccore.service.RecentDocumentService;
+import com.ntdoc.notangdoccore.service.ResourceVersionService;
+import com.ntdoc.notangdoccore.service.StorageSummaryService;
 import com.ntdoc.notangdoccore.service.UserSyncService;
 import com.ntdoc.notangdoccore.entity.Tag;
 import com.ntdoc.notangdoccore.service.impl.UserSyncServiceImpl;
@@ -17,18 +25,28 @@ import jakarta.validation.constraints.Pattern;
 import jakarta.validation.constraints.Size;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+import org.springframework.http.CacheControl;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.core.annotation.AuthenticationPrincipal;
 import org.springframework.security.oauth2.jwt.Jwt;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
 import org.springframework.web.multipart.MultipartFile;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
 import java.net.URL;
 import java.time.Duration;
 import java.time.Instant;
 import java.util.List;
+import java.util.Set;
+import java.util.function.Consumer;
 import java.util.stream.Collectors;
 
 @Slf4j
@@ -41,6 +59,15 @@ public class DocumentController {
 
     private final FileStorageService digitalOceanSpacesService;
     private final DocumentTagService documentTagService;
+    private final StorageSummaryService storageSummaryService;
+    private final RecentDocumentService recentDocumentService;
+    private final ResourceVersionService resourceVersionService;
+    private final ObjectMapper objectMapper;
+
+    private static final int MAX_FILTER_PAGE_SIZE = 100;
+
+    @Value("${ntdoc.trash.retention:30d}")
+    private Duration trashRetention;
 
     //文档上传
     @PostMapping(value = "/upload", consumes = MediaType.MULTIPART_FORM_DATA_VALUE)
@@ -133,14 +160,41 @@ public class DocumentController {
 
     /**
      * 获取指定用户的所有文档，支持按状态过滤
+     * 带 If-None-Match 且文档列表未变化时直接返回 304，不加载文档
+     * 指定 fields 时只查询并返回这些字段（documentId 总是返回）
      */
     @GetMapping
     public ResponseEntity<DocumentListResponse> getUserDocuments(
             @AuthenticationPrincipal Jwt jwt,
-            @RequestParam(value = "status", required = false) Document.DocumentStatus status
+            @RequestParam(value = "status", required = false) Document.DocumentStatus status,
+            @Parameter(description = "返回的字段，逗号分隔，如 documentId,fileName")
+            @RequestParam(value = "fields", required = false) String fields,
+            WebRequest webRequest
     ) {
         String kcUserId = jwt.getClaimAsString("sub"); // 从JWT中获取Keycloak用户ID（还需确定是否时sub）
 
+        Set<String> fieldSet;
+        try {
+            fieldSet = SparseFields.parse(fields, DocumentTagResponse.FIELDS);
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(DocumentListResponse.builder()
+                    .code(400)
+                    .message(e.getMessage())
+                    .data(DocumentListResponse.Data.builder().build())
+                    .build());
+        }
+
+        String etag = resourceVersionService.userEtag(ResourceVersionService.Scope.DOCUMENTS, kcUserId, status, fieldSet);
+        if (etag != null && webRequest.checkNotModified(etag)) {
+            return ResponseEntity.status(HttpStatus.NOT_MODIFIED).build();
+        }
+
+        if (fieldSet != null) {
+            DocumentListResponse response = DocumentListResponse.fromResponses(
+                    documentService.getUserDocumentFields(kcUserId, status, fieldSet));
+            return ResponseEntity.ok().cacheControl(CacheControl.noCache().cachePrivate()).body(response);
+        }
+
         List<Document> documents;
         // 根据是否提供状态参数，选择调用不同的方法
         if (status != null) {
@@ -152,7 +206,21 @@ public class DocumentController {
         // 直接传 Document 列表，让 fromDocuments 内部转换
         DocumentListResponse response = DocumentListResponse.fromDocuments(documents);
 
-        return ResponseEntity.ok(response);
+        // 允许浏览器缓存，但每次使用前必须用 ETag 重新验证
+        return ResponseEntity.ok().cacheControl(CacheControl.noCache().cachePrivate()).body(response);
+    }
+
+    /**
+     * 文档列表的 NDJSON 版本（Accept: application/x-ndjson），每行一个文档，边查边写
+     */
+    @GetMapping(produces = MediaType.APPLICATION_NDJSON_VALUE)
+    @Operation(summary = "流式获取文档列表", description = "每行一个文档的 JSON，适合大量文档")
+    public ResponseEntity<StreamingResponseBody> streamUserDocuments(
+            @AuthenticationPrincipal Jwt jwt,
+            @RequestParam(value = "status", required = false) Document.DocumentStatus status
+    ) {
+        String kcUserId = jwt.getClaimAsString("sub");
+        return ndjson(writer -> documentService.streamUserDocuments(kcUserId, status, writer::write));
     }
 
     /**
@@ -168,15 +236,16 @@ public class DocumentController {
             Document document = documentService.getDocumentById(documentId, kcUserId);
 
             documentService.deleteDocument(documentId, kcUserId);
+            Instant deletedAt = Instant.now();
 
             DeleteDocumentResponse response = DeleteDocumentResponse.builder()
                     .code(200)
                     .message("文档删除成功")
                     .documentId(documentId)
                     .fileName(document.getOriginalFilename()) //.fileName(jwt.getClaimAsString("filename"))
-                    .deletedAt(Instant.now())
+                    .deletedAt(deletedAt)
                     .permanent(false)
-                    .recoveryDeadline(Instant.now().plusSeconds(30 * 24 * 3600)) // 30天恢复期
+                    .recoveryDeadline(deletedAt.plus(trashRetention))
                     .build();
 
             return ResponseEntity.ok(response);
@@ -192,6 +261,34 @@ public class DocumentController {
         }
     }
 
+    /**
+     * 从回收站恢复文档
+     */
+    @PostMapping("/{documentId}/restore")
+    @Operation(summary = "恢复已删除的文档", description = "只能在恢复期限内恢复")
+    public ResponseEntity<ApiResponse<DocumentTagResponse>> restoreDocument(
+            @PathVariable Long documentId,
+            @AuthenticationPrincipal Jwt jwt) {
+        try {
+            String kcUserId = jwt.getClaimAsString("sub");
+            Document restored = documentService.restoreDocument(documentId, kcUserId);
+            return ResponseEntity.ok(ApiResponse.success("文档恢复成功", DocumentTagResponse.form(restored)));
+        } catch (DocumentException.DocumentNotFoundException e) {
+            return ResponseEntity.status(HttpStatus.NOT_FOUND)
+                    .body(ApiResponse.error(404, e.getMessage()));
+        } catch (DocumentException.DocumentAccessDeniedException e) {
+            return ResponseEntity.status(HttpStatus.FORBIDDEN)
+                    .body(ApiResponse.error(403, e.getMessage()));
+        } catch (IllegalStateException e) {
+            return ResponseEntity.status(HttpStatus.CONFLICT)
+                    .body(ApiResponse.error(409, e.getMessage()));
+        } catch (Exception e) {
+            log.error("Failed to restore document: documentId={}", documentId, e);
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
+                    .body(ApiResponse.error(500, "恢复文档失败: " + e.getMessage()));
+        }
+    }
+
     // 生成分享链接
     @GetMapping("/share")
     public ResponseEntity<DocumentShareResponse> generatePreviewShareLink(
@@ -328,6 +425,73 @@ public class DocumentController {
                     .body(DocumentListResponse.error("Get documents by tag fail: " + e.getMessage()));
         }
     }
+
+    @GetMapping(value = "/by-tag/{tagName}", produces = MediaType.APPLICATION_NDJSON_VALUE)
+    @Operation(summary = "根据标签名流式获取文档列表", description = "每行一个文档的 JSON")
+    public ResponseEntity<StreamingResponseBody> streamDocumentsByTag(
+            @PathVariable String tagName,
+            @AuthenticationPrincipal Jwt jwt
+    ) {
+        String kcUserId = jwt.getClaimAsString("sub");
+        return ndjson(writer -> documentService.streamDocumentsByTag(kcUserId, tagName, writer::write));
+    }
+
+    /**
+     * 布尔标签查询，例如 contract AND 2024 AND NOT draft
+     */
+    @GetMapping("/by-tags")
+    @Operation(summary = "按标签表达式查询文档", description = "支持 AND / OR / NOT 与括号，结果按上传时间倒序分页")
+    public ResponseEntity<DocumentListResponse> queryByTagExpression(
+            @AuthenticationPrincipal Jwt jwt,
+            @RequestParam("q") String expression,
+            @RequestParam(value = "page", defaultValue = "0") int page,
+            @RequestParam(value = "size", defaultValue = "20") int size
+    ) {
+        String kcUserId = jwt.getClaimAsString("sub");
+        Pageable pageable = PageRequest.of(Math.max(page, 0), Math.min(Math.max(size, 1), MAX_FILTER_PAGE_SIZE));
+        try {
+            Page<Document> docs = documentTagService.queryByTagExpression(expression, kcUserId, pageable);
+            return ResponseEntity.ok(DocumentListResponse.fromPage(docs, null));
+        } catch (IllegalArgumentException e) {
+            log.warn("Invalid tag expression '{}': {}", expression, e.getMessage());
+            return ResponseEntity.badRequest().body(DocumentListResponse.builder()
+                    .code(400)
+                    .message(e.getMessage())
+                    .data(DocumentListResponse.Data.builder().build())
+                    .build());
+        } catch (IllegalStateException e) {
+            return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE).body(DocumentListResponse.builder()
+                    .code(503)
+                    .message(e.getMessage())
+                    .data(DocumentListResponse.Data.builder().build())
+                    .build());
+        }
+    }
+
+    /**
+     * 标签自动补全（内存前缀索引，不访问数据库）
+     */
+    @GetMapping("/tags/suggest")
+    @Operation(summary = "标签自动补全", description = "按前缀返回最常用的标签，自己用过的排在前面")
+    public ResponseEntity<ApiResponse<List<TagSuggestionResponse>>> suggestTags(
+            @AuthenticationPrincipal Jwt jwt,
+            @RequestParam(value = "prefix", defaultValue = "") String prefix,
+            @RequestParam(value = "limit", defaultValue = "10") int limit
+    ) {
+        try {
+            String kcUserId = jwt.getClaimAsString("sub");
+            List<TagSuggestionResponse> suggestions = documentTagService.suggestTags(prefix, limit, kcUserId);
+            return ResponseEntity.ok(ApiResponse.success("查询成功", suggestions));
+        } catch (IllegalStateException e) {
+            return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                    .body(ApiResponse.error(503, e.getMessage()));
+        } catch (Exception e) {
+            log.error("Failed to suggest tags for prefix '{}'", prefix, e);
+            return ResponseEntity.internalServerError()
+                    .body(ApiResponse.error(500, "标签补全失败: " + e.getMessage()));
+        }
+    }
+
     /**
      * 根据文件名搜索文档
      */
@@ -343,24 +507,167 @@ public class DocumentController {
     }
 
     /**
-     * 根据所有者、文件类型、上传日期进行过滤
+     * 全文检索：文件名、描述、标签、元数据，按相关度排序
+     */
+    @GetMapping("/fulltext")
+    @Operation(summary = "全文检索文档", description = "支持前缀与模糊匹配，按相关度排序")
+    public ResponseEntity<DocumentListResponse> fullTextSearch(
+            @AuthenticationPrincipal Jwt jwt,
+            @RequestParam("q") String query,
+            @RequestParam(value = "page", defaultValue = "0") int page,
+            @RequestParam(value = "size", defaultValue = "20") int size
+    ) {
+        String kcUserId = jwt.getClaimAsString("sub");
+        List<Document> docs = documentService.searchDocuments(kcUserId, query, page, size);
+        DocumentListResponse response = DocumentListResponse.fromDocuments(docs);
+        return ResponseEntity.ok(response);
+    }
+
+    /**
+     * 当前用户的存储汇总（读取预先维护的汇总行，不扫描文档表）
+     */
+    @GetMapping("/storage")
+    @Operation(summary = "我的存储", description = "按状态的文档数、总占用空间及按文件类型的占用")
+    public ResponseEntity<ApiResponse<StorageSummaryResponse>> getMyStorage(@AuthenticationPrincipal Jwt jwt) {
+        try {
+            String kcUserId = jwt.getClaimAsString("sub");
+            StorageSummaryResponse summary = storageSummaryService.getSummary(kcUserId);
+            return ResponseEntity.ok(ApiResponse.success("获取存储汇总成功", summary));
+        } catch (Exception e) {
+            log.error("Failed to get storage summary", e);
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
+                    .body(ApiResponse.error(500, "获取存储汇总失败: " + e.getMessage()));
+        }
+    }
+
+    /**
+     * 最近使用的文档（上传、下载、分享等），读取内存缓冲
+     */
+    @GetMapping("/recent")
+    @Operation(summary = "最近使用的文档", description = "按最近一次操作时间倒序，同一文档只出现一次")
+    public ResponseEntity<ApiResponse<List<RecentDocumentResponse>>> getRecentDocuments(
+            @AuthenticationPrincipal Jwt jwt,
+            @RequestParam(value = "limit", defaultValue = "20") int limit
+    ) {
+        try {
+            String kcUserId = jwt.getClaimAsString("sub");
+            List<RecentDocumentResponse> recent = recentDocumentService.getRecentDocuments(kcUserId, limit);
+            return ResponseEntity.ok(ApiResponse.success("查询成功", recent));
+        } catch (Exception e) {
+            log.error("Failed to get recent documents", e);
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
+                    .body(ApiResponse.error(500, "获取最近文档失败: " + e.getMessage()));
+        }
+    }
+
+    /**
+     * 按ID批量获取文档元数据，结果与请求顺序一致
+     */
+    @PostMapping("/batch")
+    @Operation(summary = "批量获取文档", description = "最多 200 个ID；不存在或已删除标记为 NOT_FOUND，他人文档标记为 FORBIDDEN")
+    public ResponseEntity<ApiResponse<List<DocumentBatchItem>>> getDocumentsByIds(
+            @AuthenticationPrincipal Jwt jwt,
+            @RequestBody DocumentBatchRequest request
+    ) {
+        try {
+            String kcUserId = jwt.getClaimAsString("sub");
+            List<DocumentBatchItem> items = documentService.getDocumentsByIds(kcUserId, request.getDocumentIds());
+            return ResponseEntity.ok(ApiResponse.success("查询成功", items));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(ApiResponse.error(400, e.getMessage()));
+        } catch (Exception e) {
+            log.error("Failed to batch get documents", e);
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
+                    .body(ApiResponse.error(500, "批量获取文档失败: " + e.getMessage()));
+        }
+    }
+
+    /**
+     * 按元数据条件查询（等值、数值/日期范围），条件之间为 AND
+     */
+    @PostMapping("/metadata/query")
+    @Operation(summary = "按元数据查询文档", description = "支持 EQ/GT/GTE/LT/LTE/BETWEEN，值类型 STRING/NUMBER/DATE")
+    public ResponseEntity<DocumentListResponse> queryByMetadata(
+            @AuthenticationPrincipal Jwt jwt,
+            @RequestBody MetadataQueryRequest request
+    ) {
+        String kcUserId = jwt.getClaimAsString("sub");
+        Pageable pageable = PageRequest.of(Math.max(request.getPage(), 0),
+                Math.min(Math.max(request.getSize(), 1), MAX_FILTER_PAGE_SIZE));
+        try {
+            Page<Document> docs = documentService.queryByMetadata(kcUserId, request.getConditions(), pageable);
+            return ResponseEntity.ok(DocumentListResponse.fromPage(docs, null));
+        } catch (IllegalArgumentException e) {
+            log.warn("Invalid metadata query: {}", e.getMessage());
+            return ResponseEntity.badRequest().body(DocumentListResponse.builder()
+                    .code(400)
+                    .message(e.getMessage())
+                    .data(DocumentListResponse.Data.builder().build())
+                    .build());
+        }
+    }
+
+    /**
+     * 根据所有者、文件类型、标签、上传日期进行过滤
+     * 分页返回结果，并附带各分面（文件类型、标签、上传月份、文件大小区间）的计数
      */
     @GetMapping("/filter")
+    @Operation(summary = "过滤文档", description = "分页返回过滤结果，facets=true 时附带分面计数")
     public ResponseEntity<DocumentListResponse> filterDocuments(
             @AuthenticationPrincipal Jwt jwt,
             @RequestParam(value = "contentType", required = false) String contentType,
+            @RequestParam(value = "tag", required = false) String tag,
             @RequestParam(value = "startDate", required = false) String startDateStr,
-            @RequestParam(value = "endDate", required = false) String endDateStr
+            @RequestParam(value = "endDate", required = false) String endDateStr,
+            @RequestParam(value = "page", defaultValue = "0") int page,
+            @RequestParam(value = "size", defaultValue = "20") int size,
+            @RequestParam(value = "facets", defaultValue = "true") boolean facets
     ) {
         String kcUserId = jwt.getClaimAsString("sub");
 
         Instant start = startDateStr != null ? Instant.parse(startDateStr) : null;
         Instant end = endDateStr != null ? Instant.parse(endDateStr) : null;
 
-        List<Document> docs = documentService.filterDocuments(kcUserId, contentType, start, end);
+        Pageable pageable = PageRequest.of(Math.max(page, 0), Math.min(Math.max(size, 1), MAX_FILTER_PAGE_SIZE),
+                Sort.by(Sort.Direction.DESC, "createdAt"));
+        Page<Document> docs = documentService.filterDocuments(kcUserId, contentType, tag, start, end, pageable);
+        DocumentFacetResponse facetCounts = facets
+                ? documentService.getFilterFacets(kcUserId, contentType, tag, start, end)
+                : null;
 
-        DocumentListResponse response = DocumentListResponse.fromDocuments(docs);
+        DocumentListResponse response = DocumentListResponse.fromPage(docs, facetCounts);
         return ResponseEntity.ok(response);
     }
 
+    /**
+     * 过滤结果的 NDJSON 版本：不分页、不带分面，按上传时间倒序输出全部结果
+     */
+    @GetMapping(value = "/filter", produces = MediaType.APPLICATION_NDJSON_VALUE)
+    @Operation(summary = "流式过滤文档", description = "每行一个文档的 JSON，返回全部过滤结果")
+    public ResponseEntity<StreamingResponseBody> streamFilteredDocuments(
+            @AuthenticationPrincipal Jwt jwt,
+            @RequestParam(value = "contentType", required = false) String contentType,
+            @RequestParam(value = "tag", required = false) String tag,
+            @RequestParam(value = "startDate", required = false) String startDateStr,
+            @RequestParam(value = "endDate", required = false) String endDateStr
+    ) {
+        String kcUserId = jwt.getClaimAsString("sub");
+
+        Instant start = startDateStr != null ? Instant.parse(startDateStr) : null;
+        Instant end = endDateStr != null ? Instant.parse(endDateStr) : null;
+
+        return ndjson(writer -> documentService.streamFilteredDocuments(
+                kcUserId, contentType, tag, start, end, writer::write));
+    }
+
+    // 响应体在异步线程中写出：服务层边读游标边调用 writer，不构建完整列表
+    private ResponseEntity<StreamingResponseBody> ndjson(Consumer<NdjsonWriter> producer) {
+        StreamingResponseBody body = out -> {
+            try (NdjsonWriter writer = new NdjsonWriter(objectMapper, out)) {
+                producer.accept(writer);
+            }
+        };
+        return ResponseEntity.ok().contentType(MediaType.APPLICATION_NDJSON).body(body);
+    }
+
 }
@@ -0,0 +1,107 @@
+package com.ntdoc.notangdoccore.controller;
+
+import com.ntdoc.notangdoccore.dto.common.ApiResponse;
+import com.ntdoc.notangdoccore.dto.document.DocumentVersionResponse;
+import com.ntdoc.notangdoccore.exception.DocumentException;
+import com.ntdoc.notangdoccore.service.DocumentVersionService;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.Parameter;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.core.annotation.AuthenticationPrincipal;
+import org.springframework.security.oauth2.jwt.Jwt;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.web.multipart.MultipartFile;
+
+import java.util.List;
+import java.util.function.Supplier;
+
+/**
+ * 文档版本控制器
+ */
+@Slf4j
+@RestController
+@RequestMapping("/api/v1/documents/{documentId}/versions")
+@RequiredArgsConstructor
+@Tag(name = "文档版本管理", description = "上传新版本、查看历史版本、恢复旧版本")
+public class DocumentVersionController {
+
+    private final DocumentVersionService versionService;
+
+    /**
+     * 获取文档的全部版本
+     */
+    @GetMapping
+    @Operation(summary = "获取文档版本列表", description = "最新版本在前")
+    public ResponseEntity<ApiResponse<List<DocumentVersionResponse>>> getVersions(
+            @Parameter(description = "文档ID", required = true)
+            @PathVariable Long documentId,
+            @AuthenticationPrincipal Jwt jwt) {
+        String kcUserId = jwt.getClaimAsString("sub");
+        return handle(documentId, "get versions",
+                () -> ApiResponse.success("获取版本列表成功", versionService.getVersions(documentId, kcUserId)));
+    }
+
+    /**
+     * 上传新版本，内容与当前版本相同时不产生新版本
+     */
+    @PostMapping(consumes = MediaType.MULTIPART_FORM_DATA_VALUE)
+    @Operation(summary = "上传文档新版本", description = "内容未变化时不写存储、不产生新版本")
+    public ResponseEntity<ApiResponse<DocumentVersionResponse>> uploadVersion(
+            @Parameter(description = "文档ID", required = true)
+            @PathVariable Long documentId,
+            @Parameter(description = "新版本文件", required = true)
+            @RequestParam("file") MultipartFile file,
+            @AuthenticationPrincipal Jwt jwt) {
+        String kcUserId = jwt.getClaimAsString("sub");
+        return handle(documentId, "upload version", () -> {
+            DocumentVersionResponse version = versionService.uploadVersion(documentId, file, kcUserId);
+            return ApiResponse.success(version.isCreated() ? "新版本上传成功" : "内容未变化，未创建新版本", version);
+        });
+    }
+
+    /**
+     * 恢复到指定版本
+     */
+    @PostMapping("/{versionNo}/restore")
+    @Operation(summary = "恢复文档版本", description = "以指定版本的内容追加一个新版本")
+    public ResponseEntity<ApiResponse<DocumentVersionResponse>> restoreVersion(
+            @Parameter(description = "文档ID", required = true)
+            @PathVariable Long documentId,
+            @Parameter(description = "要恢复的版本号", required = true)
+            @PathVariable Integer versionNo,
+            @AuthenticationPrincipal Jwt jwt) {
+        String kcUserId = jwt.getClaimAsString("sub");
+        return handle(documentId, "restore version", () -> {
+            DocumentVersionResponse version = versionService.restoreVersion(documentId, versionNo, kcUserId);
+            return ApiResponse.success(version.isCreated() ? "版本恢复成功" : "内容未变化，未创建新版本", version);
+        });
+    }
+
+    private <T> ResponseEntity<ApiResponse<T>> handle(Long documentId, String action, Supplier<ApiResponse<T>> call) {
+        try {
+            return ResponseEntity.ok(call.get());
+        } catch (DocumentException.DocumentNotFoundException e) {
+            return ResponseEntity.status(HttpStatus.NOT_FOUND)
+                    .body(ApiResponse.error(404, e.getMessage()));
+        } catch (DocumentException.DocumentAccessDeniedException e) {
+            log.warn("Access denied to {}: documentId={}", action, documentId);
+            return ResponseEntity.status(HttpStatus.FORBIDDEN)
+                    .body(ApiResponse.error(403, e.getMessage()));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest()
+                    .body(ApiResponse.error(400, e.getMessage()));
+        } catch (IllegalStateException e) {
+            return ResponseEntity.status(HttpStatus.CONFLICT)
+                    .body(ApiResponse.error(409, e.getMessage()));
+        } catch (Exception e) {
+            log.error("Failed to {}: documentId={}", action, documentId, e);
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
+                    .body(ApiResponse.error(500, "操作失败: " + e.getMessage()));
+        }
+    }
+}
@@ -1,16 +1,20 @@
 package com.ntdoc.notangdoccore.controller;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.ntdoc.notangdoccore.common.NdjsonWriter;
 import com.ntdoc.notangdoccore.entity.Log;
 import com.ntdoc.notangdoccore.entity.User;
+import com.ntdoc.notangdoccore.service.CallerIdentityService;
 import com.ntdoc.notangdoccore.service.LogService;
-import com.ntdoc.notangdoccore.service.UserSyncService;
-import com.ntdoc.notangdoccore.service.impl.UserSyncServiceImpl;
+import com.ntdoc.notangdoccore.service.ResourceVersionService;
 import com.ntdoc.notangdoccore.service.impl.LogServiceImpl;
 import io.swagger.v3.oas.annotations.tags.Tag;
 import jakarta.validation.constraints.Pattern;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.CacheControl;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.core.annotation.AuthenticationPrincipal;
 import org.springframework.security.oauth2.jwt.Jwt;
@@ -19,6 +23,8 @@ import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.context.request.WebRequest;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
 import java.util.List;
 import java.util.Map;
@@ -30,23 +36,31 @@ import java.util.Map;
 @Validated
 @Tag(name="日志管理",description = "日志查看,条目获取")
 public class LogController {
-    private final UserSyncService userSyncService;
+    private final CallerIdentityService callerIdentityService;
     private final LogService logService;
+    private final ResourceVersionService resourceVersionService;
+    private final ObjectMapper objectMapper;
 
     /*
     * 获取当前用户的所有日志
     * */
     @GetMapping("/list")
-    public ResponseEntity<List<Log>> listLogs(@AuthenticationPrincipal Jwt jwt) {
+    public ResponseEntity<List<Log>> listLogs(@AuthenticationPrincipal Jwt jwt, WebRequest webRequest) {
         try{
             log.info("Receive list all logs request");
-            User user = userSyncService.ensureFromJwt(jwt);
+            User user = callerIdentityService.resolve(jwt);
+
+            // 没有新日志时直接返回 304，不查询日志表
+            String etag = resourceVersionService.etag(ResourceVersionService.Scope.LOGS, user.getId());
+            if (etag != null && webRequest.checkNotModified(etag)) {
+                return ResponseEntity.status(HttpStatus.NOT_MODIFIED).build();
+            }
 
             List<Log> logList = logService.getAllLogsByUserId(user.getId());
 
             log.info("Get all logs successfully");
 
-            return ResponseEntity.ok(logList);
+            return ResponseEntity.ok().cacheControl(CacheControl.noCache().cachePrivate()).body(logList);
         }catch(Exception e){
             log.info("Get all logs failed",e);
 
@@ -56,6 +70,25 @@ public class LogController {
     }
 
 
+    /*
+    * 获取当前用户的所有日志，NDJSON 版本（Accept: application/x-ndjson）
+    * 每行一条日志，边读游标边写出，日志再多内存占用也不变
+    * */
+    @GetMapping(value = "/list", produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public ResponseEntity<StreamingResponseBody> streamLogs(@AuthenticationPrincipal Jwt jwt) {
+        log.info("Receive stream all logs request");
+        User user = callerIdentityService.resolve(jwt);
+        Long userId = user.getId();
+
+        StreamingResponseBody body = out -> {
+            try (NdjsonWriter writer = new NdjsonWriter(objectMapper, out)) {
+                logService.streamLogsByUserId(userId, writer::write);
+            }
+        };
+        return ResponseEntity.ok().contentType(MediaType.APPLICATION_NDJSON).body(body);
+    }
+
+
     /*
     * 获取当前用户的日志条数
     * 可以设置每周或者每月
@@ -67,7 +100,7 @@ public class LogController {
                                                          String period) {
         try{
             log.info("Receive list {} logs request", period);
-            User user = userSyncService.ensureFromJwt(jwt);
+            User user = callerIdentityService.resolve(jwt);
 
             Map<String,Long> logsCount = logService.getLogsCountByUser(user.getId(),period);
 
@@ -1,10 +1,12 @@
 package com.ntdoc.notangdoccore.controller;
 
+import com.ntdoc.notangdoccore.common.SparseFields;
 import com.ntdoc.notangdoccore.dto.common.ApiResponse;
 import com.ntdoc.notangdoccore.dto.team.TeamCreateRequest;
 import com.ntdoc.notangdoccore.dto.team.TeamListResponse;
 import com.ntdoc.notangdoccore.dto.team.TeamResponse;
 import com.ntdoc.notangdoccore.entity.Team;
+import com.ntdoc.notangdoccore.service.ResourceVersionService;
 import com.ntdoc.notangdoccore.service.TeamService;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.Parameter;
@@ -12,13 +14,16 @@ import io.swagger.v3.oas.annotations.tags.Tag;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.CacheControl;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.core.annotation.AuthenticationPrincipal;
 import org.springframework.security.oauth2.jwt.Jwt;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
 
 import java.util.List;
+import java.util.Set;
 
 @Slf4j
 @RestController
@@ -70,12 +75,31 @@ public class TeamController {
     public ResponseEntity<ApiResponse<TeamListResponse>> getUserTeams(
             @Parameter(description = "是否只获取活跃团队")
             @RequestParam(value = "activeOnly", required = false, defaultValue = "true") boolean activeOnly,
-            @AuthenticationPrincipal Jwt jwt) {
+            @Parameter(description = "返回的字段，逗号分隔，如 teamId,name")
+            @RequestParam(value = "fields", required = false) String fields,
+            @AuthenticationPrincipal Jwt jwt,
+            WebRequest webRequest) {
 
         try {
             log.info("Received request to get user teams: activeOnly={}", activeOnly);
 
             String kcUserId = jwt.getClaimAsString("sub");
+            Set<String> fieldSet = SparseFields.parse(fields, TeamResponse.FIELDS);
+
+            // 团队列表未变化时直接返回 304
+            String etag = resourceVersionService.userEtag(ResourceVersionService.Scope.TEAMS, kcUserId, activeOnly, fieldSet);
+            if (etag != null && webRequest.checkNotModified(etag)) {
+                return ResponseEntity.status(HttpStatus.NOT_MODIFIED).build();
+            }
+
+            // 指定 fields 时只查询并返回这些字段（teamId 总是返回）
+            if (fieldSet != null) {
+                TeamListResponse response = TeamListResponse.fromResponses(
+                        teamService.getUserTeamFields(kcUserId, activeOnly, fieldSet));
+                return ResponseEntity.ok()
+                        .cacheControl(CacheControl.noCache().cachePrivate())
+                        .body(ApiResponse.success("获取团队列表成功", response));
+            }
 
             List<Team> teams = activeOnly
                     ? teamService.getUserActiveTeams(kcUserId)
@@ -85,8 +109,13 @@ public class TeamController {
 
             log.info("Retrieved {} teams for user", teams.size());
 
-            return ResponseEntity.ok(ApiResponse.success("获取团队列表成功", response));
+            return ResponseEntity.ok()
+                    .cacheControl(CacheControl.noCache().cachePrivate())
+                    .body(ApiResponse.success("获取团队列表成功", response));
 
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest()
+                    .body(ApiResponse.error(400, e.getMessage()));
         } catch (Exception e) {
             log.error("Failed to get user teams", e);
             return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
@@ -0,0 +1,101 @@
+package com.ntdoc.notangdoccore.controller;
+
+import com.ntdoc.notangdoccore.dto.common.ApiResponse;
+import com.ntdoc.notangdoccore.dto.document.TrendingDocumentResponse;
+import com.ntdoc.notangdoccore.service.DocumentService;
+import com.ntdoc.notangdoccore.service.TeamMemberService;
+import com.ntdoc.notangdoccore.service.TrendingDocumentService;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.Parameter;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.core.annotation.AuthenticationPrincipal;
+import org.springframework.security.oauth2.jwt.Jwt;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+
+/**
+ * 热门文档：团队内对成员开放，全站热门只对管理员开放（/api/admin/** 需要 ADMIN 角色）
+ * 文档尚未与团队共享，团队热门只返回查看者自己可以访问的文档，避免泄露其他成员的私有文档
+ */
+@Slf4j
+@RestController
+@RequiredArgsConstructor
+@Tag(name = "热门文档", description = "按最近一小时、一天、一周统计访问最多的文档")
+public class TrendingController {
+
+    private static final int MAX_LIMIT = 50;
+
+    private final TrendingDocumentService trendingDocumentService;
+    private final TeamMemberService teamMemberService;
+    private final DocumentService documentService;
+
+    /**
+     * 团队成员最近访问最多的文档
+     */
+    @GetMapping("/api/v1/teams/{teamId}/documents/trending")
+    @Operation(summary = "团队热门文档", description = "window 可选 hour、day、week")
+    public ResponseEntity<ApiResponse<List<TrendingDocumentResponse>>> getTeamTrending(
+            @Parameter(description = "团队ID", required = true)
+            @PathVariable Long teamId,
+            @RequestParam(defaultValue = "day") String window,
+            @RequestParam(defaultValue = "10") int limit,
+            @AuthenticationPrincipal Jwt jwt) {
+        String kcUserId = jwt.getClaimAsString("sub");
+        TrendingDocumentService.Window parsed = parseWindow(window);
+        if (parsed == null || limit < 1) {
+            return ResponseEntity.badRequest().body(ApiResponse.error(400, "无效的查询参数"));
+        }
+        try {
+            if (!teamMemberService.isMember(teamId, kcUserId)) {
+                return ResponseEntity.status(HttpStatus.FORBIDDEN)
+                        .body(ApiResponse.error(403, "只有团队成员可以查看团队热门文档"));
+            }
+            // 取上限条数的候选，按访问权限过滤后再截断，所有权在 SQL 中判断
+            List<TrendingDocumentResponse> candidates = trendingDocumentService.getTeamTrending(teamId, parsed, MAX_LIMIT);
+            Set<Long> accessible = documentService.findAccessibleIds(kcUserId,
+                    candidates.stream().map(TrendingDocumentResponse::getDocumentId).toList());
+            return ResponseEntity.ok(ApiResponse.success("获取团队热门文档成功", candidates.stream()
+                    .filter(item -> accessible.contains(item.getDocumentId()))
+                    .limit(Math.min(limit, MAX_LIMIT))
+                    .toList()));
+        } catch (Exception e) {
+            log.error("Failed to get trending documents: teamId={}", teamId, e);
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
+                    .body(ApiResponse.error(500, "获取热门文档失败: " + e.getMessage()));
+        }
+    }
+
+    /**
+     * 全站最近访问最多的文档
+     */
+    @GetMapping("/api/admin/documents/trending")
+    @Operation(summary = "全站热门文档", description = "window 可选 hour、day、week")
+    public ResponseEntity<ApiResponse<List<TrendingDocumentResponse>>> getTrending(
+            @RequestParam(defaultValue = "day") String window,
+            @RequestParam(defaultValue = "10") int limit) {
+        TrendingDocumentService.Window parsed = parseWindow(window);
+        if (parsed == null || limit < 1) {
+            return ResponseEntity.badRequest().body(ApiResponse.error(400, "无效的查询参数"));
+        }
+        return ResponseEntity.ok(ApiResponse.success("获取热门文档成功",
+                trendingDocumentService.getTrending(parsed, Math.min(limit, MAX_LIMIT))));
+    }
+
+    private static TrendingDocumentService.Window parseWindow(String window) {
+        try {
+            return TrendingDocumentService.Window.valueOf(window.trim().toUpperCase(Locale.ROOT));
+        } catch (IllegalArgumentException e) {
+            return null;
+        }
+    }
+}
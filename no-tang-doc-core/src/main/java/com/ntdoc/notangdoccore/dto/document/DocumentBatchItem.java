@@ -0,0 +1,33 @@
+package com.ntdoc.notangdoccore.dto.document;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * 批量查询中的单条结果，与请求中的ID一一对应
+ */
+@Data
+@Builder
+@AllArgsConstructor
+@NoArgsConstructor
+public class DocumentBatchItem {
+    private Long documentId;
+    private Result result;
+    private DocumentTagResponse document; // 仅 FOUND 时有值
+
+    public enum Result {
+        FOUND,
+        NOT_FOUND, // 不存在或已在回收站
+        FORBIDDEN  // 存在但不属于当前用户
+    }
+
+    public static DocumentBatchItem found(DocumentTagResponse document) {
+        return new DocumentBatchItem(document.getDocumentId(), Result.FOUND, document);
+    }
+
+    public static DocumentBatchItem missing(Long documentId, Result result) {
+        return new DocumentBatchItem(documentId, result, null);
+    }
+}
@@ -0,0 +1,25 @@
+package com.ntdoc.notangdoccore.dto.document;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * 批量查询文档请求DTO
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@Schema(description = "批量查询文档请求")
+public class DocumentBatchRequest {
+
+    @Schema(description = "文档ID列表，结果按此顺序返回", example = "[1, 2, 3]")
+    @Builder.Default
+    private List<Long> documentIds = new ArrayList<>();
+}
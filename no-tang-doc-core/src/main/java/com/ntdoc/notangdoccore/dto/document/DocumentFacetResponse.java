@@ -0,0 +1,66 @@
+package com.ntdoc.notangdoccore.dto.document;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * 文档筛选分面统计DTO
+ * 每个分面为 标签值 -> 文档数
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class DocumentFacetResponse {
+    public static final String FACET_CONTENT_TYPE = "contentType";
+    public static final String FACET_TAG = "tag";
+    public static final String FACET_UPLOAD_MONTH = "uploadMonth";
+    public static final String FACET_SIZE_BUCKET = "sizeBucket";
+
+    // 与 DocumentRepository.countFacets 中的 CASE 分桶保持一致
+    public static final List<String> SIZE_BUCKETS = List.of("0-1MB", "1-10MB", "10-50MB", "50MB+");
+
+    private Map<String, Long> contentTypes;
+    private Map<String, Long> tags;
+    private Map<String, Long> uploadMonths;
+    private Map<String, Long> sizeBuckets;
+
+    /**
+     * 从聚合查询结果行 [facet, label, count] 构建
+     */
+    public static DocumentFacetResponse fromRows(List<Object[]> rows) {
+        Map<String, Long> contentTypes = new LinkedHashMap<>();
+        Map<String, Long> tags = new LinkedHashMap<>();
+        Map<String, Long> uploadMonths = new TreeMap<>(Comparator.reverseOrder()); // 最近的月份在前
+        Map<String, Long> sizeBuckets = new LinkedHashMap<>();
+        SIZE_BUCKETS.forEach(bucket -> sizeBuckets.put(bucket, 0L));
+
+        for (Object[] row : rows) {
+            String facet = (String) row[0];
+            String label = (String) row[1];
+            long count = ((Number) row[2]).longValue();
+            switch (facet) {
+                case FACET_CONTENT_TYPE -> contentTypes.put(label, count);
+                case FACET_TAG -> tags.put(label, count);
+                case FACET_UPLOAD_MONTH -> uploadMonths.put(label, count);
+                case FACET_SIZE_BUCKET -> sizeBuckets.put(label, count);
+                default -> { }
+            }
+        }
+
+        return DocumentFacetResponse.builder()
+                .contentTypes(contentTypes)
+                .tags(tags)
+                .uploadMonths(uploadMonths)
+                .sizeBuckets(sizeBuckets)
+                .build();
+    }
+}
@@ -1,8 +1,11 @@
 package com.ntdoc.notangdoccore.dto.document;
 
+import com.fasterxml.jackson.annotation.JsonInclude;
 import com.ntdoc.notangdoccore.entity.Document;
 import com.ntdoc.notangdoccore.entity.Tag;
 import lombok.*;
+import org.springframework.data.domain.Page;
+
 import java.util.List;
 import java.util.Set;
 import java.util.stream.Collectors;
@@ -22,8 +25,14 @@ public class DocumentListResponse {
     @Builder
     @NoArgsConstructor
     @AllArgsConstructor
+    @JsonInclude(JsonInclude.Include.NON_NULL)
     public static class Data {
         private List<DocumentTagResponse> documents;
+        // 以下字段仅分页/分面查询时返回
+        private Long total;
+        private Integer page;
+        private Integer size;
+        private DocumentFacetResponse facets;
     }
 
 
@@ -33,6 +42,13 @@ public class DocumentListResponse {
                 .map(DocumentTagResponse::form)
                 .collect(Collectors.toList());
 
+        return fromResponses(responses);
+    }
+
+    /**
+     * 由已构建的 DTO 列表组装（按字段投影查询时使用）
+     */
+    public static DocumentListResponse fromResponses(List<DocumentTagResponse> responses) {
         return DocumentListResponse.builder()
                 .code(200)
                 .message("获取文档列表成功")
@@ -40,6 +56,24 @@ public class DocumentListResponse {
                 .build();
     }
 
+    public static DocumentListResponse fromPage(Page<Document> page, DocumentFacetResponse facets) {
+        List<DocumentTagResponse> responses = page.getContent().stream()
+                .map(DocumentTagResponse::form)
+                .collect(Collectors.toList());
+
+        return DocumentListResponse.builder()
+                .code(200)
+                .message("获取文档列表成功")
+                .data(Data.builder()
+                        .documents(responses)
+                        .total(page.getTotalElements())
+                        .page(page.getNumber())
+                        .size(page.getSize())
+                        .facets(facets)
+                        .build())
+                .build();
+    }
+
     public static DocumentListResponse error(String message) {
         return DocumentListResponse.builder()
                 .code(500)
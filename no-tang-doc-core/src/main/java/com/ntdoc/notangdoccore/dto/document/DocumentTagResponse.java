@@ -1,5 +1,6 @@
 package com.ntdoc.notangdoccore.dto.document;
 
+import com.fasterxml.jackson.annotation.JsonInclude;
 import com.ntdoc.notangdoccore.entity.Document;
 import lombok.AllArgsConstructor;
 import lombok.Builder;
@@ -7,6 +8,7 @@ import lombok.Data;
 import lombok.NoArgsConstructor;
 
 import java.util.List;
+import java.util.Set;
 import java.util.stream.Collectors;
 
 @Data
@@ -14,6 +16,13 @@ import java.util.stream.Collectors;
 @AllArgsConstructor
 @NoArgsConstructor
 public class DocumentTagResponse {
+
+    /**
+     * 可通过 fields 参数选择的字段，documentId 总是返回
+     */
+    public static final Set<String> FIELDS = Set.of("documentId", "fileName", "status", "fileSize",
+            "mimeType", "description", "uploadTime", "lastModified", "tags");
+
     private Long documentId;
     private String fileName;
     private String status;
@@ -29,20 +38,38 @@ public class DocumentTagResponse {
             return null;
         }
 
+        return form(document, document.getTags() != null ?
+                document.getTags().stream()
+                        .map(tag -> tag.getTag())
+                        .collect(Collectors.toList()) :
+                List.of());
+    }
+
+    /**
+     * 使用已批量查出的标签名构建，不访问文档的标签集合
+     */
+    public static DocumentTagResponse form(Document document, List<String> tagNames) {
+        if (document == null) {
+            return null;
+        }
+
         return DocumentTagResponse.builder()
                 .documentId(document.getId())
                 .fileName(document.getOriginalFilename())
                 .mimeType(document.getContentType())
                 .status(document.getStatus() != null ? document.getStatus().name() : null)
-                .tags(document.getTags() != null ?
-                        document.getTags().stream()
-                                .map(tag -> tag.getTag())
-                                .collect(Collectors.toList()) :
-                        List.of())
+                .tags(tagNames)
                 .fileSize(document.getFileSize())
                 .description(document.getDescription())
                 .uploadTime(document.getCreatedAt().toString())
                 .lastModified(document.getUpdatedAt().toString())
                 .build();
     }
+
+    /**
+     * 按 fields 只填充部分字段时使用，未请求的字段不输出；完整响应仍输出值为 null 的字段
+     */
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    public static class Sparse extends DocumentTagResponse {
+    }
 }
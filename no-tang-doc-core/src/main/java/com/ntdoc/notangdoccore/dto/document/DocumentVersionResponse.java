@@ -0,0 +1,42 @@
+package com.ntdoc.notangdoccore.dto.document;
+
+import com.ntdoc.notangdoccore.entity.DocumentVersion;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.Instant;
+
+@Data
+@Builder
+@AllArgsConstructor
+@NoArgsConstructor
+public class DocumentVersionResponse {
+    private Long documentId;
+    private Integer versionNo;
+    private Long fileSize;
+    private String mimeType;
+    private String fileHash;
+    // 由哪个版本恢复而来，上传的版本为空
+    private Integer restoredFrom;
+    private Instant createdAt;
+    // 是否为文档当前版本
+    private boolean current;
+    // 本次请求是否产生了新版本（内容未变化时为 false）
+    private boolean created;
+
+    public static DocumentVersionResponse from(DocumentVersion version, Integer currentVersion, boolean created) {
+        return DocumentVersionResponse.builder()
+                .documentId(version.getDocument().getId())
+                .versionNo(version.getVersionNo())
+                .fileSize(version.getFileSize())
+                .mimeType(version.getContentType())
+                .fileHash(version.getFileHash())
+                .restoredFrom(version.getRestoredFrom())
+                .createdAt(version.getCreatedAt())
+                .current(version.getVersionNo().equals(currentVersion))
+                .created(created)
+                .build();
+    }
+}
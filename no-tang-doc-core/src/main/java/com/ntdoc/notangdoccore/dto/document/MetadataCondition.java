@@ -0,0 +1,27 @@
+package com.ntdoc.notangdoccore.dto.document;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+
+/**
+ * 元数据查询条件
+ *
+ * @param key 元数据键
+ * @param op 比较运算
+ * @param type 值类型（提升为生成列的键以配置为准）
+ * @param value 比较值；BETWEEN 时为下界
+ * @param to BETWEEN 的上界
+ */
+public record MetadataCondition(@JsonProperty("key") String key,
+                                @JsonProperty("op") Op op,
+                                @JsonProperty("type") ValueType type,
+                                @JsonProperty("value") String value,
+                                @JsonProperty("to") String to) {
+
+    public enum Op {
+        EQ, GT, GTE, LT, LTE, BETWEEN
+    }
+
+    public enum ValueType {
+        STRING, NUMBER, DATE
+    }
+}
@@ -0,0 +1,33 @@
+package com.ntdoc.notangdoccore.dto.document;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * 元数据查询请求DTO（条件之间为 AND）
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@Schema(description = "元数据查询请求")
+public class MetadataQueryRequest {
+
+    @Schema(description = "查询条件")
+    @Builder.Default
+    private List<MetadataCondition> conditions = new ArrayList<>();
+
+    @Schema(description = "页码", example = "0")
+    @Builder.Default
+    private int page = 0;
+
+    @Schema(description = "每页条数", example = "20")
+    @Builder.Default
+    private int size = 20;
+}
@@ -0,0 +1,23 @@
+package com.ntdoc.notangdoccore.dto.document;
+
+import com.ntdoc.notangdoccore.entity.logenum.OperationType;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.Instant;
+
+/**
+ * 最近使用的文档
+ */
+@Data
+@Builder
+@AllArgsConstructor
+@NoArgsConstructor
+public class RecentDocumentResponse {
+    private Long documentId;
+    private String fileName;
+    private OperationType lastOperation; // 最近一次操作（上传、下载、分享等）
+    private Instant lastUsedAt;
+}
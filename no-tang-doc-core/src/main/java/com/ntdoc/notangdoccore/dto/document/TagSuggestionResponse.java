@@ -0,0 +1,19 @@
+package com.ntdoc.notangdoccore.dto.document;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * 标签自动补全候选项
+ */
+@Data
+@Builder
+@AllArgsConstructor
+@NoArgsConstructor
+public class TagSuggestionResponse {
+    private String tag;
+    private long ownerCount;   // 当前用户使用该标签的文档数
+    private long globalCount;  // 全站使用该标签的文档数
+}
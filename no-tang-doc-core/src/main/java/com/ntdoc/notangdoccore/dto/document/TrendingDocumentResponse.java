@@ -0,0 +1,19 @@
+package com.ntdoc.notangdoccore.dto.document;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * 热门文档
+ */
+@Data
+@Builder
+@AllArgsConstructor
+@NoArgsConstructor
+public class TrendingDocumentResponse {
+    private Long documentId;
+    private String fileName;
+    private long count; // 窗口内的访问次数估计值（Sketch 只会高估）
+}
@@ -0,0 +1,78 @@
+package com.ntdoc.notangdoccore.dto.storage;
+
+import com.ntdoc.notangdoccore.entity.UserStorageByType;
+import com.ntdoc.notangdoccore.entity.UserStorageSummary;
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.Instant;
+import java.util.List;
+
+/**
+ * 用户存储汇总响应DTO
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@Schema(description = "用户存储汇总")
+public class StorageSummaryResponse {
+
+    @Schema(description = "可用文档数", example = "12")
+    private long activeCount;
+
+    @Schema(description = "上传中文档数", example = "0")
+    private long uploadingCount;
+
+    @Schema(description = "处理中文档数", example = "0")
+    private long processingCount;
+
+    @Schema(description = "已删除文档数", example = "3")
+    private long deletedCount;
+
+    @Schema(description = "未删除文档总字节数", example = "10485760")
+    private long totalBytes;
+
+    @Schema(description = "按文件类型统计（按占用空间降序）")
+    private List<ContentTypeUsage> byContentType;
+
+    @Schema(description = "汇总更新时间")
+    private Instant updatedAt;
+
+    @Data
+    @Builder
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class ContentTypeUsage {
+        private String contentType;
+        private long documentCount;
+        private long totalBytes;
+    }
+
+    public static StorageSummaryResponse from(UserStorageSummary summary, List<UserStorageByType> byType) {
+        List<ContentTypeUsage> usages = byType.stream()
+                .filter(t -> t.getDocCount() > 0)
+                .map(t -> ContentTypeUsage.builder()
+                        .contentType(t.getId().getContentType())
+                        .documentCount(t.getDocCount())
+                        .totalBytes(t.getTotalBytes())
+                        .build())
+                .toList();
+
+        if (summary == null) {
+            return StorageSummaryResponse.builder().byContentType(usages).build();
+        }
+        return StorageSummaryResponse.builder()
+                .activeCount(summary.getActiveCount())
+                .uploadingCount(summary.getUploadingCount())
+                .processingCount(summary.getProcessingCount())
+                .deletedCount(summary.getDeletedCount())
+                .totalBytes(summary.getTotalBytes())
+                .byContentType(usages)
+                .updatedAt(summary.getUpdatedAt())
+                .build();
+    }
+}
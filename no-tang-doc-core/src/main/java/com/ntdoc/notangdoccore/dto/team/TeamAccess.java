@@ -0,0 +1,24 @@
+package com.ntdoc.notangdoccore.dto.team;
+
+import com.ntdoc.notangdoccore.entity.TeamMember;
+
+/**
+ * 用户在团队中的角色和成员状态，用于权限判断
+ */
+public record TeamAccess(TeamMember.TeamRole role, TeamMember.MemberStatus status) {
+
+    /**
+     * 是否为活跃成员
+     */
+    public boolean isActiveMember() {
+        return status == TeamMember.MemberStatus.ACTIVE;
+    }
+
+    /**
+     * 是否有管理权限（活跃的 OWNER 或 ADMIN）
+     */
+    public boolean canManage() {
+        return isActiveMember()
+                && (role == TeamMember.TeamRole.OWNER || role == TeamMember.TeamRole.ADMIN);
+    }
+}
@@ -34,6 +34,13 @@ public class TeamListResponse {
                 .map(TeamResponse::fromEntity)
                 .collect(Collectors.toList());
 
+        return fromResponses(teamResponses);
+    }
+
+    /**
+     * 由已构建的 DTO 列表组装（按字段投影查询时使用）
+     */
+    public static TeamListResponse fromResponses(List<TeamResponse> teamResponses) {
         return TeamListResponse.builder()
                 .teams(teamResponses)
                 .total(teamResponses.size())
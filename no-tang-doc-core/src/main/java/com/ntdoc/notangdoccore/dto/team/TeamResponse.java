@@ -1,5 +1,6 @@
 package com.ntdoc.notangdoccore.dto.team;
 
+import com.fasterxml.jackson.annotation.JsonInclude;
 import com.ntdoc.notangdoccore.entity.Team;
 import io.swagger.v3.oas.annotations.media.Schema;
 import lombok.AllArgsConstructor;
@@ -8,6 +9,7 @@ import lombok.Data;
 import lombok.NoArgsConstructor;
 
 import java.time.Instant;
+import java.util.Set;
 
 /**
  * 团队响应DTO
@@ -19,6 +21,12 @@ import java.time.Instant;
 @Schema(description = "团队响应")
 public class TeamResponse {
 
+    /**
+     * 可通过 fields 参数选择的字段，teamId 总是返回
+     */
+    public static final Set<String> FIELDS = Set.of("teamId", "name", "description", "ownerId",
+            "ownerUsername", "status", "memberCount", "createdAt", "updatedAt");
+
     @Schema(description = "团队ID", example = "1")
     private Long teamId;
 
@@ -62,5 +70,11 @@ public class TeamResponse {
                 .updatedAt(team.getUpdatedAt())
                 .build();
     }
-}
 
+    /**
+     * 按 fields 只填充部分字段时使用，未请求的字段不输出；完整响应仍输出值为 null 的字段
+     */
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    public static class Sparse extends TeamResponse {
+    }
+}
@@ -3,7 +3,9 @@ package com.ntdoc.notangdoccore.entity;
 import jakarta.persistence.*;
 import lombok.*;
 import org.hibernate.annotations.CreationTimestamp;
+import org.hibernate.annotations.JdbcTypeCode;
 import org.hibernate.annotations.UpdateTimestamp;
+import org.hibernate.type.SqlTypes;
 
 import java.time.Instant;
 import java.util.*;
@@ -21,7 +23,8 @@ import java.util.*;
 @Table(name = "document", indexes = {
         @Index(name = "idx_document_user_id", columnList = "user_id"),
         @Index(name = "idx_document_created_at", columnList = "created_at"),
-        @Index(name = "idx_document_status", columnList = "status")
+        @Index(name = "idx_document_status", columnList = "status"),
+        @Index(name = "idx_document_status_deleted_at", columnList = "status, deleted_at")
 })
 public class Document {
 
@@ -86,28 +89,35 @@ public class Document {
         }
     }
 
-    //Metadata
-    @ElementCollection
-    @CollectionTable(
-            name = "document_metadata",
-            joinColumns = @JoinColumn(name = "document_id"),
-            uniqueConstraints = @UniqueConstraint(columnNames = {"document_id", "meta_key"})
-    )
-    @MapKeyColumn(name = "meta_key", length = 128)
-    @Column(name = "meta_value", length = 1024, nullable = false)
+    //Metadata（JSON 列，常用键在库中提升为带索引的生成列，见 MetadataProperties）
+    @JdbcTypeCode(SqlTypes.JSON)
+    @Column(name = "metadata", nullable = false, columnDefinition = "json")
     @Builder.Default
     private Map<String, String> metadata = new LinkedHashMap<>();
 
     public void putMetadata(String key, String value) {
         if (key != null && !key.isBlank()) {
+            if (metadata == null) {
+                metadata = new LinkedHashMap<>();
+            }
             metadata.put(key.trim(), value == null ? "" : value.trim());
         }
     }
 
-    @Column(name = "download_count", nullable = false)
+    // 当前版本号，历史版本见 DocumentVersion
+    @Column(name = "current_version", nullable = false)
+    @Builder.Default
+    private Integer currentVersion = 1;
+
+    // 只通过下载计数的批量累加语句修改，实体保存时不写回，避免覆盖已写回的下载次数
+    @Column(name = "download_count", nullable = false, updatable = false)
     @Builder.Default
     private Integer downloadCount = 0;
 
+    // 移入回收站的时间，未删除时为空
+    @Column(name = "deleted_at")
+    private Instant deletedAt;
+
     @Column(name = "created_at", nullable = false, updatable = false)
     @CreationTimestamp
     private Instant createdAt;
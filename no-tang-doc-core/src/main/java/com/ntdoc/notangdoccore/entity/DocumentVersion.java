@@ -0,0 +1,73 @@
+package com.ntdoc.notangdoccore.entity;
+
+import jakarta.persistence.*;
+import lombok.*;
+import org.hibernate.annotations.CreationTimestamp;
+import org.hibernate.annotations.OnDelete;
+import org.hibernate.annotations.OnDeleteAction;
+
+import java.time.Instant;
+
+/**
+ * 文档版本实体类
+ * 每次内容变更（上传新版本、恢复旧版本）追加一条；内容哈希相同的版本共用同一个 s3Key
+ */
+@Getter
+@Setter
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@Entity
+@Table(name = "document_version",
+        uniqueConstraints = @UniqueConstraint(name = "uk_document_version_no", columnNames = {"document_id", "version_no"}),
+        indexes = @Index(name = "idx_document_version_hash", columnList = "document_id, file_hash"))
+public class DocumentVersion {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "document_id", nullable = false)
+    @OnDelete(action = OnDeleteAction.CASCADE)
+    private Document document;
+
+    @Column(name = "version_no", nullable = false)
+    private Integer versionNo;
+
+    @Column(name = "file_size", nullable = false)
+    private Long fileSize;
+
+    @Column(name = "content_type", length = 100)
+    private String contentType;
+
+    @Column(name = "file_hash", length = 64)
+    private String fileHash;
+
+    @Column(name = "s3_key", nullable = false, length = 500)
+    private String s3Key;
+
+    // 由哪个版本恢复而来，上传的版本为空
+    @Column(name = "restored_from")
+    private Integer restoredFrom;
+
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "created_by")
+    private User createdBy;
+
+    @CreationTimestamp
+    @Column(name = "created_at", nullable = false, updatable = false)
+    private Instant createdAt;
+
+    public static DocumentVersion of(Document document, int versionNo, User createdBy) {
+        return DocumentVersion.builder()
+                .document(document)
+                .versionNo(versionNo)
+                .fileSize(document.getFileSize())
+                .contentType(document.getContentType())
+                .fileHash(document.getFileHash())
+                .s3Key(document.getS3Key())
+                .createdBy(createdBy)
+                .build();
+    }
+}
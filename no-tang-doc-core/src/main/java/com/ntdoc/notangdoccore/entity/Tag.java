@@ -2,6 +2,10 @@ package com.ntdoc.notangdoccore.entity;
 
 import jakarta.persistence.*;
 import lombok.*;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
+import org.hibernate.annotations.NaturalId;
+import org.hibernate.annotations.NaturalIdCache;
 
 import java.util.HashSet;
 import java.util.Set;
@@ -19,11 +23,14 @@ import java.util.Set;
                 @UniqueConstraint(name = "uk_tags_tag",columnNames = "tag")
         }
 )
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = "tags")
+@NaturalIdCache(region = "tags-natural-id")
 public class Tag {
     @Id
     @GeneratedValue(strategy = GenerationType.IDENTITY)
     private Long id;
 
+    @NaturalId
     @Column(name="tag",nullable = false,length = 64)
     private String tag;
 
@@ -2,6 +2,8 @@ package com.ntdoc.notangdoccore.entity;
 
 import jakarta.persistence.*;
 import lombok.*;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
 import org.hibernate.annotations.CreationTimestamp;
 import org.hibernate.annotations.UpdateTimestamp;
 
@@ -22,6 +24,7 @@ import java.time.Instant;
         @Index(name = "idx_team_status", columnList = "status"),
         @Index(name = "idx_team_created_at", columnList = "created_at")
 })
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = "teams")
 public class Team {
 
     @Id
@@ -43,10 +46,15 @@ public class Team {
     @Builder.Default
     private TeamStatus status = TeamStatus.ACTIVE;
 
-    @Column(name = "member_count", nullable = false)
+    // 只通过 TeamRepository 的原子更新修改，实体保存时不写回，避免并发加入/退出时互相覆盖
+    @Column(name = "member_count", nullable = false, updatable = false)
     @Builder.Default
     private Integer memberCount = 1;
 
+    @Version
+    @Column(name = "version", nullable = false)
+    private Long version;
+
     @Column(name = "created_at", nullable = false, updatable = false)
     @CreationTimestamp
     private Instant createdAt;
@@ -2,6 +2,10 @@ package com.ntdoc.notangdoccore.entity;
 
 import jakarta.persistence.*;
 import lombok.*;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
+import org.hibernate.annotations.NaturalId;
+import org.hibernate.annotations.NaturalIdCache;
 
 import java.time.Instant;
 
@@ -14,12 +18,15 @@ import java.time.Instant;
         indexes = {@Index(name = "uq_app_user_username", columnList = "username", unique = true)},
         uniqueConstraints = {@UniqueConstraint(name = "uq_app_user_kc_user_id",columnNames="kc_user_id")}
 )
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = "users")
+@NaturalIdCache(region = "users-natural-id")
 public class User {
 
     @Id
     @GeneratedValue(strategy = GenerationType.IDENTITY)
     private Long id;
 
+    @NaturalId
     @Column(name="kc_user_id",nullable = false,length = 64)
     private String kcUserId;
 
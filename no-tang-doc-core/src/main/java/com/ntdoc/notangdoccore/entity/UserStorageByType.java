@@ -0,0 +1,40 @@
+package com.ntdoc.notangdoccore.entity;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+import java.io.Serializable;
+
+/**
+ * 用户按文件类型的存储汇总（仅统计未删除文档）
+ */
+@Entity
+@Getter
+@Setter
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@Table(name = "user_storage_by_type")
+public class UserStorageByType {
+
+    @EmbeddedId
+    private Key id;
+
+    @Column(name = "doc_count", nullable = false)
+    private long docCount;
+
+    @Column(name = "total_bytes", nullable = false)
+    private long totalBytes;
+
+    @Embeddable
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class Key implements Serializable {
+        @Column(name = "user_id")
+        private Long userId;
+
+        @Column(name = "content_type", length = 100)
+        private String contentType;
+    }
+}
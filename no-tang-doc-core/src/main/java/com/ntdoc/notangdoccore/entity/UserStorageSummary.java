@@ -0,0 +1,43 @@
+package com.ntdoc.notangdoccore.entity;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+import java.time.Instant;
+
+/**
+ * 用户存储汇总
+ * 由 StorageSummaryService 在文档写操作的同一事务内以原子增量维护，定期对账修复偏差
+ */
+@Entity
+@Getter
+@Setter
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@Table(name = "user_storage_summary")
+public class UserStorageSummary {
+
+    @Id
+    @Column(name = "user_id")
+    private Long userId;
+
+    @Column(name = "active_count", nullable = false)
+    private long activeCount;
+
+    @Column(name = "uploading_count", nullable = false)
+    private long uploadingCount;
+
+    @Column(name = "processing_count", nullable = false)
+    private long processingCount;
+
+    @Column(name = "deleted_count", nullable = false)
+    private long deletedCount;
+
+    // 未删除文档的总字节数
+    @Column(name = "total_bytes", nullable = false)
+    private long totalBytes;
+
+    @Column(name = "updated_at", nullable = false)
+    private Instant updatedAt;
+}
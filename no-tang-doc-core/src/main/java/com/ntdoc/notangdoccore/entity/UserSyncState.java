@@ -0,0 +1,37 @@
+package com.ntdoc.notangdoccore.entity;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+import java.time.Instant;
+
+/**
+ * 用户目录同步进度
+ * 每同步完一页就记录下一页的位置，进程重启后从断点继续；一轮完成后归零并记录完成时间
+ */
+@Entity
+@Getter
+@Setter
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@Table(name = "user_sync_state")
+public class UserSyncState {
+
+    @Id
+    @Column(name = "source", length = 32)
+    private String source;
+
+    @Column(name = "next_offset", nullable = false)
+    private int nextOffset;
+
+    // 当前一轮的开始时间
+    @Column(name = "run_started_at")
+    private Instant runStartedAt;
+
+    @Column(name = "last_completed_at")
+    private Instant lastCompletedAt;
+
+    @Column(name = "updated_at", nullable = false)
+    private Instant updatedAt;
+}
@@ -7,6 +7,7 @@ public enum OperationType {
     DELETE_DOCUMENT,
     SHARE_DOCUMENT,
     UPDATE_DOCUMENT,
+    RESTORE_DOCUMENT,
 
     // for AI_Agent
     AI_SUMMARIZE_DOCUMENT
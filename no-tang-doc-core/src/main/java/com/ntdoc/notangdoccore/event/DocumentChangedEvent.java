@@ -0,0 +1,35 @@
+package com.ntdoc.notangdoccore.event;
+
+import lombok.Getter;
+import org.springframework.context.ApplicationEvent;
+
+/**
+ * 文档变更事件
+ * 文档上传、标签/元数据修改、删除后发布，供检索索引等派生数据做增量更新
+ */
+@Getter
+public class DocumentChangedEvent extends ApplicationEvent {
+    private final Long documentId;
+    private final Long ownerId;
+    private final ChangeType changeType;
+
+    public DocumentChangedEvent(Object source, Long documentId, Long ownerId, ChangeType changeType) {
+        super(source);
+        this.documentId = documentId;
+        this.ownerId = ownerId;
+        this.changeType = changeType;
+    }
+
+    public static DocumentChangedEvent upserted(Object source, Long documentId, Long ownerId) {
+        return new DocumentChangedEvent(source, documentId, ownerId, ChangeType.UPSERTED);
+    }
+
+    public static DocumentChangedEvent deleted(Object source, Long documentId, Long ownerId) {
+        return new DocumentChangedEvent(source, documentId, ownerId, ChangeType.DELETED);
+    }
+
+    public enum ChangeType {
+        UPSERTED, // 新建或内容/标签/元数据变化
+        DELETED   // 已删除
+    }
+}
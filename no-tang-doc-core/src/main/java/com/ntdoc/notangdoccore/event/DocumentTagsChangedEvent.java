@@ -0,0 +1,39 @@
+package com.ntdoc.notangdoccore.event;
+
+import lombok.Getter;
+import org.springframework.context.ApplicationEvent;
+
+import java.util.Set;
+
+/**
+ * 文档标签变更事件
+ * 携带本次新增/移除的标签名，供内存标签索引做增量更新
+ */
+@Getter
+public class DocumentTagsChangedEvent extends ApplicationEvent {
+    private final Long documentId;
+    private final Long ownerId;
+    private final Set<String> addedTags;
+    private final Set<String> removedTags;
+
+    public DocumentTagsChangedEvent(Object source, Long documentId, Long ownerId,
+                                    Set<String> addedTags, Set<String> removedTags) {
+        super(source);
+        this.documentId = documentId;
+        this.ownerId = ownerId;
+        this.addedTags = addedTags == null ? Set.of() : Set.copyOf(addedTags);
+        this.removedTags = removedTags == null ? Set.of() : Set.copyOf(removedTags);
+    }
+
+    public static DocumentTagsChangedEvent added(Object source, Long documentId, Long ownerId, Set<String> tags) {
+        return new DocumentTagsChangedEvent(source, documentId, ownerId, tags, Set.of());
+    }
+
+    public static DocumentTagsChangedEvent removed(Object source, Long documentId, Long ownerId, Set<String> tags) {
+        return new DocumentTagsChangedEvent(source, documentId, ownerId, Set.of(), tags);
+    }
+
+    public boolean isEmpty() {
+        return addedTags.isEmpty() && removedTags.isEmpty();
+    }
+}
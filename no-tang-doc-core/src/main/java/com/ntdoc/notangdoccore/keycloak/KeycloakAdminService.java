@@ -1,8 +1,12 @@
 package com.ntdoc.notangdoccore.keycloak;
 
 import com.ntdoc.notangdoccore.config.KeycloakProperties;
+import com.ntdoc.notangdoccore.exception.KeycloakClientException;
+import jakarta.annotation.PreDestroy;
+import jakarta.ws.rs.client.ClientBuilder;
 import jakarta.ws.rs.core.Response;
-import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.jboss.resteasy.client.jaxrs.ResteasyClientBuilder;
 import org.keycloak.OAuth2Constants;
 import org.keycloak.admin.client.CreatedResponseUtil;
 import org.keycloak.admin.client.Keycloak;
@@ -10,64 +14,201 @@ import org.keycloak.admin.client.KeycloakBuilder;
 import org.keycloak.admin.client.resource.RealmResource;
 import org.keycloak.admin.client.resource.UsersResource;
 import org.keycloak.representations.idm.CredentialRepresentation;
-import org.keycloak.representations.idm.RoleRepresentation;
 import org.keycloak.representations.idm.UserRepresentation;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Service;
 
 
 import java.util.List;
 import java.util.Optional;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
 
+/**
+ * Keycloak 管理接口：整个应用共用一个管理客户端（连接池 + 复用的管理令牌，到期前提前刷新），
+ * 注册请求经有界队列交给固定数量的线程创建用户，突发注册在队列中排队，队列满时直接拒绝
+ */
+@Slf4j
 @Service
-@RequiredArgsConstructor
 public class KeycloakAdminService {
     private final KeycloakProperties props;
+    private final Keycloak keycloak;
+    private final ExecutorService provisioningExecutor;
+    // 首次调用管理接口后才开始定时刷新令牌
+    private final AtomicBoolean tokenInUse = new AtomicBoolean();
 
-    private Keycloak adminClient() {
-        return KeycloakBuilder.builder()
+    @Autowired
+    public KeycloakAdminService(KeycloakProperties props) {
+        this(props, adminClient(props), provisioningExecutor(props.getProvisioning()));
+    }
+
+    KeycloakAdminService(KeycloakProperties props, Keycloak keycloak, ExecutorService provisioningExecutor) {
+        this.props = props;
+        this.keycloak = keycloak;
+        this.provisioningExecutor = provisioningExecutor;
+    }
+
+    private static Keycloak adminClient(KeycloakProperties props) {
+        KeycloakProperties.Admin admin = props.getAdmin();
+        ResteasyClientBuilder httpClient = (ResteasyClientBuilder) ClientBuilder.newBuilder();
+        httpClient.connectionPoolSize(admin.getConnectionPoolSize())
+                .maxPooledPerRoute(admin.getConnectionPoolSize())
+                .connectTimeout(admin.getConnectTimeout().toMillis(), TimeUnit.MILLISECONDS)
+                .readTimeout(admin.getReadTimeout().toMillis(), TimeUnit.MILLISECONDS);
+
+        Keycloak kc = KeycloakBuilder.builder()
                 .serverUrl(props.getAuthServerUrl())
-                .realm(props.getAdmin().getRealm())
+                .realm(admin.getRealm())
                 .grantType(OAuth2Constants.PASSWORD)
-                .clientId(props.getAdmin().getClientId())
-                .username(props.getAdmin().getUsername())
-                .password(props.getAdmin().getPassword())
+                .clientId(admin.getClientId())
+                .username(admin.getUsername())
+                .password(admin.getPassword())
+                .resteasyClient(httpClient.build())
                 .build();
+        // 令牌剩余有效期不足时，下一次调用前先刷新，不会带着即将过期的令牌请求
+        kc.tokenManager().setMinTokenValidity(admin.getTokenMinValidity().toSeconds());
+        return kc;
+    }
+
+    private static ExecutorService provisioningExecutor(KeycloakProperties.Provisioning provisioning) {
+        AtomicInteger threadNo = new AtomicInteger();
+        return new ThreadPoolExecutor(provisioning.getThreads(), provisioning.getThreads(),
+                60, TimeUnit.SECONDS,
+                new ArrayBlockingQueue<>(provisioning.getQueueCapacity()),
+                r -> {
+                    Thread t = new Thread(r, "kc-provisioning-" + threadNo.incrementAndGet());
+                    t.setDaemon(true);
+                    return t;
+                },
+                new ThreadPoolExecutor.AbortPolicy());
     }
 
+    /**
+     * 同步创建用户（在调用线程上等待排队结果）
+     */
     public String createUser(String username, String email, String rawPassword) {
-        try (Keycloak kc = adminClient()) {
-            RealmResource realm = kc.realm(props.getRealm());
-            UsersResource users = realm.users();
+        try {
+            return createUserAsync(username, email, rawPassword).join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw e;
+        }
+    }
+
+    /**
+     * 把创建用户交给注册队列；队列已满或排队超时时返回以 503 {@link KeycloakClientException} 失败的结果。
+     * 超时只针对排队：任务开始调用 Keycloak 后不再放弃，等待其真实结果（受管理客户端的读超时约束），
+     * 因此返回超时的请求一定没有创建用户，客户端可以安全重试
+     */
+    public CompletableFuture<String> createUserAsync(String username, String email, String rawPassword) {
+        CompletableFuture<String> result = new CompletableFuture<>();
+        // 任务开始执行与超时放弃二选一，先到者生效
+        AtomicBoolean claimed = new AtomicBoolean();
+        Runnable task = () -> {
+            if (!claimed.compareAndSet(false, true)) {
+                return;
+            }
+            try {
+                result.complete(doCreateUser(username, email, rawPassword));
+            } catch (Throwable e) {
+                result.completeExceptionally(e);
+            }
+        };
+        try {
+            provisioningExecutor.execute(task);
+        } catch (RejectedExecutionException e) {
+            log.warn("Registration rejected, provisioning queue full: username={}", username);
+            return CompletableFuture.failedFuture(new KeycloakClientException(
+                    "provisioning_busy", "Registration queue is full, retry later", 503, null));
+        }
+        CompletableFuture.delayedExecutor(props.getProvisioning().getTimeout().toMillis(), TimeUnit.MILLISECONDS)
+                .execute(() -> {
+                    if (claimed.compareAndSet(false, true)) {
+                        if (provisioningExecutor instanceof ThreadPoolExecutor pool) {
+                            pool.remove(task);
+                        }
+                        log.warn("Registration timed out in provisioning queue: username={}", username);
+                        result.completeExceptionally(new KeycloakClientException(
+                                "provisioning_timeout", "Registration timed out in queue, retry later", 503, null));
+                    }
+                });
+        return result;
+    }
 
-            UserRepresentation user = new UserRepresentation();
-            user.setUsername(username);
-            user.setEmail(email);
-            user.setEnabled(true);
-            user.setEmailVerified(false);
+    private String doCreateUser(String username, String email, String rawPassword) {
+        tokenInUse.set(true);
+        RealmResource realm = keycloak.realm(props.getRealm());
+        UsersResource users = realm.users();
 
-            Response response = users.create(user);
+        UserRepresentation user = new UserRepresentation();
+        user.setUsername(username);
+        user.setEmail(email);
+        user.setEnabled(true);
+        user.setEmailVerified(false);
+
+        String userId;
+        try (Response response = users.create(user)) {
             if (response.getStatus() >= 300) {
                 throw new IllegalStateException("Create user failed status=" + response.getStatus());
             }
-            String userId = CreatedResponseUtil.getCreatedId(response);
-
-            if (rawPassword != null && !rawPassword.isBlank()) {
-                CredentialRepresentation cred = new CredentialRepresentation();
-                cred.setTemporary(false);
-                cred.setType(CredentialRepresentation.PASSWORD);
-                cred.setValue(rawPassword);
-                users.get(userId).resetPassword(cred);
-            }
+            userId = CreatedResponseUtil.getCreatedId(response);
+        }
 
-            return userId;
+        if (rawPassword != null && !rawPassword.isBlank()) {
+            CredentialRepresentation cred = new CredentialRepresentation();
+            cred.setTemporary(false);
+            cred.setType(CredentialRepresentation.PASSWORD);
+            cred.setValue(rawPassword);
+            users.get(userId).resetPassword(cred);
         }
+
+        return userId;
     }
 
     public Optional<String> findUserIdByUsername(String username) {
-        try (Keycloak kc = adminClient()) {
-            List<UserRepresentation> list = kc.realm(props.getRealm()).users().search(username, true);
-            return list.stream().filter(u -> username.equals(u.getUsername())).findFirst().map(UserRepresentation::getId);
+        tokenInUse.set(true);
+        List<UserRepresentation> list = keycloak.realm(props.getRealm()).users().search(username, true);
+        return list.stream().filter(u -> username.equals(u.getUsername())).findFirst().map(UserRepresentation::getId);
+    }
+
+    /**
+     * 分页列出 realm 中的用户（简要表示：ID、用户名、邮箱）
+     */
+    public List<UserRepresentation> listUsers(int first, int max) {
+        tokenInUse.set(true);
+        return keycloak.realm(props.getRealm()).users().search(null, first, max, true);
+    }
+
+    /**
+     * 定时检查管理令牌，临近过期时在后台刷新，注册请求不用等待令牌请求
+     */
+    @Scheduled(fixedDelayString = "${keycloak.admin.token-refresh-interval-ms:15000}")
+    public void refreshAdminToken() {
+        if (!tokenInUse.get()) {
+            return;
+        }
+        try {
+            keycloak.tokenManager().getAccessToken();
+        } catch (Exception e) {
+            log.warn("Keycloak admin token refresh failed, will retry on next call: {}", e.getMessage());
         }
     }
-}
 
+    @PreDestroy
+    public void shutdown() {
+        provisioningExecutor.shutdown();
+        try {
+            if (!provisioningExecutor.awaitTermination(props.getProvisioning().getTimeout().toMillis(), TimeUnit.MILLISECONDS)) {
+                provisioningExecutor.shutdownNow();
+            }
+        } catch (InterruptedException e) {
+            provisioningExecutor.shutdownNow();
+            Thread.currentThread().interrupt();
+        }
+        keycloak.close();
+    }
+}
@@ -0,0 +1,32 @@
+package com.ntdoc.notangdoccore.listener;
+
+import com.ntdoc.notangdoccore.event.DocumentChangedEvent;
+import com.ntdoc.notangdoccore.service.DocumentSearchService;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.scheduling.annotation.Async;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class DocumentSearchIndexListener {
+    private final DocumentSearchService documentSearchService;
+
+    // 事务提交后再更新索引，避免索引到回滚的数据
+    @Async("taskExecutor")
+    @TransactionalEventListener(fallbackExecution = true)
+    public void handleDocumentChanged(DocumentChangedEvent event) {
+        try {
+            if (event.getChangeType() == DocumentChangedEvent.ChangeType.DELETED) {
+                documentSearchService.removeDocument(event.getDocumentId());
+            } else {
+                documentSearchService.indexDocument(event.getDocumentId());
+            }
+            log.debug("Search index updated: documentId={}, change={}", event.getDocumentId(), event.getChangeType());
+        } catch (Exception e) {
+            log.error("Failed to update search index for document {}", event.getDocumentId(), e);
+        }
+    }
+}
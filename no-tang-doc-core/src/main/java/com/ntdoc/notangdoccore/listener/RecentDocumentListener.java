@@ -0,0 +1,38 @@
+package com.ntdoc.notangdoccore.listener;
+
+import com.ntdoc.notangdoccore.entity.logenum.OperationStatus;
+import com.ntdoc.notangdoccore.entity.logenum.OperationType;
+import com.ntdoc.notangdoccore.event.UserOperationEvent;
+import com.ntdoc.notangdoccore.service.RecentDocumentService;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+/**
+ * 事务提交后同步更新用户最近使用的文档（只处理成功的操作）
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class RecentDocumentListener {
+    private final RecentDocumentService recentDocumentService;
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void handleUserOperation(UserOperationEvent event) {
+        if (event.getOperationStatus() != OperationStatus.SUCCESS
+                || event.getUserId() == null || event.getTargetId() == null) {
+            return;
+        }
+        try {
+            if (event.getOperationType() == OperationType.DELETE_DOCUMENT) {
+                recentDocumentService.documentDeleted(event.getUserId(), event.getTargetId());
+            } else {
+                recentDocumentService.documentUsed(event.getUserId(), event.getTargetId(),
+                        event.getTargetName(), event.getOperationType(), event.getTime());
+            }
+        } catch (Exception e) {
+            log.error("Failed to update recent documents for user {}", event.getUserId(), e);
+        }
+    }
+}
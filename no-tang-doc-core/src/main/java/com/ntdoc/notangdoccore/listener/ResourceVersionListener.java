@@ -0,0 +1,21 @@
+package com.ntdoc.notangdoccore.listener;
+
+import com.ntdoc.notangdoccore.event.DocumentChangedEvent;
+import com.ntdoc.notangdoccore.service.ResourceVersionService;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+/**
+ * 文档变更提交后递增所有者文档列表的版本号
+ */
+@Component
+@RequiredArgsConstructor
+public class ResourceVersionListener {
+    private final ResourceVersionService resourceVersionService;
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void handleDocumentChanged(DocumentChangedEvent event) {
+        resourceVersionService.bump(ResourceVersionService.Scope.DOCUMENTS, event.getOwnerId());
+    }
+}
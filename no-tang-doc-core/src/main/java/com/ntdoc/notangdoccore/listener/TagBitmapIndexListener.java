@@ -0,0 +1,50 @@
+package com.ntdoc.notangdoccore.listener;
+
+import com.ntdoc.notangdoccore.event.DocumentChangedEvent;
+import com.ntdoc.notangdoccore.event.DocumentTagsChangedEvent;
+import com.ntdoc.notangdoccore.service.TagBitmapIndexService;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+/**
+ * 事务提交后同步更新内存标签索引（操作为位图增删，开销很小，同步执行可保持事件顺序）
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class TagBitmapIndexListener {
+    private final TagBitmapIndexService tagBitmapIndexService;
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void handleDocumentChanged(DocumentChangedEvent event) {
+        if (event.getOwnerId() == null) {
+            return;
+        }
+        try {
+            if (event.getChangeType() == DocumentChangedEvent.ChangeType.DELETED) {
+                tagBitmapIndexService.removeDocument(event.getOwnerId(), event.getDocumentId());
+            } else {
+                tagBitmapIndexService.addDocument(event.getOwnerId(), event.getDocumentId());
+            }
+        } catch (Exception e) {
+            log.error("Failed to update tag index for document {}", event.getDocumentId(), e);
+        }
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void handleTagsChanged(DocumentTagsChangedEvent event) {
+        if (event.getOwnerId() == null || event.isEmpty()) {
+            return;
+        }
+        try {
+            tagBitmapIndexService.addTags(event.getOwnerId(), event.getDocumentId(), event.getAddedTags());
+            tagBitmapIndexService.removeTags(event.getOwnerId(), event.getDocumentId(), event.getRemovedTags());
+            log.debug("Tag index updated: documentId={}, added={}, removed={}",
+                    event.getDocumentId(), event.getAddedTags(), event.getRemovedTags());
+        } catch (Exception e) {
+            log.error("Failed to update tag index for document {}", event.getDocumentId(), e);
+        }
+    }
+}
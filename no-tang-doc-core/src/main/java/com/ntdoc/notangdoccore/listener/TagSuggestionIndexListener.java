@@ -0,0 +1,31 @@
+package com.ntdoc.notangdoccore.listener;
+
+import com.ntdoc.notangdoccore.event.DocumentTagsChangedEvent;
+import com.ntdoc.notangdoccore.service.TagSuggestionService;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+/**
+ * 事务提交后同步更新标签自动补全索引的使用次数
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class TagSuggestionIndexListener {
+    private final TagSuggestionService tagSuggestionService;
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void handleTagsChanged(DocumentTagsChangedEvent event) {
+        if (event.isEmpty()) {
+            return;
+        }
+        try {
+            tagSuggestionService.tagsAttached(event.getDocumentId(), event.getOwnerId(), event.getAddedTags());
+            tagSuggestionService.tagsDetached(event.getDocumentId(), event.getOwnerId(), event.getRemovedTags());
+        } catch (Exception e) {
+            log.error("Failed to update tag suggestion index for document {}", event.getDocumentId(), e);
+        }
+    }
+}
@@ -0,0 +1,58 @@
+package com.ntdoc.notangdoccore.listener;
+
+import com.ntdoc.notangdoccore.entity.TeamMember;
+import com.ntdoc.notangdoccore.entity.logenum.OperationStatus;
+import com.ntdoc.notangdoccore.entity.logenum.OperationType;
+import com.ntdoc.notangdoccore.event.DocumentChangedEvent;
+import com.ntdoc.notangdoccore.event.UserOperationEvent;
+import com.ntdoc.notangdoccore.repository.TeamMemberRepository;
+import com.ntdoc.notangdoccore.service.TrendingDocumentService;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.scheduling.annotation.Async;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * 事务提交后把下载、分享计入热门文档（需查询访问者所在团队，异步执行）
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class TrendingDocumentListener {
+    // 计入热门的操作
+    static final Set<OperationType> TRENDING_TYPES = EnumSet.of(
+            OperationType.DOWNLOAD_DOCUMENT,
+            OperationType.SHARE_DOCUMENT);
+
+    private final TrendingDocumentService trendingDocumentService;
+    private final TeamMemberRepository teamMemberRepository;
+
+    @Async("taskExecutor")
+    @TransactionalEventListener(fallbackExecution = true)
+    public void handleUserOperation(UserOperationEvent event) {
+        if (event.getOperationStatus() != OperationStatus.SUCCESS
+                || !TRENDING_TYPES.contains(event.getOperationType())
+                || event.getUserId() == null || event.getTargetId() == null) {
+            return;
+        }
+        try {
+            List<Long> teamIds = teamMemberRepository.findTeamIdsByUserIdAndStatus(
+                    event.getUserId(), TeamMember.MemberStatus.ACTIVE);
+            trendingDocumentService.recordAccess(event.getTargetId(), event.getTargetName(), teamIds);
+        } catch (Exception e) {
+            log.error("Failed to record trending access for document {}", event.getTargetId(), e);
+        }
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void handleDocumentChanged(DocumentChangedEvent event) {
+        if (event.getChangeType() == DocumentChangedEvent.ChangeType.DELETED) {
+            trendingDocumentService.documentRemoved(event.getDocumentId());
+        }
+    }
+}
@@ -3,6 +3,7 @@ package com.ntdoc.notangdoccore.listener;
 import com.ntdoc.notangdoccore.entity.Log;
 import com.ntdoc.notangdoccore.event.UserOperationEvent;
 import com.ntdoc.notangdoccore.repository.LogRepository;
+import com.ntdoc.notangdoccore.service.ResourceVersionService;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.context.event.EventListener;
@@ -17,6 +18,7 @@ import java.time.Instant;
 @RequiredArgsConstructor
 public class UserOperationLogListener {
     private final LogRepository logRepository;
+    private final ResourceVersionService resourceVersionService;
 
     @Async("taskExecutor")
     @EventListener
@@ -38,6 +40,7 @@ public class UserOperationLogListener {
             logEntity.setTime(Instant.ofEpochMilli(event.getTimestamp()));
 
             logRepository.save(logEntity);
+            resourceVersionService.bumpAfterCommit(ResourceVersionService.Scope.LOGS, event.getUserId());
 
             log.info("User Log have been recorded: {} - {} - {} - {}",
                     event.getActorName(),
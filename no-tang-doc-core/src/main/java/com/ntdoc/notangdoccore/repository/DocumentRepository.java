@@ -2,13 +2,24 @@ package com.ntdoc.notangdoccore.repository;
 
 import com.ntdoc.notangdoccore.entity.Document;
 import com.ntdoc.notangdoccore.entity.User;
+import jakarta.persistence.LockModeType;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.query.Param;
 
+import java.time.Instant;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
+import java.util.stream.Stream;
 
 /**
  * 文档数据访问层
@@ -26,18 +37,23 @@ public interface DocumentRepository extends JpaRepository<Document, Long>, JpaSp
 
 
     /**
-     * 根据用户查找所有文档
+     * 根据用户查找所有文档（不含回收站中的文档）
      */
     @Query("SELECT d FROM Document d " +
             "LEFT JOIN FETCH d.tags " +
-            "WHERE d.uploadedBy = :user " +
+            "WHERE d.uploadedBy = :user AND d.status <> 'DELETED' " +
             "ORDER BY d.createdAt DESC")
     List<Document> findByUploadedByOrderByCreatedAtDesc(@Param("user") User uploadedBy);
 
     /**
-     * 根据原始文件名查找文件（模糊匹配、不区分大小写）
+     * 根据原始文件名查找文件（模糊匹配、不区分大小写，不含回收站中的文档）
      */
-    List<Document> findByUploadedByAndOriginalFilenameContainingIgnoreCaseOrderByCreatedAtDesc(User uploadedBy, String partialFilename);
+    @Query("SELECT d FROM Document d " +
+            "WHERE d.uploadedBy = :user AND d.status <> 'DELETED' " +
+            "AND LOWER(d.originalFilename) LIKE LOWER(CONCAT('%', :partialFilename, '%')) " +
+            "ORDER BY d.createdAt DESC")
+    List<Document> findByUploadedByAndOriginalFilenameContainingIgnoreCaseOrderByCreatedAtDesc(@Param("user") User uploadedBy,
+                                                                                              @Param("partialFilename") String partialFilename);
 
     /**
      * 根据S3键查找文档
@@ -65,4 +81,207 @@ public interface DocumentRepository extends JpaRepository<Document, Long>, JpaSp
      */
     @Query("SELECT d FROM Document d WHERE d.uploadedBy = :user AND d.status = 'ACTIVE' ORDER BY d.createdAt DESC")
     List<Document> findRecentDocumentsByUser(@Param("user") User user);
+
+    /**
+     * 按ID批量查询文档，同时加载标签
+     */
+    @EntityGraph(attributePaths = "tags")
+    List<Document> findByIdIn(Collection<Long> ids);
+
+    /**
+     * 按ID批量查询文档，同时加载标签和元数据（用于构建检索索引；元数据为 JSON 列，随行加载）
+     */
+    @EntityGraph(attributePaths = "tags")
+    @Query("SELECT d FROM Document d WHERE d.id IN :ids")
+    List<Document> findAllWithTagsAndMetadataByIdIn(@Param("ids") Collection<Long> ids);
+
+    /**
+     * 按ID顺序分批获取文档ID（键集分页，用于全量重建）
+     */
+    @Query("SELECT d.id FROM Document d WHERE d.id > :afterId ORDER BY d.id ASC")
+    List<Long> findIdsAfter(@Param("afterId") Long afterId, Pageable pageable);
+
+    /**
+     * 按ID顺序分批获取 [文档ID, 所有者ID]（键集分页，用于重建内存标签索引）
+     */
+    @Query("SELECT d.id, d.uploadedBy.id FROM Document d " +
+            "WHERE d.id > :afterId AND d.status <> :excluded ORDER BY d.id ASC")
+    List<Object[]> findIdAndOwnerAfter(@Param("afterId") Long afterId,
+                                       @Param("excluded") Document.DocumentStatus excluded,
+                                       Pageable pageable);
+
+    /**
+     * 按ID批量查询当前用户拥有的文档（回收站以外），所有权在 SQL 中判断
+     */
+    @Query("SELECT d FROM Document d " +
+            "WHERE d.id IN :ids AND d.uploadedBy.id = :userId AND d.status <> 'DELETED'")
+    List<Document> findOwnedByIdIn(@Param("ids") Collection<Long> ids, @Param("userId") Long userId);
+
+    /**
+     * 在给定ID中筛出当前用户拥有的文档ID（回收站以外），所有权在 SQL 中判断
+     */
+    @Query("SELECT d.id FROM Document d " +
+            "WHERE d.id IN :ids AND d.uploadedBy.id = :userId AND d.status <> 'DELETED'")
+    List<Long> findOwnedIdsIn(@Param("ids") Collection<Long> ids, @Param("userId") Long userId);
+
+    /**
+     * 在给定ID中筛出存在（回收站以外）的文档ID，用于区分不存在与无权访问
+     */
+    @Query("SELECT d.id FROM Document d WHERE d.id IN :ids AND d.status <> 'DELETED'")
+    List<Long> findExistingIdsIn(@Param("ids") Collection<Long> ids);
+
+    /**
+     * 批量获取 [文档ID, 标签名]
+     */
+    @Query("SELECT d.id, t.tag FROM Document d JOIN d.tags t WHERE d.id IN :ids")
+    List<Object[]> findTagNamesByDocumentIds(@Param("ids") Collection<Long> ids);
+
+    /**
+     * 流式读取用户文档（按状态过滤，为空时返回回收站以外的全部文档），按上传时间倒序
+     * 游标按批取行（MySQL 需开启 useCursorFetch），只读加载，调用方需在事务内消费并关闭
+     */
+    @QueryHints({
+            @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "500"),
+            @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true")
+    })
+    @Query("SELECT d FROM Document d WHERE d.uploadedBy.id = :userId " +
+            "AND ((:status IS NULL AND d.status <> 'DELETED') OR d.status = :status) " +
+            "ORDER BY d.createdAt DESC")
+    Stream<Document> streamByOwner(@Param("userId") Long userId, @Param("status") Document.DocumentStatus status);
+
+    /**
+     * 流式读取用户带指定标签的文档，按上传时间倒序
+     */
+    @QueryHints({
+            @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "500"),
+            @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true")
+    })
+    @Query("SELECT d FROM Document d JOIN d.tags t " +
+            "WHERE t.tag = :tagName AND d.uploadedBy.kcUserId = :kcUserId AND d.status <> 'DELETED' " +
+            "ORDER BY d.createdAt DESC")
+    Stream<Document> streamByOwnerAndTag(@Param("kcUserId") String kcUserId, @Param("tagName") String tagName);
+
+    /**
+     * 流式读取过滤结果，条件与分页过滤一致（参数为空表示不过滤），按上传时间倒序
+     */
+    @QueryHints({
+            @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "500"),
+            @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true")
+    })
+    @Query("SELECT d FROM Document d WHERE d.uploadedBy.id = :userId AND d.status <> 'DELETED' " +
+            "AND (:contentType IS NULL OR d.contentType = :contentType) " +
+            "AND (:start IS NULL OR d.createdAt >= :start) " +
+            "AND (:end IS NULL OR d.createdAt <= :end) " +
+            "AND (:tag IS NULL OR EXISTS (" +
+            "SELECT 1 FROM Document td JOIN td.tags t WHERE td.id = d.id AND t.tag = :tag)) " +
+            "ORDER BY d.createdAt DESC")
+    Stream<Document> streamFiltered(@Param("userId") Long userId,
+                                    @Param("contentType") String contentType,
+                                    @Param("tag") String tag,
+                                    @Param("start") Instant start,
+                                    @Param("end") Instant end);
+
+    /**
+     * 按ID查询并加写锁，同一文档的版本变更串行执行
+     */
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT d FROM Document d WHERE d.id = :id")
+    Optional<Document> lockById(@Param("id") Long id);
+
+    /**
+     * 锁定一批已过保留期的回收站文档ID；已被其他事务锁住的行跳过，多实例清理互不阻塞
+     */
+    @Query(value = """
+            SELECT d.id FROM document d
+            WHERE d.status = 'DELETED' AND d.deleted_at < :cutoff
+            ORDER BY d.id
+            LIMIT :limit
+            FOR UPDATE SKIP LOCKED
+            """, nativeQuery = true)
+    List<Long> lockExpiredTrashIds(@Param("cutoff") Instant cutoff, @Param("limit") int limit);
+
+    /**
+     * 批量获取文档当前内容的存储键
+     */
+    @Query("SELECT d.s3Key FROM Document d WHERE d.id IN :ids")
+    List<String> findS3KeysByIdIn(@Param("ids") Collection<Long> ids);
+
+    /**
+     * 一条语句物理删除一批回收站文档；标签关联、版本、评论由外键级联删除
+     */
+    @Modifying
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_NATIVE_SPACES, value = "document"))
+    @Query(value = "DELETE FROM document WHERE id IN (:ids) AND status = 'DELETED'", nativeQuery = true)
+    int deleteTrashedByIdIn(@Param("ids") Collection<Long> ids);
+
+    /**
+     * 按ID查询文档并加载标签
+     */
+    @EntityGraph(attributePaths = "tags")
+    @Query("SELECT d FROM Document d WHERE d.id = :id")
+    Optional<Document> findWithTagsById(@Param("id") Long id);
+
+    /**
+     * 一条语句批量写入文档-标签关联，已存在的关联忽略
+     * 执行前先 flush 当前变更，执行后清空持久化上下文（调用方需重新加载文档）
+     */
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_NATIVE_SPACES, value = "document_tags"))
+    @Query(value = """
+        INSERT INTO document_tags (document_id, tag_id)
+        SELECT :documentId, t.id FROM tags t WHERE t.id IN (:tagIds)
+        ON DUPLICATE KEY UPDATE tag_id = document_tags.tag_id
+        """, nativeQuery = true)
+    int insertTagLinks(@Param("documentId") Long documentId, @Param("tagIds") Collection<Long> tagIds);
+
+    /**
+     * 一次聚合查询统计全部分面：文件类型、标签、上传月份、文件大小区间
+     * 筛选条件只在 CTE 中求值一次，各分面在其结果上分组；返回 [facet, label, count]
+     */
+    @Query(value = """
+            WITH fd AS (
+                SELECT d.id, d.content_type, d.created_at, d.file_size
+                FROM document d
+                WHERE d.user_id = :userId
+                  AND d.status <> 'DELETED'
+                  AND (:contentType IS NULL OR d.content_type = :contentType)
+                  AND (:start IS NULL OR d.created_at >= :start)
+                  AND (:end IS NULL OR d.created_at <= :end)
+                  AND (:tag IS NULL OR EXISTS (
+                        SELECT 1 FROM document_tags fdt JOIN tags ft ON ft.id = fdt.tag_id
+                        WHERE fdt.document_id = d.id AND ft.tag = :tag))
+            )
+            SELECT f.facet, f.label, f.cnt FROM (
+                SELECT 'contentType' AS facet, COALESCE(fd.content_type, 'unknown') AS label, COUNT(*) AS cnt
+                FROM fd
+                GROUP BY label
+                UNION ALL
+                SELECT 'tag' AS facet, t.tag AS label, COUNT(*) AS cnt
+                FROM fd
+                JOIN document_tags dt ON dt.document_id = fd.id
+                JOIN tags t ON t.id = dt.tag_id
+                GROUP BY t.tag
+                UNION ALL
+                SELECT 'uploadMonth' AS facet, DATE_FORMAT(fd.created_at, '%Y-%m') AS label, COUNT(*) AS cnt
+                FROM fd
+                GROUP BY label
+                UNION ALL
+                SELECT 'sizeBucket' AS facet,
+                       CASE
+                           WHEN fd.file_size < 1048576 THEN '0-1MB'
+                           WHEN fd.file_size < 10485760 THEN '1-10MB'
+                           WHEN fd.file_size < 52428800 THEN '10-50MB'
+                           ELSE '50MB+'
+                       END AS label,
+                       COUNT(*) AS cnt
+                FROM fd
+                GROUP BY label
+            ) f
+            ORDER BY f.facet, f.cnt DESC, f.label
+            """, nativeQuery = true)
+    List<Object[]> countFacets(@Param("userId") Long userId,
+                               @Param("contentType") String contentType,
+                               @Param("tag") String tag,
+                               @Param("start") Instant start,
+                               @Param("end") Instant end);
 }
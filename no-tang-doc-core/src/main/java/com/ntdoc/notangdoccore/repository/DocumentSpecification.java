@@ -1,7 +1,11 @@
 package com.ntdoc.notangdoccore.repository;
 
 import com.ntdoc.notangdoccore.entity.Document;
+import com.ntdoc.notangdoccore.entity.Tag;
 import com.ntdoc.notangdoccore.entity.User;
+import jakarta.persistence.criteria.Join;
+import jakarta.persistence.criteria.Root;
+import jakarta.persistence.criteria.Subquery;
 import org.springframework.data.jpa.domain.Specification;
 
 import java.time.Instant;
@@ -11,6 +15,11 @@ public class DocumentSpecification {
         return (root, query, cb) -> cb.equal(root.get("uploadedBy"), user);
     }
 
+    // 回收站中的文档不出现在普通列表中
+    public static Specification<Document> notDeleted() {
+        return (root, query, cb) -> cb.notEqual(root.get("status"), Document.DocumentStatus.DELETED);
+    }
+
     public static Specification<Document> fileTypeEquals(String contentType) {
         return (root, query, cb) -> cb.equal(root.get("contentType"), contentType);
     }
@@ -23,4 +32,17 @@ public class DocumentSpecification {
         return (root, query, cb) -> cb.lessThanOrEqualTo(root.get("createdAt"), end);
     }
 
+    // 使用 EXISTS 子查询，避免 JOIN 产生重复行影响分页计数
+    public static Specification<Document> hasTag(String tagName) {
+        return (root, query, cb) -> {
+            Subquery<Long> sub = query.subquery(Long.class);
+            Root<Document> subRoot = sub.from(Document.class);
+            Join<Document, Tag> tags = subRoot.join("tags");
+            sub.select(subRoot.get("id"))
+                    .where(cb.equal(subRoot.get("id"), root.get("id")),
+                            cb.equal(tags.get("tag"), tagName));
+            return cb.exists(sub);
+        };
+    }
+
 }
@@ -0,0 +1,34 @@
+package com.ntdoc.notangdoccore.repository;
+
+import com.ntdoc.notangdoccore.entity.DocumentVersion;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * 文档版本数据访问层
+ */
+public interface DocumentVersionRepository extends JpaRepository<DocumentVersion, Long> {
+
+    /**
+     * 文档的全部版本，最新在前
+     */
+    List<DocumentVersion> findByDocumentIdOrderByVersionNoDesc(Long documentId);
+
+    Optional<DocumentVersion> findByDocumentIdAndVersionNo(Long documentId, Integer versionNo);
+
+    /**
+     * 文档历史中内容相同的最新版本，用于复用已有的存储对象
+     */
+    Optional<DocumentVersion> findFirstByDocumentIdAndFileHashOrderByVersionNoDesc(Long documentId, String fileHash);
+
+    /**
+     * 文档各版本引用的存储对象（去重），删除文档时一并删除
+     */
+    @Query("SELECT DISTINCT v.s3Key FROM DocumentVersion v WHERE v.document.id IN :documentIds")
+    List<String> findBlobKeysByDocumentIdIn(@Param("documentIds") Collection<Long> documentIds);
+}
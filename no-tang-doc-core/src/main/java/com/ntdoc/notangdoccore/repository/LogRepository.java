@@ -4,14 +4,20 @@ import com.ntdoc.notangdoccore.dto.log.LogsCountDTO;
 import com.ntdoc.notangdoccore.entity.Log;
 import com.ntdoc.notangdoccore.entity.logenum.OperationStatus;
 import com.ntdoc.notangdoccore.entity.logenum.OperationType;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.time.Instant;
+import java.util.Collection;
 import java.util.List;
 import java.util.Map;
+import java.util.stream.Stream;
 
 @Repository
 public interface LogRepository extends JpaRepository<Log,Long> {
@@ -23,6 +29,16 @@ public interface LogRepository extends JpaRepository<Log,Long> {
     List<Log> findByOperationStatus(OperationStatus status);
     List<Log> findByTargetId(Long targetId);
 
+    /**
+     * 流式读取用户全部日志，游标按批取行，只读加载；调用方需在事务内消费并关闭
+     */
+    @QueryHints({
+            @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "500"),
+            @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true")
+    })
+    @Query("SELECT l FROM Log l WHERE l.userId = :userId ORDER BY l.id")
+    Stream<Log> streamByUserId(@Param("userId") Long userId);
+
     @Query(value = """
     SELECT DATE_FORMAT(l.time, '%Y-%m-%d') AS label, COUNT(*) AS cnt
     FROM log l
@@ -43,4 +59,14 @@ public interface LogRepository extends JpaRepository<Log,Long> {
     """, nativeQuery = true)
     List<Object[]> countByWeek(@Param("userId") Long userId,@Param("start") Instant start,@Param("end") Instant end);
 
+    /**
+     * 用户最近的文档操作日志（按时间倒序），用于重建最近使用的文档
+     */
+    @Query("SELECT l FROM Log l WHERE l.userId = :userId AND l.targetId IS NOT NULL " +
+            "AND l.operationStatus = :status AND l.operationType IN :types ORDER BY l.time DESC, l.id DESC")
+    List<Log> findRecentDocumentOperations(@Param("userId") Long userId,
+                                           @Param("status") OperationStatus status,
+                                           @Param("types") Collection<OperationType> types,
+                                           Pageable pageable);
+
 }
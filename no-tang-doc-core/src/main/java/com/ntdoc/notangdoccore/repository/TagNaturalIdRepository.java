@@ -0,0 +1,12 @@
+package com.ntdoc.notangdoccore.repository;
+
+import com.ntdoc.notangdoccore.entity.Tag;
+
+import java.util.Optional;
+
+/**
+ * 按自然主键（标签名）查找标签，命中二级缓存时不访问数据库
+ */
+public interface TagNaturalIdRepository {
+    Optional<Tag> findByTag(String tag);
+}
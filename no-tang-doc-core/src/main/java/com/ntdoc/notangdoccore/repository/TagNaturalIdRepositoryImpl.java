@@ -0,0 +1,24 @@
+package com.ntdoc.notangdoccore.repository;
+
+import com.ntdoc.notangdoccore.entity.Tag;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import org.hibernate.Session;
+
+import java.util.Optional;
+
+public class TagNaturalIdRepositoryImpl implements TagNaturalIdRepository {
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Override
+    public Optional<Tag> findByTag(String tag) {
+        if (tag == null) {
+            return Optional.empty();
+        }
+        return entityManager.unwrap(Session.class)
+                .bySimpleNaturalId(Tag.class)
+                .loadOptional(tag);
+    }
+}
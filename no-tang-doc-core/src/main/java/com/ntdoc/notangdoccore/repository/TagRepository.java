@@ -2,19 +2,69 @@ package com.ntdoc.notangdoccore.repository;
 
 import com.ntdoc.notangdoccore.entity.Document;
 import com.ntdoc.notangdoccore.entity.Tag;
+import jakarta.persistence.QueryHint;
 import lombok.Data;
+import org.hibernate.jpa.HibernateHints;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
 import java.util.List;
-import java.util.Optional;
 
 @Repository
-public interface TagRepository extends JpaRepository<Tag,Long> {
-   Optional<Tag> findByTag(String tag);
+public interface TagRepository extends JpaRepository<Tag,Long>, TagNaturalIdRepository {
 
-   @Query("SELECT d FROM Tag t JOIN t.documents d WHERE t.tag = :tagName AND d.uploadedBy.kcUserId = :userId")
+   @Query("SELECT d FROM Tag t JOIN t.documents d " +
+           "WHERE t.tag = :tagName AND d.uploadedBy.kcUserId = :userId AND d.status <> 'DELETED'")
    List<Document> findDocumentsByTagName(@Param("tagName") String tagName, @Param("userId") String kcUserId);
+
+   /**
+    * 按 (标签, 所有者) 统计使用次数，行格式 [tag, ownerId, count]
+    * 未被任何有效文档使用的标签也返回一行（ownerId 为 null，count 为 0）
+    */
+   @Query("SELECT t.tag, u.id, COUNT(d.id) FROM Tag t " +
+           "LEFT JOIN t.documents d ON d.status <> :excluded " +
+           "LEFT JOIN d.uploadedBy u " +
+           "GROUP BY t.tag, u.id")
+   List<Object[]> countUsageByTagAndOwner(@Param("excluded") Document.DocumentStatus excluded);
+
+   /**
+    * 给定文档（排除指定状态）当前挂载的标签，行格式 [documentId, tag]
+    */
+   @Query("SELECT d.id, t.tag FROM Tag t JOIN t.documents d " +
+           "WHERE d.id IN :documentIds AND d.status <> :excluded")
+   List<Object[]> findTagNamesByDocumentIds(@Param("documentIds") Collection<Long> documentIds,
+                                            @Param("excluded") Document.DocumentStatus excluded);
+
+   /**
+    * 按名称批量查询，行格式 [id, tag]
+    */
+   @Query("SELECT t.id, t.tag FROM Tag t WHERE t.tag IN :names")
+   @QueryHints({
+           @QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true"),
+           @QueryHint(name = HibernateHints.HINT_CACHE_REGION, value = "tag-queries")
+   })
+   List<Object[]> findIdsByTagIn(@Param("names") Collection<String> names);
+
+   /**
+    * 同上，但为加锁读：能看到其他事务刚提交的标签（可重复读快照之外）
+    */
+   @Query(value = "SELECT id, tag FROM tags WHERE tag IN (:names) FOR SHARE", nativeQuery = true)
+   List<Object[]> lockIdsByTagIn(@Param("names") Collection<String> names);
+
+   /**
+    * 批量插入标签（参数为 JSON 字符串数组），已存在的同名标签忽略
+    */
+   @Modifying
+   @QueryHints(@QueryHint(name = HibernateHints.HINT_NATIVE_SPACES, value = "tags"))
+   @Query(value = """
+       INSERT INTO tags (tag)
+       SELECT j.tag FROM JSON_TABLE(:names, '$[*]' COLUMNS (tag VARCHAR(64) PATH '$')) AS j
+       ON DUPLICATE KEY UPDATE id = tags.id
+       """, nativeQuery = true)
+   int insertIgnoringDuplicates(@Param("names") String namesJson);
 }
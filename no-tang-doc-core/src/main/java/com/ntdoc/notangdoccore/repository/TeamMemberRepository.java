@@ -1,5 +1,6 @@
 package com.ntdoc.notangdoccore.repository;
 
+import com.ntdoc.notangdoccore.dto.team.TeamAccess;
 import com.ntdoc.notangdoccore.entity.Team;
 import com.ntdoc.notangdoccore.entity.TeamMember;
 import com.ntdoc.notangdoccore.entity.User;
@@ -50,6 +51,22 @@ public interface TeamMemberRepository extends JpaRepository<TeamMember, Long> {
      */
     List<TeamMember> findByTeamAndRole(Team team, TeamMember.TeamRole role);
 
+    /**
+     * 查找用户以指定状态加入的团队ID
+     */
+    @Query("SELECT tm.team.id FROM TeamMember tm WHERE tm.user.id = :userId AND tm.status = :status")
+    List<Long> findTeamIdsByUserIdAndStatus(@Param("userId") Long userId,
+                                            @Param("status") TeamMember.MemberStatus status);
+
+    /**
+     * 按团队ID和 Keycloak 用户ID 查询成员角色和状态，团队不是活跃状态时查不到（团队删除即收回权限）
+     * 走 uq_team_member_team_user 和 app_user.kc_user_id 唯一索引，一次查询，不加载实体
+     */
+    @Query("SELECT new com.ntdoc.notangdoccore.dto.team.TeamAccess(tm.role, tm.status) " +
+           "FROM TeamMember tm JOIN tm.user u JOIN tm.team t " +
+           "WHERE t.id = :teamId AND u.kcUserId = :kcUserId AND t.status = 'ACTIVE'")
+    Optional<TeamAccess> findAccess(@Param("teamId") Long teamId, @Param("kcUserId") String kcUserId);
+
     /**
      * 检查用户是否是团队成员且具有指定角色之一
      */
@@ -2,10 +2,15 @@ package com.ntdoc.notangdoccore.repository;
 
 import com.ntdoc.notangdoccore.entity.Team;
 import com.ntdoc.notangdoccore.entity.User;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.query.Param;
 
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
@@ -39,5 +44,47 @@ public interface TeamRepository extends JpaRepository<Team, Long> {
      */
     @Query("SELECT t FROM Team t WHERE t.status = 'ACTIVE' ORDER BY t.createdAt DESC")
     List<Team> findAllActiveTeams();
-}
 
+    /**
+     * 原子增减成员数（不低于1，拥有者始终是成员），不读取也不整行写回团队
+     */
+    @Modifying
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_NATIVE_SPACES, value = "team"))
+    @Query(value = "UPDATE team SET member_count = GREATEST(1, member_count + :delta) WHERE id = :teamId",
+            nativeQuery = true)
+    int adjustMemberCount(@Param("teamId") Long teamId, @Param("delta") int delta);
+
+    /**
+     * 按活跃成员记录重算成员数：计数与写入在同一条语句中，不会覆盖并发的加入、退出
+     */
+    @Modifying
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_NATIVE_SPACES, value = "team"))
+    @Query(value = """
+    UPDATE team t
+    SET t.member_count = (SELECT COUNT(*) FROM team_member tm WHERE tm.team_id = t.id AND tm.status = 'ACTIVE')
+    WHERE t.id IN (:teamIds)
+    """, nativeQuery = true)
+    int recountMemberCounts(@Param("teamIds") Collection<Long> teamIds);
+
+    /**
+     * 给定团队的拥有者ID（去重）
+     */
+    @Query("SELECT DISTINCT t.owner.id FROM Team t WHERE t.id IN :teamIds")
+    List<Long> findOwnerIdsByTeamIds(@Param("teamIds") Collection<Long> teamIds);
+
+    @Query(value = "SELECT COALESCE(MAX(id), 0) FROM team", nativeQuery = true)
+    long findMaxTeamId();
+
+    /**
+     * 找出 (fromId, toId] 区间内成员数与活跃成员记录数不一致的团队
+     */
+    @Query(value = """
+    SELECT t.id
+    FROM team t
+    LEFT JOIN team_member tm ON tm.team_id = t.id AND tm.status = 'ACTIVE'
+    WHERE t.id > :fromId AND t.id <= :toId
+    GROUP BY t.id, t.member_count
+    HAVING t.member_count <> COUNT(tm.id)
+    """, nativeQuery = true)
+    List<Long> findDriftedTeamIds(@Param("fromId") long fromId, @Param("toId") long toId);
+}
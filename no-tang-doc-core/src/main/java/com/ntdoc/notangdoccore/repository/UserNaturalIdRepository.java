@@ -0,0 +1,12 @@
+package com.ntdoc.notangdoccore.repository;
+
+import com.ntdoc.notangdoccore.entity.User;
+
+import java.util.Optional;
+
+/**
+ * 按自然主键（Keycloak 用户ID）查找用户，命中二级缓存时不访问数据库
+ */
+public interface UserNaturalIdRepository {
+    Optional<User> findByKcUserId(String kcUserId);
+}
@@ -3,13 +3,15 @@ package com.ntdoc.notangdoccore.repository;
 import com.ntdoc.notangdoccore.entity.User;
 import org.springframework.data.jpa.repository.JpaRepository;
 
+import java.util.Collection;
+import java.util.List;
 import java.util.Optional;
 
-public interface UserRepository extends JpaRepository<User, Long> {
+public interface UserRepository extends JpaRepository<User, Long>, UserNaturalIdRepository {
     Optional<User> findByUsername(String username);
 
-    Optional<User> findByKcUserId(String kcUserId);
-
     Optional<User> findByEmail(String email);
+
+    List<User> findByKcUserIdIn(Collection<String> kcUserIds);
 }
 
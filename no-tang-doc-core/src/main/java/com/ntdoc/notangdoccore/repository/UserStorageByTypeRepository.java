@@ -0,0 +1,87 @@
+package com.ntdoc.notangdoccore.repository;
+
+import com.ntdoc.notangdoccore.entity.UserStorageByType;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * 用户按文件类型存储汇总数据访问层
+ */
+@Repository
+public interface UserStorageByTypeRepository extends JpaRepository<UserStorageByType, UserStorageByType.Key> {
+
+    List<UserStorageByType> findByIdUserIdOrderByTotalBytesDesc(Long userId);
+
+    /**
+     * 原子增量更新（行不存在时以增量作为初值插入）
+     */
+    @Modifying
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_NATIVE_SPACES, value = "user_storage_by_type"))
+    @Query(value = """
+    INSERT INTO user_storage_by_type (user_id, content_type, doc_count, total_bytes)
+    VALUES (:userId, :contentType, :count, :bytes)
+    ON DUPLICATE KEY UPDATE
+        doc_count   = doc_count + :count,
+        total_bytes = total_bytes + :bytes
+    """, nativeQuery = true)
+    int applyDelta(@Param("userId") Long userId,
+                   @Param("contentType") String contentType,
+                   @Param("count") long count,
+                   @Param("bytes") long bytes);
+
+    @Modifying
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_NATIVE_SPACES, value = "user_storage_by_type"))
+    @Query(value = "DELETE FROM user_storage_by_type WHERE user_id IN (:userIds)", nativeQuery = true)
+    int deleteByUserIds(@Param("userIds") Collection<Long> userIds);
+
+    /**
+     * 找出 (fromId, toId] 区间内分类型汇总与 document 实际数据不一致的用户：
+     * 某类型的数量或字节数不同、缺少汇总行，或汇总行在 document 中已没有对应数据（数量为 0 的行除外）
+     */
+    @Query(value = """
+    WITH c AS (
+        SELECT d.user_id, COALESCE(d.content_type, 'unknown') AS content_type,
+               COUNT(*) AS doc_count, SUM(d.file_size) AS total_bytes
+        FROM document d
+        WHERE d.user_id > :fromId AND d.user_id <= :toId AND d.status <> 'DELETED'
+        GROUP BY d.user_id, COALESCE(d.content_type, 'unknown')
+    )
+    SELECT c.user_id
+    FROM c
+    LEFT JOIN user_storage_by_type b ON b.user_id = c.user_id AND b.content_type = c.content_type
+    WHERE b.user_id IS NULL
+       OR b.doc_count <> c.doc_count
+       OR b.total_bytes <> c.total_bytes
+    UNION
+    SELECT b.user_id
+    FROM user_storage_by_type b
+    LEFT JOIN c ON c.user_id = b.user_id AND c.content_type = b.content_type
+    WHERE b.user_id > :fromId AND b.user_id <= :toId
+      AND c.user_id IS NULL
+      AND (b.doc_count <> 0 OR b.total_bytes <> 0)
+    """, nativeQuery = true)
+    List<Long> findDriftedUserIds(@Param("fromId") long fromId, @Param("toId") long toId);
+
+    /**
+     * 按 document 实际数据重建指定用户的分类型汇总（需先 deleteByUserIds）
+     */
+    @Modifying
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_NATIVE_SPACES, value = "user_storage_by_type"))
+    @Query(value = """
+    INSERT INTO user_storage_by_type (user_id, content_type, doc_count, total_bytes)
+    SELECT d.user_id, COALESCE(d.content_type, 'unknown'), COUNT(*), SUM(d.file_size)
+    FROM document d
+    WHERE d.user_id IN (:userIds) AND d.status <> 'DELETED'
+    GROUP BY d.user_id, COALESCE(d.content_type, 'unknown')
+    """, nativeQuery = true)
+    int recompute(@Param("userIds") Collection<Long> userIds);
+}
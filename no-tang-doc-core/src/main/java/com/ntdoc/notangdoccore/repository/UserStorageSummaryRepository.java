@@ -0,0 +1,124 @@
+package com.ntdoc.notangdoccore.repository;
+
+import com.ntdoc.notangdoccore.entity.UserStorageSummary;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * 用户存储汇总数据访问层
+ */
+@Repository
+public interface UserStorageSummaryRepository extends JpaRepository<UserStorageSummary, Long> {
+
+    /**
+     * 原子增量更新（行不存在时以增量作为初值插入）
+     */
+    @Modifying
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_NATIVE_SPACES, value = "user_storage_summary"))
+    @Query(value = """
+    INSERT INTO user_storage_summary
+        (user_id, active_count, uploading_count, processing_count, deleted_count, total_bytes, updated_at)
+    VALUES (:userId, :active, :uploading, :processing, :deleted, :bytes, CURRENT_TIMESTAMP)
+    ON DUPLICATE KEY UPDATE
+        active_count     = active_count + :active,
+        uploading_count  = uploading_count + :uploading,
+        processing_count = processing_count + :processing,
+        deleted_count    = deleted_count + :deleted,
+        total_bytes      = total_bytes + :bytes,
+        updated_at       = CURRENT_TIMESTAMP
+    """, nativeQuery = true)
+    int applyDelta(@Param("userId") Long userId,
+                   @Param("active") long active,
+                   @Param("uploading") long uploading,
+                   @Param("processing") long processing,
+                   @Param("deleted") long deleted,
+                   @Param("bytes") long bytes);
+
+    /**
+     * 物理删除前按用户分组扣减回收站计数（已删除文档不计入占用空间，只需扣减 deleted_count）
+     */
+    @Modifying
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_NATIVE_SPACES, value = "user_storage_summary"))
+    @Query(value = """
+    UPDATE user_storage_summary s
+    JOIN (
+        SELECT d.user_id, COUNT(*) AS cnt
+        FROM document d
+        WHERE d.id IN (:documentIds) AND d.status = 'DELETED'
+        GROUP BY d.user_id
+    ) p ON p.user_id = s.user_id
+    SET s.deleted_count = s.deleted_count - p.cnt,
+        s.updated_at    = CURRENT_TIMESTAMP
+    """, nativeQuery = true)
+    int releasePurged(@Param("documentIds") Collection<Long> documentIds);
+
+    @Query(value = "SELECT COALESCE(MAX(id), 0) FROM app_user", nativeQuery = true)
+    long findMaxUserId();
+
+    /**
+     * 找出 (fromId, toId] 区间内汇总与 document 实际数据不一致（或缺失汇总行）的用户
+     */
+    @Query(value = """
+    SELECT c.user_id
+    FROM (
+        SELECT u.id AS user_id,
+               COALESCE(SUM(d.status = 'ACTIVE'), 0)     AS active_count,
+               COALESCE(SUM(d.status = 'UPLOADING'), 0)  AS uploading_count,
+               COALESCE(SUM(d.status = 'PROCESSING'), 0) AS processing_count,
+               COALESCE(SUM(d.status = 'DELETED'), 0)    AS deleted_count,
+               COALESCE(SUM(CASE WHEN d.status <> 'DELETED' THEN d.file_size ELSE 0 END), 0) AS total_bytes
+        FROM app_user u
+        LEFT JOIN document d ON d.user_id = u.id
+        WHERE u.id > :fromId AND u.id <= :toId
+        GROUP BY u.id
+    ) c
+    LEFT JOIN user_storage_summary s ON s.user_id = c.user_id
+    WHERE s.user_id IS NULL
+       OR s.active_count <> c.active_count
+       OR s.uploading_count <> c.uploading_count
+       OR s.processing_count <> c.processing_count
+       OR s.deleted_count <> c.deleted_count
+       OR s.total_bytes <> c.total_bytes
+    """, nativeQuery = true)
+    List<Long> findDriftedUserIds(@Param("fromId") long fromId, @Param("toId") long toId);
+
+    /**
+     * 按 document 实际数据重写指定用户的汇总行
+     */
+    @Modifying
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_NATIVE_SPACES, value = "user_storage_summary"))
+    @Query(value = """
+    INSERT INTO user_storage_summary
+        (user_id, active_count, uploading_count, processing_count, deleted_count, total_bytes, updated_at)
+    SELECT c.user_id, c.active_count, c.uploading_count, c.processing_count, c.deleted_count, c.total_bytes, CURRENT_TIMESTAMP
+    FROM (
+        SELECT u.id AS user_id,
+               COALESCE(SUM(d.status = 'ACTIVE'), 0)     AS active_count,
+               COALESCE(SUM(d.status = 'UPLOADING'), 0)  AS uploading_count,
+               COALESCE(SUM(d.status = 'PROCESSING'), 0) AS processing_count,
+               COALESCE(SUM(d.status = 'DELETED'), 0)    AS deleted_count,
+               COALESCE(SUM(CASE WHEN d.status <> 'DELETED' THEN d.file_size ELSE 0 END), 0) AS total_bytes
+        FROM app_user u
+        LEFT JOIN document d ON d.user_id = u.id
+        WHERE u.id IN (:userIds)
+        GROUP BY u.id
+    ) c
+    ON DUPLICATE KEY UPDATE
+        active_count     = c.active_count,
+        uploading_count  = c.uploading_count,
+        processing_count = c.processing_count,
+        deleted_count    = c.deleted_count,
+        total_bytes      = c.total_bytes,
+        updated_at       = CURRENT_TIMESTAMP
+    """, nativeQuery = true)
+    int recompute(@Param("userIds") Collection<Long> userIds);
+}
@@ -0,0 +1,12 @@
+package com.ntdoc.notangdoccore.repository;
+
+import com.ntdoc.notangdoccore.entity.UserSyncState;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+/**
+ * 用户目录同步进度数据访问层
+ */
+@Repository
+public interface UserSyncStateRepository extends JpaRepository<UserSyncState, String> {
+}
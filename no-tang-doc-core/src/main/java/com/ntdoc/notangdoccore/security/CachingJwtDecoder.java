@@ -0,0 +1,121 @@
+package com.ntdoc.notangdoccore.security;
+
+import com.ntdoc.notangdoccore.config.JwtCacheProperties;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.core.convert.converter.Converter;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.oauth2.jwt.Jwt;
+import org.springframework.security.oauth2.jwt.JwtDecoder;
+import org.springframework.security.oauth2.jwt.JwtException;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HexFormat;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Caches verified tokens by SHA-256 digest of the raw token, together with their authorities.
+ * An entry lives until the token's exp (or max-ttl, whichever comes first), so clients reusing
+ * the same token skip signature verification and role mapping on every request.
+ * Failed decodes are never cached.
+ */
+public class CachingJwtDecoder implements JwtDecoder {
+
+    private final JwtDecoder delegate;
+    private final Converter<Jwt, Collection<GrantedAuthority>> authoritiesConverter;
+    private final Duration maxTtl;
+    private final Clock clock;
+
+    // token digest -> verified token, evicted least-recently-used
+    private final Map<String, Entry> entries;
+
+    private final Timer decodeTimer;
+    private final Counter hits;
+    private final Counter misses;
+
+    private record Entry(Jwt jwt, Collection<GrantedAuthority> authorities, Instant expiresAt) {
+    }
+
+    public CachingJwtDecoder(JwtDecoder delegate,
+                             Converter<Jwt, Collection<GrantedAuthority>> authoritiesConverter,
+                             JwtCacheProperties properties,
+                             MeterRegistry meterRegistry) {
+        this(delegate, authoritiesConverter, properties, meterRegistry, Clock.systemUTC());
+    }
+
+    CachingJwtDecoder(JwtDecoder delegate,
+                      Converter<Jwt, Collection<GrantedAuthority>> authoritiesConverter,
+                      JwtCacheProperties properties,
+                      MeterRegistry meterRegistry,
+                      Clock clock) {
+        this.delegate = delegate;
+        this.authoritiesConverter = authoritiesConverter;
+        this.maxTtl = properties.getMaxTtl();
+        this.clock = clock;
+        int maxEntries = properties.getMaxEntries();
+        this.entries = Collections.synchronizedMap(new LinkedHashMap<>(256, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, Entry> eldest) {
+                return size() > maxEntries;
+            }
+        });
+
+        this.decodeTimer = Timer.builder("ntdoc.jwt.decode")
+                .description("Signature verification and decoding time on cache misses")
+                .register(meterRegistry);
+        this.hits = Counter.builder("ntdoc.jwt.cache.requests").tag("result", "hit").register(meterRegistry);
+        this.misses = Counter.builder("ntdoc.jwt.cache.requests").tag("result", "miss").register(meterRegistry);
+        Gauge.builder("ntdoc.jwt.cache.size", entries, Map::size).register(meterRegistry);
+    }
+
+    @Override
+    public Jwt decode(String token) throws JwtException {
+        String key = digest(token);
+        Instant now = clock.instant();
+        Entry entry = entries.get(key);
+        if (entry != null && now.isBefore(entry.expiresAt())) {
+            hits.increment();
+            return entry.jwt();
+        }
+
+        misses.increment();
+        Jwt jwt = decodeTimer.record(() -> delegate.decode(token));
+        Instant expiresAt = now.plus(maxTtl);
+        if (jwt.getExpiresAt() != null && jwt.getExpiresAt().isBefore(expiresAt)) {
+            expiresAt = jwt.getExpiresAt();
+        }
+        entries.put(key, new Entry(jwt, List.copyOf(authoritiesConverter.convert(jwt)), expiresAt));
+        return jwt;
+    }
+
+    /**
+     * Authorities of a token returned by {@link #decode}; computed directly if it is no longer cached.
+     */
+    public Collection<GrantedAuthority> authorities(Jwt jwt) {
+        Entry entry = entries.get(digest(jwt.getTokenValue()));
+        if (entry != null && entry.jwt() == jwt) {
+            return entry.authorities();
+        }
+        return authoritiesConverter.convert(jwt);
+    }
+
+    private static String digest(String token) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            return HexFormat.of().formatHex(digest.digest(token.getBytes(StandardCharsets.US_ASCII)));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+    }
+}
@@ -5,13 +5,13 @@ import org.springframework.security.core.authority.SimpleGrantedAuthority;
 import org.springframework.security.oauth2.jwt.Jwt;
 
 import java.util.*;
-import java.util.stream.Collectors;
 
 /**
  * Converts Keycloak JWT (realm_access + resource_access + scope) into Spring Security GrantedAuthorities.
  * - realm roles => ROLE_<role>
  * - client roles (resource_access[clientId].roles) => ROLE_<role>
  * - scopes (scope claim, space separated; or scp array) => SCOPE_<scope>
+ * Runs once per token: results are cached alongside the verified token by {@link CachingJwtDecoder}.
  */
 public class KeycloakJwtGrantedAuthoritiesConverter implements Converter<Jwt, Collection<GrantedAuthority>> {
 
@@ -23,50 +23,43 @@ public class KeycloakJwtGrantedAuthoritiesConverter implements Converter<Jwt, Co
 
     @Override
     public Collection<GrantedAuthority> convert(Jwt jwt) {
-        Set<String> roleNames = new HashSet<>();
+        Set<GrantedAuthority> authorities = new LinkedHashSet<>();
+        Map<String, Object> claims = jwt.getClaims();
 
         // realm_access.roles
-        Object realmAccess = jwt.getClaims().get("realm_access");
-        if (realmAccess instanceof Map<?,?> realmMap) {
-            Object roles = realmMap.get("roles");
-            if (roles instanceof Collection<?> coll) {
-                coll.forEach(r -> roleNames.add(String.valueOf(r)));
-            }
+        if (claims.get("realm_access") instanceof Map<?, ?> realmMap) {
+            addAll(authorities, "ROLE_", realmMap.get("roles"));
         }
 
         // resource_access[clientId].roles
-        Object resourceAccess = jwt.getClaims().get("resource_access");
-        if (resourceAccess instanceof Map<?,?> resMap) {
-            Object clientObj = resMap.get(clientId);
-            if (clientObj instanceof Map<?,?> clientMap) {
-                Object roles = clientMap.get("roles");
-                if (roles instanceof Collection<?> coll) {
-                    coll.forEach(r -> roleNames.add(String.valueOf(r)));
-                }
-            }
+        if (claims.get("resource_access") instanceof Map<?, ?> resMap
+                && resMap.get(clientId) instanceof Map<?, ?> clientMap) {
+            addAll(authorities, "ROLE_", clientMap.get("roles"));
         }
 
         // scopes (space separated)
-        Set<String> scopes = new HashSet<>();
-        Object scopeClaim = jwt.getClaims().get("scope");
-        if (scopeClaim instanceof String scopeStr) {
-            scopes.addAll(Arrays.stream(scopeStr.split(" ")).filter(s -> !s.isBlank()).collect(Collectors.toSet()));
-        }
-        Object scpClaim = jwt.getClaims().get("scp"); // some providers use 'scp' array
-        if (scpClaim instanceof Collection<?> coll) {
-            coll.forEach(s -> scopes.add(String.valueOf(s)));
+        if (claims.get("scope") instanceof String scopeStr) {
+            for (String scope : scopeStr.split(" ")) {
+                add(authorities, "SCOPE_", scope);
+            }
         }
+        // some providers use 'scp' array
+        addAll(authorities, "SCOPE_", claims.get("scp"));
 
-        // Build authorities
-        Set<GrantedAuthority> authorities = new HashSet<>();
-        roleNames.stream()
-                .filter(r -> !r.isBlank())
-                .forEach(r -> authorities.add(new SimpleGrantedAuthority("ROLE_" + r)));
+        return authorities;
+    }
 
-        scopes.stream()
-                .filter(s -> !s.isBlank())
-                .forEach(s -> authorities.add(new SimpleGrantedAuthority("SCOPE_" + s)));
+    private static void addAll(Set<GrantedAuthority> authorities, String prefix, Object values) {
+        if (values instanceof Collection<?> coll) {
+            for (Object value : coll) {
+                add(authorities, prefix, String.valueOf(value));
+            }
+        }
+    }
 
-        return authorities;
+    private static void add(Set<GrantedAuthority> authorities, String prefix, String name) {
+        if (!name.isBlank()) {
+            authorities.add(new SimpleGrantedAuthority(prefix + name));
+        }
     }
-}
\ No newline at end of file
+}
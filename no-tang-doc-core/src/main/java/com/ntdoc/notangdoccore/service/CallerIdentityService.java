@@ -0,0 +1,30 @@
+package com.ntdoc.notangdoccore.service;
+
+import com.ntdoc.notangdoccore.entity.User;
+import org.springframework.security.oauth2.jwt.Jwt;
+
+import java.util.Optional;
+
+/**
+ * 调用者身份解析：把 JWT 的 sub 映射为本地用户
+ * 同一请求内只解析一次；跨请求按 sub 缓存，用户名或邮箱声明变化时重新同步
+ */
+public interface CallerIdentityService {
+
+    /**
+     * 解析 JWT 对应的本地用户，不存在时创建
+     *
+     * @return 本地用户（不受当前持久化上下文管理，只用于读取和作为关联引用）
+     */
+    User resolve(Jwt jwt);
+
+    /**
+     * 当前请求的调用者就是该 Keycloak 用户时返回解析结果，否则返回空，由调用方自行查找
+     */
+    Optional<User> findCaller(String kcUserId);
+
+    /**
+     * 丢弃该用户的缓存，下次请求时重新同步
+     */
+    void evict(String kcUserId);
+}
@@ -0,0 +1,31 @@
+package com.ntdoc.notangdoccore.service;
+
+import com.ntdoc.notangdoccore.dto.document.MetadataCondition;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+
+import java.util.List;
+
+/**
+ * 文档元数据查询服务（等值、数值/日期范围）
+ */
+public interface DocumentMetadataQueryService {
+
+    /**
+     * 按元数据条件查询用户的文档ID，按上传时间倒序分页
+     *
+     * @param userId 文档所有者ID
+     * @param conditions 查询条件，之间为 AND
+     * @param pageable 分页参数（排序固定为上传时间倒序）
+     * @return 文档ID分页
+     * @throws IllegalArgumentException 条件不合法或值无法按类型解析
+     */
+    Page<Long> findDocumentIds(Long userId, List<MetadataCondition> conditions, Pageable pageable);
+
+    /**
+     * 校验写入的元数据：提升为生成列的键，值必须能按其类型解析
+     *
+     * @throws IllegalArgumentException 值无法按类型解析
+     */
+    void validate(String key, String value);
+}
@@ -0,0 +1,42 @@
+package com.ntdoc.notangdoccore.service;
+
+import java.util.List;
+
+/**
+ * 文档全文检索服务接口
+ * 索引覆盖文件名、描述、标签与元数据，按相关度排序返回
+ */
+public interface DocumentSearchService {
+
+    /**
+     * 增量索引单个文档（文档不存在或已删除时从索引中移除）
+     *
+     * @param documentId 文档ID
+     */
+    void indexDocument(Long documentId);
+
+    /**
+     * 从索引中移除文档
+     *
+     * @param documentId 文档ID
+     */
+    void removeDocument(Long documentId);
+
+    /**
+     * 从数据库全量重建索引
+     *
+     * @return 重建后索引中的文档数
+     */
+    long rebuildIndex();
+
+    /**
+     * 检索当前用户的文档，支持前缀与模糊匹配
+     *
+     * @param userId 本地用户ID（只返回该用户的文档）
+     * @param keyword 检索关键字
+     * @param page 页码，从0开始
+     * @param size 每页条数
+     * @return 按相关度排序的文档ID列表
+     */
+    List<Long> search(Long userId, String keyword, int page, int size);
+}
@@ -1,12 +1,21 @@
 package com.ntdoc.notangdoccore.service;
 
+import com.ntdoc.notangdoccore.dto.document.DocumentBatchItem;
 import com.ntdoc.notangdoccore.dto.document.DocumentDownloadResponse;
+import com.ntdoc.notangdoccore.dto.document.DocumentFacetResponse;
+import com.ntdoc.notangdoccore.dto.document.DocumentTagResponse;
+import com.ntdoc.notangdoccore.dto.document.MetadataCondition;
 import com.ntdoc.notangdoccore.dto.document.DocumentUploadResponse;
 import com.ntdoc.notangdoccore.entity.Document;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
 import org.springframework.web.multipart.MultipartFile;
 
 import java.time.Instant;
+import java.util.Collection;
 import java.util.List;
+import java.util.Set;
+import java.util.function.Consumer;
 
 /**
  * 文档业务服务接口
@@ -41,6 +50,15 @@ public interface DocumentService {
      */
     void deleteDocument(Long documentId, String kcUserId);
 
+    /**
+     * 从回收站恢复文档（须在恢复期限内）
+     *
+     * @param documentId 文档ID
+     * @param kcUserId 当前用户ID（用于权限验证）
+     * @return 恢复后的文档
+     */
+    Document restoreDocument(Long documentId, String kcUserId);
+
     /**
      * 获取用户的所有文档
      *
@@ -58,6 +76,15 @@ public interface DocumentService {
      */
     List<Document> getUserDocuments(String kcUserId, Document.DocumentStatus status);
 
+    /**
+     * 按字段投影获取用户的文档：只查询请求字段对应的列，未请求的字段保持为空
+     *
+     * @param status 文档状态，为空时返回回收站以外的全部文档
+     * @param fields 请求的字段，取值见 {@link DocumentTagResponse#FIELDS}
+     * @return 按上传时间倒序的文档列表，documentId 总是填充
+     */
+    List<DocumentTagResponse> getUserDocumentFields(String kcUserId, Document.DocumentStatus status, Set<String> fields);
+
     /**
      * 根据ID获取文档详情
      *
@@ -68,7 +95,7 @@ public interface DocumentService {
     Document getDocumentById(Long documentId, String kcUserId);
 
     /**
-     * 增加下载次数
+     * 增加下载次数（异步批量写回数据库）
      *
      * @param documentId 文档ID
      */
@@ -83,6 +110,30 @@ public interface DocumentService {
      */
     List<Document> searchDocumentsByFilename(String kcUserId, String nameOrKeyword);
 
+    /**
+     * 按ID批量获取文档元数据：一次 IN 查询加一次批量标签查询
+     *
+     * @param documentIds 文档ID列表，最多 200 个，重复ID按出现位置各返回一条
+     * @return 与请求顺序一致的结果，不存在或无权访问的ID带对应标记
+     */
+    List<DocumentBatchItem> getDocumentsByIds(String kcUserId, List<Long> documentIds);
+
+    /**
+     * 在给定ID中筛出当前用户可以访问的文档ID（与单文档接口相同，只有上传者可以访问）
+     */
+    Set<Long> findAccessibleIds(String kcUserId, Collection<Long> documentIds);
+
+    /**
+     * 全文检索（文件名、描述、标签、元数据），按相关度排序
+     *
+     * @param kcUserId 当前用户ID
+     * @param keyword 检索关键字，支持前缀与模糊匹配
+     * @param page 页码，从0开始
+     * @param size 每页条数
+     * @return 按相关度排序的文档列表
+     */
+    List<Document> searchDocuments(String kcUserId, String keyword, int page, int size);
+
     /**
      * 根据所有者、上传日期、文件类型过滤文档
      *
@@ -94,4 +145,45 @@ public interface DocumentService {
      */
     List<Document> filterDocuments(String kcUserId, String contentType, Instant start, Instant end);
 
+    /**
+     * 分页过滤文档，额外支持按标签过滤
+     *
+     * @param tag 标签名，可为空
+     * @param pageable 分页与排序
+     * @return 当前页文档（已加载标签）
+     */
+    Page<Document> filterDocuments(String kcUserId, String contentType, String tag, Instant start, Instant end, Pageable pageable);
+
+    /**
+     * 统计过滤结果的分面计数（文件类型、标签、上传月份、文件大小区间）
+     */
+    DocumentFacetResponse getFilterFacets(String kcUserId, String contentType, String tag, Instant start, Instant end);
+
+    /**
+     * 按元数据条件查询文档（等值、数值/日期范围），按上传时间倒序分页
+     *
+     * @param conditions 查询条件，之间为 AND
+     * @return 当前页文档（已加载标签）
+     */
+    Page<Document> queryByMetadata(String kcUserId, List<MetadataCondition> conditions, Pageable pageable);
+
+    /**
+     * 流式读取用户的文档（按状态过滤，可为空），逐条交给 sink，内存占用与结果数量无关
+     * sink 在只读事务内被调用，应尽快写出
+     *
+     * @param sink 每条文档的输出
+     */
+    void streamUserDocuments(String kcUserId, Document.DocumentStatus status, Consumer<DocumentTagResponse> sink);
+
+    /**
+     * 流式读取用户带指定标签的文档
+     */
+    void streamDocumentsByTag(String kcUserId, String tagName, Consumer<DocumentTagResponse> sink);
+
+    /**
+     * 流式读取过滤结果，条件同 {@link #filterDocuments(String, String, String, Instant, Instant, Pageable)}
+     */
+    void streamFilteredDocuments(String kcUserId, String contentType, String tag, Instant start, Instant end,
+                                 Consumer<DocumentTagResponse> sink);
+
 }
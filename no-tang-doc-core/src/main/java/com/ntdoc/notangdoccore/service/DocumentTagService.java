@@ -1,7 +1,10 @@
 package com.ntdoc.notangdoccore.service;
 
+import com.ntdoc.notangdoccore.dto.document.TagSuggestionResponse;
 import com.ntdoc.notangdoccore.entity.Document;
 import com.ntdoc.notangdoccore.entity.Tag;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
 
 import java.util.List;
 
@@ -31,4 +34,14 @@ public interface DocumentTagService {
      */
     List<Document> getDocumentsByTag(String tagName,String kcUserId);
 
+    /**
+     * query documents by boolean tag expression, e.g. "contract AND 2024 AND NOT draft"
+     */
+    Page<Document> queryByTagExpression(String expression, String kcUserId, Pageable pageable);
+
+    /**
+     * tag autocomplete: top-k tags starting with prefix, served from the in-memory index
+     */
+    List<TagSuggestionResponse> suggestTags(String prefix, int limit, String kcUserId);
+
 }
@@ -0,0 +1,14 @@
+package com.ntdoc.notangdoccore.service;
+
+/**
+ * 文档回收站：清理超过保留期的已删除文档
+ */
+public interface DocumentTrashService {
+
+    /**
+     * 分批物理删除超过保留期的回收站文档及其全部版本的存储对象
+     *
+     * @return 删除的文档数
+     */
+    long purgeExpired();
+}
@@ -0,0 +1,36 @@
+package com.ntdoc.notangdoccore.service;
+
+import com.ntdoc.notangdoccore.dto.document.DocumentVersionResponse;
+import org.springframework.web.multipart.MultipartFile;
+
+import java.util.List;
+
+/**
+ * 文档版本服务接口
+ * 内容相同的版本共用同一个存储对象，内容未变化的上传不写存储、不产生新版本
+ */
+public interface DocumentVersionService {
+
+    /**
+     * 上传文档的新版本
+     *
+     * @param documentId 文档ID
+     * @param file 新版本文件
+     * @param kcUserId 当前用户ID（用于权限验证）
+     * @return 新版本；内容与当前版本相同时返回当前版本（created = false）
+     */
+    DocumentVersionResponse uploadVersion(Long documentId, MultipartFile file, String kcUserId);
+
+    /**
+     * 获取文档的全部版本，最新在前
+     */
+    List<DocumentVersionResponse> getVersions(Long documentId, String kcUserId);
+
+    /**
+     * 恢复到指定版本：以该版本的内容追加一个新版本，历史保持不变
+     *
+     * @param versionNo 要恢复的版本号
+     * @return 新版本；与当前内容相同时返回当前版本（created = false）
+     */
+    DocumentVersionResponse restoreVersion(Long documentId, Integer versionNo, String kcUserId);
+}
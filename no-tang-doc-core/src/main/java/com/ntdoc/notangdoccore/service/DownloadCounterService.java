@@ -0,0 +1,19 @@
+package com.ntdoc.notangdoccore.service;
+
+/**
+ * 文档下载次数：在内存中累加，定时批量写回数据库
+ */
+public interface DownloadCounterService {
+
+    /**
+     * 记录一次下载（只在内存中累加，不访问数据库）
+     */
+    void record(Long documentId);
+
+    /**
+     * 把尚未写回的下载次数批量写入数据库
+     *
+     * @return 本次写回的下载次数
+     */
+    long flush();
+}
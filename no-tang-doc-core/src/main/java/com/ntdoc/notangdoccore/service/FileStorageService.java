@@ -4,6 +4,7 @@ import org.springframework.web.multipart.MultipartFile;
 
 import java.net.URL;
 import java.time.Duration;
+import java.util.Collection;
 
 /**
  * 文件存储服务接口
@@ -57,6 +58,14 @@ public interface FileStorageService {
      */
     boolean deleteFile(String s3Key);
 
+    /**
+     * 批量删除文件（按存储端单次请求上限分批）
+     *
+     * @param s3Keys 文件的S3键
+     * @return 删除成功的数量
+     */
+    int deleteFiles(Collection<String> s3Keys);
+
     /**
      * 检查文件是否存在
      *
@@ -4,6 +4,7 @@ import com.ntdoc.notangdoccore.entity.Log;
 
 import java.util.List;
 import java.util.Map;
+import java.util.function.Consumer;
 
 public interface LogService {
 
@@ -11,4 +12,9 @@ public interface LogService {
     List<Log> getAllLogsByTargetId(Long targetId);
     Map<String,Long> getLogsCountByUser(Long userId,String period);
     List<Log> getAllLogsByUserId(Long userId);
+
+    /**
+     * 流式读取用户全部日志，逐条交给 sink，内存占用与日志数量无关
+     */
+    void streamLogsByUserId(Long userId, Consumer<Log> sink);
 }
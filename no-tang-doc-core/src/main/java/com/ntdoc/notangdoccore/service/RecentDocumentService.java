@@ -0,0 +1,32 @@
+package com.ntdoc.notangdoccore.service;
+
+import com.ntdoc.notangdoccore.dto.document.RecentDocumentResponse;
+import com.ntdoc.notangdoccore.entity.logenum.OperationType;
+
+import java.time.Instant;
+import java.util.List;
+
+/**
+ * 每个用户最近使用的文档（内存环形缓冲，按时间倒序、按文档去重）
+ * 由用户操作事件维护，重启后首次访问时从日志表重建
+ */
+public interface RecentDocumentService {
+
+    /**
+     * 记录一次文档使用，该文档移到最前
+     */
+    void documentUsed(Long userId, Long documentId, String fileName, OperationType operationType, Instant time);
+
+    /**
+     * 文档已删除，从最近列表中移除
+     */
+    void documentDeleted(Long userId, Long documentId);
+
+    /**
+     * 当前用户最近使用的前 limit 个文档
+     *
+     * @param kcUserId Keycloak 用户ID
+     * @param limit 条数，最大为配置的缓冲容量
+     */
+    List<RecentDocumentResponse> getRecentDocuments(String kcUserId, int limit);
+}
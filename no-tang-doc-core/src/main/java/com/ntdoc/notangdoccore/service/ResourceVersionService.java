@@ -0,0 +1,38 @@
+package com.ntdoc.notangdoccore.service;
+
+/**
+ * 资源版本号：每次写入后递增，用于生成强 ETag，让轮询请求在加载任何数据前即可返回 304
+ */
+public interface ResourceVersionService {
+
+    enum Scope {
+        DOCUMENTS, // 按用户：文档列表
+        TEAMS,     // 按用户：拥有的团队列表
+        LOGS,      // 按用户：操作日志
+        COMMENTS   // 按文档：评论列表
+    }
+
+    /**
+     * 立即递增版本号（数据已提交后调用，如事务提交后的事件监听器）
+     */
+    void bump(Scope scope, Long key);
+
+    /**
+     * 当前事务提交后才递增，避免并发读取拿到新版本号却读到旧数据；没有事务时立即递增
+     */
+    void bumpAfterCommit(Scope scope, Long key);
+
+    /**
+     * 当前版本对应的 ETag（不含引号）
+     *
+     * @param variant 影响响应内容的其他参数（查询条件、调用者等）
+     */
+    String etag(Scope scope, Long key, Object... variant);
+
+    /**
+     * 按用户的资源的 ETag，用户经二级缓存按 Keycloak ID 解析
+     *
+     * @return 用户尚不存在时返回 null，调用方按普通请求处理
+     */
+    String userEtag(Scope scope, String kcUserId, Object... variant);
+}
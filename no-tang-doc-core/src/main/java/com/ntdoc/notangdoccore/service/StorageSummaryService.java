@@ -0,0 +1,41 @@
+package com.ntdoc.notangdoccore.service;
+
+import com.ntdoc.notangdoccore.dto.storage.StorageSummaryResponse;
+import com.ntdoc.notangdoccore.entity.Document;
+
+/**
+ * 用户存储汇总服务
+ * 写操作必须在文档变更所在的事务中调用，保证汇总与文档同时提交或回滚
+ */
+public interface StorageSummaryService {
+
+    /**
+     * 新增文档后调用
+     */
+    void documentAdded(Document document);
+
+    /**
+     * 物理删除文档后调用
+     */
+    void documentRemoved(Document document);
+
+    /**
+     * 文档状态变更后调用
+     *
+     * @param document 已更新为新状态的文档
+     * @param previousStatus 变更前的状态
+     */
+    void statusChanged(Document document, Document.DocumentStatus previousStatus);
+
+    /**
+     * 获取当前用户的存储汇总
+     */
+    StorageSummaryResponse getSummary(String kcUserId);
+
+    /**
+     * 按 document 表重新核对所有用户的汇总，修复偏差
+     *
+     * @return 修复的用户数
+     */
+    long reconcile();
+}
@@ -1,11 +1,12 @@
 package com.ntdoc.notangdoccore.service;
 
 import com.ntdoc.notangdoccore.entity.Document;
-import com.ntdoc.notangdoccore.entity.Tag;
+import com.ntdoc.notangdoccore.event.DocumentChangedEvent;
+import com.ntdoc.notangdoccore.event.DocumentTagsChangedEvent;
 import com.ntdoc.notangdoccore.repository.DocumentRepository;
-import com.ntdoc.notangdoccore.repository.TagRepository;
 import jakarta.persistence.EntityNotFoundException;
 import lombok.RequiredArgsConstructor;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
@@ -15,42 +16,59 @@ import java.util.*;
 @RequiredArgsConstructor
 public class TagAndMetadataService {
     private final DocumentRepository documentRepo;
-    private final TagRepository tagRepository;
+    private final TagDictionaryService tagDictionaryService;
+    private final ApplicationEventPublisher eventPublisher;
+    private final DocumentMetadataQueryService metadataQueryService;
 
     @Transactional
     public Document upsertTagsAndMetadata(Long documentId, List<String> tags, Map<String, String> metadata) {
         Document document = documentRepo.findById(documentId)
                 .orElseThrow(() -> new EntityNotFoundException("Document not found: " + documentId));
-        Set<Tag> tagList = convertStringsToTags(tags);
-        document.getTags().addAll(tagList);
 
         if (metadata != null) {
+            metadata.forEach(metadataQueryService::validate);
             metadata.forEach(document::putMetadata);
         }
-        return documentRepo.saveAndFlush(document);//May need to adjust
-    }
 
-    public Set<Tag> convertStringsToTags(List<String> tagNames) {
-        if (tagNames == null || tagNames.isEmpty()) {
-            return new HashSet<>();
-        }
+        Map<String, Long> resolved = tagDictionaryService.resolveIds(normalizeTagNames(tags));
+        Set<Long> linked = new HashSet<>();
+        document.getTags().forEach(tag -> linked.add(tag.getId()));
+        Map<String, Long> toLink = new LinkedHashMap<>();
+        resolved.forEach((name, id) -> {
+            if (!linked.contains(id)) {
+                toLink.put(name, id);
+            }
+        });
 
-        Set<Tag> tags = new HashSet<>();
+        Document saved;
+        if (toLink.isEmpty()) {
+            saved = documentRepo.saveAndFlush(document);
+        } else {
+            // 会先 flush 元数据变更，再批量写入关联并清空持久化上下文
+            documentRepo.insertTagLinks(documentId, toLink.values());
+            saved = documentRepo.findWithTagsById(documentId)
+                    .orElseThrow(() -> new EntityNotFoundException("Document not found: " + documentId));
+        }
+        eventPublisher.publishEvent(DocumentChangedEvent.upserted(this, saved.getId(), saved.getUploadedBy().getId()));
+        if (!toLink.isEmpty()) {
+            eventPublisher.publishEvent(DocumentTagsChangedEvent.added(this, saved.getId(), saved.getUploadedBy().getId(), toLink.keySet()));
+        }
+        return saved;
+    }
 
+    /**
+     * 去除首尾空白并去重（保持输入顺序），忽略空值
+     */
+    static Set<String> normalizeTagNames(List<String> tagNames) {
+        Set<String> names = new LinkedHashSet<>();
+        if (tagNames == null) {
+            return names;
+        }
         for (String tagName : tagNames) {
             if (tagName == null || tagName.isBlank()) continue;
-            String normalized = tagName.trim();
-
-            // 查询数据库中是否已有
-            Tag existingTag = tagRepository.findByTag(normalized)
-                    .orElseGet(() -> tagRepository.save(
-                            Tag.builder().tag(normalized).build()
-                    ));
-
-            tags.add(existingTag);
+            names.add(tagName.trim());
         }
-
-        return tags;
+        return names;
     }
 
 }
@@ -0,0 +1,43 @@
+package com.ntdoc.notangdoccore.service;
+
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+
+import java.util.Collection;
+
+/**
+ * 内存标签位图索引：按所有者分区，每个标签对应一个文档ID压缩位图
+ */
+public interface TagBitmapIndexService {
+
+    /**
+     * 登记文档（NOT 运算的全集）
+     */
+    void addDocument(Long ownerId, Long documentId);
+
+    /**
+     * 从所有者的全部位图中移除文档
+     */
+    void removeDocument(Long ownerId, Long documentId);
+
+    void addTags(Long ownerId, Long documentId, Collection<String> tagNames);
+
+    void removeTags(Long ownerId, Long documentId, Collection<String> tagNames);
+
+    /**
+     * 从数据库全量重建
+     *
+     * @return 已索引的文档数
+     */
+    long rebuild();
+
+    /**
+     * 计算布尔标签表达式，例如 {@code contract AND 2024 AND NOT draft}
+     * 支持 AND / OR / NOT 与括号，优先级 NOT > AND > OR；含空格或与运算符同名的标签用双引号包裹
+     *
+     * @return 匹配的文档ID，按ID倒序（即上传时间倒序）分页
+     * @throws IllegalArgumentException 表达式语法错误
+     * @throws IllegalStateException 索引尚未构建完成
+     */
+    Page<Long> query(Long ownerId, String expression, Pageable pageable);
+}
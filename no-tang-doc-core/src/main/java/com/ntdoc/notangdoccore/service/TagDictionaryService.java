@@ -0,0 +1,18 @@
+package com.ntdoc.notangdoccore.service;
+
+import java.util.Collection;
+import java.util.Map;
+
+/**
+ * 标签字典：标签名到标签ID的解析（带缓存），不存在的标签批量创建
+ */
+public interface TagDictionaryService {
+
+    /**
+     * 将已规范化的标签名解析为ID，缺失的标签一次性批量插入（并发插入同名标签不会冲突）
+     *
+     * @return 库中标签名（保留其原始大小写） -> 标签ID，按输入顺序
+     * @throws IllegalArgumentException 标签名超过长度限制
+     */
+    Map<String, Long> resolveIds(Collection<String> tagNames);
+}
@@ -0,0 +1,37 @@
+package com.ntdoc.notangdoccore.service;
+
+import com.ntdoc.notangdoccore.dto.document.TagSuggestionResponse;
+
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * 内存标签前缀索引：按名称有序保存所有标签及其全局/按所有者的使用次数，用于自动补全
+ */
+public interface TagSuggestionService {
+
+    /**
+     * 标签挂到所有者的某个文档上（新标签同时登记到索引）
+     */
+    void tagsAttached(Long documentId, Long ownerId, Collection<String> tagNames);
+
+    /**
+     * 标签从所有者的某个文档上移除（标签名仍保留在索引中）
+     */
+    void tagsDetached(Long documentId, Long ownerId, Collection<String> tagNames);
+
+    /**
+     * 从数据库全量重建
+     *
+     * @return 已索引的标签数
+     */
+    long rebuild();
+
+    /**
+     * 前缀（不区分大小写）匹配的前 limit 个标签
+     * 排序：当前用户使用次数 > 全局使用次数 > 名称
+     *
+     * @throws IllegalStateException 索引尚未构建完成
+     */
+    List<TagSuggestionResponse> suggest(Long ownerId, String prefix, int limit);
+}
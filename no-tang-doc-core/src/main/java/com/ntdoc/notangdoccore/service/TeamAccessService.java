@@ -0,0 +1,27 @@
+package com.ntdoc.notangdoccore.service;
+
+import com.ntdoc.notangdoccore.dto.team.TeamAccess;
+
+import java.util.Optional;
+
+/**
+ * 团队权限查询：(teamId, kcUserId) 一次索引查询得到角色和成员状态，结果缓存在内存中
+ * 成员加入、移除、角色变更、退出或团队删除时由调用方清除对应缓存
+ */
+public interface TeamAccessService {
+
+    /**
+     * 查询用户在团队中的角色和状态，团队或用户不存在、团队不是活跃状态、从未加入时返回空
+     */
+    Optional<TeamAccess> find(Long teamId, String kcUserId);
+
+    /**
+     * 清除该用户在该团队的缓存（立即清除，并在当前事务结束后再清除一次）
+     */
+    void evict(Long teamId, String kcUserId);
+
+    /**
+     * 清除该团队的全部缓存
+     */
+    void evictTeam(Long teamId);
+}
@@ -0,0 +1,14 @@
+package com.ntdoc.notangdoccore.service;
+
+/**
+ * 团队成员数对账：写路径按原子增量维护 team.member_count，定时按活跃成员记录核对
+ */
+public interface TeamMemberCountService {
+
+    /**
+     * 按 team_member 重新核对所有团队的成员数，修复偏差
+     *
+     * @return 修复的团队数
+     */
+    long reconcile();
+}
@@ -1,9 +1,11 @@
 package com.ntdoc.notangdoccore.service;
 
 import com.ntdoc.notangdoccore.dto.team.TeamCreateRequest;
+import com.ntdoc.notangdoccore.dto.team.TeamResponse;
 import com.ntdoc.notangdoccore.entity.Team;
 
 import java.util.List;
+import java.util.Set;
 
 /**
  * 团队业务服务接口
@@ -43,6 +45,15 @@ public interface TeamService {
      */
     List<Team> getUserActiveTeams(String kcUserId);
 
+    /**
+     * 按字段投影获取用户拥有的团队：只查询请求字段对应的列，未请求的字段保持为空
+     *
+     * @param activeOnly 是否只返回活跃团队
+     * @param fields 请求的字段，取值见 {@link TeamResponse#FIELDS}
+     * @return 按创建时间倒序的团队列表，teamId 总是填充
+     */
+    List<TeamResponse> getUserTeamFields(String kcUserId, boolean activeOnly, Set<String> fields);
+
     /**
      * 更新团队信息
      *
@@ -0,0 +1,56 @@
+package com.ntdoc.notangdoccore.service;
+
+import com.ntdoc.notangdoccore.dto.document.TrendingDocumentResponse;
+
+import java.time.Duration;
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * 热门文档：由下载、分享事件驱动，按滑动时间窗口统计全站和各团队访问最多的文档
+ * 固定内存，查询只读取已维护好的 Top-K，不扫描数据库
+ */
+public interface TrendingDocumentService {
+
+    enum Window {
+        HOUR(Duration.ofMinutes(10), 6),  // 最近一小时，10 分钟一格
+        DAY(Duration.ofHours(1), 24),     // 最近一天，1 小时一格
+        WEEK(Duration.ofDays(1), 7);      // 最近一周，1 天一格
+
+        private final Duration bucket;
+        private final int buckets;
+
+        Window(Duration bucket, int buckets) {
+            this.bucket = bucket;
+            this.buckets = buckets;
+        }
+
+        public Duration bucket() {
+            return bucket;
+        }
+
+        public int buckets() {
+            return buckets;
+        }
+    }
+
+    /**
+     * 记录一次文档访问，计入全站和访问者所在的团队
+     */
+    void recordAccess(Long documentId, String fileName, Collection<Long> teamIds);
+
+    /**
+     * 文档已删除，从热门列表中移除
+     */
+    void documentRemoved(Long documentId);
+
+    /**
+     * 全站热门文档
+     */
+    List<TrendingDocumentResponse> getTrending(Window window, int limit);
+
+    /**
+     * 团队热门文档（团队成员的访问）
+     */
+    List<TrendingDocumentResponse> getTeamTrending(Long teamId, Window window, int limit);
+}
@@ -0,0 +1,14 @@
+package com.ntdoc.notangdoccore.service;
+
+/**
+ * 用户目录同步：把 Keycloak 中的用户批量写入本地 app_user，请求路径上不再需要创建用户
+ */
+public interface UserDirectorySyncService {
+
+    /**
+     * 从上次中断的位置继续分页同步，单次最多同步 max-pages-per-run 页
+     *
+     * @return 新建或更新的本地用户数
+     */
+    int syncUsers();
+}
@@ -0,0 +1,141 @@
+package com.ntdoc.notangdoccore.service.impl;
+
+import com.ntdoc.notangdoccore.config.CallerIdentityProperties;
+import com.ntdoc.notangdoccore.entity.User;
+import com.ntdoc.notangdoccore.service.CallerIdentityService;
+import com.ntdoc.notangdoccore.service.UserSyncService;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.security.oauth2.jwt.Jwt;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.web.context.request.RequestAttributes;
+import org.springframework.web.context.request.RequestContextHolder;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+
+/**
+ * 调用者身份缓存：sub -> 本地用户快照（附带用户名、邮箱声明的哈希）
+ * 命中且声明未变化时不访问数据库；未命中时在独立事务中同步，避免在只读事务中写入
+ */
+@Slf4j
+@Service
+public class CachingCallerIdentityService implements CallerIdentityService {
+
+    static final String REQUEST_ATTRIBUTE_PREFIX = CachingCallerIdentityService.class.getName() + ".";
+
+    private final UserSyncService userSyncService;
+    private final TransactionTemplate syncTemplate;
+    private final Duration ttl;
+    private final Clock clock;
+
+    // sub -> 用户快照，按访问顺序淘汰
+    private final Map<String, Identity> identities;
+
+    record Identity(Long id, String kcUserId, String username, String email, int profileHash, Instant expiresAt) {
+
+        static Identity of(User user, int profileHash, Instant expiresAt) {
+            return new Identity(user.getId(), user.getKcUserId(), user.getUsername(), user.getEmail(),
+                    profileHash, expiresAt);
+        }
+
+        User toUser() {
+            return User.builder().id(id).kcUserId(kcUserId).username(username).email(email).build();
+        }
+    }
+
+    @Autowired
+    public CachingCallerIdentityService(UserSyncService userSyncService,
+                                        CallerIdentityProperties properties,
+                                        PlatformTransactionManager transactionManager) {
+        this(userSyncService, properties, transactionManager, Clock.systemUTC());
+    }
+
+    CachingCallerIdentityService(UserSyncService userSyncService,
+                                 CallerIdentityProperties properties,
+                                 PlatformTransactionManager transactionManager,
+                                 Clock clock) {
+        this.userSyncService = userSyncService;
+        this.syncTemplate = new TransactionTemplate(transactionManager);
+        this.syncTemplate.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        this.ttl = properties.getTtl();
+        this.clock = clock;
+        int maxEntries = properties.getMaxEntries();
+        this.identities = Collections.synchronizedMap(new LinkedHashMap<>(256, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, Identity> eldest) {
+                return size() > maxEntries;
+            }
+        });
+    }
+
+    @Override
+    public User resolve(Jwt jwt) {
+        String sub = jwt.getSubject();
+        if (sub == null || sub.isBlank()) {
+            throw new IllegalArgumentException("JWT Subject is required");
+        }
+
+        // 同一请求内直接复用
+        RequestAttributes request = RequestContextHolder.getRequestAttributes();
+        String attribute = REQUEST_ATTRIBUTE_PREFIX + sub;
+        if (request != null && request.getAttribute(attribute, RequestAttributes.SCOPE_REQUEST) instanceof User user) {
+            return user;
+        }
+
+        User user = lookup(jwt, sub);
+        if (request != null) {
+            request.setAttribute(attribute, user, RequestAttributes.SCOPE_REQUEST);
+        }
+        return user;
+    }
+
+    @Override
+    public Optional<User> findCaller(String kcUserId) {
+        if (kcUserId == null) {
+            return Optional.empty();
+        }
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        if (authentication != null && authentication.getPrincipal() instanceof Jwt jwt
+                && kcUserId.equals(jwt.getSubject())) {
+            return Optional.of(resolve(jwt));
+        }
+        return Optional.empty();
+    }
+
+    @Override
+    public void evict(String kcUserId) {
+        if (kcUserId != null) {
+            identities.remove(kcUserId);
+        }
+    }
+
+    private User lookup(Jwt jwt, String sub) {
+        int profileHash = profileHash(jwt);
+        Instant now = clock.instant();
+        Identity cached = identities.get(sub);
+        if (cached != null && cached.profileHash() == profileHash && cached.expiresAt().isAfter(now)) {
+            return cached.toUser();
+        }
+
+        User user = syncTemplate.execute(status -> userSyncService.ensureFromJwt(jwt));
+        identities.put(sub, Identity.of(user, profileHash, now.plus(ttl)));
+        log.debug("Caller identity synced: sub={}, userId={}", sub, user.getId());
+        return user;
+    }
+
+    private static int profileHash(Jwt jwt) {
+        return Objects.hash(jwt.getClaimAsString("preferred_username"), jwt.getClaimAsString("email"));
+    }
+}
@@ -0,0 +1,128 @@
+package com.ntdoc.notangdoccore.service.impl;
+
+import com.ntdoc.notangdoccore.config.TeamAccessProperties;
+import com.ntdoc.notangdoccore.dto.team.TeamAccess;
+import com.ntdoc.notangdoccore.repository.TeamMemberRepository;
+import com.ntdoc.notangdoccore.service.TeamAccessService;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 团队权限缓存：(teamId, kcUserId) -> 角色和状态，非成员的结果也缓存
+ * 成员变更时立即清除，并在事务结束（提交或回滚）后再清除一次；查询期间发生过清除的结果不写入缓存，
+ * 避免把提交前读到的旧权限放回缓存。TTL 兜底其他实例上的变更
+ */
+@Slf4j
+@Service
+public class CachingTeamAccessService implements TeamAccessService {
+
+    private final TeamMemberRepository teamMemberRepository;
+    private final Duration ttl;
+    private final Clock clock;
+
+    // (teamId, kcUserId) -> 权限快照，按访问顺序淘汰
+    private final Map<Key, Entry> entries;
+    // 每次清除加一，查询前后不一致说明期间有成员变更
+    private final AtomicLong evictions = new AtomicLong();
+
+    record Key(Long teamId, String kcUserId) {
+    }
+
+    record Entry(Optional<TeamAccess> access, Instant expiresAt) {
+    }
+
+    @Autowired
+    public CachingTeamAccessService(TeamMemberRepository teamMemberRepository, TeamAccessProperties properties) {
+        this(teamMemberRepository, properties, Clock.systemUTC());
+    }
+
+    CachingTeamAccessService(TeamMemberRepository teamMemberRepository, TeamAccessProperties properties, Clock clock) {
+        this.teamMemberRepository = teamMemberRepository;
+        this.ttl = properties.getTtl();
+        this.clock = clock;
+        int maxEntries = properties.getMaxEntries();
+        this.entries = Collections.synchronizedMap(new LinkedHashMap<>(256, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Key, Entry> eldest) {
+                return size() > maxEntries;
+            }
+        });
+    }
+
+    @Override
+    public Optional<TeamAccess> find(Long teamId, String kcUserId) {
+        if (teamId == null || kcUserId == null) {
+            return Optional.empty();
+        }
+        Key key = new Key(teamId, kcUserId);
+        Instant now = clock.instant();
+        Entry cached = entries.get(key);
+        if (cached != null && cached.expiresAt().isAfter(now)) {
+            return cached.access();
+        }
+
+        long stamp = evictions.get();
+        Optional<TeamAccess> access = teamMemberRepository.findAccess(teamId, kcUserId);
+        if (evictions.get() == stamp) {
+            entries.put(key, new Entry(access, now.plus(ttl)));
+        }
+        return access;
+    }
+
+    @Override
+    public void evict(Long teamId, String kcUserId) {
+        if (teamId == null || kcUserId == null) {
+            return;
+        }
+        Key key = new Key(teamId, kcUserId);
+        Runnable evict = () -> {
+            evictions.incrementAndGet();
+            entries.remove(key);
+        };
+        evict.run();
+        afterCompletion(evict);
+    }
+
+    @Override
+    public void evictTeam(Long teamId) {
+        if (teamId == null) {
+            return;
+        }
+        Runnable evict = () -> {
+            evictions.incrementAndGet();
+            synchronized (entries) {
+                entries.keySet().removeIf(key -> key.teamId().equals(teamId));
+            }
+        };
+        evict.run();
+        afterCompletion(evict);
+        log.debug("Team access cache evicted: teamId={}", teamId);
+    }
+
+    /**
+     * 事务结束后再清除一次：无论提交还是回滚，事务期间并发读取放回缓存的结果都可能已过时
+     */
+    private static void afterCompletion(Runnable action) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCompletion(int status) {
+                action.run();
+            }
+        });
+    }
+}
@@ -20,6 +20,9 @@ import java.security.NoSuchAlgorithmException;
 import java.time.Duration;
 import java.time.LocalDateTime;
 import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
 import java.util.UUID;
 
 /**
@@ -30,6 +33,9 @@ import java.util.UUID;
 @RequiredArgsConstructor
 public class DigitalOceanSpacesService implements FileStorageService {
 
+    // DeleteObjects 单次请求最多 1000 个键
+    static final int DELETE_BATCH_SIZE = 1000;
+
     private final S3Client s3Client;
     private final S3Presigner s3Presigner;
 
@@ -157,6 +163,34 @@ public class DigitalOceanSpacesService implements FileStorageService {
         }
     }
 
+    @Override
+    public int deleteFiles(Collection<String> s3Keys) {
+        List<String> keys = new ArrayList<>(s3Keys);
+        int deleted = 0;
+        for (int from = 0; from < keys.size(); from += DELETE_BATCH_SIZE) {
+            List<ObjectIdentifier> objects = keys.subList(from, Math.min(from + DELETE_BATCH_SIZE, keys.size())).stream()
+                    .map(key -> ObjectIdentifier.builder().key(key).build())
+                    .toList();
+            try {
+                DeleteObjectsRequest deleteRequest = DeleteObjectsRequest.builder()
+                        .bucket(bucketName)
+                        .delete(Delete.builder().objects(objects).quiet(true).build())
+                        .build();
+
+                DeleteObjectsResponse response = s3Client.deleteObjects(deleteRequest);
+                response.errors().forEach(error ->
+                        log.error("Failed to delete file: key={}, code={}, message={}",
+                                error.key(), error.code(), error.message()));
+                deleted += objects.size() - response.errors().size();
+
+            } catch (Exception e) {
+                log.error("Failed to delete files: batch of {} keys", objects.size(), e);
+            }
+        }
+        log.info("Files deleted: {}/{}", deleted, keys.size());
+        return deleted;
+    }
+
     @Override
     public boolean fileExists(String s3Key) {
         try {
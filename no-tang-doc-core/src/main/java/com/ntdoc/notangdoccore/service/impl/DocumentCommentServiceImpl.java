@@ -1,14 +1,19 @@
 package com.ntdoc.notangdoccore.service.impl;
 
+import com.ntdoc.notangdoccore.dto.team.TeamAccess;
 import com.ntdoc.notangdoccore.entity.*;
 import com.ntdoc.notangdoccore.repository.*;
+import com.ntdoc.notangdoccore.service.CallerIdentityService;
 import com.ntdoc.notangdoccore.service.DocumentCommentService;
+import com.ntdoc.notangdoccore.service.ResourceVersionService;
+import com.ntdoc.notangdoccore.service.TeamAccessService;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.util.List;
+import java.util.Optional;
 
 /**
  * 文档评论服务实现类
@@ -22,8 +27,10 @@ public class DocumentCommentServiceImpl implements DocumentCommentService {
     private final DocumentCommentRepository commentRepository;
     private final DocumentRepository documentRepository;
     private final UserRepository userRepository;
+    private final CallerIdentityService callerIdentityService;
     private final TeamRepository teamRepository;
-    private final TeamMemberRepository teamMemberRepository;
+    private final ResourceVersionService resourceVersionService;
+    private final TeamAccessService teamAccessService;
 
     @Override
     public DocumentComment createComment(Long documentId, Long teamId, String content,
@@ -36,7 +43,7 @@ public class DocumentCommentServiceImpl implements DocumentCommentService {
                 .orElseThrow(() -> new RuntimeException("文档不存在: " + documentId));
 
         // 2. 获取用户
-        User user = userRepository.findByKcUserId(userKcId)
+        User user = findUser(userKcId)
                 .orElseThrow(() -> new RuntimeException("用户不存在: " + userKcId));
 
         // 3. 如果指定了团队，验证用户是否是团队成员
@@ -45,10 +52,7 @@ public class DocumentCommentServiceImpl implements DocumentCommentService {
             team = teamRepository.findById(teamId)
                     .orElseThrow(() -> new RuntimeException("团队不存在: " + teamId));
 
-            boolean isMember = teamMemberRepository.existsByTeamAndUserAndStatus(
-                    team, user, TeamMember.MemberStatus.ACTIVE);
-
-            if (!isMember) {
+            if (!isActiveMember(teamId, userKcId)) {
                 throw new SecurityException("您不是该团队成员，无法评论");
             }
         }
@@ -75,6 +79,7 @@ public class DocumentCommentServiceImpl implements DocumentCommentService {
                 .build();
 
         comment = commentRepository.save(comment);
+        resourceVersionService.bumpAfterCommit(ResourceVersionService.Scope.COMMENTS, documentId);
 
         log.info("Comment created successfully: commentId={}, documentId={}",
                 comment.getId(), documentId);
@@ -91,7 +96,7 @@ public class DocumentCommentServiceImpl implements DocumentCommentService {
                 .orElseThrow(() -> new RuntimeException("评论不存在: " + commentId));
 
         // 2. 获取用户
-        User user = userRepository.findByKcUserId(userKcId)
+        User user = findUser(userKcId)
                 .orElseThrow(() -> new RuntimeException("用户不存在: " + userKcId));
 
         // 3. 验证权限：只有评论作者可以编辑
@@ -107,6 +112,7 @@ public class DocumentCommentServiceImpl implements DocumentCommentService {
         // 5. 更新评论内容
         comment.setContent(content);
         comment = commentRepository.save(comment);
+        resourceVersionService.bumpAfterCommit(ResourceVersionService.Scope.COMMENTS, comment.getDocument().getId());
 
         log.info("Comment updated successfully: commentId={}", commentId);
 
@@ -122,7 +128,7 @@ public class DocumentCommentServiceImpl implements DocumentCommentService {
                 .orElseThrow(() -> new RuntimeException("评论不存在: " + commentId));
 
         // 2. 获取用户
-        User user = userRepository.findByKcUserId(userKcId)
+        User user = findUser(userKcId)
                 .orElseThrow(() -> new RuntimeException("用户不存在: " + userKcId));
 
         // 3. 验证权限：评论作者或团队管理员可以删除
@@ -130,12 +136,9 @@ public class DocumentCommentServiceImpl implements DocumentCommentService {
         boolean isTeamAdmin = false;
 
         if (comment.getTeam() != null) {
-            isTeamAdmin = teamMemberRepository.existsByTeamAndUserAndRoleInAndStatus(
-                    comment.getTeam(),
-                    user,
-                    List.of(TeamMember.TeamRole.OWNER, TeamMember.TeamRole.ADMIN),
-                    TeamMember.MemberStatus.ACTIVE
-            );
+            isTeamAdmin = teamAccessService.find(comment.getTeam().getId(), userKcId)
+                    .map(TeamAccess::canManage)
+                    .orElse(false);
         }
 
         if (!isCommentOwner && !isTeamAdmin) {
@@ -145,6 +148,7 @@ public class DocumentCommentServiceImpl implements DocumentCommentService {
         // 4. 软删除评论
         comment.setStatus(DocumentComment.CommentStatus.DELETED);
         commentRepository.save(comment);
+        resourceVersionService.bumpAfterCommit(ResourceVersionService.Scope.COMMENTS, comment.getDocument().getId());
 
         log.info("Comment deleted successfully: commentId={}", commentId);
     }
@@ -159,7 +163,7 @@ public class DocumentCommentServiceImpl implements DocumentCommentService {
                 .orElseThrow(() -> new RuntimeException("文档不存在: " + documentId));
 
         // 2. 获取用户（用于权限验证）
-        User user = userRepository.findByKcUserId(userKcId)
+        User user = findUser(userKcId)
                 .orElseThrow(() -> new RuntimeException("用户不存在: " + userKcId));
 
         // 3. 根据是否指定团队获取评论
@@ -168,10 +172,7 @@ public class DocumentCommentServiceImpl implements DocumentCommentService {
                     .orElseThrow(() -> new RuntimeException("团队不存在: " + teamId));
 
             // 验证用户是否是团队成员
-            boolean isMember = teamMemberRepository.existsByTeamAndUserAndStatus(
-                    team, user, TeamMember.MemberStatus.ACTIVE);
-
-            if (!isMember) {
+            if (!isActiveMember(teamId, userKcId)) {
                 throw new SecurityException("您不是该团队成员，无法查看团队评论");
             }
 
@@ -197,5 +198,18 @@ public class DocumentCommentServiceImpl implements DocumentCommentService {
         return commentRepository.findByParentCommentAndStatusOrderByCreatedAtAsc(
                 comment, DocumentComment.CommentStatus.ACTIVE);
     }
-}
 
+    private boolean isActiveMember(Long teamId, String userKcId) {
+        return teamAccessService.find(teamId, userKcId)
+                .map(TeamAccess::isActiveMember)
+                .orElse(false);
+    }
+
+    /**
+     * 当前调用者直接取已解析的身份（同一请求内不重复查询），其他情况按 Keycloak ID 查找
+     */
+    private Optional<User> findUser(String kcUserId) {
+        return callerIdentityService.findCaller(kcUserId)
+                .or(() -> userRepository.findByKcUserId(kcUserId));
+    }
+}
@@ -0,0 +1,146 @@
+package com.ntdoc.notangdoccore.service.impl;
+
+import com.ntdoc.notangdoccore.config.MetadataProperties;
+import com.ntdoc.notangdoccore.dto.document.MetadataCondition;
+import com.ntdoc.notangdoccore.service.DocumentMetadataQueryService;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import jakarta.persistence.Query;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.Pageable;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.format.DateTimeParseException;
+import java.util.*;
+
+/**
+ * 基于 JSON 列的元数据查询
+ * 已提升为生成列的键直接比较生成列（走 (user_id, 列) 索引），其余键使用 JSON_EXTRACT 并按类型 CAST
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+@Transactional(readOnly = true)
+public class DocumentMetadataQueryServiceImpl implements DocumentMetadataQueryService {
+
+    static final int MAX_CONDITIONS = 10;
+
+    private final MetadataProperties metadataProperties;
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Override
+    public Page<Long> findDocumentIds(Long userId, List<MetadataCondition> conditions, Pageable pageable) {
+        List<MetadataCondition> safeConditions = conditions == null ? List.of() : conditions;
+        if (safeConditions.size() > MAX_CONDITIONS) {
+            throw new IllegalArgumentException("Too many metadata conditions, max " + MAX_CONDITIONS);
+        }
+
+        Map<String, Object> params = new LinkedHashMap<>();
+        params.put("userId", userId);
+        StringBuilder where = new StringBuilder("d.user_id = :userId AND d.status <> 'DELETED'");
+        for (int i = 0; i < safeConditions.size(); i++) {
+            where.append(" AND ").append(toSql(safeConditions.get(i), i, params));
+        }
+
+        Query countQuery = entityManager.createNativeQuery("SELECT COUNT(*) FROM document d WHERE " + where);
+        params.forEach(countQuery::setParameter);
+        long total = ((Number) countQuery.getSingleResult()).longValue();
+        if (total == 0) {
+            return Page.empty(pageable);
+        }
+
+        Query idQuery = entityManager.createNativeQuery(
+                "SELECT d.id FROM document d WHERE " + where + " ORDER BY d.created_at DESC, d.id DESC");
+        params.forEach(idQuery::setParameter);
+        idQuery.setFirstResult((int) pageable.getOffset());
+        idQuery.setMaxResults(pageable.getPageSize());
+
+        List<Long> ids = ((List<?>) idQuery.getResultList()).stream()
+                .map(id -> ((Number) id).longValue())
+                .toList();
+        return new PageImpl<>(ids, pageable, total);
+    }
+
+    @Override
+    public void validate(String key, String value) {
+        if (key == null || value == null || value.isBlank()) {
+            return;
+        }
+        metadataProperties.findIndexedKey(key.trim())
+                .ifPresent(indexed -> parseValue(key, indexed.getType(), value));
+    }
+
+    private String toSql(MetadataCondition condition, int index, Map<String, Object> params) {
+        if (condition == null || condition.key() == null || condition.key().isBlank()) {
+            throw new IllegalArgumentException("Metadata key must not be empty");
+        }
+        if (condition.op() == null || condition.value() == null) {
+            throw new IllegalArgumentException("Metadata condition requires op and value: " + condition.key());
+        }
+
+        String key = condition.key().trim();
+        Optional<MetadataProperties.IndexedKey> indexed = metadataProperties.findIndexedKey(key);
+        MetadataCondition.ValueType type = indexed.map(MetadataProperties.IndexedKey::getType)
+                .orElse(condition.type() == null ? MetadataCondition.ValueType.STRING : condition.type());
+
+        String expression;
+        if (indexed.isPresent()) {
+            expression = "d." + indexed.get().getColumn();
+        } else {
+            String pathParam = "path" + index;
+            params.put(pathParam, jsonPath(key));
+            expression = castExpression("JSON_UNQUOTE(JSON_EXTRACT(d.metadata, :" + pathParam + "))", type);
+        }
+
+        String valueParam = "v" + index;
+        params.put(valueParam, parseValue(key, type, condition.value()));
+        return switch (condition.op()) {
+            case EQ -> expression + " = :" + valueParam;
+            case GT -> expression + " > :" + valueParam;
+            case GTE -> expression + " >= :" + valueParam;
+            case LT -> expression + " < :" + valueParam;
+            case LTE -> expression + " <= :" + valueParam;
+            case BETWEEN -> {
+                if (condition.to() == null) {
+                    throw new IllegalArgumentException("BETWEEN requires 'to': " + key);
+                }
+                String toParam = "t" + index;
+                params.put(toParam, parseValue(key, type, condition.to()));
+                yield expression + " BETWEEN :" + valueParam + " AND :" + toParam;
+            }
+        };
+    }
+
+    private static String castExpression(String expression, MetadataCondition.ValueType type) {
+        return switch (type) {
+            case STRING -> expression;
+            case NUMBER -> "CAST(" + expression + " AS DECIMAL(20, 6))";
+            case DATE -> "CAST(" + expression + " AS DATE)";
+        };
+    }
+
+    private static Object parseValue(String key, MetadataCondition.ValueType type, String value) {
+        try {
+            return switch (type) {
+                case STRING -> value;
+                case NUMBER -> new BigDecimal(value.trim());
+                case DATE -> LocalDate.parse(value.trim());
+            };
+        } catch (NumberFormatException | DateTimeParseException e) {
+            throw new IllegalArgumentException("Invalid " + type + " value for metadata '" + key + "': " + value);
+        }
+    }
+
+    // 键作为参数绑定，双引号包裹以支持任意字符
+    private static String jsonPath(String key) {
+        return "$.\"" + key.replace("\\", "\\\\").replace("\"", "\\\"") + "\"";
+    }
+}
@@ -1,22 +1,44 @@
 package com.ntdoc.notangdoccore.service.impl;
 
+import com.ntdoc.notangdoccore.common.ContentHash;
+import com.ntdoc.notangdoccore.common.UploadedFiles;
+import com.ntdoc.notangdoccore.dto.document.DocumentBatchItem;
 import com.ntdoc.notangdoccore.dto.document.DocumentDownloadResponse;
+import com.ntdoc.notangdoccore.dto.document.DocumentFacetResponse;
+import com.ntdoc.notangdoccore.dto.document.DocumentTagResponse;
+import com.ntdoc.notangdoccore.dto.document.MetadataCondition;
 import com.ntdoc.notangdoccore.dto.document.DocumentUploadResponse;
 import com.ntdoc.notangdoccore.entity.Document;
+import com.ntdoc.notangdoccore.entity.DocumentVersion;
+import com.ntdoc.notangdoccore.entity.Tag;
 import com.ntdoc.notangdoccore.entity.User;
 import com.ntdoc.notangdoccore.entity.logenum.ActorType;
 import com.ntdoc.notangdoccore.entity.logenum.OperationType;
+import com.ntdoc.notangdoccore.event.DocumentChangedEvent;
+import com.ntdoc.notangdoccore.event.DocumentTagsChangedEvent;
 import com.ntdoc.notangdoccore.event.UserOperationEvent;
 import com.ntdoc.notangdoccore.exception.DocumentException;
 import com.ntdoc.notangdoccore.repository.DocumentRepository;
 import com.ntdoc.notangdoccore.repository.DocumentSpecification;
+import com.ntdoc.notangdoccore.repository.DocumentVersionRepository;
 import com.ntdoc.notangdoccore.repository.UserRepository;
+import com.ntdoc.notangdoccore.service.CallerIdentityService;
+import com.ntdoc.notangdoccore.service.DocumentMetadataQueryService;
+import com.ntdoc.notangdoccore.service.DocumentSearchService;
 import com.ntdoc.notangdoccore.service.DocumentService;
+import com.ntdoc.notangdoccore.service.DownloadCounterService;
 import com.ntdoc.notangdoccore.service.FileStorageService;
+import com.ntdoc.notangdoccore.service.StorageSummaryService;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import jakarta.persistence.TypedQuery;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.domain.Specification;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
@@ -24,11 +46,24 @@ import org.springframework.util.StringUtils;
 import org.springframework.web.multipart.MultipartFile;
 
 import java.net.URL;
-import java.security.MessageDigest;
 import java.time.Duration;
 import java.time.Instant;
 import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.Set;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 @Slf4j
 @Service
@@ -39,20 +74,47 @@ public class DocumentServiceImpl implements DocumentService {
     private final DocumentRepository documentRepository;
     private final UserRepository userRepository;
     private final FileStorageService fileStorageService;
+    private final DocumentSearchService documentSearchService;
+    private final StorageSummaryService storageSummaryService;
+    private final DocumentMetadataQueryService metadataQueryService;
+    private final DocumentVersionRepository documentVersionRepository;
+    private final DownloadCounterService downloadCounterService;
+    private final CallerIdentityService callerIdentityService;
     //日志发布放在服务中而不是Controller里
     private final ApplicationEventPublisher eventPublisher;
 
+    // 流式输出时每批处理的文档数，与仓库中游标的 fetch size 一致
+    static final int STREAM_CHUNK_SIZE = 500;
+    // 批量查询单次最多的文档ID数
+    static final int MAX_BATCH_IDS = 200;
+
+    // 稀疏字段与实体属性的对应关系；tags 另行批量查询
+    private static final Map<String, String> DOCUMENT_FIELD_PATHS = Map.of(
+            "fileName", "originalFilename",
+            "status", "status",
+            "fileSize", "fileSize",
+            "mimeType", "contentType",
+            "description", "description",
+            "uploadTime", "createdAt",
+            "lastModified", "updatedAt");
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
     @Value("${digitalocean.spaces.bucket}")
     private String bucketName;
 
     @Value("${digitalocean.spaces.public-url}")
     private String publicUrl;
 
+    @Value("${ntdoc.trash.retention:30d}")
+    private Duration trashRetention;
+
     @Override
     public DocumentUploadResponse uploadDocument(MultipartFile file, String fileName, String description, String kcUserId) {
         log.info("Starting document upload for user: {}, file: {}", kcUserId, file.getOriginalFilename());
 
-        validateFile(file);
+        UploadedFiles.validate(file);
         User user = getUserByKcUserId(kcUserId);
         String originalFilename = file.getOriginalFilename();
         String finalFileName = StringUtils.hasText(fileName) ? fileName : originalFilename;
@@ -78,7 +140,10 @@ public class DocumentServiceImpl implements DocumentService {
                     .build();
 
             document = documentRepository.save(document);
+            documentVersionRepository.save(DocumentVersion.of(document, 1, user));
             log.info("Document saved to database: id={}", document.getId());
+            storageSummaryService.documentAdded(document);
+            eventPublisher.publishEvent(DocumentChangedEvent.upserted(this, document.getId(), user.getId()));
 
             // 发布文件上传成功日志
             eventPublisher.publishEvent(
@@ -195,10 +260,23 @@ public class DocumentServiceImpl implements DocumentService {
         User user = getUserByKcUserId(kcUserId);
         Document document = getDocumentById(documentId, kcUserId);
 
-        // 物理删除
+        if (document.getStatus() == Document.DocumentStatus.DELETED) {
+            log.info("Document already in trash: {}", documentId);
+            return;
+        }
+
+        // 软删除：只更新状态移入回收站，行和存储对象在保留期后由 DocumentTrashService 批量清理
+        Set<String> tagNames = document.getTags().stream().map(Tag::getTag).collect(Collectors.toSet());
         try{
-            documentRepository.delete(document);
-            fileStorageService.deleteFile(document.getS3Key());
+            Document.DocumentStatus previousStatus = document.getStatus();
+            document.setStatus(Document.DocumentStatus.DELETED);
+            document.setDeletedAt(Instant.now());
+            documentRepository.save(document);
+            storageSummaryService.statusChanged(document, previousStatus);
+            eventPublisher.publishEvent(DocumentChangedEvent.deleted(this, documentId, user.getId()));
+            if (!tagNames.isEmpty()) {
+                eventPublisher.publishEvent(DocumentTagsChangedEvent.removed(this, documentId, user.getId(), tagNames));
+            }
 
             // 发布用户删除文档日志
             eventPublisher.publishEvent(
@@ -229,9 +307,48 @@ public class DocumentServiceImpl implements DocumentService {
             );
             log.error("Failed to delete document: {},{}", documentId, e.getMessage());
         }
-        // 软删除：只是更新状态，可恢复
-//        document.setStatus(Document.DocumentStatus.DELETED);
-//        documentRepository.save(document);
+    }
+
+    @Override
+    public Document restoreDocument(Long documentId, String kcUserId) {
+        User user = getUserByKcUserId(kcUserId);
+        // 加写锁：清理任务以 SKIP LOCKED 取行，恢复与物理删除不会交错
+        Document document = documentRepository.lockById(documentId)
+                .orElseThrow(() -> new DocumentException.DocumentNotFoundException(documentId));
+        if (!document.getUploadedBy().getId().equals(user.getId())) {
+            throw new DocumentException.DocumentAccessDeniedException("document " + documentId);
+        }
+        if (document.getStatus() != Document.DocumentStatus.DELETED) {
+            throw new IllegalStateException("文档不在回收站中: " + documentId);
+        }
+        if (document.getDeletedAt() != null
+                && document.getDeletedAt().plus(trashRetention).isBefore(Instant.now())) {
+            throw new IllegalStateException("文档已超过恢复期限: " + documentId);
+        }
+
+        document.setStatus(Document.DocumentStatus.ACTIVE);
+        document.setDeletedAt(null);
+        documentRepository.save(document);
+        storageSummaryService.statusChanged(document, Document.DocumentStatus.DELETED);
+
+        Set<String> tagNames = document.getTags().stream().map(Tag::getTag).collect(Collectors.toSet());
+        eventPublisher.publishEvent(DocumentChangedEvent.upserted(this, documentId, user.getId()));
+        if (!tagNames.isEmpty()) {
+            eventPublisher.publishEvent(DocumentTagsChangedEvent.added(this, documentId, user.getId(), tagNames));
+        }
+        eventPublisher.publishEvent(
+                UserOperationEvent.success(
+                        this,
+                        ActorType.USER,
+                        user.getUsername(),
+                        user.getId(),
+                        documentId,
+                        OperationType.RESTORE_DOCUMENT,
+                        document.getOriginalFilename()
+                )
+        );
+        log.info("Document restored from trash: {} by user: {}", documentId, kcUserId);
+        return document;
     }
 
     @Override
@@ -248,6 +365,67 @@ public class DocumentServiceImpl implements DocumentService {
         return documentRepository.findByUploadedByAndStatusOrderByCreatedAtDesc(user, status);
     }
 
+    @Override
+    @Transactional(readOnly = true)
+    public List<DocumentTagResponse> getUserDocumentFields(String kcUserId, Document.DocumentStatus status,
+                                                           Set<String> fields) {
+        User user = findUser(kcUserId).orElse(null);
+        if (user == null) {
+            return List.of();
+        }
+
+        // 只选择请求的列，条件与排序走 (user_id, created_at) 索引
+        List<String> selected = fields.stream().filter(DOCUMENT_FIELD_PATHS::containsKey).toList();
+        StringBuilder jpql = new StringBuilder("SELECT d.id");
+        for (String field : selected) {
+            jpql.append(", d.").append(DOCUMENT_FIELD_PATHS.get(field));
+        }
+        jpql.append(" FROM Document d WHERE d.uploadedBy.id = :userId AND ")
+                .append(status != null ? "d.status = :status" : "d.status <> 'DELETED'")
+                .append(" ORDER BY d.createdAt DESC");
+
+        TypedQuery<Object[]> query = entityManager.createQuery(jpql.toString(), Object[].class)
+                .setParameter("userId", user.getId());
+        if (status != null) {
+            query.setParameter("status", status);
+        }
+
+        Map<Long, DocumentTagResponse> responses = new LinkedHashMap<>();
+        for (Object[] row : query.getResultList()) {
+            DocumentTagResponse response = new DocumentTagResponse.Sparse();
+            response.setDocumentId((Long) row[0]);
+            for (int i = 0; i < selected.size(); i++) {
+                setDocumentField(response, selected.get(i), row[i + 1]);
+            }
+            responses.put(response.getDocumentId(), response);
+        }
+
+        if (fields.contains("tags") && !responses.isEmpty()) {
+            responses.values().forEach(r -> r.setTags(new ArrayList<>()));
+            List<Long> ids = new ArrayList<>(responses.keySet());
+            for (int from = 0; from < ids.size(); from += STREAM_CHUNK_SIZE) {
+                List<Long> chunk = ids.subList(from, Math.min(from + STREAM_CHUNK_SIZE, ids.size()));
+                for (Object[] row : documentRepository.findTagNamesByDocumentIds(chunk)) {
+                    responses.get((Long) row[0]).getTags().add((String) row[1]);
+                }
+            }
+        }
+        return new ArrayList<>(responses.values());
+    }
+
+    private static void setDocumentField(DocumentTagResponse response, String field, Object value) {
+        switch (field) {
+            case "fileName" -> response.setFileName((String) value);
+            case "status" -> response.setStatus(value != null ? ((Document.DocumentStatus) value).name() : null);
+            case "fileSize" -> response.setFileSize((Long) value);
+            case "mimeType" -> response.setMimeType((String) value);
+            case "description" -> response.setDescription((String) value);
+            case "uploadTime" -> response.setUploadTime(value != null ? value.toString() : null);
+            case "lastModified" -> response.setLastModified(value != null ? value.toString() : null);
+            default -> throw new IllegalArgumentException("不支持的字段: " + field);
+        }
+    }
+
     @Override
     @Transactional(readOnly = true)
     public Document getDocumentById(Long documentId, String kcUserId) {
@@ -256,10 +434,8 @@ public class DocumentServiceImpl implements DocumentService {
         Document document = documentRepository.findById(documentId)
                 .orElseThrow(() -> new RuntimeException("文档不存在: " + documentId));
 
-//        if (!document.getUploadedBy().getId().equals(user.getId())) {
-//            throw new SecurityException("无权删除该文档");
-//        }
-        if (!document.getUploadedBy().equals(user)) {
+        // 调用者是身份缓存中的快照，与文档关联的用户不是同一对象，按ID比较
+        if (!document.getUploadedBy().getId().equals(user.getId())) {
             throw new SecurityException("You are not allowed to delete this document.");
         }
 
@@ -268,39 +444,24 @@ public class DocumentServiceImpl implements DocumentService {
 
     @Override
     public void incrementDownloadCount(Long documentId) {
-        documentRepository.findById(documentId).ifPresent(document -> {
-            document.setDownloadCount(document.getDownloadCount() + 1);
-            documentRepository.save(document);
-        });
+        // 只在内存中累加，由 DownloadCounterService 定时批量写回
+        downloadCounterService.record(documentId);
     }
 
-    private void validateFile(MultipartFile file) {
-        if (file == null || file.isEmpty()) {
-            throw new IllegalArgumentException("文件不能为空");
-        }
-
-        long maxSize = 100 * 1024 * 1024; // 100MB
-        if (file.getSize() > maxSize) {
-            throw new IllegalArgumentException("文件大小不能超过100MB");
-        }
-
-        String filename = file.getOriginalFilename();
-        if (!StringUtils.hasText(filename) || filename.length() > 255) {
-            throw new IllegalArgumentException("文件名无效或过长");
-        }
+    /**
+     * 本地用户由目录同步和调用者身份解析创建，这里只查找，不再创建占位用户
+     */
+    private User getUserByKcUserId(String kcUserId) {
+        return findUser(kcUserId)
+                .orElseThrow(() -> new DocumentException.DocumentAccessDeniedException("unknown user " + kcUserId));
     }
 
-    private User getUserByKcUserId(String kcUserId) {
-        return userRepository.findByKcUserId(kcUserId)
-                .orElseGet(() -> {
-                    log.info("User not found, creating new user with kcUserId: {}", kcUserId);
-                    User newUser = User.builder()
-                            .kcUserId(kcUserId)
-                            .username("user_" + kcUserId.substring(0, 8))
-                            .email("user@example.com")
-                            .build();
-                    return userRepository.save(newUser);
-                });
+    /**
+     * 当前调用者直接取已解析的身份（同一请求内不重复查询），其他情况按 Keycloak ID 查找
+     */
+    private Optional<User> findUser(String kcUserId) {
+        return callerIdentityService.findCaller(kcUserId)
+                .or(() -> userRepository.findByKcUserId(kcUserId));
     }
 
     private String extractFilenameFromS3Key(String s3Key) {
@@ -313,23 +474,73 @@ public class DocumentServiceImpl implements DocumentService {
 
     private String calculateFileHash(MultipartFile file) {
         try {
-            MessageDigest digest = MessageDigest.getInstance("SHA-256");
-            byte[] hash = digest.digest(file.getBytes());
-            StringBuilder hexString = new StringBuilder();
-            for (byte b : hash) {
-                String hex = Integer.toHexString(0xff & b);
-                if (hex.length() == 1) {
-                    hexString.append('0');
-                }
-                hexString.append(hex);
-            }
-            return hexString.toString();
+            return ContentHash.sha256(file);
         } catch (Exception e) {
             log.warn("Failed to calculate file hash, using timestamp instead", e);
             return String.valueOf(System.currentTimeMillis());
         }
     }
 
+    @Override
+    @Transactional(readOnly = true)
+    public List<DocumentBatchItem> getDocumentsByIds(String kcUserId, List<Long> documentIds) {
+        if (documentIds == null || documentIds.isEmpty()) {
+            return List.of();
+        }
+        if (documentIds.size() > MAX_BATCH_IDS) {
+            throw new IllegalArgumentException("一次最多查询 " + MAX_BATCH_IDS + " 个文档");
+        }
+        if (documentIds.contains(null)) {
+            throw new IllegalArgumentException("文档ID不能为空");
+        }
+        Set<Long> ids = new LinkedHashSet<>(documentIds);
+
+        // 所有权在查询条件中判断，查不到的再区分不存在与无权访问
+        Map<Long, Document> owned = findUser(kcUserId)
+                .map(user -> documentRepository.findOwnedByIdIn(ids, user.getId()))
+                .orElse(List.of())
+                .stream()
+                .collect(Collectors.toMap(Document::getId, Function.identity()));
+        Set<Long> existing = new HashSet<>();
+        if (owned.size() < ids.size()) {
+            List<Long> rest = ids.stream().filter(id -> !owned.containsKey(id)).toList();
+            existing.addAll(documentRepository.findExistingIdsIn(rest));
+        }
+
+        Map<Long, List<String>> tagNames = new HashMap<>();
+        if (!owned.isEmpty()) {
+            for (Object[] row : documentRepository.findTagNamesByDocumentIds(owned.keySet())) {
+                tagNames.computeIfAbsent((Long) row[0], id -> new ArrayList<>()).add((String) row[1]);
+            }
+        }
+
+        List<DocumentBatchItem> items = new ArrayList<>(documentIds.size());
+        for (Long id : documentIds) {
+            Document document = owned.get(id);
+            if (document != null) {
+                items.add(DocumentBatchItem.found(
+                        DocumentTagResponse.form(document, tagNames.getOrDefault(id, List.of()))));
+            } else {
+                items.add(DocumentBatchItem.missing(id, existing.contains(id)
+                        ? DocumentBatchItem.Result.FORBIDDEN
+                        : DocumentBatchItem.Result.NOT_FOUND));
+            }
+        }
+        log.debug("Batch document lookup: requested={}, found={}", documentIds.size(), owned.size());
+        return items;
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public Set<Long> findAccessibleIds(String kcUserId, Collection<Long> documentIds) {
+        if (documentIds == null || documentIds.isEmpty()) {
+            return Set.of();
+        }
+        return findUser(kcUserId)
+                .<Set<Long>>map(user -> new HashSet<>(documentRepository.findOwnedIdsIn(documentIds, user.getId())))
+                .orElse(Set.of());
+    }
+
     @Override
     @Transactional(readOnly = true)
     public List<Document> searchDocumentsByFilename(String kcUserId, String nameOrKeyword) {
@@ -343,19 +554,153 @@ public class DocumentServiceImpl implements DocumentService {
         return documentRepository.findByUploadedByAndOriginalFilenameContainingIgnoreCaseOrderByCreatedAtDesc(user, nameOrKeyword.trim());
     }
 
+    @Override
+    @Transactional(readOnly = true)
+    public List<Document> searchDocuments(String kcUserId, String keyword, int page, int size) {
+        log.info("Full-text searching documents for keyword: {} by user: {}", keyword, kcUserId);
+
+        if (keyword == null || keyword.isBlank()) {
+            throw new DocumentException("Search keyword must not be empty");
+        }
+
+        User user = getUserByKcUserId(kcUserId);
+        List<Long> ids = documentSearchService.search(user.getId(), keyword.trim(), page, size);
+        if (ids.isEmpty()) {
+            return List.of();
+        }
+
+        // 按检索结果的相关度顺序返回
+        Map<Long, Document> documents = documentRepository.findByIdIn(ids).stream()
+                .collect(Collectors.toMap(Document::getId, Function.identity()));
+        return ids.stream()
+                .map(documents::get)
+                .filter(Objects::nonNull)
+                .toList();
+    }
+
     @Override
     @Transactional(readOnly = true)
     public List<Document> filterDocuments(String kcUserId, String contentType, Instant start, Instant end) {
         User user = getUserByKcUserId(kcUserId);
+        return documentRepository.findAll(buildFilterSpec(user, contentType, null, start, end));
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public Page<Document> filterDocuments(String kcUserId, String contentType, String tag,
+                                          Instant start, Instant end, Pageable pageable) {
+        User user = getUserByKcUserId(kcUserId);
+        Page<Document> page = documentRepository.findAll(buildFilterSpec(user, contentType, tag, start, end), pageable);
+        if (page.isEmpty()) {
+            return page;
+        }
+
+        // 分页查询不能 fetch join 集合，按当前页ID批量加载标签
+        Map<Long, Document> withTags = documentRepository.findByIdIn(page.map(Document::getId).getContent()).stream()
+                .collect(Collectors.toMap(Document::getId, Function.identity()));
+        return page.map(d -> withTags.getOrDefault(d.getId(), d));
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public DocumentFacetResponse getFilterFacets(String kcUserId, String contentType, String tag, Instant start, Instant end) {
+        User user = getUserByKcUserId(kcUserId);
+        List<Object[]> rows = documentRepository.countFacets(
+                user.getId(), blankToNull(contentType), blankToNull(tag), start, end);
+        return DocumentFacetResponse.fromRows(rows);
+    }
 
+    @Override
+    @Transactional(readOnly = true)
+    public Page<Document> queryByMetadata(String kcUserId, List<MetadataCondition> conditions, Pageable pageable) {
+        User user = getUserByKcUserId(kcUserId);
+        Page<Long> ids = metadataQueryService.findDocumentIds(user.getId(), conditions, pageable);
+        if (ids.isEmpty()) {
+            return Page.empty(pageable);
+        }
+
+        Map<Long, Document> documents = documentRepository.findByIdIn(ids.getContent()).stream()
+                .collect(Collectors.toMap(Document::getId, Function.identity()));
+        List<Document> ordered = ids.getContent().stream()
+                .map(documents::get)
+                .filter(Objects::nonNull)
+                .toList();
+        return new PageImpl<>(ordered, pageable, ids.getTotalElements());
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public void streamUserDocuments(String kcUserId, Document.DocumentStatus status, Consumer<DocumentTagResponse> sink) {
+        findUser(kcUserId).ifPresent(user ->
+                streamInChunks(documentRepository.streamByOwner(user.getId(), status), sink));
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public void streamDocumentsByTag(String kcUserId, String tagName, Consumer<DocumentTagResponse> sink) {
+        streamInChunks(documentRepository.streamByOwnerAndTag(kcUserId, tagName), sink);
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public void streamFilteredDocuments(String kcUserId, String contentType, String tag, Instant start, Instant end,
+                                        Consumer<DocumentTagResponse> sink) {
+        findUser(kcUserId).ifPresent(user ->
+                streamInChunks(documentRepository.streamFiltered(
+                        user.getId(), blankToNull(contentType), blankToNull(tag), start, end), sink));
+    }
+
+    /**
+     * 按批消费游标：每批一次查询加载标签，写出后清空持久化上下文，内存只保留当前一批
+     */
+    private void streamInChunks(Stream<Document> documents, Consumer<DocumentTagResponse> sink) {
+        List<Document> chunk = new ArrayList<>(STREAM_CHUNK_SIZE);
+        int total = 0;
+        try (documents) {
+            Iterator<Document> it = documents.iterator();
+            while (it.hasNext()) {
+                chunk.add(it.next());
+                if (chunk.size() == STREAM_CHUNK_SIZE) {
+                    total += writeChunk(chunk, sink);
+                }
+            }
+            total += writeChunk(chunk, sink);
+        }
+        log.debug("Streamed {} documents", total);
+    }
+
+    private int writeChunk(List<Document> chunk, Consumer<DocumentTagResponse> sink) {
+        if (chunk.isEmpty()) {
+            return 0;
+        }
+        Map<Long, List<String>> tagNames = new HashMap<>();
+        for (Object[] row : documentRepository.findTagNamesByDocumentIds(chunk.stream().map(Document::getId).toList())) {
+            tagNames.computeIfAbsent((Long) row[0], id -> new ArrayList<>()).add((String) row[1]);
+        }
+        for (Document document : chunk) {
+            sink.accept(DocumentTagResponse.form(document, tagNames.getOrDefault(document.getId(), List.of())));
+        }
+        int written = chunk.size();
+        chunk.clear();
+        entityManager.clear();
+        return written;
+    }
+
+    private Specification<Document> buildFilterSpec(User user, String contentType, String tag, Instant start, Instant end) {
         // 初始 Specification 直接用 uploadedBy 条件
-        Specification<Document> spec = DocumentSpecification.uploadedBy(user);
+        Specification<Document> spec = DocumentSpecification.uploadedBy(user)
+                .and(DocumentSpecification.notDeleted());
 
         // 根据文件类型过滤
         if (contentType != null && !contentType.isBlank()) {
             spec = spec.and(DocumentSpecification.fileTypeEquals(contentType));
         }
 
+        // 根据标签过滤
+        if (tag != null && !tag.isBlank()) {
+            spec = spec.and(DocumentSpecification.hasTag(tag.trim()));
+        }
+
         // 根据上传日期过滤
         if (start != null) {
             spec = spec.and(DocumentSpecification.uploadedAfter(start));
@@ -365,7 +710,11 @@ public class DocumentServiceImpl implements DocumentService {
             spec = spec.and(DocumentSpecification.uploadedBefore(end));
         }
 
-        return documentRepository.findAll(spec);
+        return spec;
+    }
+
+    private static String blankToNull(String value) {
+        return value == null || value.isBlank() ? null : value.trim();
     }
 
 }
@@ -1,18 +1,33 @@
 package com.ntdoc.notangdoccore.service.impl;
 
+import com.ntdoc.notangdoccore.dto.document.TagSuggestionResponse;
 import com.ntdoc.notangdoccore.entity.Document;
 import com.ntdoc.notangdoccore.entity.Tag;
+import com.ntdoc.notangdoccore.entity.User;
+import com.ntdoc.notangdoccore.event.DocumentChangedEvent;
+import com.ntdoc.notangdoccore.event.DocumentTagsChangedEvent;
 import com.ntdoc.notangdoccore.repository.DocumentRepository;
 import com.ntdoc.notangdoccore.repository.TagRepository;
+import com.ntdoc.notangdoccore.repository.UserRepository;
+import com.ntdoc.notangdoccore.service.CallerIdentityService;
 import com.ntdoc.notangdoccore.service.DocumentService;
 import com.ntdoc.notangdoccore.service.DocumentTagService;
+import com.ntdoc.notangdoccore.service.TagBitmapIndexService;
+import com.ntdoc.notangdoccore.service.TagDictionaryService;
+import com.ntdoc.notangdoccore.service.TagSuggestionService;
 import jakarta.persistence.EntityNotFoundException;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.Pageable;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.util.*;
+import java.util.function.Function;
+import java.util.stream.Collectors;
 
 @Service
 @Slf4j
@@ -21,6 +36,12 @@ import java.util.*;
 public class DocumentTagServiceImpl implements DocumentTagService {
     private final DocumentRepository documentRepository;
     private final TagRepository tagRepository;
+    private final ApplicationEventPublisher eventPublisher;
+    private final UserRepository userRepository;
+    private final CallerIdentityService callerIdentityService;
+    private final TagBitmapIndexService tagBitmapIndexService;
+    private final TagSuggestionService tagSuggestionService;
+    private final TagDictionaryService tagDictionaryService;
 
     @Override
     @Transactional
@@ -28,10 +49,8 @@ public class DocumentTagServiceImpl implements DocumentTagService {
         Document document = documentRepository.findById(documentId)
                 .orElseThrow(() -> new EntityNotFoundException("Document not found"));
 
-        Set<Tag> tags = convertStringsToTags(tagNames);
-        document.getTags().addAll(tags);
-
-        return documentRepository.save(document);
+        Map<String, Long> resolved = tagDictionaryService.resolveIds(normalizeTagNames(tagNames));
+        return linkTags(document, resolved, Set.of());
     }
 
     @Override
@@ -45,7 +64,10 @@ public class DocumentTagServiceImpl implements DocumentTagService {
                 .orElse(false);
 
         if (removed) {
-            return documentRepository.save(document);
+            Document saved = documentRepository.save(document);
+            publishChanged(saved);
+            publishTagsChanged(DocumentTagsChangedEvent.removed(this, saved.getId(), ownerId(saved), Set.of(tagName)));
+            return saved;
         }
 
         return document;
@@ -57,9 +79,17 @@ public class DocumentTagServiceImpl implements DocumentTagService {
         Document document = documentRepository.findById(documentId)
                 .orElseThrow(() -> new EntityNotFoundException("Document not found"));
 
-        document.getTags().clear();
-        addTags(documentId, tagNames, kcUserId);
-        return documentRepository.save(document);
+        Map<String, Long> resolved = tagDictionaryService.resolveIds(normalizeTagNames(tagNames));
+        Set<Long> keep = new HashSet<>(resolved.values());
+        Set<String> removed = new HashSet<>();
+        document.getTags().removeIf(tag -> {
+            if (keep.contains(tag.getId())) {
+                return false;
+            }
+            removed.add(tag.getTag());
+            return true;
+        });
+        return linkTags(document, resolved, removed);
     }
 
     @Override
@@ -76,13 +106,85 @@ public class DocumentTagServiceImpl implements DocumentTagService {
         return tagRepository.findDocumentsByTagName(tagName,kcUserId);
     }
 
-    public Set<Tag> convertStringsToTags(List<String> tagNames) {
-        if (tagNames == null || tagNames.isEmpty()) {
-            return new HashSet<>();
+    @Override
+    @Transactional(readOnly = true)
+    public Page<Document> queryByTagExpression(String expression, String kcUserId, Pageable pageable) {
+        User user = findUser(kcUserId)
+                .orElseThrow(() -> new EntityNotFoundException("User not found"));
+
+        Page<Long> ids = tagBitmapIndexService.query(user.getId(), expression, pageable);
+        if (ids.isEmpty()) {
+            return new PageImpl<>(List.of(), pageable, ids.getTotalElements());
         }
 
-        Set<Tag> tags = new HashSet<>();
+        Map<Long, Document> documents = documentRepository.findByIdIn(ids.getContent()).stream()
+                .collect(Collectors.toMap(Document::getId, Function.identity()));
+        List<Document> ordered = ids.getContent().stream()
+                .map(documents::get)
+                .filter(Objects::nonNull)
+                .toList();
+        return new PageImpl<>(ordered, pageable, ids.getTotalElements());
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public List<TagSuggestionResponse> suggestTags(String prefix, int limit, String kcUserId) {
+        User user = findUser(kcUserId)
+                .orElseThrow(() -> new EntityNotFoundException("User not found"));
+        return tagSuggestionService.suggest(user.getId(), prefix, limit);
+    }
+
+    private void publishChanged(Document document) {
+        eventPublisher.publishEvent(DocumentChangedEvent.upserted(this, document.getId(), ownerId(document)));
+    }
+
+    private void publishTagsChanged(DocumentTagsChangedEvent event) {
+        if (!event.isEmpty()) {
+            eventPublisher.publishEvent(event);
+        }
+    }
 
+    private static Long ownerId(Document document) {
+        return document.getUploadedBy() != null ? document.getUploadedBy().getId() : null;
+    }
+
+    /**
+     * 批量写入尚未关联的标签（一条 INSERT ... SELECT），随后重新加载文档；
+     * removed 为调用方已从集合中移除的标签名，与新增一起 flush 并发布一次变更事件
+     */
+    private Document linkTags(Document document, Map<String, Long> resolved, Set<String> removed) {
+        Set<Long> linked = document.getTags().stream().map(Tag::getId).collect(Collectors.toSet());
+        Map<String, Long> toLink = new LinkedHashMap<>();
+        resolved.forEach((name, id) -> {
+            if (!linked.contains(id)) {
+                toLink.put(name, id);
+            }
+        });
+        if (toLink.isEmpty() && removed.isEmpty()) {
+            return document;
+        }
+
+        Document saved;
+        if (toLink.isEmpty()) {
+            saved = documentRepository.save(document);
+        } else {
+            documentRepository.insertTagLinks(document.getId(), toLink.values());
+            saved = documentRepository.findWithTagsById(document.getId())
+                    .orElseThrow(() -> new EntityNotFoundException("Document not found"));
+        }
+        publishChanged(saved);
+        publishTagsChanged(new DocumentTagsChangedEvent(this, saved.getId(), ownerId(saved), toLink.keySet(), removed));
+        return saved;
+    }
+
+    /**
+     * 规范化并去重（保持输入顺序）：去除首尾空白与特殊字符，忽略空值
+     */
+    public static Set<String> normalizeTagNames(List<String> tagNames) {
+        Set<String> names = new LinkedHashSet<>();
+        if (tagNames == null) {
+            return names;
+        }
         for (String tagName : tagNames) {
             if (tagName == null || tagName.isBlank()) continue;
 
@@ -90,17 +192,18 @@ public class DocumentTagServiceImpl implements DocumentTagService {
                     .replaceAll("[^a-zA-Z0-9\\u4e00-\\u9fa5_-]", "")  // 移除特殊字符
                     .replaceAll("^[_-]+|[_-]+$", "");                 // 移除首尾特殊字符
 
-            if (normalized.isEmpty()) continue;
-
-            Tag existingTag = tagRepository.findByTag(normalized)
-                    .orElseGet(() -> tagRepository.save(
-                            Tag.builder().tag(normalized).build()
-                    ));
-
-            tags.add(existingTag);
+            if (!normalized.isEmpty()) {
+                names.add(normalized);
+            }
         }
+        return names;
+    }
 
-        return tags;
+    /**
+     * 当前调用者直接取已解析的身份（同一请求内不重复查询），其他情况按 Keycloak ID 查找
+     */
+    private Optional<User> findUser(String kcUserId) {
+        return callerIdentityService.findCaller(kcUserId)
+                .or(() -> userRepository.findByKcUserId(kcUserId));
     }
 }
-
@@ -0,0 +1,84 @@
+package com.ntdoc.notangdoccore.service.impl;
+
+import com.ntdoc.notangdoccore.config.TrashProperties;
+import com.ntdoc.notangdoccore.repository.DocumentRepository;
+import com.ntdoc.notangdoccore.repository.DocumentVersionRepository;
+import com.ntdoc.notangdoccore.repository.UserStorageSummaryRepository;
+import com.ntdoc.notangdoccore.service.DocumentTrashService;
+import com.ntdoc.notangdoccore.service.FileStorageService;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Instant;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * 回收站清理：每批一个事务，用集合 SQL 删除文档行，提交后再批量删除存储对象
+ */
+@Slf4j
+@Service
+public class DocumentTrashServiceImpl implements DocumentTrashService {
+
+    private final DocumentRepository documentRepository;
+    private final DocumentVersionRepository versionRepository;
+    private final UserStorageSummaryRepository summaryRepository;
+    private final FileStorageService fileStorageService;
+    private final TrashProperties properties;
+    private final TransactionTemplate txTemplate;
+
+    public DocumentTrashServiceImpl(DocumentRepository documentRepository,
+                                    DocumentVersionRepository versionRepository,
+                                    UserStorageSummaryRepository summaryRepository,
+                                    FileStorageService fileStorageService,
+                                    TrashProperties properties,
+                                    PlatformTransactionManager transactionManager) {
+        this.documentRepository = documentRepository;
+        this.versionRepository = versionRepository;
+        this.summaryRepository = summaryRepository;
+        this.fileStorageService = fileStorageService;
+        this.properties = properties;
+        this.txTemplate = new TransactionTemplate(transactionManager);
+    }
+
+    @Override
+    @Scheduled(cron = "${ntdoc.trash.purge-cron:0 30 3 * * *}")
+    public long purgeExpired() {
+        long start = System.currentTimeMillis();
+        int batchSize = Math.max(1, properties.getPurgeBatchSize());
+        Instant cutoff = Instant.now().minus(properties.getRetention());
+
+        long purged = 0;
+        while (true) {
+            Set<String> blobKeys = new LinkedHashSet<>();
+            Integer count = txTemplate.execute(status -> {
+                List<Long> ids = documentRepository.lockExpiredTrashIds(cutoff, batchSize);
+                if (ids.isEmpty()) {
+                    return 0;
+                }
+                blobKeys.addAll(versionRepository.findBlobKeysByDocumentIdIn(ids));
+                blobKeys.addAll(documentRepository.findS3KeysByIdIn(ids));
+                summaryRepository.releasePurged(ids);
+                documentRepository.deleteTrashedByIdIn(ids);
+                return ids.size();
+            });
+            if (count == null || count == 0) {
+                break;
+            }
+
+            // 行删除已提交后再删存储对象：失败最多留下孤立对象，不会出现文档还在而内容已丢失
+            fileStorageService.deleteFiles(blobKeys);
+            purged += count;
+            if (count < batchSize) {
+                break;
+            }
+        }
+
+        log.info("Trash purged: documents={}, cutoff={}, took={}ms", purged, cutoff, System.currentTimeMillis() - start);
+        return purged;
+    }
+}
@@ -0,0 +1,227 @@
+package com.ntdoc.notangdoccore.service.impl;
+
+import com.ntdoc.notangdoccore.common.ContentHash;
+import com.ntdoc.notangdoccore.common.UploadedFiles;
+import com.ntdoc.notangdoccore.dto.document.DocumentVersionResponse;
+import com.ntdoc.notangdoccore.entity.Document;
+import com.ntdoc.notangdoccore.entity.DocumentVersion;
+import com.ntdoc.notangdoccore.entity.User;
+import com.ntdoc.notangdoccore.entity.logenum.ActorType;
+import com.ntdoc.notangdoccore.entity.logenum.OperationType;
+import com.ntdoc.notangdoccore.event.DocumentChangedEvent;
+import com.ntdoc.notangdoccore.event.UserOperationEvent;
+import com.ntdoc.notangdoccore.exception.DocumentException;
+import com.ntdoc.notangdoccore.repository.DocumentRepository;
+import com.ntdoc.notangdoccore.repository.DocumentVersionRepository;
+import com.ntdoc.notangdoccore.repository.UserRepository;
+import com.ntdoc.notangdoccore.service.CallerIdentityService;
+import com.ntdoc.notangdoccore.service.DocumentVersionService;
+import com.ntdoc.notangdoccore.service.FileStorageService;
+import com.ntdoc.notangdoccore.service.StorageSummaryService;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.web.multipart.MultipartFile;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.List;
+import java.util.Objects;
+import java.util.Optional;
+
+/**
+ * 文档版本：版本行只记录元数据和 s3Key，内容按哈希在同一文档的历史中复用，
+ * 历史只为真正变化的内容占用存储
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+@Transactional
+public class DocumentVersionServiceImpl implements DocumentVersionService {
+
+    private final DocumentRepository documentRepository;
+    private final DocumentVersionRepository versionRepository;
+    private final UserRepository userRepository;
+    private final CallerIdentityService callerIdentityService;
+    private final FileStorageService fileStorageService;
+    private final StorageSummaryService storageSummaryService;
+    private final ApplicationEventPublisher eventPublisher;
+
+    @Override
+    public DocumentVersionResponse uploadVersion(Long documentId, MultipartFile file, String kcUserId) {
+        UploadedFiles.validate(file);
+        User user = getUser(kcUserId);
+        Document document = lockWritableDocument(documentId, user);
+        String fileHash = hash(file);
+
+        // 内容与当前版本相同：不写存储，也不产生新版本
+        if (fileHash.equals(document.getFileHash())) {
+            log.info("Unchanged upload skipped: documentId={}, version={}", documentId, document.getCurrentVersion());
+            return currentVersion(document);
+        }
+
+        // 历史版本中已有相同内容：直接指向已有的存储对象
+        String s3Key = versionRepository.findFirstByDocumentIdAndFileHashOrderByVersionNoDesc(documentId, fileHash)
+                .map(DocumentVersion::getS3Key)
+                .orElse(null);
+        if (s3Key == null) {
+            s3Key = fileStorageService.uploadFile(file, kcUserId);
+            deleteOnRollback(s3Key);
+            log.info("New version content stored: documentId={}, key={}", documentId, s3Key);
+        } else {
+            log.info("New version reuses stored content: documentId={}, key={}", documentId, s3Key);
+        }
+
+        DocumentVersion version = appendVersion(document, user, s3Key, fileHash,
+                file.getSize(), file.getContentType(), null);
+        return DocumentVersionResponse.from(version, document.getCurrentVersion(), true);
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public List<DocumentVersionResponse> getVersions(Long documentId, String kcUserId) {
+        User user = getUser(kcUserId);
+        Document document = documentRepository.findById(documentId)
+                .orElseThrow(() -> new DocumentException.DocumentNotFoundException(documentId));
+        checkOwner(document, user);
+
+        return versionRepository.findByDocumentIdOrderByVersionNoDesc(documentId).stream()
+                .map(v -> DocumentVersionResponse.from(v, document.getCurrentVersion(), false))
+                .toList();
+    }
+
+    @Override
+    public DocumentVersionResponse restoreVersion(Long documentId, Integer versionNo, String kcUserId) {
+        User user = getUser(kcUserId);
+        Document document = lockWritableDocument(documentId, user);
+        DocumentVersion target = versionRepository.findByDocumentIdAndVersionNo(documentId, versionNo)
+                .orElseThrow(() -> new IllegalArgumentException("版本不存在: " + versionNo));
+
+        if (versionNo.equals(document.getCurrentVersion())
+                || Objects.equals(target.getFileHash(), document.getFileHash())) {
+            return currentVersion(document);
+        }
+
+        DocumentVersion version = appendVersion(document, user, target.getS3Key(), target.getFileHash(),
+                target.getFileSize(), target.getContentType(), versionNo);
+        log.info("Document restored: documentId={}, from version={}, new version={}",
+                documentId, versionNo, version.getVersionNo());
+        return DocumentVersionResponse.from(version, document.getCurrentVersion(), true);
+    }
+
+    /**
+     * 存储对象在事务内写入，事务回滚后没有版本引用它，回滚时删除
+     */
+    private void deleteOnRollback(String s3Key) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCompletion(int status) {
+                if (status != STATUS_ROLLED_BACK) {
+                    return;
+                }
+                try {
+                    fileStorageService.deleteFile(s3Key);
+                    log.info("Orphaned version content deleted after rollback: key={}", s3Key);
+                } catch (Exception e) {
+                    log.warn("Failed to delete orphaned version content: key={}", s3Key, e);
+                }
+            }
+        });
+    }
+
+    /**
+     * 把新内容设为文档当前内容，并追加一条版本记录
+     */
+    private DocumentVersion appendVersion(Document document, User user, String s3Key, String fileHash,
+                                          Long fileSize, String contentType, Integer restoredFrom) {
+        // 变更前的快照，用于按差值更新存储汇总
+        Document before = Document.builder()
+                .uploadedBy(document.getUploadedBy())
+                .status(document.getStatus())
+                .fileSize(document.getFileSize())
+                .contentType(document.getContentType())
+                .build();
+
+        int versionNo = document.getCurrentVersion() + 1;
+        document.setS3Key(s3Key);
+        document.setStoredFilename(s3Key.substring(s3Key.lastIndexOf('/') + 1));
+        document.setFileHash(fileHash);
+        document.setFileSize(fileSize);
+        document.setContentType(contentType);
+        document.setCurrentVersion(versionNo);
+        documentRepository.save(document);
+
+        if (!Objects.equals(before.getFileSize(), fileSize) || !Objects.equals(before.getContentType(), contentType)) {
+            storageSummaryService.documentRemoved(before);
+            storageSummaryService.documentAdded(document);
+        }
+
+        DocumentVersion version = DocumentVersion.of(document, versionNo, user);
+        version.setRestoredFrom(restoredFrom);
+        version = versionRepository.save(version);
+
+        eventPublisher.publishEvent(DocumentChangedEvent.upserted(this, document.getId(), user.getId()));
+        eventPublisher.publishEvent(
+                UserOperationEvent.success(
+                        this,
+                        ActorType.USER,
+                        user.getUsername(),
+                        user.getId(),
+                        document.getId(),
+                        OperationType.UPDATE_DOCUMENT,
+                        document.getOriginalFilename()
+                )
+        );
+        return version;
+    }
+
+    private DocumentVersionResponse currentVersion(Document document) {
+        return versionRepository.findByDocumentIdAndVersionNo(document.getId(), document.getCurrentVersion())
+                .map(v -> DocumentVersionResponse.from(v, document.getCurrentVersion(), false))
+                .orElseThrow(() -> new IllegalStateException("Current version missing: documentId=" + document.getId()));
+    }
+
+    private Document lockWritableDocument(Long documentId, User user) {
+        Document document = documentRepository.lockById(documentId)
+                .orElseThrow(() -> new DocumentException.DocumentNotFoundException(documentId));
+        checkOwner(document, user);
+        if (document.getStatus() == Document.DocumentStatus.DELETED) {
+            throw new IllegalStateException("文档已被删除: " + documentId);
+        }
+        return document;
+    }
+
+    private void checkOwner(Document document, User user) {
+        if (!document.getUploadedBy().getId().equals(user.getId())) {
+            throw new DocumentException.DocumentAccessDeniedException("document " + document.getId());
+        }
+    }
+
+    private User getUser(String kcUserId) {
+        return findUser(kcUserId)
+                .orElseThrow(() -> new DocumentException.DocumentAccessDeniedException("unknown user " + kcUserId));
+    }
+
+    private static String hash(MultipartFile file) {
+        try {
+            return ContentHash.sha256(file);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to read uploaded file", e);
+        }
+    }
+
+    /**
+     * 当前调用者直接取已解析的身份（同一请求内不重复查询），其他情况按 Keycloak ID 查找
+     */
+    private Optional<User> findUser(String kcUserId) {
+        return callerIdentityService.findCaller(kcUserId)
+                .or(() -> userRepository.findByKcUserId(kcUserId));
+    }
+}
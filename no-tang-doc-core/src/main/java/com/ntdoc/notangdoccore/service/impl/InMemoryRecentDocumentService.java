@@ -0,0 +1,211 @@
+package com.ntdoc.notangdoccore.service.impl;
+
+import com.ntdoc.notangdoccore.config.RecentDocumentsProperties;
+import com.ntdoc.notangdoccore.dto.document.RecentDocumentResponse;
+import com.ntdoc.notangdoccore.entity.Log;
+import com.ntdoc.notangdoccore.entity.logenum.OperationStatus;
+import com.ntdoc.notangdoccore.entity.logenum.OperationType;
+import com.ntdoc.notangdoccore.repository.LogRepository;
+import com.ntdoc.notangdoccore.repository.UserRepository;
+import com.ntdoc.notangdoccore.service.CallerIdentityService;
+import com.ntdoc.notangdoccore.service.RecentDocumentService;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Service;
+
+import java.time.Instant;
+import java.util.*;
+
+/**
+ * 每个用户一个定长环形缓冲（最新在前、按文档去重），查询只拷贝缓冲内容，不访问数据库
+ * 缓冲在首次查询时从日志表懒加载；加载前收到的事件先记入缓冲，加载时与日志合并
+ */
+@Slf4j
+@Service
+public class InMemoryRecentDocumentService implements RecentDocumentService {
+
+    // 计入最近使用的操作；删除操作会把文档移出列表
+    static final Set<OperationType> USAGE_TYPES = EnumSet.of(
+            OperationType.UPLOAD_DOCUMENT,
+            OperationType.DOWNLOAD_DOCUMENT,
+            OperationType.SHARE_DOCUMENT,
+            OperationType.UPDATE_DOCUMENT,
+            OperationType.RESTORE_DOCUMENT,
+            OperationType.AI_SUMMARIZE_DOCUMENT);
+    private static final Set<OperationType> REBUILD_TYPES = EnumSet.copyOf(USAGE_TYPES);
+
+    static {
+        REBUILD_TYPES.add(OperationType.DELETE_DOCUMENT);
+    }
+
+    private final LogRepository logRepository;
+    private final UserRepository userRepository;
+    private final CallerIdentityService callerIdentityService;
+    private final RecentDocumentsProperties properties;
+
+    // 用户ID -> 缓冲，按访问顺序淘汰；被淘汰的用户下次查询时重新从日志表加载
+    private final Map<Long, RecentRing> rings;
+
+    public InMemoryRecentDocumentService(LogRepository logRepository,
+                                         UserRepository userRepository,
+                                         CallerIdentityService callerIdentityService,
+                                         RecentDocumentsProperties properties) {
+        this.logRepository = logRepository;
+        this.userRepository = userRepository;
+        this.callerIdentityService = callerIdentityService;
+        this.properties = properties;
+        int maxUsers = properties.getMaxUsers();
+        this.rings = Collections.synchronizedMap(new LinkedHashMap<>(256, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Long, RecentRing> eldest) {
+                return size() > maxUsers;
+            }
+        });
+    }
+
+    record Entry(Long documentId, String fileName, OperationType operationType, Instant time) {
+    }
+
+    @Override
+    public void documentUsed(Long userId, Long documentId, String fileName, OperationType operationType, Instant time) {
+        if (userId == null || documentId == null || !USAGE_TYPES.contains(operationType)) {
+            return;
+        }
+        ringOf(userId).push(new Entry(documentId, fileName, operationType, time));
+    }
+
+    @Override
+    public void documentDeleted(Long userId, Long documentId) {
+        if (userId == null || documentId == null) {
+            return;
+        }
+        ringOf(userId).remove(documentId);
+    }
+
+    @Override
+    public List<RecentDocumentResponse> getRecentDocuments(String kcUserId, int limit) {
+        return callerIdentityService.findCaller(kcUserId)
+                .or(() -> userRepository.findByKcUserId(kcUserId))
+                .map(user -> recentDocuments(user.getId(), limit))
+                .orElseGet(List::of);
+    }
+
+    List<RecentDocumentResponse> recentDocuments(Long userId, int limit) {
+        int k = Math.max(1, Math.min(limit, properties.getCapacity()));
+        RecentRing ring = ringOf(userId);
+        if (!ring.isLoaded()) {
+            // 查询放在缓冲锁外，加载期间该用户的新事件不被阻塞
+            List<Log> logs = logRepository.findRecentDocumentOperations(userId, OperationStatus.SUCCESS,
+                    REBUILD_TYPES, PageRequest.of(0, properties.getRebuildScanLimit()));
+            ring.load(logs);
+            log.debug("Recent documents loaded from log: userId={}, scanned={}", userId, logs.size());
+        }
+        return ring.snapshot(k).stream()
+                .map(e -> RecentDocumentResponse.builder()
+                        .documentId(e.documentId())
+                        .fileName(e.fileName())
+                        .lastOperation(e.operationType())
+                        .lastUsedAt(e.time())
+                        .build())
+                .toList();
+    }
+
+    private RecentRing ringOf(Long userId) {
+        return rings.computeIfAbsent(userId, id -> new RecentRing(properties.getCapacity()));
+    }
+
+    /**
+     * 定长环形缓冲：slots[head] 为最新，依次往后为更早的记录；满了以后新记录覆盖最旧的一条
+     */
+    static final class RecentRing {
+        private final Entry[] slots;
+        private int head;
+        private int size;
+        private boolean loaded;
+        // 加载前发生的删除：日志表异步写入可能滞后，避免从日志中恢复已删除的文档
+        private Set<Long> pendingDeletes = new HashSet<>();
+
+        RecentRing(int capacity) {
+            this.slots = new Entry[Math.max(1, capacity)];
+        }
+
+        synchronized boolean isLoaded() {
+            return loaded;
+        }
+
+        synchronized void push(Entry entry) {
+            removeId(entry.documentId());
+            head = (head - 1 + slots.length) % slots.length;
+            slots[head] = entry;
+            if (size < slots.length) {
+                size++;
+            }
+        }
+
+        synchronized void remove(Long documentId) {
+            removeId(documentId);
+            if (!loaded) {
+                pendingDeletes.add(documentId);
+            }
+        }
+
+        /**
+         * 合并日志（按时间倒序）与加载前已记入缓冲的事件，后者更新，放在最前
+         */
+        synchronized void load(List<Log> logsNewestFirst) {
+            if (loaded) {
+                return;
+            }
+            List<Entry> recorded = snapshot(size);
+
+            Set<Long> seen = new HashSet<>(pendingDeletes);
+            List<Entry> fromLog = new ArrayList<>();
+            for (Log row : logsNewestFirst) {
+                // 每个文档只看最新一条日志：最新为删除则整个文档跳过
+                if (!seen.add(row.getTargetId()) || row.getOperationType() == OperationType.DELETE_DOCUMENT) {
+                    continue;
+                }
+                fromLog.add(new Entry(row.getTargetId(), row.getTargetName(), row.getOperationType(), row.getTime()));
+                if (fromLog.size() == slots.length) {
+                    break;
+                }
+            }
+
+            Arrays.fill(slots, null);
+            head = 0;
+            size = 0;
+            for (int i = fromLog.size() - 1; i >= 0; i--) {
+                push(fromLog.get(i));
+            }
+            for (int i = recorded.size() - 1; i >= 0; i--) {
+                push(recorded.get(i));
+            }
+            loaded = true;
+            pendingDeletes = null;
+        }
+
+        synchronized List<Entry> snapshot(int limit) {
+            int n = Math.min(limit, size);
+            List<Entry> result = new ArrayList<>(n);
+            for (int i = 0; i < n; i++) {
+                result.add(slots[(head + i) % slots.length]);
+            }
+            return result;
+        }
+
+        // 线性查找后把更新的记录整体后移一格，容量很小（默认 50），代价可忽略
+        private void removeId(Long documentId) {
+            for (int i = 0; i < size; i++) {
+                if (slots[(head + i) % slots.length].documentId().equals(documentId)) {
+                    for (int j = i; j > 0; j--) {
+                        slots[(head + j) % slots.length] = slots[(head + j - 1) % slots.length];
+                    }
+                    slots[head] = null;
+                    head = (head + 1) % slots.length;
+                    size--;
+                    return;
+                }
+            }
+        }
+    }
+}
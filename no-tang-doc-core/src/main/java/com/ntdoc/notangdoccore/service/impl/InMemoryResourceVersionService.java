@@ -0,0 +1,129 @@
+package com.ntdoc.notangdoccore.service.impl;
+
+import com.ntdoc.notangdoccore.repository.UserRepository;
+import com.ntdoc.notangdoccore.service.CallerIdentityService;
+import com.ntdoc.notangdoccore.service.ResourceVersionService;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * 定长的版本号槽位（按 scope + key 散列），内存占用固定且无锁
+ * 不同资源落在同一槽位时只会多失效几次缓存，不会返回过期内容；ETag 中带有资源 key，不会跨资源误命中
+ * 版本号只在内存中，ETag 带上启动纪元，重启后旧 ETag 全部失效
+ */
+@Slf4j
+@Service
+public class InMemoryResourceVersionService implements ResourceVersionService {
+
+    static final int SLOTS = 1 << 16;
+
+    private final UserRepository userRepository;
+    private final CallerIdentityService callerIdentityService;
+    private final AtomicLongArray versions = new AtomicLongArray(SLOTS);
+    private final String epoch = Long.toHexString(ThreadLocalRandom.current().nextLong() & Long.MAX_VALUE);
+
+    public InMemoryResourceVersionService(UserRepository userRepository, CallerIdentityService callerIdentityService) {
+        this.userRepository = userRepository;
+        this.callerIdentityService = callerIdentityService;
+    }
+
+    @Override
+    public void bump(Scope scope, Long key) {
+        if (key != null) {
+            versions.incrementAndGet(slot(scope, key));
+        }
+    }
+
+    @Override
+    public void bumpAfterCommit(Scope scope, Long key) {
+        if (key == null) {
+            return;
+        }
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            bump(scope, key);
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                bump(scope, key);
+            }
+        });
+    }
+
+    @Override
+    public String etag(Scope scope, Long key, Object... variant) {
+        long version = versions.get(slot(scope, key));
+        return epoch + "-" + scope.name().charAt(0) + key + "-" + version + "-" + variantDigest(variant);
+    }
+
+    @Override
+    public String userEtag(Scope scope, String kcUserId, Object... variant) {
+        if (kcUserId == null) {
+            return null;
+        }
+        return callerIdentityService.findCaller(kcUserId)
+                .or(() -> userRepository.findByKcUserId(kcUserId))
+                .map(user -> etag(scope, user.getId(), variant))
+                .orElse(null);
+    }
+
+    /**
+     * 参数逐个按「类型 + 长度 + 内容」编码（集合排序后编码）再取 SHA-256，不同参数组合不会得到相同的 ETag
+     */
+    private static String variantDigest(Object... variant) {
+        StringBuilder encoded = new StringBuilder();
+        if (variant != null) {
+            for (Object value : variant) {
+                encode(encoded, value);
+            }
+        }
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            return HexFormat.of().formatHex(digest.digest(encoded.toString().getBytes(StandardCharsets.UTF_8)));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+    }
+
+    private static void encode(StringBuilder out, Object value) {
+        if (value == null) {
+            out.append('n');
+        } else if (value instanceof Collection<?> values) {
+            // Set 的迭代顺序不固定，内容相同的集合必须得到相同的编码
+            List<String> items = new ArrayList<>(values.size());
+            for (Object item : values) {
+                StringBuilder itemOut = new StringBuilder();
+                encode(itemOut, item);
+                items.add(itemOut.toString());
+            }
+            if (value instanceof Set<?>) {
+                Collections.sort(items);
+            }
+            out.append('c').append(items.size()).append(':');
+            items.forEach(out::append);
+        } else {
+            String text = value.toString();
+            out.append('s').append(text.length()).append(':').append(text);
+        }
+    }
+
+    private static int slot(Scope scope, Long key) {
+        long h = key * 0x9E3779B97F4A7C15L + scope.ordinal();
+        return (int) ((h ^ (h >>> 32)) & (SLOTS - 1));
+    }
+}
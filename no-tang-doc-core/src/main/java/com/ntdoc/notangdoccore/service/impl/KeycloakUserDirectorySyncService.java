@@ -0,0 +1,216 @@
+package com.ntdoc.notangdoccore.service.impl;
+
+import com.ntdoc.notangdoccore.config.UserSyncProperties;
+import com.ntdoc.notangdoccore.entity.User;
+import com.ntdoc.notangdoccore.entity.UserSyncState;
+import com.ntdoc.notangdoccore.keycloak.KeycloakAdminService;
+import com.ntdoc.notangdoccore.repository.UserRepository;
+import com.ntdoc.notangdoccore.repository.UserSyncStateRepository;
+import com.ntdoc.notangdoccore.service.CallerIdentityService;
+import com.ntdoc.notangdoccore.service.UserDirectorySyncService;
+import lombok.extern.slf4j.Slf4j;
+import org.keycloak.representations.idm.UserRepresentation;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Clock;
+import java.util.*;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * 从 Keycloak 管理接口分页同步用户：
+ * 每页一个事务，先按 kcUserId 批量查出本地用户，只写入新增或用户名/邮箱有变化的用户（首轮之后基本只读）；
+ * 每页提交后记录下一页位置，中断后从断点继续；页与页之间按 page-delay 限速
+ */
+@Slf4j
+@Service
+public class KeycloakUserDirectorySyncService implements UserDirectorySyncService {
+
+    static final String SOURCE = "keycloak";
+
+    private final KeycloakAdminService keycloakAdminService;
+    private final UserRepository userRepository;
+    private final UserSyncStateRepository stateRepository;
+    private final CallerIdentityService callerIdentityService;
+    private final UserSyncProperties properties;
+    private final TransactionTemplate txTemplate;
+    private final Clock clock;
+    // 同一实例内不并发执行
+    private final AtomicBoolean running = new AtomicBoolean();
+
+    @Autowired
+    public KeycloakUserDirectorySyncService(KeycloakAdminService keycloakAdminService,
+                                            UserRepository userRepository,
+                                            UserSyncStateRepository stateRepository,
+                                            CallerIdentityService callerIdentityService,
+                                            UserSyncProperties properties,
+                                            PlatformTransactionManager transactionManager) {
+        this(keycloakAdminService, userRepository, stateRepository, callerIdentityService, properties,
+                transactionManager, Clock.systemUTC());
+    }
+
+    KeycloakUserDirectorySyncService(KeycloakAdminService keycloakAdminService,
+                                     UserRepository userRepository,
+                                     UserSyncStateRepository stateRepository,
+                                     CallerIdentityService callerIdentityService,
+                                     UserSyncProperties properties,
+                                     PlatformTransactionManager transactionManager,
+                                     Clock clock) {
+        this.keycloakAdminService = keycloakAdminService;
+        this.userRepository = userRepository;
+        this.stateRepository = stateRepository;
+        this.callerIdentityService = callerIdentityService;
+        this.properties = properties;
+        this.txTemplate = new TransactionTemplate(transactionManager);
+        this.clock = clock;
+    }
+
+    @Scheduled(fixedDelayString = "${ntdoc.user-sync.interval-ms:600000}",
+            initialDelayString = "${ntdoc.user-sync.initial-delay-ms:60000}")
+    public void scheduledSync() {
+        if (!properties.isEnabled()) {
+            return;
+        }
+        try {
+            syncUsers();
+        } catch (Exception e) {
+            log.error("User directory sync failed, will resume from the saved offset", e);
+        }
+    }
+
+    @Override
+    public int syncUsers() {
+        if (!running.compareAndSet(false, true)) {
+            log.info("User directory sync already running, skipped");
+            return 0;
+        }
+        try {
+            return runPages();
+        } finally {
+            running.set(false);
+        }
+    }
+
+    private int runPages() {
+        int pageSize = Math.max(1, properties.getPageSize());
+        UserSyncState state = stateRepository.findById(SOURCE)
+                .orElseGet(() -> UserSyncState.builder().source(SOURCE).nextOffset(0).build());
+        if (state.getNextOffset() == 0 || state.getRunStartedAt() == null) {
+            state.setRunStartedAt(clock.instant());
+        } else {
+            log.info("Resuming user directory sync from offset {}", state.getNextOffset());
+        }
+
+        int written = 0;
+        for (int pages = 0; pages < Math.max(1, properties.getMaxPagesPerRun()); pages++) {
+            if (pages > 0) {
+                throttle();
+            }
+            int offset = state.getNextOffset();
+            List<UserRepresentation> page = keycloakAdminService.listUsers(offset, pageSize);
+            written += upsertPage(page);
+
+            if (page.size() < pageSize) {
+                state.setNextOffset(0);
+                state.setLastCompletedAt(clock.instant());
+                saveState(state);
+                log.info("User directory sync completed: scanned={}, written in this run={}", offset + page.size(), written);
+                return written;
+            }
+            state.setNextOffset(offset + page.size());
+            saveState(state);
+        }
+        log.info("User directory sync paused at offset {}: written in this run={}", state.getNextOffset(), written);
+        return written;
+    }
+
+    /**
+     * 一页用户在一个事务内写入；因用户名冲突等失败时逐个重试，跳过仍然失败的用户
+     */
+    private int upsertPage(List<UserRepresentation> page) {
+        List<UserRepresentation> valid = page.stream()
+                .filter(u -> u.getId() != null && u.getUsername() != null && !u.getUsername().isBlank())
+                .toList();
+        if (valid.isEmpty()) {
+            return 0;
+        }
+
+        List<String> changed = new ArrayList<>();
+        Integer written;
+        try {
+            written = txTemplate.execute(status -> writeUsers(valid, changed));
+        } catch (DataIntegrityViolationException e) {
+            log.warn("Batch user upsert failed, retrying one by one: users={}, cause={}", valid.size(), e.getMessage());
+            changed.clear();
+            written = 0;
+            for (UserRepresentation rep : valid) {
+                List<String> changedOne = new ArrayList<>();
+                try {
+                    written += txTemplate.execute(status -> writeUsers(List.of(rep), changedOne));
+                    changed.addAll(changedOne);
+                } catch (DataIntegrityViolationException ex) {
+                    log.warn("Skipping user that conflicts with a local user: kcUserId={}, username={}",
+                            rep.getId(), rep.getUsername());
+                }
+            }
+        }
+
+        // 已提交的资料变更同步到调用者身份缓存
+        changed.forEach(callerIdentityService::evict);
+        return written == null ? 0 : written;
+    }
+
+    private int writeUsers(List<UserRepresentation> reps, List<String> changed) {
+        Map<String, User> locals = userRepository.findByKcUserIdIn(
+                        reps.stream().map(UserRepresentation::getId).toList())
+                .stream()
+                .collect(Collectors.toMap(User::getKcUserId, Function.identity()));
+
+        List<User> toSave = new ArrayList<>();
+        for (UserRepresentation rep : reps) {
+            User local = locals.get(rep.getId());
+            if (local == null) {
+                toSave.add(User.builder()
+                        .kcUserId(rep.getId())
+                        .username(rep.getUsername())
+                        .email(rep.getEmail())
+                        .build());
+            } else if (!Objects.equals(local.getUsername(), rep.getUsername())
+                    || !Objects.equals(local.getEmail(), rep.getEmail())) {
+                local.setUsername(rep.getUsername());
+                local.setEmail(rep.getEmail());
+                toSave.add(local);
+                changed.add(rep.getId());
+            }
+        }
+        if (!toSave.isEmpty()) {
+            userRepository.saveAll(toSave);
+            userRepository.flush();
+        }
+        return toSave.size();
+    }
+
+    private void saveState(UserSyncState state) {
+        state.setUpdatedAt(clock.instant());
+        txTemplate.executeWithoutResult(status -> stateRepository.save(state));
+    }
+
+    private void throttle() {
+        long delayMs = properties.getPageDelay().toMillis();
+        if (delayMs <= 0) {
+            return;
+        }
+        try {
+            Thread.sleep(delayMs);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("User directory sync interrupted", e);
+        }
+    }
+}
@@ -4,20 +4,32 @@ import com.ntdoc.notangdoccore.entity.Log;
 import com.ntdoc.notangdoccore.repository.LogRepository;
 import com.ntdoc.notangdoccore.service.LogService;
 import com.ntdoc.notangdoccore.service.log.LogGroupStrategy;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
 import lombok.RequiredArgsConstructor;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
 import java.time.Instant;
+import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
 
 @Service
 @RequiredArgsConstructor
 public class LogServiceImpl implements LogService {
     private final LogRepository logRepository;
 
+    // 流式输出时每写出这么多条清空一次持久化上下文，与仓库中游标的 fetch size 一致
+    static final int STREAM_CHUNK_SIZE = 500;
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
     @Autowired
     @Qualifier("weeklyStrategy")
     private LogGroupStrategy weeklyStrategy;
@@ -54,4 +66,18 @@ public class LogServiceImpl implements LogService {
     public List<Log> getAllLogsByUserId(Long userId){
         return logRepository.findByUserId(userId);
     }
+
+    @Override
+    @Transactional(readOnly = true)
+    public void streamLogsByUserId(Long userId, Consumer<Log> sink) {
+        try (Stream<Log> logs = logRepository.streamByUserId(userId)) {
+            int written = 0;
+            for (Iterator<Log> it = logs.iterator(); it.hasNext(); ) {
+                sink.accept(it.next());
+                if (++written % STREAM_CHUNK_SIZE == 0) {
+                    entityManager.clear();
+                }
+            }
+        }
+    }
 }
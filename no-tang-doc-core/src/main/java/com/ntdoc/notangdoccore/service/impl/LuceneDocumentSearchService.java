@@ -0,0 +1,373 @@
+package com.ntdoc.notangdoccore.service.impl;
+
+import com.ntdoc.notangdoccore.config.SearchProperties;
+import com.ntdoc.notangdoccore.entity.Document;
+import com.ntdoc.notangdoccore.entity.Tag;
+import com.ntdoc.notangdoccore.exception.DocumentException;
+import com.ntdoc.notangdoccore.repository.DocumentRepository;
+import com.ntdoc.notangdoccore.service.DocumentSearchService;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.lucene.analysis.Analyzer;
+import org.apache.lucene.analysis.TokenStream;
+import org.apache.lucene.analysis.standard.StandardAnalyzer;
+import org.apache.lucene.analysis.tokenattributes.CharTermAttribute;
+import org.apache.lucene.document.Field;
+import org.apache.lucene.document.StringField;
+import org.apache.lucene.document.TextField;
+import org.apache.lucene.index.IndexWriter;
+import org.apache.lucene.index.IndexWriterConfig;
+import org.apache.lucene.index.LeafReaderContext;
+import org.apache.lucene.index.StoredFields;
+import org.apache.lucene.index.Term;
+import org.apache.lucene.search.*;
+import org.apache.lucene.store.Directory;
+import org.apache.lucene.store.FSDirectory;
+import org.apache.lucene.util.Bits;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.Collectors;
+
+/**
+ * 基于 Lucene 的本地磁盘全文索引
+ * 写入后通过 SearcherManager 近实时刷新，提交（fsync）由定时任务批量完成
+ */
+@Slf4j
+@Service
+public class LuceneDocumentSearchService implements DocumentSearchService {
+
+    static final String FIELD_ID = "id";
+    static final String FIELD_OWNER = "owner";
+    static final String FIELD_NAME = "name";
+    static final String FIELD_DESCRIPTION = "description";
+    static final String FIELD_TAGS = "tags";
+    static final String FIELD_METADATA = "metadata";
+
+    // 字段权重：文件名 > 标签 > 描述 = 元数据
+    private static final Map<String, Float> FIELD_BOOSTS = Map.of(
+            FIELD_NAME, 3.0f,
+            FIELD_TAGS, 2.0f,
+            FIELD_DESCRIPTION, 1.0f,
+            FIELD_METADATA, 1.0f
+    );
+    private static final int FUZZY_MIN_LENGTH = 4;
+    private static final int MAX_QUERY_TERMS = 8;
+
+    private final DocumentRepository documentRepository;
+    private final SearchProperties searchProperties;
+    private final TransactionTemplate readOnlyTx;
+    private final Analyzer analyzer = new StandardAnalyzer();
+
+    private Directory directory;
+    private IndexWriter indexWriter;
+    private SearcherManager searcherManager;
+    // 重建期间被增量更新过的文档ID，扫描结束后按数据库当前状态重放；不在重建时为 null
+    private volatile Set<Long> touchedDuringRebuild;
+
+    public LuceneDocumentSearchService(DocumentRepository documentRepository,
+                                       SearchProperties searchProperties,
+                                       PlatformTransactionManager transactionManager) {
+        this.documentRepository = documentRepository;
+        this.searchProperties = searchProperties;
+        this.readOnlyTx = new TransactionTemplate(transactionManager);
+        this.readOnlyTx.setReadOnly(true);
+    }
+
+    @PostConstruct
+    public void open() throws IOException {
+        Path indexPath = Paths.get(searchProperties.getIndexDir());
+        Files.createDirectories(indexPath);
+
+        IndexWriterConfig config = new IndexWriterConfig(analyzer);
+        config.setOpenMode(IndexWriterConfig.OpenMode.CREATE_OR_APPEND);
+
+        this.directory = FSDirectory.open(indexPath);
+        this.indexWriter = new IndexWriter(directory, config);
+        this.searcherManager = new SearcherManager(indexWriter, null);
+        log.info("Search index opened: dir={}, docs={}", indexPath.toAbsolutePath(), indexWriter.getDocStats().numDocs);
+    }
+
+    @PreDestroy
+    public void close() {
+        try {
+            searcherManager.close();
+            indexWriter.close(); // close() 默认会提交未提交的变更
+            directory.close();
+            log.info("Search index closed");
+        } catch (IOException e) {
+            log.error("Failed to close search index", e);
+        }
+    }
+
+    /**
+     * 启动后若索引为空则从数据库重建（首次部署或索引目录丢失）
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void rebuildIfEmpty() {
+        if (searchProperties.isRebuildOnStartup() && indexWriter.getDocStats().numDocs == 0) {
+            log.info("Search index is empty, rebuilding from database");
+            rebuildIndex();
+        }
+    }
+
+    /**
+     * 定时提交索引，避免每次写入都触发 fsync
+     */
+    @Scheduled(fixedDelayString = "${ntdoc.search.commit-interval-ms:30000}")
+    public void commit() {
+        try {
+            if (indexWriter.hasUncommittedChanges()) {
+                indexWriter.commit();
+                log.debug("Search index committed");
+            }
+        } catch (IOException e) {
+            log.error("Failed to commit search index", e);
+        }
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public void indexDocument(Long documentId) {
+        touched(documentId);
+        List<Document> documents = documentRepository.findAllWithTagsAndMetadataByIdIn(List.of(documentId));
+        try {
+            if (documents.isEmpty() || documents.get(0).getStatus() == Document.DocumentStatus.DELETED) {
+                indexWriter.deleteDocuments(idTerm(documentId));
+            } else {
+                indexWriter.updateDocument(idTerm(documentId), toLuceneDocument(documents.get(0)));
+            }
+            searcherManager.maybeRefresh();
+        } catch (IOException e) {
+            throw new DocumentException("Failed to index document: " + documentId, e);
+        }
+    }
+
+    @Override
+    public void removeDocument(Long documentId) {
+        touched(documentId);
+        try {
+            indexWriter.deleteDocuments(idTerm(documentId));
+            searcherManager.maybeRefresh();
+        } catch (IOException e) {
+            throw new DocumentException("Failed to remove document from index: " + documentId, e);
+        }
+    }
+
+    /**
+     * 不清空索引，按ID逐个覆盖，重建期间搜索照常返回结果；
+     * 扫描结束后删除数据库中已不存在的文档，再重放重建期间的增量更新，
+     * 避免扫描读到的旧状态覆盖较新的增量（如批次读取后才删除的文档重新出现）
+     */
+    @Override
+    public synchronized long rebuildIndex() {
+        long start = System.currentTimeMillis();
+        int batchSize = searchProperties.getRebuildBatchSize();
+        touchedDuringRebuild = ConcurrentHashMap.newKeySet();
+        try {
+            Set<Long> live = new HashSet<>();
+            long lastId = 0L;
+            while (true) {
+                final long afterId = lastId;
+                List<Long> ids = documentRepository.findIdsAfter(afterId, PageRequest.of(0, batchSize));
+                if (ids.isEmpty()) {
+                    break;
+                }
+                // 每批一个只读事务，避免持久化上下文无限增长
+                Map<Long, org.apache.lucene.document.Document> batch = readOnlyTx.execute(status ->
+                        documentRepository.findAllWithTagsAndMetadataByIdIn(ids).stream()
+                                .filter(d -> d.getStatus() != Document.DocumentStatus.DELETED)
+                                .collect(Collectors.toMap(Document::getId, this::toLuceneDocument)));
+                for (Long id : ids) {
+                    org.apache.lucene.document.Document doc = batch == null ? null : batch.get(id);
+                    if (doc != null) {
+                        indexWriter.updateDocument(idTerm(id), doc);
+                        live.add(id);
+                    } else {
+                        indexWriter.deleteDocuments(idTerm(id));
+                    }
+                }
+                lastId = ids.get(ids.size() - 1);
+            }
+
+            Set<Long> touched = touchedDuringRebuild;
+            touchedDuringRebuild = null;
+            int stale = deleteStale(live, touched);
+            for (Long id : touched) {
+                readOnlyTx.executeWithoutResult(status -> indexDocument(id));
+            }
+
+            indexWriter.commit();
+            searcherManager.maybeRefresh();
+            long count = indexWriter.getDocStats().numDocs;
+            log.info("Search index rebuilt: docs={}, stale={}, replayed={}, took={}ms",
+                    count, stale, touched.size(), System.currentTimeMillis() - start);
+            return count;
+        } catch (IOException e) {
+            throw new DocumentException("Failed to rebuild search index", e);
+        } finally {
+            touchedDuringRebuild = null;
+        }
+    }
+
+    /**
+     * 删除索引中扫描未见且重建期间未被增量更新过的文档（数据库中已不存在）
+     */
+    private int deleteStale(Set<Long> live, Set<Long> touched) throws IOException {
+        searcherManager.maybeRefreshBlocking();
+        List<Long> stale = new ArrayList<>();
+        IndexSearcher searcher = searcherManager.acquire();
+        try {
+            for (LeafReaderContext leaf : searcher.getIndexReader().leaves()) {
+                Bits liveDocs = leaf.reader().getLiveDocs();
+                StoredFields storedFields = leaf.reader().storedFields();
+                for (int doc = 0; doc < leaf.reader().maxDoc(); doc++) {
+                    if (liveDocs != null && !liveDocs.get(doc)) {
+                        continue;
+                    }
+                    Long id = Long.valueOf(storedFields.document(doc, Set.of(FIELD_ID)).get(FIELD_ID));
+                    if (!live.contains(id) && !touched.contains(id)) {
+                        stale.add(id);
+                    }
+                }
+            }
+        } finally {
+            release(searcher);
+        }
+        for (Long id : stale) {
+            indexWriter.deleteDocuments(idTerm(id));
+        }
+        return stale.size();
+    }
+
+    private void touched(Long documentId) {
+        Set<Long> touched = touchedDuringRebuild;
+        if (touched != null) {
+            touched.add(documentId);
+        }
+    }
+
+    @Override
+    public List<Long> search(Long userId, String keyword, int page, int size) {
+        if (userId == null || keyword == null || keyword.isBlank()) {
+            return List.of();
+        }
+        int pageSize = Math.max(1, Math.min(size, searchProperties.getMaxPageSize()));
+        int from = Math.max(0, page) * pageSize;
+
+        IndexSearcher searcher = null;
+        try {
+            Query query = buildQuery(userId, keyword);
+            if (query == null) {
+                return List.of();
+            }
+
+            searcher = searcherManager.acquire();
+            TopDocs topDocs = searcher.search(query, from + pageSize);
+            StoredFields storedFields = searcher.storedFields();
+
+            List<Long> ids = new ArrayList<>(pageSize);
+            for (int i = from; i < topDocs.scoreDocs.length; i++) {
+                ids.add(Long.valueOf(storedFields.document(topDocs.scoreDocs[i].doc).get(FIELD_ID)));
+            }
+            return ids;
+        } catch (IOException e) {
+            throw new DocumentException("Search failed: " + e.getMessage(), e);
+        } finally {
+            release(searcher);
+        }
+    }
+
+    /**
+     * 每个词在所有字段上做 精确/前缀/模糊 匹配（OR），词与词之间为 AND；按所有者过滤
+     */
+    private Query buildQuery(Long userId, String keyword) throws IOException {
+        List<String> terms = analyze(keyword);
+        if (terms.isEmpty()) {
+            return null;
+        }
+
+        BooleanQuery.Builder builder = new BooleanQuery.Builder();
+        builder.add(new TermQuery(new Term(FIELD_OWNER, String.valueOf(userId))), BooleanClause.Occur.FILTER);
+
+        for (String text : terms) {
+            BooleanQuery.Builder termQuery = new BooleanQuery.Builder();
+            for (Map.Entry<String, Float> field : FIELD_BOOSTS.entrySet()) {
+                Term term = new Term(field.getKey(), text);
+                float boost = field.getValue();
+                termQuery.add(new BoostQuery(new TermQuery(term), boost * 2), BooleanClause.Occur.SHOULD);
+                termQuery.add(new BoostQuery(new PrefixQuery(term), boost), BooleanClause.Occur.SHOULD);
+                if (text.length() >= FUZZY_MIN_LENGTH) {
+                    int maxEdits = text.length() >= 6 ? 2 : 1;
+                    termQuery.add(new BoostQuery(new FuzzyQuery(term, maxEdits), boost * 0.5f), BooleanClause.Occur.SHOULD);
+                }
+            }
+            builder.add(termQuery.build(), BooleanClause.Occur.MUST);
+        }
+        return builder.build();
+    }
+
+    private List<String> analyze(String text) throws IOException {
+        List<String> terms = new ArrayList<>();
+        try (TokenStream stream = analyzer.tokenStream(FIELD_NAME, text)) {
+            CharTermAttribute attr = stream.addAttribute(CharTermAttribute.class);
+            stream.reset();
+            while (stream.incrementToken() && terms.size() < MAX_QUERY_TERMS) {
+                terms.add(attr.toString());
+            }
+            stream.end();
+        }
+        return terms;
+    }
+
+    private org.apache.lucene.document.Document toLuceneDocument(Document document) {
+        org.apache.lucene.document.Document doc = new org.apache.lucene.document.Document();
+        doc.add(new StringField(FIELD_ID, String.valueOf(document.getId()), Field.Store.YES));
+        doc.add(new StringField(FIELD_OWNER, String.valueOf(document.getUploadedBy().getId()), Field.Store.NO));
+        doc.add(new TextField(FIELD_NAME, nullToEmpty(document.getOriginalFilename()), Field.Store.NO));
+        doc.add(new TextField(FIELD_DESCRIPTION, nullToEmpty(document.getDescription()), Field.Store.NO));
+
+        String tags = document.getTags().stream()
+                .map(Tag::getTag)
+                .collect(Collectors.joining(" "));
+        doc.add(new TextField(FIELD_TAGS, tags, Field.Store.NO));
+
+        String metadata = document.getMetadata().entrySet().stream()
+                .map(e -> e.getKey() + " " + e.getValue())
+                .collect(Collectors.joining(" "));
+        doc.add(new TextField(FIELD_METADATA, metadata, Field.Store.NO));
+        return doc;
+    }
+
+    private void release(IndexSearcher searcher) {
+        if (searcher == null) {
+            return;
+        }
+        try {
+            searcherManager.release(searcher);
+        } catch (IOException e) {
+            log.warn("Failed to release index searcher", e);
+        }
+    }
+
+    private static Term idTerm(Long documentId) {
+        return new Term(FIELD_ID, String.valueOf(documentId));
+    }
+
+    private static String nullToEmpty(String value) {
+        return value == null ? "" : value;
+    }
+}
@@ -0,0 +1,245 @@
+package com.ntdoc.notangdoccore.service.impl;
+
+import com.ntdoc.notangdoccore.dto.document.TagSuggestionResponse;
+import com.ntdoc.notangdoccore.entity.Document;
+import com.ntdoc.notangdoccore.repository.TagRepository;
+import com.ntdoc.notangdoccore.service.TagSuggestionService;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.*;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * 基于有序映射（不区分大小写）的标签前缀索引
+ * 前缀查询即一次 subMap 区间扫描 + 大小为 limit 的小顶堆，不访问数据库
+ */
+@Slf4j
+@Service
+public class PrefixTagSuggestionService implements TagSuggestionService {
+
+    static final int MAX_LIMIT = 50;
+
+    // 排序：用户使用次数 > 全局使用次数 > 名称
+    private static final Comparator<TagSuggestionResponse> RANKING =
+            Comparator.comparingLong(TagSuggestionResponse::getOwnerCount).reversed()
+                    .thenComparing(Comparator.comparingLong(TagSuggestionResponse::getGlobalCount).reversed())
+                    .thenComparing(TagSuggestionResponse::getTag, String.CASE_INSENSITIVE_ORDER);
+
+    private final TagRepository tagRepository;
+    private final TransactionTemplate readOnlyTx;
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+
+    private Index index = new Index();
+    // 重建期间的标签挂载变化：(文档, 标签) -> 最终状态，切换前与快照比较后幂等地补上
+    private Map<Membership, Change> journal;
+    private volatile boolean ready;
+
+    public PrefixTagSuggestionService(TagRepository tagRepository,
+                                      PlatformTransactionManager transactionManager) {
+        this.tagRepository = tagRepository;
+        this.readOnlyTx = new TransactionTemplate(transactionManager);
+        this.readOnlyTx.setReadOnly(true);
+        // 全量统计与日志中文档的标签查询必须读到同一个快照
+        this.readOnlyTx.setIsolationLevel(TransactionDefinition.ISOLATION_REPEATABLE_READ);
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void rebuildOnStartup() {
+        rebuild();
+    }
+
+    @Override
+    public void tagsAttached(Long documentId, Long ownerId, Collection<String> tagNames) {
+        changed(documentId, ownerId, tagNames, true);
+    }
+
+    @Override
+    public void tagsDetached(Long documentId, Long ownerId, Collection<String> tagNames) {
+        changed(documentId, ownerId, tagNames, false);
+    }
+
+    @Override
+    public long rebuild() {
+        long start = System.currentTimeMillis();
+        lock.writeLock().lock();
+        try {
+            journal = new LinkedHashMap<>();
+        } finally {
+            lock.writeLock().unlock();
+        }
+
+        Index fresh = new Index();
+        try {
+            readOnlyTx.executeWithoutResult(status -> {
+                // 行格式 [tag, ownerId, count]；未被使用的标签 ownerId 为 null、count 为 0
+                List<Object[]> rows = tagRepository.countUsageByTagAndOwner(Document.DocumentStatus.DELETED);
+                if (rows != null) {
+                    for (Object[] row : rows) {
+                        fresh.add((Long) row[1], (String) row[0], ((Number) row[2]).longValue());
+                    }
+                }
+
+                // 持有写锁直到切换：日志不再增长，只查询期间变化过的文档，停顿很短
+                lock.writeLock().lock();
+                try {
+                    applyJournal(fresh);
+                    index = fresh;
+                    ready = true;
+                } finally {
+                    journal = null;
+                    lock.writeLock().unlock();
+                }
+            });
+        } catch (RuntimeException e) {
+            lock.writeLock().lock();
+            try {
+                journal = null;
+            } finally {
+                lock.writeLock().unlock();
+            }
+            throw e;
+        }
+        log.info("Tag suggestion index rebuilt: tags={}, owners={}, took={}ms",
+                fresh.global.size(), fresh.owners.size(), System.currentTimeMillis() - start);
+        return fresh.global.size();
+    }
+
+    /**
+     * 日志记录的是挂载的最终状态，与快照中的实际状态比较后只补差异：
+     * 快照已包含的变化不会重复计数，快照之后的变化不会丢失
+     */
+    private void applyJournal(Index fresh) {
+        if (journal.isEmpty()) {
+            return;
+        }
+        Set<Long> documentIds = new HashSet<>();
+        journal.keySet().forEach(m -> documentIds.add(m.documentId()));
+        Set<Membership> snapshot = new HashSet<>();
+        for (Object[] row : tagRepository.findTagNamesByDocumentIds(documentIds, Document.DocumentStatus.DELETED)) {
+            snapshot.add(new Membership((Long) row[0], (String) row[1]));
+        }
+        journal.forEach((membership, change) -> {
+            boolean inSnapshot = snapshot.contains(membership);
+            long delta = change.attached() == inSnapshot ? 0 : (change.attached() ? 1 : -1);
+            fresh.add(change.ownerId(), membership.tag(), delta);
+        });
+    }
+
+    private void changed(Long documentId, Long ownerId, Collection<String> tagNames, boolean attached) {
+        if (tagNames == null || tagNames.isEmpty()) {
+            return;
+        }
+        long delta = attached ? 1 : -1;
+        lock.writeLock().lock();
+        try {
+            for (String tag : tagNames) {
+                index.add(ownerId, tag, delta);
+                if (journal != null && documentId != null) {
+                    journal.put(new Membership(documentId, tag), new Change(ownerId, attached));
+                }
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    @Override
+    public List<TagSuggestionResponse> suggest(Long ownerId, String prefix, int limit) {
+        if (!ready) {
+            throw new IllegalStateException("Tag suggestion index is not ready yet");
+        }
+        int k = Math.max(1, Math.min(limit, MAX_LIMIT));
+        String p = prefix == null ? "" : prefix.trim();
+
+        // 小顶堆（按 RANKING 的逆序），只保留最好的 k 个
+        PriorityQueue<TagSuggestionResponse> heap = new PriorityQueue<>(k + 1, RANKING.reversed());
+        lock.readLock().lock();
+        try {
+            NavigableMap<String, Long> owned = index.owners.getOrDefault(ownerId, Index.EMPTY);
+            // 用户用过的标签总是排在前面：先扫用户自己的（通常很小），凑满 k 个即可返回
+            for (Map.Entry<String, Long> e : range(owned, p).entrySet()) {
+                offer(heap, k, suggestion(e.getKey(), e.getValue(), index.global.getOrDefault(e.getKey(), 0L)));
+            }
+            if (heap.size() < k) {
+                for (Map.Entry<String, Long> e : range(index.global, p).entrySet()) {
+                    if (!owned.containsKey(e.getKey())) {
+                        offer(heap, k, suggestion(e.getKey(), 0L, e.getValue()));
+                    }
+                }
+            }
+        } finally {
+            lock.readLock().unlock();
+        }
+
+        List<TagSuggestionResponse> result = new ArrayList<>(heap);
+        result.sort(RANKING);
+        return result;
+    }
+
+    private static NavigableMap<String, Long> range(NavigableMap<String, Long> map, String prefix) {
+        return prefix.isEmpty() ? map : map.subMap(prefix, true, prefix + Character.MAX_VALUE, false);
+    }
+
+    private static void offer(PriorityQueue<TagSuggestionResponse> heap, int k, TagSuggestionResponse candidate) {
+        if (heap.size() < k) {
+            heap.offer(candidate);
+        } else if (RANKING.compare(candidate, heap.peek()) < 0) {
+            heap.poll();
+            heap.offer(candidate);
+        }
+    }
+
+    private static TagSuggestionResponse suggestion(String tag, long ownerCount, long globalCount) {
+        return TagSuggestionResponse.builder()
+                .tag(tag)
+                .ownerCount(ownerCount)
+                .globalCount(globalCount)
+                .build();
+    }
+
+    private record Membership(Long documentId, String tag) {
+    }
+
+    private record Change(Long ownerId, boolean attached) {
+    }
+
+    /**
+     * 全局：标签名 -> 使用次数（标签行存在即保留，次数可为 0）
+     * 所有者：标签名 -> 该用户的使用次数（次数归零即移除）
+     */
+    private static final class Index {
+        static final NavigableMap<String, Long> EMPTY = Collections.emptyNavigableMap();
+
+        final NavigableMap<String, Long> global = new TreeMap<>(String.CASE_INSENSITIVE_ORDER);
+        final Map<Long, NavigableMap<String, Long>> owners = new HashMap<>();
+
+        void add(Long ownerId, String tag, long delta) {
+            if (tag == null || tag.isBlank()) {
+                return;
+            }
+            global.merge(tag, Math.max(0L, delta), (a, b) -> Math.max(0L, a + delta));
+            if (ownerId == null || delta == 0) {
+                return;
+            }
+            NavigableMap<String, Long> owned = owners.get(ownerId);
+            if (delta > 0) {
+                if (owned == null) {
+                    owned = new TreeMap<>(String.CASE_INSENSITIVE_ORDER);
+                    owners.put(ownerId, owned);
+                }
+                owned.merge(tag, delta, Long::sum);
+            } else if (owned != null) {
+                owned.computeIfPresent(tag, (t, count) -> count + delta > 0 ? count + delta : null);
+                if (owned.isEmpty()) {
+                    owners.remove(ownerId);
+                }
+            }
+        }
+    }
+}
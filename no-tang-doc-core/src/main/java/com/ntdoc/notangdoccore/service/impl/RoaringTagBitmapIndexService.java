@@ -0,0 +1,371 @@
+package com.ntdoc.notangdoccore.service.impl;
+
+import com.ntdoc.notangdoccore.entity.Document;
+import com.ntdoc.notangdoccore.repository.DocumentRepository;
+import com.ntdoc.notangdoccore.service.TagBitmapIndexService;
+import lombok.extern.slf4j.Slf4j;
+import org.roaringbitmap.RoaringBitmap;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.*;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Consumer;
+
+/**
+ * 基于 RoaringBitmap 的内存标签索引
+ * 文档ID按 int 存储（自增主键远小于 2^31）；写操作开销很小，统一用一把读写锁保护
+ */
+@Slf4j
+@Service
+public class RoaringTagBitmapIndexService implements TagBitmapIndexService {
+
+    static final int REBUILD_BATCH_SIZE = 1000;
+    static final int MAX_EXPRESSION_TERMS = 32;
+
+    private final DocumentRepository documentRepository;
+    private final TransactionTemplate readOnlyTx;
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+
+    private Map<Long, OwnerIndex> owners = new HashMap<>();
+    // 重建期间的增量操作，切换到新索引后重放
+    private List<Consumer<Map<Long, OwnerIndex>>> journal;
+    private volatile boolean ready;
+
+    public RoaringTagBitmapIndexService(DocumentRepository documentRepository,
+                                        PlatformTransactionManager transactionManager) {
+        this.documentRepository = documentRepository;
+        this.readOnlyTx = new TransactionTemplate(transactionManager);
+        this.readOnlyTx.setReadOnly(true);
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void rebuildOnStartup() {
+        rebuild();
+    }
+
+    @Override
+    public void addDocument(Long ownerId, Long documentId) {
+        write(index -> owner(index, ownerId).all.add(toInt(documentId)));
+    }
+
+    @Override
+    public void removeDocument(Long ownerId, Long documentId) {
+        write(index -> {
+            OwnerIndex owner = index.get(ownerId);
+            if (owner == null) {
+                return;
+            }
+            int id = toInt(documentId);
+            owner.all.remove(id);
+            owner.tags.values().removeIf(bitmap -> {
+                bitmap.remove(id);
+                return bitmap.isEmpty();
+            });
+        });
+    }
+
+    @Override
+    public void addTags(Long ownerId, Long documentId, Collection<String> tagNames) {
+        if (tagNames == null || tagNames.isEmpty()) {
+            return;
+        }
+        write(index -> {
+            OwnerIndex owner = owner(index, ownerId);
+            int id = toInt(documentId);
+            owner.all.add(id);
+            for (String tag : tagNames) {
+                owner.tags.computeIfAbsent(tag, t -> new RoaringBitmap()).add(id);
+            }
+        });
+    }
+
+    @Override
+    public void removeTags(Long ownerId, Long documentId, Collection<String> tagNames) {
+        if (tagNames == null || tagNames.isEmpty()) {
+            return;
+        }
+        write(index -> {
+            OwnerIndex owner = index.get(ownerId);
+            if (owner == null) {
+                return;
+            }
+            int id = toInt(documentId);
+            for (String tag : tagNames) {
+                RoaringBitmap bitmap = owner.tags.get(tag);
+                if (bitmap != null) {
+                    bitmap.remove(id);
+                    if (bitmap.isEmpty()) {
+                        owner.tags.remove(tag);
+                    }
+                }
+            }
+        });
+    }
+
+    @Override
+    public long rebuild() {
+        long start = System.currentTimeMillis();
+        lock.writeLock().lock();
+        try {
+            journal = new ArrayList<>();
+        } finally {
+            lock.writeLock().unlock();
+        }
+
+        Map<Long, OwnerIndex> fresh = new HashMap<>();
+        long count = 0;
+        try {
+            long lastId = 0L;
+            while (true) {
+                final long afterId = lastId;
+                List<Object[]> docs = documentRepository.findIdAndOwnerAfter(
+                        afterId, Document.DocumentStatus.DELETED, PageRequest.of(0, REBUILD_BATCH_SIZE));
+                if (docs.isEmpty()) {
+                    break;
+                }
+                Map<Long, Long> ownerByDoc = new HashMap<>();
+                for (Object[] row : docs) {
+                    Long docId = (Long) row[0];
+                    Long ownerId = (Long) row[1];
+                    ownerByDoc.put(docId, ownerId);
+                    owner(fresh, ownerId).all.add(toInt(docId));
+                }
+                List<Object[]> tagRows = readOnlyTx.execute(status ->
+                        documentRepository.findTagNamesByDocumentIds(ownerByDoc.keySet()));
+                if (tagRows != null) {
+                    for (Object[] row : tagRows) {
+                        Long docId = (Long) row[0];
+                        owner(fresh, ownerByDoc.get(docId)).tags
+                                .computeIfAbsent((String) row[1], t -> new RoaringBitmap())
+                                .add(toInt(docId));
+                    }
+                }
+                count += docs.size();
+                lastId = (Long) docs.get(docs.size() - 1)[0];
+            }
+            fresh.values().forEach(OwnerIndex::runOptimize);
+        } catch (RuntimeException e) {
+            lock.writeLock().lock();
+            try {
+                journal = null;
+            } finally {
+                lock.writeLock().unlock();
+            }
+            throw e;
+        }
+
+        lock.writeLock().lock();
+        try {
+            journal.forEach(op -> op.accept(fresh));
+            journal = null;
+            owners = fresh;
+            ready = true;
+        } finally {
+            lock.writeLock().unlock();
+        }
+        log.info("Tag bitmap index rebuilt: docs={}, owners={}, took={}ms",
+                count, fresh.size(), System.currentTimeMillis() - start);
+        return count;
+    }
+
+    @Override
+    public Page<Long> query(Long ownerId, String expression, Pageable pageable) {
+        if (!ready) {
+            throw new IllegalStateException("Tag index is not ready yet");
+        }
+        List<Token> tokens = tokenize(expression);
+
+        RoaringBitmap result;
+        lock.readLock().lock();
+        try {
+            OwnerIndex owner = owners.getOrDefault(ownerId, OwnerIndex.EMPTY);
+            // 单个标签时结果即索引中的位图，复制后再在锁外使用
+            result = new Parser(tokens, owner).parse().clone();
+        } finally {
+            lock.readLock().unlock();
+        }
+
+        long total = result.getLongCardinality();
+        List<Long> ids = new ArrayList<>(pageable.getPageSize());
+        // 倒序取第 offset 个开始的一页（select 为按秩定位，无需遍历跳过）
+        for (long i = pageable.getOffset(); i < total && ids.size() < pageable.getPageSize(); i++) {
+            ids.add(Integer.toUnsignedLong(result.select((int) (total - 1 - i))));
+        }
+        return new PageImpl<>(ids, pageable, total);
+    }
+
+    private void write(Consumer<Map<Long, OwnerIndex>> op) {
+        lock.writeLock().lock();
+        try {
+            op.accept(owners);
+            if (journal != null) {
+                journal.add(op);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    private static OwnerIndex owner(Map<Long, OwnerIndex> index, Long ownerId) {
+        return index.computeIfAbsent(ownerId, id -> new OwnerIndex());
+    }
+
+    private static int toInt(Long documentId) {
+        return Math.toIntExact(documentId);
+    }
+
+    // ---------------- 表达式解析 -----------------
+
+    enum TokenType { TAG, AND, OR, NOT, LPAREN, RPAREN }
+
+    record Token(TokenType type, String text) {
+    }
+
+    static List<Token> tokenize(String expression) {
+        if (expression == null || expression.isBlank()) {
+            throw new IllegalArgumentException("Tag expression must not be empty");
+        }
+        List<Token> tokens = new ArrayList<>();
+        int i = 0;
+        int n = expression.length();
+        while (i < n) {
+            char c = expression.charAt(i);
+            if (Character.isWhitespace(c)) {
+                i++;
+            } else if (c == '(') {
+                tokens.add(new Token(TokenType.LPAREN, "("));
+                i++;
+            } else if (c == ')') {
+                tokens.add(new Token(TokenType.RPAREN, ")"));
+                i++;
+            } else if (c == '"') {
+                int end = expression.indexOf('"', i + 1);
+                if (end < 0) {
+                    throw new IllegalArgumentException("Unterminated quote in tag expression");
+                }
+                tokens.add(new Token(TokenType.TAG, expression.substring(i + 1, end)));
+                i = end + 1;
+            } else {
+                int start = i;
+                while (i < n && !Character.isWhitespace(expression.charAt(i))
+                        && "()\"".indexOf(expression.charAt(i)) < 0) {
+                    i++;
+                }
+                String word = expression.substring(start, i);
+                switch (word.toUpperCase(Locale.ROOT)) {
+                    case "AND" -> tokens.add(new Token(TokenType.AND, word));
+                    case "OR" -> tokens.add(new Token(TokenType.OR, word));
+                    case "NOT" -> tokens.add(new Token(TokenType.NOT, word));
+                    default -> tokens.add(new Token(TokenType.TAG, word));
+                }
+            }
+        }
+        long terms = tokens.stream().filter(t -> t.type() == TokenType.TAG).count();
+        if (terms == 0 || terms > MAX_EXPRESSION_TERMS) {
+            throw new IllegalArgumentException("Tag expression must contain 1-" + MAX_EXPRESSION_TERMS + " tags");
+        }
+        return tokens;
+    }
+
+    /**
+     * 递归下降：or := and (OR and)* ; and := unary ((AND)? unary)* ; unary := NOT unary | primary
+     * 相邻两个标签之间省略 AND 视为 AND
+     */
+    private static final class Parser {
+        private final List<Token> tokens;
+        private final OwnerIndex owner;
+        private int pos;
+
+        Parser(List<Token> tokens, OwnerIndex owner) {
+            this.tokens = tokens;
+            this.owner = owner;
+        }
+
+        RoaringBitmap parse() {
+            RoaringBitmap result = or();
+            if (pos < tokens.size()) {
+                throw new IllegalArgumentException("Unexpected token in tag expression: " + tokens.get(pos).text());
+            }
+            return result;
+        }
+
+        private RoaringBitmap or() {
+            RoaringBitmap left = and();
+            while (accept(TokenType.OR)) {
+                left = RoaringBitmap.or(left, and());
+            }
+            return left;
+        }
+
+        private RoaringBitmap and() {
+            RoaringBitmap left = unary();
+            while (pos < tokens.size()) {
+                TokenType next = tokens.get(pos).type();
+                if (next == TokenType.AND) {
+                    pos++;
+                } else if (next != TokenType.TAG && next != TokenType.NOT && next != TokenType.LPAREN) {
+                    break;
+                }
+                left = RoaringBitmap.and(left, unary());
+            }
+            return left;
+        }
+
+        private RoaringBitmap unary() {
+            if (accept(TokenType.NOT)) {
+                return RoaringBitmap.andNot(owner.all, unary());
+            }
+            return primary();
+        }
+
+        private RoaringBitmap primary() {
+            if (pos >= tokens.size()) {
+                throw new IllegalArgumentException("Unexpected end of tag expression");
+            }
+            Token token = tokens.get(pos++);
+            if (token.type() == TokenType.LPAREN) {
+                RoaringBitmap inner = or();
+                if (!accept(TokenType.RPAREN)) {
+                    throw new IllegalArgumentException("Missing ')' in tag expression");
+                }
+                return inner;
+            }
+            if (token.type() != TokenType.TAG) {
+                throw new IllegalArgumentException("Unexpected token in tag expression: " + token.text());
+            }
+            RoaringBitmap bitmap = owner.tags.get(token.text());
+            return bitmap == null ? new RoaringBitmap() : bitmap;
+        }
+
+        private boolean accept(TokenType type) {
+            if (pos < tokens.size() && tokens.get(pos).type() == type) {
+                pos++;
+                return true;
+            }
+            return false;
+        }
+    }
+
+    /**
+     * 单个所有者的索引：标签 -> 文档位图，以及全部文档位图（NOT 的全集）
+     */
+    private static final class OwnerIndex {
+        static final OwnerIndex EMPTY = new OwnerIndex();
+
+        final Map<String, RoaringBitmap> tags = new HashMap<>();
+        final RoaringBitmap all = new RoaringBitmap();
+
+        void runOptimize() {
+            all.runOptimize();
+            tags.values().forEach(RoaringBitmap::runOptimize);
+        }
+    }
+}
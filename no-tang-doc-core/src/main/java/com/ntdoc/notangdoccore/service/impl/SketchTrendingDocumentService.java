@@ -0,0 +1,222 @@
+package com.ntdoc.notangdoccore.service.impl;
+
+import com.ntdoc.notangdoccore.common.CountMinSketch;
+import com.ntdoc.notangdoccore.config.TrendingProperties;
+import com.ntdoc.notangdoccore.dto.document.TrendingDocumentResponse;
+import com.ntdoc.notangdoccore.service.TrendingDocumentService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+
+import java.time.Clock;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 热门文档：每个窗口是一圈时间格，每格一个 Count-Min Sketch，窗口计数为各格估计值之和；
+ * 另维护 K 个候选文档，查询时只对候选排序。全站一份，团队按最久未访问淘汰，内存固定
+ */
+@Service
+public class SketchTrendingDocumentService implements TrendingDocumentService {
+
+    private final TrendingProperties properties;
+    private final Clock clock;
+    private final Tracker global;
+    private final Map<Long, Tracker> teams;
+
+    @Autowired
+    public SketchTrendingDocumentService(TrendingProperties properties) {
+        this(properties, Clock.systemUTC());
+    }
+
+    SketchTrendingDocumentService(TrendingProperties properties, Clock clock) {
+        this.properties = properties;
+        this.clock = clock;
+        this.global = new Tracker(properties.getSketchWidth());
+        int maxTeams = Math.max(1, properties.getMaxTeams());
+        this.teams = Collections.synchronizedMap(new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Long, Tracker> eldest) {
+                return size() > maxTeams;
+            }
+        });
+    }
+
+    @Override
+    public void recordAccess(Long documentId, String fileName, Collection<Long> teamIds) {
+        long now = clock.millis();
+        global.record(documentId, fileName, now);
+        for (Long teamId : teamIds) {
+            teams.computeIfAbsent(teamId, id -> new Tracker(properties.getTeamSketchWidth()))
+                    .record(documentId, fileName, now);
+        }
+    }
+
+    @Override
+    public void documentRemoved(Long documentId) {
+        global.remove(documentId);
+        synchronized (teams) {
+            teams.values().forEach(tracker -> tracker.remove(documentId));
+        }
+    }
+
+    @Override
+    public List<TrendingDocumentResponse> getTrending(Window window, int limit) {
+        return global.top(window, limit, clock.millis());
+    }
+
+    @Override
+    public List<TrendingDocumentResponse> getTeamTrending(Long teamId, Window window, int limit) {
+        Tracker tracker = teams.get(teamId);
+        return tracker == null ? List.of() : tracker.top(window, limit, clock.millis());
+    }
+
+    /**
+     * 一个统计范围（全站或某个团队）下各窗口的统计
+     */
+    private final class Tracker {
+        private final Map<Window, WindowedTopK> windows = new EnumMap<>(Window.class);
+
+        private Tracker(int sketchWidth) {
+            for (Window window : Window.values()) {
+                windows.put(window, new WindowedTopK(window, properties.getSketchDepth(), sketchWidth,
+                        Math.max(1, properties.getTopK())));
+            }
+        }
+
+        private void record(Long documentId, String fileName, long now) {
+            windows.values().forEach(w -> w.record(documentId, fileName, now));
+        }
+
+        private void remove(Long documentId) {
+            windows.values().forEach(w -> w.remove(documentId));
+        }
+
+        private List<TrendingDocumentResponse> top(Window window, int limit, long now) {
+            return windows.get(window).top(limit, now);
+        }
+    }
+
+    /**
+     * 单个滑动窗口：时间格轮转时清空最旧的一格，并重新估计候选的计数
+     */
+    static final class WindowedTopK {
+        private final long bucketMillis;
+        private final CountMinSketch[] buckets;
+        private final int capacity;
+        private final Map<Long, Candidate> candidates = new HashMap<>();
+        private long currentEpoch = Long.MIN_VALUE;
+        private List<TrendingDocumentResponse> snapshot = List.of();
+        private boolean dirty;
+
+        WindowedTopK(Window window, int depth, int width, int capacity) {
+            this.bucketMillis = window.bucket().toMillis();
+            this.buckets = new CountMinSketch[window.buckets()];
+            for (int i = 0; i < buckets.length; i++) {
+                buckets[i] = new CountMinSketch(depth, width);
+            }
+            this.capacity = capacity;
+        }
+
+        synchronized void record(Long documentId, String fileName, long now) {
+            long epoch = advance(now);
+            buckets[(int) Math.floorMod(epoch, (long) buckets.length)].add(documentId, 1);
+            long count = estimate(documentId);
+
+            Candidate candidate = candidates.get(documentId);
+            if (candidate == null) {
+                if (candidates.size() >= capacity) {
+                    Candidate min = candidates.values().stream()
+                            .min(Comparator.comparingLong(c -> c.count))
+                            .orElseThrow();
+                    if (count <= min.count) {
+                        return;
+                    }
+                    candidates.remove(min.documentId);
+                }
+                candidate = new Candidate(documentId);
+                candidates.put(documentId, candidate);
+            }
+            candidate.count = count;
+            if (fileName != null) {
+                candidate.fileName = fileName;
+            }
+            dirty = true;
+        }
+
+        synchronized void remove(Long documentId) {
+            if (candidates.remove(documentId) != null) {
+                dirty = true;
+            }
+        }
+
+        synchronized List<TrendingDocumentResponse> top(int limit, long now) {
+            advance(now);
+            if (dirty) {
+                snapshot = candidates.values().stream()
+                        .sorted(Comparator.comparingLong((Candidate c) -> c.count).reversed()
+                                .thenComparing(c -> c.documentId))
+                        .map(c -> TrendingDocumentResponse.builder()
+                                .documentId(c.documentId)
+                                .fileName(c.fileName)
+                                .count(c.count)
+                                .build())
+                        .toList();
+                dirty = false;
+            }
+            return snapshot.subList(0, Math.min(Math.max(limit, 0), snapshot.size()));
+        }
+
+        private long advance(long now) {
+            long epoch = Math.floorDiv(now, bucketMillis);
+            if (epoch <= currentEpoch) {
+                return currentEpoch;
+            }
+            if (currentEpoch == Long.MIN_VALUE || epoch - currentEpoch >= buckets.length) {
+                for (CountMinSketch bucket : buckets) {
+                    bucket.clear();
+                }
+            } else {
+                for (long e = currentEpoch + 1; e <= epoch; e++) {
+                    buckets[(int) Math.floorMod(e, (long) buckets.length)].clear();
+                }
+            }
+            currentEpoch = epoch;
+
+            // 最旧的格已移出窗口，候选的计数随之减少
+            for (Iterator<Candidate> it = candidates.values().iterator(); it.hasNext(); ) {
+                Candidate candidate = it.next();
+                candidate.count = estimate(candidate.documentId);
+                if (candidate.count == 0) {
+                    it.remove();
+                }
+            }
+            dirty = true;
+            return epoch;
+        }
+
+        private long estimate(long documentId) {
+            long sum = 0;
+            for (CountMinSketch bucket : buckets) {
+                sum += bucket.estimate(documentId);
+            }
+            return sum;
+        }
+    }
+
+    private static final class Candidate {
+        private final Long documentId;
+        private String fileName;
+        private long count;
+
+        private Candidate(Long documentId) {
+            this.documentId = documentId;
+        }
+    }
+}
@@ -0,0 +1,159 @@
+package com.ntdoc.notangdoccore.service.impl;
+
+import com.ntdoc.notangdoccore.config.StorageSummaryProperties;
+import com.ntdoc.notangdoccore.dto.storage.StorageSummaryResponse;
+import com.ntdoc.notangdoccore.entity.Document;
+import com.ntdoc.notangdoccore.entity.UserStorageSummary;
+import com.ntdoc.notangdoccore.repository.UserRepository;
+import com.ntdoc.notangdoccore.repository.UserStorageByTypeRepository;
+import com.ntdoc.notangdoccore.repository.UserStorageSummaryRepository;
+import com.ntdoc.notangdoccore.service.CallerIdentityService;
+import com.ntdoc.notangdoccore.service.StorageSummaryService;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.List;
+import java.util.Set;
+import java.util.TreeSet;
+
+/**
+ * 用户存储汇总：写路径做原子增量，定时对账兜底
+ */
+@Slf4j
+@Service
+public class StorageSummaryServiceImpl implements StorageSummaryService {
+
+    static final String UNKNOWN_CONTENT_TYPE = "unknown";
+
+    private final UserStorageSummaryRepository summaryRepository;
+    private final UserStorageByTypeRepository byTypeRepository;
+    private final UserRepository userRepository;
+    private final CallerIdentityService callerIdentityService;
+    private final StorageSummaryProperties properties;
+    private final TransactionTemplate txTemplate;
+
+    public StorageSummaryServiceImpl(UserStorageSummaryRepository summaryRepository,
+                                     UserStorageByTypeRepository byTypeRepository,
+                                     UserRepository userRepository,
+                                     CallerIdentityService callerIdentityService,
+                                     StorageSummaryProperties properties,
+                                     PlatformTransactionManager transactionManager) {
+        this.summaryRepository = summaryRepository;
+        this.byTypeRepository = byTypeRepository;
+        this.userRepository = userRepository;
+        this.callerIdentityService = callerIdentityService;
+        this.properties = properties;
+        this.txTemplate = new TransactionTemplate(transactionManager);
+    }
+
+    @Override
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void documentAdded(Document document) {
+        applyDelta(document, null, document.getStatus());
+    }
+
+    @Override
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void documentRemoved(Document document) {
+        applyDelta(document, document.getStatus(), null);
+    }
+
+    @Override
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void statusChanged(Document document, Document.DocumentStatus previousStatus) {
+        if (previousStatus == document.getStatus()) {
+            return;
+        }
+        applyDelta(document, previousStatus, document.getStatus());
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public StorageSummaryResponse getSummary(String kcUserId) {
+        return callerIdentityService.findCaller(kcUserId)
+                .or(() -> userRepository.findByKcUserId(kcUserId))
+                .map(user -> {
+                    UserStorageSummary summary = summaryRepository.findById(user.getId()).orElse(null);
+                    return StorageSummaryResponse.from(summary,
+                            byTypeRepository.findByIdUserIdOrderByTotalBytesDesc(user.getId()));
+                })
+                .orElseGet(() -> StorageSummaryResponse.from(null, List.of()));
+    }
+
+    /**
+     * 按用户ID区间分批对账，每批一个事务；只重写有偏差的用户
+     */
+    @Override
+    @Scheduled(cron = "${ntdoc.storage-summary.reconcile-cron:0 15 3 * * *}")
+    public long reconcile() {
+        long start = System.currentTimeMillis();
+        int batchSize = Math.max(1, properties.getReconcileBatchSize());
+        long maxUserId = summaryRepository.findMaxUserId();
+
+        long repaired = 0;
+        for (long fromId = 0; fromId < maxUserId; fromId += batchSize) {
+            final long from = fromId;
+            final long to = Math.min(fromId + batchSize, maxUserId);
+            Integer count = txTemplate.execute(status -> {
+                // 总量一致时分类型汇总仍可能有偏差，两张表分别检查
+                Set<Long> driftedIds = new TreeSet<>(summaryRepository.findDriftedUserIds(from, to));
+                driftedIds.addAll(byTypeRepository.findDriftedUserIds(from, to));
+                List<Long> drifted = List.copyOf(driftedIds);
+                if (drifted.isEmpty()) {
+                    return 0;
+                }
+                summaryRepository.recompute(drifted);
+                byTypeRepository.deleteByUserIds(drifted);
+                byTypeRepository.recompute(drifted);
+                log.warn("Storage summary drift repaired: users={}", drifted);
+                return drifted.size();
+            });
+            repaired += count == null ? 0 : count;
+        }
+
+        log.info("Storage summary reconciled: repaired={}, took={}ms", repaired, System.currentTimeMillis() - start);
+        return repaired;
+    }
+
+    /**
+     * from / to 为 null 表示文档不存在（新增前 / 删除后）
+     */
+    private void applyDelta(Document document, Document.DocumentStatus from, Document.DocumentStatus to) {
+        if (document.getUploadedBy() == null || document.getUploadedBy().getId() == null) {
+            return;
+        }
+        Long userId = document.getUploadedBy().getId();
+        long size = document.getFileSize() == null ? 0L : document.getFileSize();
+
+        long countDelta = countsAsStored(to) - countsAsStored(from);
+        long bytesDelta = countDelta * size;
+
+        summaryRepository.applyDelta(userId,
+                statusDelta(Document.DocumentStatus.ACTIVE, from, to),
+                statusDelta(Document.DocumentStatus.UPLOADING, from, to),
+                statusDelta(Document.DocumentStatus.PROCESSING, from, to),
+                statusDelta(Document.DocumentStatus.DELETED, from, to),
+                bytesDelta);
+
+        if (countDelta != 0) {
+            String contentType = document.getContentType() == null ? UNKNOWN_CONTENT_TYPE : document.getContentType();
+            byTypeRepository.applyDelta(userId, contentType, countDelta, bytesDelta);
+        }
+    }
+
+    private static long statusDelta(Document.DocumentStatus status,
+                                     Document.DocumentStatus from,
+                                     Document.DocumentStatus to) {
+        return (to == status ? 1 : 0) - (from == status ? 1 : 0);
+    }
+
+    // 已删除的文档不计入占用空间
+    private static long countsAsStored(Document.DocumentStatus status) {
+        return status != null && status != Document.DocumentStatus.DELETED ? 1 : 0;
+    }
+}
@@ -0,0 +1,137 @@
+package com.ntdoc.notangdoccore.service.impl;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.ntdoc.notangdoccore.repository.TagRepository;
+import com.ntdoc.notangdoccore.service.TagDictionaryService;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.*;
+
+/**
+ * 标签字典缓存：小写名称 -> (ID, 库中名称)
+ * 标签只增不改，缓存无需失效；本事务新插入的标签在提交后才放入缓存，避免回滚后缓存到不存在的ID
+ */
+@Slf4j
+@Service
+public class TagDictionaryServiceImpl implements TagDictionaryService {
+
+    static final int MAX_CACHED_TAGS = 10_000;
+    static final int MAX_TAG_LENGTH = 64;
+
+    private final TagRepository tagRepository;
+    private final ObjectMapper objectMapper;
+
+    // 按访问顺序淘汰的 LRU
+    private final Map<String, TagRef> cache = Collections.synchronizedMap(
+            new LinkedHashMap<>(256, 0.75f, true) {
+                @Override
+                protected boolean removeEldestEntry(Map.Entry<String, TagRef> eldest) {
+                    return size() > MAX_CACHED_TAGS;
+                }
+            });
+
+    public TagDictionaryServiceImpl(TagRepository tagRepository, ObjectMapper objectMapper) {
+        this.tagRepository = tagRepository;
+        this.objectMapper = objectMapper;
+    }
+
+    record TagRef(Long id, String name) {
+    }
+
+    @Override
+    @Transactional
+    public Map<String, Long> resolveIds(Collection<String> tagNames) {
+        Map<String, Long> result = new LinkedHashMap<>();
+        if (tagNames == null || tagNames.isEmpty()) {
+            return result;
+        }
+
+        Map<String, TagRef> resolved = new HashMap<>();
+        List<String> misses = new ArrayList<>();
+        Set<String> seen = new HashSet<>();
+        for (String name : tagNames) {
+            if (name.length() > MAX_TAG_LENGTH) {
+                throw new IllegalArgumentException("Tag is too long (max " + MAX_TAG_LENGTH + "): " + name);
+            }
+            if (!seen.add(key(name))) {
+                continue;
+            }
+            TagRef ref = cache.get(key(name));
+            if (ref != null) {
+                resolved.put(key(name), ref);
+            } else {
+                misses.add(name);
+            }
+        }
+
+        if (!misses.isEmpty()) {
+            // 已存在的标签：一次 IN 查询，已提交的数据可直接缓存
+            Map<String, TagRef> existing = toRefs(tagRepository.findIdsByTagIn(misses));
+            cache.putAll(existing);
+            resolved.putAll(existing);
+
+            List<String> missing = misses.stream().filter(n -> !existing.containsKey(key(n))).toList();
+            if (!missing.isEmpty()) {
+                tagRepository.insertIgnoringDuplicates(toJson(missing));
+                // 加锁读，并发事务已插入的同名标签也能读到
+                Map<String, TagRef> inserted = toRefs(tagRepository.lockIdsByTagIn(missing));
+                resolved.putAll(inserted);
+                cacheAfterCommit(inserted);
+                log.debug("Created tags: {}", missing);
+            }
+        }
+
+        for (String name : tagNames) {
+            TagRef ref = resolved.get(key(name));
+            if (ref == null) {
+                log.warn("Tag could not be resolved: {}", name);
+                continue;
+            }
+            result.put(ref.name(), ref.id());
+        }
+        return result;
+    }
+
+    private void cacheAfterCommit(Map<String, TagRef> refs) {
+        if (refs.isEmpty()) {
+            return;
+        }
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            cache.putAll(refs);
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                cache.putAll(refs);
+            }
+        });
+    }
+
+    private static Map<String, TagRef> toRefs(List<Object[]> rows) {
+        Map<String, TagRef> refs = new HashMap<>();
+        for (Object[] row : rows) {
+            String name = (String) row[1];
+            refs.put(key(name), new TagRef(((Number) row[0]).longValue(), name));
+        }
+        return refs;
+    }
+
+    private String toJson(List<String> names) {
+        try {
+            return objectMapper.writeValueAsString(names);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Failed to serialize tag names", e);
+        }
+    }
+
+    // 与 tags.tag 列的排序规则一致：不区分大小写
+    private static String key(String name) {
+        return name.toLowerCase(Locale.ROOT);
+    }
+}
@@ -0,0 +1,70 @@
+package com.ntdoc.notangdoccore.service.impl;
+
+import com.ntdoc.notangdoccore.config.TeamMemberCountProperties;
+import com.ntdoc.notangdoccore.repository.TeamRepository;
+import com.ntdoc.notangdoccore.service.ResourceVersionService;
+import com.ntdoc.notangdoccore.service.TeamMemberCountService;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.List;
+
+/**
+ * 团队成员数对账：按团队ID区间分批找出偏差，只重写有偏差的团队
+ */
+@Slf4j
+@Service
+public class TeamMemberCountServiceImpl implements TeamMemberCountService {
+
+    private final TeamRepository teamRepository;
+    private final ResourceVersionService resourceVersionService;
+    private final TeamMemberCountProperties properties;
+    private final TransactionTemplate txTemplate;
+
+    public TeamMemberCountServiceImpl(TeamRepository teamRepository,
+                                      ResourceVersionService resourceVersionService,
+                                      TeamMemberCountProperties properties,
+                                      PlatformTransactionManager transactionManager) {
+        this.teamRepository = teamRepository;
+        this.resourceVersionService = resourceVersionService;
+        this.properties = properties;
+        this.txTemplate = new TransactionTemplate(transactionManager);
+    }
+
+    /**
+     * 每批一个事务；偏差用一条分组查询找出，再用一条 UPDATE 在语句内重新计数并写回
+     */
+    @Override
+    @Scheduled(cron = "${ntdoc.team-member-count.reconcile-cron:0 45 3 * * *}")
+    public long reconcile() {
+        long start = System.currentTimeMillis();
+        int batchSize = Math.max(1, properties.getReconcileBatchSize());
+        long maxTeamId = teamRepository.findMaxTeamId();
+
+        long repaired = 0;
+        for (long fromId = 0; fromId < maxTeamId; fromId += batchSize) {
+            final long from = fromId;
+            final long to = Math.min(fromId + batchSize, maxTeamId);
+            Integer count = txTemplate.execute(status -> {
+                List<Long> drifted = teamRepository.findDriftedTeamIds(from, to);
+                if (drifted.isEmpty()) {
+                    return 0;
+                }
+                teamRepository.recountMemberCounts(drifted);
+                // 成员数体现在拥有者的团队列表中
+                for (Long ownerId : teamRepository.findOwnerIdsByTeamIds(drifted)) {
+                    resourceVersionService.bumpAfterCommit(ResourceVersionService.Scope.TEAMS, ownerId);
+                }
+                log.warn("Team member count drift repaired: teams={}", drifted);
+                return drifted.size();
+            });
+            repaired += count == null ? 0 : count;
+        }
+
+        log.info("Team member counts reconciled: repaired={}, took={}ms", repaired, System.currentTimeMillis() - start);
+        return repaired;
+    }
+}
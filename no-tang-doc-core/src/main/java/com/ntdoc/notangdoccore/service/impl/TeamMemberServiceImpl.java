@@ -1,5 +1,6 @@
 package com.ntdoc.notangdoccore.service.impl;
 
+import com.ntdoc.notangdoccore.dto.team.TeamAccess;
 import com.ntdoc.notangdoccore.dto.team.TeamMemberResponse;
 import com.ntdoc.notangdoccore.entity.Team;
 import com.ntdoc.notangdoccore.entity.TeamMember;
@@ -7,10 +8,14 @@ import com.ntdoc.notangdoccore.entity.User;
 import com.ntdoc.notangdoccore.repository.TeamMemberRepository;
 import com.ntdoc.notangdoccore.repository.TeamRepository;
 import com.ntdoc.notangdoccore.repository.UserRepository;
+import com.ntdoc.notangdoccore.service.CallerIdentityService;
+import com.ntdoc.notangdoccore.service.ResourceVersionService;
+import com.ntdoc.notangdoccore.service.TeamAccessService;
 import com.ntdoc.notangdoccore.service.TeamMemberService;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.util.ArrayList;
@@ -27,6 +32,9 @@ public class TeamMemberServiceImpl implements TeamMemberService {
     private final TeamRepository teamRepository;
     private final TeamMemberRepository teamMemberRepository;
     private final UserRepository userRepository;
+    private final CallerIdentityService callerIdentityService;
+    private final ResourceVersionService resourceVersionService;
+    private final TeamAccessService teamAccessService;
 
     @Override
     public TeamMember addMember(Long teamId, String userEmail, String role, String operatorKcId) {
@@ -62,7 +70,11 @@ public class TeamMemberServiceImpl implements TeamMemberService {
             member.setStatus(TeamMember.MemberStatus.ACTIVE);
             member.setRole(TeamMember.TeamRole.valueOf(role.toUpperCase()));
             log.info("Reactivated member: teamId={}, userId={}", teamId, user.getId());
-            return teamMemberRepository.save(member);
+            member = teamMemberRepository.save(member);
+            teamRepository.adjustMemberCount(teamId, 1);
+            teamAccessService.evict(teamId, user.getKcUserId());
+            teamListChanged(team);
+            return member;
         }
 
         // 6. 创建新成员记录
@@ -74,10 +86,11 @@ public class TeamMemberServiceImpl implements TeamMemberService {
                 .build();
 
         newMember = teamMemberRepository.save(newMember);
+        teamAccessService.evict(teamId, user.getKcUserId());
 
-        // 7. 更新团队成员数量
-        team.setMemberCount(team.getMemberCount() + 1);
-        teamRepository.save(team);
+        // 7. 更新团队成员数量（原子增量，并发加入不会丢失更新）
+        teamRepository.adjustMemberCount(teamId, 1);
+        teamListChanged(team);
 
         log.info("Member added successfully: teamId={}, userId={}, memberId={}",
                 teamId, user.getId(), newMember.getId());
@@ -112,11 +125,11 @@ public class TeamMemberServiceImpl implements TeamMemberService {
         // 5. 标记为已移除（软删除）
         member.setStatus(TeamMember.MemberStatus.REMOVED);
         teamMemberRepository.save(member);
+        teamAccessService.evict(teamId, member.getUser().getKcUserId());
 
         // 6. 更新团队成员数量
-        Team team = member.getTeam();
-        team.setMemberCount(Math.max(1, team.getMemberCount() - 1));
-        teamRepository.save(team);
+        teamRepository.adjustMemberCount(teamId, -1);
+        teamListChanged(member.getTeam());
 
         log.info("Member removed successfully: teamId={}, memberId={}", teamId, memberId);
     }
@@ -130,7 +143,7 @@ public class TeamMemberServiceImpl implements TeamMemberService {
         Team team = teamRepository.findById(teamId)
                 .orElseThrow(() -> new RuntimeException("团队不存在: " + teamId));
 
-        User operator = userRepository.findByKcUserId(operatorKcId)
+        User operator = findUser(operatorKcId)
                 .orElseThrow(() -> new RuntimeException("操作者不存在: " + operatorKcId));
 
         if (!team.getOwner().getId().equals(operator.getId())) {
@@ -160,6 +173,7 @@ public class TeamMemberServiceImpl implements TeamMemberService {
         // 6. 更新角色
         member.setRole(newRoleEnum);
         member = teamMemberRepository.save(member);
+        teamAccessService.evict(teamId, member.getUser().getKcUserId());
 
         TeamMemberResponse response = TeamMemberResponse.fromEntity(member);
 
@@ -221,7 +235,7 @@ public class TeamMemberServiceImpl implements TeamMemberService {
         Team team = teamRepository.findById(teamId)
                 .orElseThrow(() -> new RuntimeException("团队不存在: " + teamId));
 
-        User user = userRepository.findByKcUserId(userKcId)
+        User user = findUser(userKcId)
                 .orElseThrow(() -> new RuntimeException("用户不存在: " + userKcId));
 
         TeamMember member = teamMemberRepository.findByTeamAndUser(team, user)
@@ -235,50 +249,46 @@ public class TeamMemberServiceImpl implements TeamMemberService {
         // 标记为已移除
         member.setStatus(TeamMember.MemberStatus.REMOVED);
         teamMemberRepository.save(member);
+        teamAccessService.evict(teamId, userKcId);
 
         // 更新团队成员数量
-        team.setMemberCount(Math.max(1, team.getMemberCount() - 1));
-        teamRepository.save(team);
+        teamRepository.adjustMemberCount(teamId, -1);
+        teamListChanged(team);
 
         log.info("User left team successfully: teamId={}, userId={}", teamId, user.getId());
     }
 
+    // 权限判断走内存缓存，命中时不需要事务
     @Override
-    @Transactional(readOnly = true)
+    @Transactional(propagation = Propagation.SUPPORTS)
     public boolean isMember(Long teamId, String userKcId) {
-        Team team = teamRepository.findById(teamId).orElse(null);
-        if (team == null) {
-            return false;
-        }
-
-        User user = userRepository.findByKcUserId(userKcId).orElse(null);
-        if (user == null) {
-            return false;
-        }
-
-        return teamMemberRepository.existsByTeamAndUserAndStatus(team, user, TeamMember.MemberStatus.ACTIVE);
+        return teamAccessService.find(teamId, userKcId)
+                .map(TeamAccess::isActiveMember)
+                .orElse(false);
     }
 
     @Override
-    @Transactional(readOnly = true)
+    @Transactional(propagation = Propagation.SUPPORTS)
     public boolean hasManagePermission(Long teamId, String userKcId) {
-        Team team = teamRepository.findById(teamId).orElse(null);
-        if (team == null) {
-            return false;
-        }
-
-        User user = userRepository.findByKcUserId(userKcId).orElse(null);
-        if (user == null) {
-            return false;
-        }
+        return teamAccessService.find(teamId, userKcId)
+                .map(TeamAccess::canManage)
+                .orElse(false);
+    }
 
-        Optional<TeamMember> member = teamMemberRepository.findByTeamAndUser(team, user);
-        if (member.isEmpty() || member.get().getStatus() != TeamMember.MemberStatus.ACTIVE) {
-            return false;
+    /**
+     * 成员数变化会体现在拥有者的团队列表中
+     */
+    private void teamListChanged(Team team) {
+        if (team.getOwner() != null) {
+            resourceVersionService.bumpAfterCommit(ResourceVersionService.Scope.TEAMS, team.getOwner().getId());
         }
+    }
 
-        TeamMember.TeamRole role = member.get().getRole();
-        return role == TeamMember.TeamRole.OWNER || role == TeamMember.TeamRole.ADMIN;
+    /**
+     * 当前调用者直接取已解析的身份（同一请求内不重复查询），其他情况按 Keycloak ID 查找
+     */
+    private Optional<User> findUser(String kcUserId) {
+        return callerIdentityService.findCaller(kcUserId)
+                .or(() -> userRepository.findByKcUserId(kcUserId));
     }
 }
-
@@ -1,20 +1,31 @@
 package com.ntdoc.notangdoccore.service.impl;
 
 import com.ntdoc.notangdoccore.dto.team.TeamCreateRequest;
+import com.ntdoc.notangdoccore.dto.team.TeamResponse;
 import com.ntdoc.notangdoccore.entity.Team;
 import com.ntdoc.notangdoccore.entity.TeamMember;
 import com.ntdoc.notangdoccore.entity.User;
 import com.ntdoc.notangdoccore.repository.TeamMemberRepository;
 import com.ntdoc.notangdoccore.repository.TeamRepository;
 import com.ntdoc.notangdoccore.repository.UserRepository;
+import com.ntdoc.notangdoccore.service.CallerIdentityService;
+import com.ntdoc.notangdoccore.service.ResourceVersionService;
+import com.ntdoc.notangdoccore.service.TeamAccessService;
 import com.ntdoc.notangdoccore.service.TeamService;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import jakarta.persistence.TypedQuery;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.time.Instant;
+import java.util.ArrayList;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
 
 @Slf4j
 @Service
@@ -25,6 +36,21 @@ public class TeamServiceImpl implements TeamService {
     private final TeamRepository teamRepository;
     private final TeamMemberRepository teamMemberRepository;
     private final UserRepository userRepository;
+    private final CallerIdentityService callerIdentityService;
+    private final ResourceVersionService resourceVersionService;
+    private final TeamAccessService teamAccessService;
+
+    // 稀疏字段与实体属性的对应关系；ownerId/ownerUsername 即当前用户，不需要连接查询
+    private static final Map<String, String> TEAM_FIELD_PATHS = Map.of(
+            "name", "name",
+            "description", "description",
+            "status", "status",
+            "memberCount", "memberCount",
+            "createdAt", "createdAt",
+            "updatedAt", "updatedAt");
+
+    @PersistenceContext
+    private EntityManager entityManager;
 
     @Override
     public Team createTeam(TeamCreateRequest request, String kcUserId) {
@@ -61,7 +87,10 @@ public class TeamServiceImpl implements TeamService {
                 .build();
 
         teamMemberRepository.save(ownerMember);
+        // 新团队ID之前可能被探测过，清掉缓存的"非成员"结果
+        teamAccessService.evict(team.getId(), owner.getKcUserId());
         log.info("Team owner added as member: teamId={}, userId={}", team.getId(), owner.getId());
+        teamListChanged(team);
 
         return team;
     }
@@ -90,6 +119,58 @@ public class TeamServiceImpl implements TeamService {
         return teamRepository.findByOwnerAndStatusOrderByCreatedAtDesc(owner, Team.TeamStatus.ACTIVE);
     }
 
+    @Override
+    @Transactional(readOnly = true)
+    public List<TeamResponse> getUserTeamFields(String kcUserId, boolean activeOnly, Set<String> fields) {
+        User owner = getUserByKcUserId(kcUserId);
+
+        List<String> selected = fields.stream().filter(TEAM_FIELD_PATHS::containsKey).toList();
+        StringBuilder jpql = new StringBuilder("SELECT t.id");
+        for (String field : selected) {
+            jpql.append(", t.").append(TEAM_FIELD_PATHS.get(field));
+        }
+        jpql.append(" FROM Team t WHERE t.owner.id = :ownerId");
+        if (activeOnly) {
+            jpql.append(" AND t.status = :status");
+        }
+        jpql.append(" ORDER BY t.createdAt DESC");
+
+        TypedQuery<Object[]> query = entityManager.createQuery(jpql.toString(), Object[].class)
+                .setParameter("ownerId", owner.getId());
+        if (activeOnly) {
+            query.setParameter("status", Team.TeamStatus.ACTIVE);
+        }
+
+        List<TeamResponse> responses = new ArrayList<>();
+        for (Object[] row : query.getResultList()) {
+            TeamResponse response = new TeamResponse.Sparse();
+            response.setTeamId((Long) row[0]);
+            for (int i = 0; i < selected.size(); i++) {
+                setTeamField(response, selected.get(i), row[i + 1]);
+            }
+            if (fields.contains("ownerId")) {
+                response.setOwnerId(owner.getId());
+            }
+            if (fields.contains("ownerUsername")) {
+                response.setOwnerUsername(owner.getUsername());
+            }
+            responses.add(response);
+        }
+        return responses;
+    }
+
+    private static void setTeamField(TeamResponse response, String field, Object value) {
+        switch (field) {
+            case "name" -> response.setName((String) value);
+            case "description" -> response.setDescription((String) value);
+            case "status" -> response.setStatus(value != null ? ((Team.TeamStatus) value).name() : null);
+            case "memberCount" -> response.setMemberCount((Integer) value);
+            case "createdAt" -> response.setCreatedAt((Instant) value);
+            case "updatedAt" -> response.setUpdatedAt((Instant) value);
+            default -> throw new IllegalArgumentException("不支持的字段: " + field);
+        }
+    }
+
     @Override
     public Team updateTeam(Long teamId, TeamCreateRequest request, String kcUserId) {
         log.info("Updating team: teamId={}, kcUserId={}", teamId, kcUserId);
@@ -117,6 +198,7 @@ public class TeamServiceImpl implements TeamService {
         team.setDescription(request.getDescription());
 
         team = teamRepository.save(team);
+        teamListChanged(team);
         log.info("Team updated successfully: teamId={}", teamId);
 
         return team;
@@ -138,6 +220,8 @@ public class TeamServiceImpl implements TeamService {
         // 3. 软删除（标记为DELETED）
         team.setStatus(Team.TeamStatus.DELETED);
         teamRepository.save(team);
+        teamAccessService.evictTeam(teamId);
+        teamListChanged(team);
 
         log.info("Team deleted successfully: teamId={}", teamId);
     }
@@ -150,12 +234,25 @@ public class TeamServiceImpl implements TeamService {
         return team.getOwner().getId().equals(user.getId());
     }
 
+    private void teamListChanged(Team team) {
+        if (team.getOwner() != null) {
+            resourceVersionService.bumpAfterCommit(ResourceVersionService.Scope.TEAMS, team.getOwner().getId());
+        }
+    }
+
     /**
      * 根据 Keycloak 用户ID 获取用户
      */
     private User getUserByKcUserId(String kcUserId) {
-        return userRepository.findByKcUserId(kcUserId)
+        return findUser(kcUserId)
                 .orElseThrow(() -> new RuntimeException("用户不存在: " + kcUserId));
     }
-}
 
+    /**
+     * 当前调用者直接取已解析的身份（同一请求内不重复查询），其他情况按 Keycloak ID 查找
+     */
+    private Optional<User> findUser(String kcUserId) {
+        return callerIdentityService.findCaller(kcUserId)
+                .or(() -> userRepository.findByKcUserId(kcUserId));
+    }
+}
@@ -0,0 +1,149 @@
+package com.ntdoc.notangdoccore.service.impl;
+
+import com.ntdoc.notangdoccore.config.DownloadCounterProperties;
+import com.ntdoc.notangdoccore.service.DownloadCounterService;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * 下载次数写回缓冲：每个文档一个 LongAdder，下载时无锁累加；
+ * 定时把增量按文档合并成批量 UPDATE 写回，关闭时再写回一次，热门文档的下载不再争用行锁
+ */
+@Slf4j
+@Service
+public class WriteBehindDownloadCounterService implements DownloadCounterService {
+
+    static final String INCREMENT_SQL = "UPDATE document SET download_count = download_count + ? WHERE id = ?";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final DownloadCounterProperties properties;
+    private final TransactionTemplate txTemplate;
+
+    // 文档ID -> 计数器
+    private final ConcurrentHashMap<Long, Counter> counters = new ConcurrentHashMap<>();
+    // 上次写回时已空闲而被移出的计数器：下载线程可能在取到计数器后、累加前它被移出，多保留一轮再收一次尾数
+    private List<Slot> retired = new ArrayList<>();
+
+    public WriteBehindDownloadCounterService(JdbcTemplate jdbcTemplate,
+                                             DownloadCounterProperties properties,
+                                             PlatformTransactionManager transactionManager) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.properties = properties;
+        this.txTemplate = new TransactionTemplate(transactionManager);
+    }
+
+    @Override
+    public void record(Long documentId) {
+        Counter counter = counters.get(documentId);
+        if (counter == null) {
+            counter = counters.computeIfAbsent(documentId, id -> new Counter());
+        }
+        counter.hits.increment();
+    }
+
+    /**
+     * 计数器只增不减，已写回的部分记在 flushed 中；写回失败时 flushed 不变，下次重试
+     */
+    @Override
+    @Scheduled(fixedDelayString = "${ntdoc.download-counter.flush-interval-ms:5000}")
+    public synchronized long flush() {
+        List<Slot> slots = new ArrayList<>();
+        List<Slot> draining = retired;
+        retired = new ArrayList<>();
+        for (Slot slot : draining) {
+            if (slot.observe() > 0) {
+                slots.add(slot);
+                retired.add(slot);
+            }
+        }
+        counters.forEach((documentId, counter) -> {
+            Slot slot = new Slot(documentId, counter);
+            if (slot.observe() > 0) {
+                slots.add(slot);
+            } else if (counters.remove(documentId, counter)) {
+                retired.add(slot);
+            }
+        });
+        if (slots.isEmpty()) {
+            return 0;
+        }
+
+        // 按文档ID排序，多个实例同时写回时加锁顺序一致
+        Map<Long, List<Slot>> byDocument = new TreeMap<>();
+        for (Slot slot : slots) {
+            byDocument.computeIfAbsent(slot.documentId, id -> new ArrayList<>()).add(slot);
+        }
+
+        int batchSize = Math.max(1, properties.getFlushBatchSize());
+        List<Map.Entry<Long, List<Slot>>> entries = new ArrayList<>(byDocument.entrySet());
+        long written = 0;
+        for (int from = 0; from < entries.size(); from += batchSize) {
+            List<Map.Entry<Long, List<Slot>>> chunk = entries.subList(from, Math.min(from + batchSize, entries.size()));
+            List<Object[]> args = new ArrayList<>(chunk.size());
+            long chunkHits = 0;
+            for (Map.Entry<Long, List<Slot>> entry : chunk) {
+                long delta = entry.getValue().stream().mapToLong(Slot::delta).sum();
+                args.add(new Object[]{delta, entry.getKey()});
+                chunkHits += delta;
+            }
+            try {
+                txTemplate.executeWithoutResult(status -> jdbcTemplate.batchUpdate(INCREMENT_SQL, args));
+                chunk.forEach(entry -> entry.getValue().forEach(Slot::commit));
+                written += chunkHits;
+            } catch (Exception e) {
+                log.error("Failed to flush download counts: documents={}, downloads={}", chunk.size(), chunkHits, e);
+            }
+        }
+
+        log.debug("Download counts flushed: documents={}, downloads={}", byDocument.size(), written);
+        return written;
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        long written = flush();
+        log.info("Download counts flushed on shutdown: downloads={}", written);
+    }
+
+    private static final class Counter {
+        private final LongAdder hits = new LongAdder();
+        private volatile long flushed;
+    }
+
+    private static final class Slot {
+        private final Long documentId;
+        private final Counter counter;
+        private long observed;
+
+        private Slot(Long documentId, Counter counter) {
+            this.documentId = documentId;
+            this.counter = counter;
+        }
+
+        // 记下当前累计值，返回尚未写回的增量
+        private long observe() {
+            observed = counter.hits.sum();
+            return delta();
+        }
+
+        private long delta() {
+            return observed - counter.flushed;
+        }
+
+        private void commit() {
+            counter.flushed = observed;
+        }
+    }
+}
@@ -3,12 +3,14 @@ package com.ntdoc.notangdoccore.user.api;
 import com.ntdoc.notangdoccore.config.AuthProperties;
 import com.ntdoc.notangdoccore.config.KeycloakClient;
 import com.ntdoc.notangdoccore.dto.keycloak.AuthExchangeRequest;
+import com.ntdoc.notangdoccore.exception.KeycloakClientException;
 import com.ntdoc.notangdoccore.keycloak.KeycloakAdminService;
 import com.ntdoc.notangdoccore.user.api.dto.LogoutRequest;
 import com.ntdoc.notangdoccore.user.api.dto.RefreshRequest;
 import com.ntdoc.notangdoccore.user.api.dto.RegistrationRequest;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.core.Authentication;
@@ -19,6 +21,8 @@ import org.springframework.web.bind.annotation.*;
 import java.net.URI;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
 import java.util.stream.Collectors;
 
 // 用户认证注册以及登录
@@ -31,14 +35,24 @@ public class AuthController {
     private final AuthProperties authProperties;
     private final KeycloakAdminService keycloakAdminService;
 
+    // 注册在有界队列中排队执行，等待期间不占用请求线程；队列满或排队超时（未创建用户）时返回 503
     @PostMapping("/register")
-    public ResponseEntity<?> register(@RequestBody RegistrationRequest req) {
-        String userId = keycloakAdminService.createUser(
+    public CompletableFuture<ResponseEntity<?>> register(@RequestBody RegistrationRequest req) {
+        return keycloakAdminService.createUserAsync(
                 req.getUsername(),
                 req.getEmail(),
                 req.getPassword()
-        );
-        return ResponseEntity.created(URI.create("/api/admin/users/"+userId)).body(Map.of("keycloakUserId",userId));
+        ).<ResponseEntity<?>>thenApply(userId ->
+                ResponseEntity.created(URI.create("/api/admin/users/"+userId)).body(Map.of("keycloakUserId",userId))
+        ).exceptionally(e -> {
+            Throwable cause = e instanceof CompletionException && e.getCause() != null ? e.getCause() : e;
+            if (cause instanceof KeycloakClientException kce && kce.getStatus() == HttpStatus.SERVICE_UNAVAILABLE.value()) {
+                return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                        .header(HttpHeaders.RETRY_AFTER, "5")
+                        .body(Map.of("success", false, "error", kce.getError()));
+            }
+            throw e instanceof CompletionException ce ? ce : new CompletionException(cause);
+        });
     }
 
     @PostMapping("/exchange")
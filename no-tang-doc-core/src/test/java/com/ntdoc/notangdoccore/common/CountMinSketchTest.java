@@ -0,0 +1,38 @@
+package com.ntdoc.notangdoccore.common;
+
+import org.junit.jupiter.api.*;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@TestMethodOrder(MethodOrderer.OrderAnnotation.class)
+@DisplayName("CountMinSketch估计测试")
+public class CountMinSketchTest {
+
+    @Test
+    @Order(1)
+    @DisplayName("测试1：估计值不低于真实计数，热点键基本准确")
+    void estimate_NeverUnderestimates() {
+        CountMinSketch sketch = new CountMinSketch(4, 256);
+        for (long key = 1; key <= 1000; key++) {
+            sketch.add(key, 1);
+        }
+        sketch.add(7L, 500);
+
+        for (long key = 1; key <= 1000; key++) {
+            assertThat(sketch.estimate(key)).isGreaterThanOrEqualTo(key == 7L ? 501 : 1);
+        }
+        assertThat(sketch.estimate(7L)).isLessThan(501 + 50);
+    }
+
+    @Test
+    @Order(2)
+    @DisplayName("测试2：宽度取2的幂，清空后归零")
+    void widthAndClear() {
+        CountMinSketch sketch = new CountMinSketch(2, 100);
+        sketch.add(1L, 3);
+
+        assertThat(sketch.width()).isEqualTo(128);
+        sketch.clear();
+        assertThat(sketch.estimate(1L)).isZero();
+    }
+}
@@ -0,0 +1,52 @@
+package com.ntdoc.notangdoccore.common;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import org.junit.jupiter.api.*;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@TestMethodOrder(MethodOrderer.OrderAnnotation.class)
+@DisplayName("NdjsonWriter输出测试")
+public class NdjsonWriterTest {
+
+    @Test
+    @Order(1)
+    @DisplayName("测试1：每条记录一行，忽略缩进配置")
+    void write_OneRecordPerLine() throws Exception {
+        ObjectMapper objectMapper = new ObjectMapper().enable(SerializationFeature.INDENT_OUTPUT);
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+        try (NdjsonWriter writer = new NdjsonWriter(objectMapper, out)) {
+            writer.write(Map.of("id", 1));
+            writer.write(Map.of("id", 2));
+        }
+
+        assertThat(out.toString(StandardCharsets.UTF_8)).isEqualTo("{\"id\":1}\n{\"id\":2}\n");
+    }
+
+    @Test
+    @Order(2)
+    @DisplayName("测试2：关闭时不关闭底层输出流")
+    void close_LeavesTargetOpen() throws Exception {
+        AtomicBoolean closed = new AtomicBoolean();
+        ByteArrayOutputStream out = new ByteArrayOutputStream() {
+            @Override
+            public void close() {
+                closed.set(true);
+            }
+        };
+
+        try (NdjsonWriter writer = new NdjsonWriter(new ObjectMapper(), out)) {
+            writer.write(Map.of("id", 1));
+        }
+
+        assertThat(out.size()).isPositive();
+        assertThat(closed).isFalse();
+    }
+}
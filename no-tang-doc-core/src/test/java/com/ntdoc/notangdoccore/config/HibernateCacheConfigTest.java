@@ -0,0 +1,74 @@
+package com.ntdoc.notangdoccore.config;
+
+import com.github.benmanes.caffeine.jcache.configuration.CaffeineConfiguration;
+import org.junit.jupiter.api.*;
+
+import java.time.Duration;
+import java.util.OptionalLong;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@TestMethodOrder(MethodOrderer.OrderAnnotation.class)
+@DisplayName("HibernateCacheConfig区域配置测试")
+public class HibernateCacheConfigTest {
+
+    private HibernateCacheProperties properties;
+
+    @BeforeEach
+    void setUp() {
+        properties = new HibernateCacheProperties();
+        properties.setDefaultMaxSize(100);
+        properties.setDefaultTtl(Duration.ofMinutes(5));
+    }
+
+    @Test
+    @Order(1)
+    @DisplayName("测试1：未单独配置的区域使用默认容量与过期时间")
+    void toConfiguration_UsesDefaults() {
+        CaffeineConfiguration<Object, Object> config =
+                HibernateCacheConfig.toConfiguration(HibernateCacheConfig.TEAMS, properties);
+
+        assertThat(config.getMaximumSize()).isEqualTo(OptionalLong.of(100));
+        assertThat(config.getExpireAfterWrite()).isEqualTo(OptionalLong.of(Duration.ofMinutes(5).toNanos()));
+        assertThat(config.isStatisticsEnabled()).isTrue();
+    }
+
+    @Test
+    @Order(2)
+    @DisplayName("测试2：区域配置覆盖默认值，0 表示不限容量、不过期")
+    void toConfiguration_RegionOverrides() {
+        HibernateCacheProperties.Region tags = new HibernateCacheProperties.Region();
+        tags.setMaxSize(0L);
+        tags.setTtl(Duration.ofHours(1));
+        HibernateCacheProperties.Region users = new HibernateCacheProperties.Region();
+        users.setTtl(Duration.ZERO);
+        properties.getRegions().put(HibernateCacheConfig.TAGS, tags);
+        properties.getRegions().put(HibernateCacheConfig.USERS, users);
+
+        CaffeineConfiguration<Object, Object> tagConfig =
+                HibernateCacheConfig.toConfiguration(HibernateCacheConfig.TAGS, properties);
+        CaffeineConfiguration<Object, Object> userConfig =
+                HibernateCacheConfig.toConfiguration(HibernateCacheConfig.USERS, properties);
+
+        assertThat(tagConfig.getMaximumSize()).isEmpty();
+        assertThat(tagConfig.getExpireAfterWrite()).isEqualTo(OptionalLong.of(Duration.ofHours(1).toNanos()));
+        assertThat(userConfig.getMaximumSize()).isEqualTo(OptionalLong.of(100));
+        assertThat(userConfig.getExpireAfterWrite()).isEmpty();
+    }
+
+    @Test
+    @Order(3)
+    @DisplayName("测试3：时间戳区域总是不限容量、不过期")
+    void toConfiguration_TimestampsRegionUnbounded() {
+        HibernateCacheProperties.Region timestamps = new HibernateCacheProperties.Region();
+        timestamps.setMaxSize(10L);
+        timestamps.setTtl(Duration.ofSeconds(1));
+        properties.getRegions().put(HibernateCacheConfig.UPDATE_TIMESTAMPS, timestamps);
+
+        CaffeineConfiguration<Object, Object> config =
+                HibernateCacheConfig.toConfiguration(HibernateCacheConfig.UPDATE_TIMESTAMPS, properties);
+
+        assertThat(config.getMaximumSize()).isEmpty();
+        assertThat(config.getExpireAfterWrite()).isEmpty();
+    }
+}
@@ -0,0 +1,213 @@
+package com.ntdoc.notangdoccore.config;
+
+import com.ntdoc.notangdoccore.exception.KeycloakClientException;
+import com.sun.net.httpserver.HttpServer;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.*;
+import org.springframework.http.client.JdkClientHttpRequestFactory;
+import org.springframework.security.oauth2.client.registration.ClientRegistration;
+import org.springframework.security.oauth2.client.registration.ClientRegistrationRepository;
+import org.springframework.security.oauth2.client.registration.InMemoryClientRegistrationRepository;
+import org.springframework.security.oauth2.core.AuthorizationGrantType;
+
+import java.net.InetSocketAddress;
+import java.net.http.HttpClient;
+import java.nio.charset.StandardCharsets;
+import java.time.*;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.*;
+
+@TestMethodOrder(MethodOrderer.OrderAnnotation.class)
+@DisplayName("KeycloakClient传输层测试")
+public class KeycloakClientTest {
+
+    private HttpServer server;
+    private ExecutorService serverExecutor;
+    private HttpClient httpClient;
+    private SimpleMeterRegistry meterRegistry;
+    private MutableClock clock;
+    private KeycloakClient client;
+    private final AtomicInteger tokenRequests = new AtomicInteger();
+
+    @BeforeEach
+    void setUp() throws Exception {
+        server = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+        serverExecutor = Executors.newCachedThreadPool();
+        server.setExecutor(serverExecutor);
+        server.createContext("/realms/ntdoc/protocol/openid-connect/token", exchange -> {
+            int n = tokenRequests.incrementAndGet();
+            String form = new String(exchange.getRequestBody().readAllBytes(), StandardCharsets.UTF_8);
+            try {
+                Thread.sleep(100);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            int status = form.contains("refresh_token=bad") ? 400 : 200;
+            byte[] body = (status == 400
+                    ? "{\"error\":\"invalid_grant\",\"error_description\":\"Token is not active\"}"
+                    : "{\"access_token\":\"at-" + n + "\",\"token_type\":\"Bearer\",\"expires_in\":300,"
+                    + "\"refresh_token\":\"rt-2\"}").getBytes(StandardCharsets.UTF_8);
+            exchange.getResponseHeaders().add("Content-Type", "application/json");
+            exchange.sendResponseHeaders(status, body.length);
+            exchange.getResponseBody().write(body);
+            exchange.close();
+        });
+        server.createContext("/realms/ntdoc/protocol/openid-connect/logout", exchange -> {
+            try {
+                Thread.sleep(2_000);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            exchange.sendResponseHeaders(204, -1);
+            exchange.close();
+        });
+        server.start();
+
+        String issuer = "http://127.0.0.1:" + server.getAddress().getPort() + "/realms/ntdoc";
+        ClientRegistrationRepository registrations = new InMemoryClientRegistrationRepository(
+                ClientRegistration.withRegistrationId("keycloak")
+                        .clientId("no-tang-doc-core")
+                        .clientSecret("secret")
+                        .authorizationGrantType(AuthorizationGrantType.AUTHORIZATION_CODE)
+                        .redirectUri("http://localhost:3000/auth/callback")
+                        .authorizationUri(issuer + "/protocol/openid-connect/auth")
+                        .tokenUri(issuer + "/protocol/openid-connect/token")
+                        .build());
+
+        httpClient = HttpClient.newBuilder().connectTimeout(Duration.ofSeconds(1)).build();
+        JdkClientHttpRequestFactory requestFactory = new JdkClientHttpRequestFactory(httpClient);
+        requestFactory.setReadTimeout(Duration.ofMillis(300));
+        meterRegistry = new SimpleMeterRegistry();
+        clock = new MutableClock(Instant.parse("2025-01-01T00:00:00Z"));
+        KeycloakProperties properties = new KeycloakProperties();
+        properties.getRefresh().setShareWindow(Duration.ofSeconds(5));
+        client = new KeycloakClient(registrations, requestFactory, meterRegistry, properties,
+                "no-tang-doc-core", "secret", issuer, clock);
+    }
+
+    @AfterEach
+    void tearDown() {
+        httpClient.close();
+        server.stop(0);
+        serverExecutor.shutdownNow();
+    }
+
+    @Test
+    @Order(1)
+    @DisplayName("测试1：刷新令牌经共享连接池完成并按端点记录耗时")
+    void refresh_RecordsTimer() {
+        Map<String, Object> token = client.refresh("rt-1");
+
+        assertThat(token).containsEntry("access_token", "at-1").containsEntry("refresh_token", "rt-2");
+        assertThat(meterRegistry.get("ntdoc.keycloak.requests")
+                .tag("endpoint", "refresh_token").tag("outcome", "success").timer().count()).isEqualTo(1);
+    }
+
+    @Test
+    @Order(2)
+    @DisplayName("测试2：Keycloak响应过慢时在读超时内返回并记录失败")
+    void logout_BoundedByReadTimeout() {
+        long start = System.nanoTime();
+        client.logout("rt-1", null);
+        Duration elapsed = Duration.ofNanos(System.nanoTime() - start);
+
+        assertThat(elapsed).isLessThan(Duration.ofMillis(1_500));
+        assertThat(meterRegistry.get("ntdoc.keycloak.requests")
+                .tag("endpoint", "logout").tag("outcome", "error").timer().count()).isEqualTo(1);
+    }
+
+    @Test
+    @Order(3)
+    @DisplayName("测试3：缺少刷新令牌时不发请求")
+    void refresh_MissingToken() {
+        assertThatThrownBy(() -> client.refresh(" "))
+                .isInstanceOf(KeycloakClientException.class);
+        assertThat(meterRegistry.find("ntdoc.keycloak.requests").timer()).isNull();
+    }
+
+    @Test
+    @Order(4)
+    @DisplayName("测试4：同一刷新令牌的并发刷新只请求一次Keycloak并共享结果")
+    void refresh_ConcurrentCallsCoalesced() {
+        CountDownLatch start = new CountDownLatch(1);
+        List<CompletableFuture<Map<String, Object>>> calls = new ArrayList<>();
+        for (int i = 0; i < 4; i++) {
+            calls.add(CompletableFuture.supplyAsync(() -> {
+                try {
+                    start.await();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+                return client.refresh("rt-1");
+            }));
+        }
+        start.countDown();
+
+        List<Map<String, Object>> results = calls.stream().map(CompletableFuture::join).toList();
+
+        assertThat(tokenRequests).hasValue(1);
+        assertThat(results).allSatisfy(r -> assertThat(r).containsEntry("access_token", "at-1"));
+        assertThat(meterRegistry.get("ntdoc.keycloak.refresh.coalesced").counter().count()).isEqualTo(3);
+    }
+
+    @Test
+    @Order(5)
+    @DisplayName("测试5：共享结果只保留share-window，过期后重新刷新")
+    void refresh_ResultExpiresAfterWindow() {
+        client.refresh("rt-1");
+        clock.advance(Duration.ofSeconds(4));
+        client.refresh("rt-1");
+        assertThat(tokenRequests).hasValue(1);
+
+        clock.advance(Duration.ofSeconds(1));
+        Map<String, Object> token = client.refresh("rt-1");
+
+        assertThat(tokenRequests).hasValue(2);
+        assertThat(token).containsEntry("access_token", "at-2");
+    }
+
+    @Test
+    @Order(6)
+    @DisplayName("测试6：刷新失败不缓存，后续请求重新发起")
+    void refresh_FailureNotShared() {
+        assertThatThrownBy(() -> client.refresh("bad")).isInstanceOf(KeycloakClientException.class);
+        assertThatThrownBy(() -> client.refresh("bad")).isInstanceOf(KeycloakClientException.class);
+
+        assertThat(tokenRequests).hasValue(2);
+    }
+
+    private static final class MutableClock extends Clock {
+        private Instant now;
+
+        private MutableClock(Instant now) {
+            this.now = now;
+        }
+
+        void advance(Duration duration) {
+            now = now.plus(duration);
+        }
+
+        @Override
+        public ZoneId getZone() {
+            return ZoneOffset.UTC;
+        }
+
+        @Override
+        public Clock withZone(ZoneId zone) {
+            return this;
+        }
+
+        @Override
+        public Instant instant() {
+            return now;
+        }
+    }
+}
@@ -0,0 +1,132 @@
+package com.ntdoc.notangdoccore.keycloak;
+
+import com.ntdoc.notangdoccore.config.KeycloakProperties;
+import com.ntdoc.notangdoccore.exception.KeycloakClientException;
+import jakarta.ws.rs.core.Response;
+import org.junit.jupiter.api.*;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.keycloak.admin.client.Keycloak;
+import org.keycloak.admin.client.resource.RealmResource;
+import org.keycloak.admin.client.resource.UserResource;
+import org.keycloak.admin.client.resource.UsersResource;
+import org.keycloak.admin.client.token.TokenManager;
+import org.keycloak.representations.idm.CredentialRepresentation;
+import org.keycloak.representations.idm.UserRepresentation;
+
+import java.net.URI;
+import java.time.Duration;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+@TestMethodOrder(MethodOrderer.OrderAnnotation.class)
+@DisplayName("KeycloakAdminService测试")
+public class KeycloakAdminServiceTest {
+
+    @Mock
+    private Keycloak keycloak;
+    @Mock
+    private RealmResource realm;
+    @Mock
+    private UsersResource users;
+    @Mock
+    private UserResource userResource;
+    @Mock
+    private TokenManager tokenManager;
+
+    private KeycloakProperties props;
+    private ExecutorService executor;
+
+    @BeforeEach
+    void setUp() {
+        props = new KeycloakProperties();
+        props.setRealm("ntdoc");
+        executor = Executors.newSingleThreadExecutor();
+    }
+
+    @AfterEach
+    void tearDown() {
+        executor.shutdownNow();
+    }
+
+    @Test
+    @Order(1)
+    @DisplayName("测试1：注册在队列线程上创建用户并设置密码")
+    void createUser_Success() {
+        when(keycloak.realm("ntdoc")).thenReturn(realm);
+        when(realm.users()).thenReturn(users);
+        when(users.create(any(UserRepresentation.class)))
+                .thenReturn(Response.created(URI.create("http://kc/admin/realms/ntdoc/users/kc-1")).build());
+        when(users.get("kc-1")).thenReturn(userResource);
+        KeycloakAdminService service = new KeycloakAdminService(props, keycloak, executor);
+
+        String userId = service.createUserAsync("alice", "alice@example.com", "secret").join();
+
+        assertThat(userId).isEqualTo("kc-1");
+        verify(userResource).resetPassword(any(CredentialRepresentation.class));
+    }
+
+    @Test
+    @Order(2)
+    @DisplayName("测试2：队列已满时以503拒绝，不调用Keycloak")
+    void createUser_QueueFullRejected() {
+        executor.shutdown();
+        KeycloakAdminService service = new KeycloakAdminService(props, keycloak, executor);
+
+        assertThatThrownBy(() -> service.createUser("alice", "alice@example.com", "secret"))
+                .isInstanceOfSatisfying(KeycloakClientException.class, e -> assertThat(e.getStatus()).isEqualTo(503));
+        verifyNoInteractions(keycloak);
+    }
+
+    @Test
+    @Order(3)
+    @DisplayName("测试3：管理接口被调用后才定时刷新令牌")
+    void refreshAdminToken_OnlyAfterFirstUse() {
+        when(keycloak.realm("ntdoc")).thenReturn(realm);
+        when(realm.users()).thenReturn(users);
+        KeycloakAdminService service = new KeycloakAdminService(props, keycloak, executor);
+
+        service.refreshAdminToken();
+        verify(keycloak, never()).tokenManager();
+
+        when(keycloak.tokenManager()).thenReturn(tokenManager);
+        service.findUserIdByUsername("alice");
+        service.refreshAdminToken();
+        verify(tokenManager).getAccessToken();
+    }
+
+    @Test
+    @Order(4)
+    @DisplayName("测试4：排队超时以503失败，之后轮到的任务不再调用Keycloak")
+    void createUser_QueueTimeoutNeverCreates() throws Exception {
+        props.getProvisioning().setTimeout(Duration.ofMillis(50));
+        CountDownLatch release = new CountDownLatch(1);
+        executor.execute(() -> {
+            try {
+                release.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        });
+        KeycloakAdminService service = new KeycloakAdminService(props, keycloak, executor);
+
+        assertThatThrownBy(() -> service.createUser("alice", "alice@example.com", "secret"))
+                .isInstanceOfSatisfying(KeycloakClientException.class, e -> {
+                    assertThat(e.getStatus()).isEqualTo(503);
+                    assertThat(e.getError()).isEqualTo("provisioning_timeout");
+                });
+
+        release.countDown();
+        executor.shutdown();
+        assertThat(executor.awaitTermination(5, TimeUnit.SECONDS)).isTrue();
+        verifyNoInteractions(keycloak);
+    }
+}
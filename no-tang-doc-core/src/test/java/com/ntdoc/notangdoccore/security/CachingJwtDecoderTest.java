@@ -0,0 +1,152 @@
+package com.ntdoc.notangdoccore.security;
+
+import com.ntdoc.notangdoccore.config.JwtCacheProperties;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.*;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.core.convert.converter.Converter;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+import org.springframework.security.oauth2.jwt.BadJwtException;
+import org.springframework.security.oauth2.jwt.Jwt;
+import org.springframework.security.oauth2.jwt.JwtDecoder;
+
+import java.time.*;
+import java.util.Collection;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+@TestMethodOrder(MethodOrderer.OrderAnnotation.class)
+@DisplayName("CachingJwtDecoder缓存测试")
+public class CachingJwtDecoderTest {
+
+    @Mock
+    private JwtDecoder delegate;
+    @Mock
+    private Converter<Jwt, Collection<GrantedAuthority>> authoritiesConverter;
+
+    private MutableClock clock;
+    private SimpleMeterRegistry meterRegistry;
+    private CachingJwtDecoder decoder;
+
+    @BeforeEach
+    void setUp() {
+        JwtCacheProperties props = new JwtCacheProperties();
+        props.setMaxTtl(Duration.ofMinutes(10));
+        clock = new MutableClock(Instant.parse("2025-01-01T00:00:00Z"));
+        meterRegistry = new SimpleMeterRegistry();
+        decoder = new CachingJwtDecoder(delegate, authoritiesConverter, props, meterRegistry, clock);
+    }
+
+    private Jwt jwt(String token, Duration lifetime) {
+        return Jwt.withTokenValue(token)
+                .header("alg", "RS256")
+                .subject("kc-123")
+                .issuedAt(clock.instant())
+                .expiresAt(clock.instant().plus(lifetime))
+                .build();
+    }
+
+    private double requests(String result) {
+        return meterRegistry.get("ntdoc.jwt.cache.requests").tag("result", result).counter().count();
+    }
+
+    @Test
+    @Order(1)
+    @DisplayName("测试1：同一令牌只校验一次，权限复用缓存结果")
+    void decode_CachedUntilExpiry() {
+        Jwt jwt = jwt("token-a", Duration.ofMinutes(5));
+        when(delegate.decode("token-a")).thenReturn(jwt);
+        when(authoritiesConverter.convert(jwt)).thenReturn(List.of(new SimpleGrantedAuthority("ROLE_USER")));
+
+        Jwt first = decoder.decode("token-a");
+        Jwt second = decoder.decode("token-a");
+
+        assertThat(second).isSameAs(first);
+        assertThat(decoder.authorities(second)).extracting(GrantedAuthority::getAuthority).containsExactly("ROLE_USER");
+        verify(delegate, times(1)).decode("token-a");
+        verify(authoritiesConverter, times(1)).convert(jwt);
+        assertThat(requests("hit")).isEqualTo(1);
+        assertThat(requests("miss")).isEqualTo(1);
+        assertThat(meterRegistry.get("ntdoc.jwt.cache.size").gauge().value()).isEqualTo(1);
+    }
+
+    @Test
+    @Order(2)
+    @DisplayName("测试2：令牌过期后不再命中缓存")
+    void decode_ExpiredTokenDecodedAgain() {
+        Jwt jwt = jwt("token-a", Duration.ofMinutes(5));
+        when(delegate.decode("token-a")).thenReturn(jwt);
+        when(authoritiesConverter.convert(jwt)).thenReturn(List.of());
+
+        decoder.decode("token-a");
+        clock.advance(Duration.ofMinutes(5));
+        decoder.decode("token-a");
+
+        verify(delegate, times(2)).decode("token-a");
+        assertThat(requests("miss")).isEqualTo(2);
+    }
+
+    @Test
+    @Order(3)
+    @DisplayName("测试3：缓存时间不超过max-ttl")
+    void decode_BoundedByMaxTtl() {
+        Jwt jwt = jwt("token-a", Duration.ofHours(1));
+        when(delegate.decode("token-a")).thenReturn(jwt);
+        when(authoritiesConverter.convert(jwt)).thenReturn(List.of());
+
+        decoder.decode("token-a");
+        clock.advance(Duration.ofMinutes(9));
+        decoder.decode("token-a");
+        clock.advance(Duration.ofMinutes(1));
+        decoder.decode("token-a");
+
+        verify(delegate, times(2)).decode("token-a");
+    }
+
+    @Test
+    @Order(4)
+    @DisplayName("测试4：校验失败不缓存")
+    void decode_FailureNotCached() {
+        when(delegate.decode("bad")).thenThrow(new BadJwtException("invalid signature"));
+
+        assertThatThrownBy(() -> decoder.decode("bad")).isInstanceOf(BadJwtException.class);
+        assertThatThrownBy(() -> decoder.decode("bad")).isInstanceOf(BadJwtException.class);
+
+        verify(delegate, times(2)).decode("bad");
+        verifyNoInteractions(authoritiesConverter);
+        assertThat(meterRegistry.get("ntdoc.jwt.cache.size").gauge().value()).isZero();
+    }
+
+    private static final class MutableClock extends Clock {
+        private Instant now;
+
+        private MutableClock(Instant now) {
+            this.now = now;
+        }
+
+        void advance(Duration duration) {
+            now = now.plus(duration);
+        }
+
+        @Override
+        public ZoneId getZone() {
+            return ZoneOffset.UTC;
+        }
+
+        @Override
+        public Clock withZone(ZoneId zone) {
+            return this;
+        }
+
+        @Override
+        public Instant instant() {
+            return now;
+        }
+    }
+}
@@ -0,0 +1,163 @@
+package com.ntdoc.notangdoccore.service.impl;
+
+import com.ntdoc.notangdoccore.config.CallerIdentityProperties;
+import com.ntdoc.notangdoccore.entity.User;
+import com.ntdoc.notangdoccore.service.UserSyncService;
+import org.junit.jupiter.api.*;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.security.oauth2.jwt.Jwt;
+import org.springframework.security.oauth2.server.resource.authentication.JwtAuthenticationToken;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.context.request.ServletRequestAttributes;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+@TestMethodOrder(MethodOrderer.OrderAnnotation.class)
+@DisplayName("CachingCallerIdentityService服务测试")
+public class CachingCallerIdentityServiceTest {
+
+    @Mock
+    private UserSyncService userSyncService;
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    private MutableClock clock;
+    private CachingCallerIdentityService identityService;
+    private User user;
+
+    @BeforeEach
+    void setUp() {
+        CallerIdentityProperties props = new CallerIdentityProperties();
+        props.setTtl(Duration.ofMinutes(10));
+        clock = new MutableClock(Instant.parse("2025-01-01T00:00:00Z"));
+        identityService = new CachingCallerIdentityService(userSyncService, props, transactionManager, clock);
+        user = User.builder().id(1L).kcUserId("kc-123").username("alice").email("alice@example.com").build();
+    }
+
+    @AfterEach
+    void tearDown() {
+        RequestContextHolder.resetRequestAttributes();
+        SecurityContextHolder.clearContext();
+    }
+
+    private static Jwt jwt(String username, String email) {
+        return Jwt.withTokenValue("token")
+                .header("alg", "none")
+                .subject("kc-123")
+                .claim("preferred_username", username)
+                .claim("email", email)
+                .build();
+    }
+
+    @Test
+    @Order(1)
+    @DisplayName("测试1：跨请求命中缓存，不再同步数据库")
+    void resolve_CachedAcrossRequests() {
+        when(userSyncService.ensureFromJwt(any())).thenReturn(user);
+
+        User first = identityService.resolve(jwt("alice", "alice@example.com"));
+        User second = identityService.resolve(jwt("alice", "alice@example.com"));
+
+        assertThat(first.getId()).isEqualTo(1L);
+        assertThat(second.getId()).isEqualTo(1L);
+        assertThat(second.getUsername()).isEqualTo("alice");
+        verify(userSyncService, times(1)).ensureFromJwt(any());
+    }
+
+    @Test
+    @Order(2)
+    @DisplayName("测试2：用户名或邮箱声明变化时重新同步")
+    void resolve_ProfileChangeResyncs() {
+        when(userSyncService.ensureFromJwt(any())).thenReturn(user);
+
+        identityService.resolve(jwt("alice", "alice@example.com"));
+        identityService.resolve(jwt("alice", "alice@new.example.com"));
+
+        verify(userSyncService, times(2)).ensureFromJwt(any());
+    }
+
+    @Test
+    @Order(3)
+    @DisplayName("测试3：缓存过期或被清除后重新同步")
+    void resolve_ExpiredOrEvicted() {
+        when(userSyncService.ensureFromJwt(any())).thenReturn(user);
+        Jwt jwt = jwt("alice", "alice@example.com");
+
+        identityService.resolve(jwt);
+        clock.advance(Duration.ofMinutes(11));
+        identityService.resolve(jwt);
+        identityService.evict("kc-123");
+        identityService.resolve(jwt);
+
+        verify(userSyncService, times(3)).ensureFromJwt(any());
+    }
+
+    @Test
+    @Order(4)
+    @DisplayName("测试4：同一请求内返回同一对象")
+    void resolve_MemoizedPerRequest() {
+        when(userSyncService.ensureFromJwt(any())).thenReturn(user);
+        RequestContextHolder.setRequestAttributes(new ServletRequestAttributes(new MockHttpServletRequest()));
+        Jwt jwt = jwt("alice", "alice@example.com");
+
+        User first = identityService.resolve(jwt);
+        identityService.evict("kc-123");
+        User second = identityService.resolve(jwt);
+
+        assertThat(second).isSameAs(first);
+        verify(userSyncService, times(1)).ensureFromJwt(any());
+    }
+
+    @Test
+    @Order(5)
+    @DisplayName("测试5：只对当前调用者返回解析结果")
+    void findCaller_OnlyForCurrentSubject() {
+        when(userSyncService.ensureFromJwt(any())).thenReturn(user);
+        SecurityContextHolder.getContext().setAuthentication(
+                new JwtAuthenticationToken(jwt("alice", "alice@example.com")));
+
+        assertThat(identityService.findCaller("kc-123")).contains(user);
+        assertThat(identityService.findCaller("kc-other")).isEmpty();
+    }
+
+    private static final class MutableClock extends Clock {
+        private Instant now;
+
+        private MutableClock(Instant now) {
+            this.now = now;
+        }
+
+        void advance(Duration duration) {
+            now = now.plus(duration);
+        }
+
+        @Override
+        public ZoneId getZone() {
+            return ZoneOffset.UTC;
+        }
+
+        @Override
+        public Clock withZone(ZoneId zone) {
+            return this;
+        }
+
+        @Override
+        public Instant instant() {
+            return now;
+        }
+    }
+}
@@ -0,0 +1,182 @@
+package com.ntdoc.notangdoccore.service.impl;
+
+import com.ntdoc.notangdoccore.config.TeamAccessProperties;
+import com.ntdoc.notangdoccore.dto.team.TeamAccess;
+import com.ntdoc.notangdoccore.entity.TeamMember;
+import com.ntdoc.notangdoccore.repository.TeamMemberRepository;
+import org.junit.jupiter.api.*;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.util.Optional;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+@TestMethodOrder(MethodOrderer.OrderAnnotation.class)
+@DisplayName("CachingTeamAccessService服务测试")
+public class CachingTeamAccessServiceTest {
+
+    @Mock
+    private TeamMemberRepository teamMemberRepository;
+
+    private MutableClock clock;
+    private CachingTeamAccessService accessService;
+
+    private static final Optional<TeamAccess> ADMIN =
+            Optional.of(new TeamAccess(TeamMember.TeamRole.ADMIN, TeamMember.MemberStatus.ACTIVE));
+    private static final Optional<TeamAccess> MEMBER =
+            Optional.of(new TeamAccess(TeamMember.TeamRole.MEMBER, TeamMember.MemberStatus.ACTIVE));
+
+    @BeforeEach
+    void setUp() {
+        TeamAccessProperties props = new TeamAccessProperties();
+        props.setTtl(Duration.ofMinutes(5));
+        clock = new MutableClock(Instant.parse("2025-01-01T00:00:00Z"));
+        accessService = new CachingTeamAccessService(teamMemberRepository, props, clock);
+    }
+
+    @AfterEach
+    void tearDown() {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+    }
+
+    @Test
+    @Order(1)
+    @DisplayName("测试1：命中缓存不再查询数据库，非成员结果也缓存")
+    void find_CachedIncludingNegative() {
+        when(teamMemberRepository.findAccess(1L, "kc-1")).thenReturn(ADMIN);
+        when(teamMemberRepository.findAccess(1L, "kc-2")).thenReturn(Optional.empty());
+
+        assertThat(accessService.find(1L, "kc-1")).isEqualTo(ADMIN);
+        assertThat(accessService.find(1L, "kc-1")).isEqualTo(ADMIN);
+        assertThat(accessService.find(1L, "kc-2")).isEmpty();
+        assertThat(accessService.find(1L, "kc-2")).isEmpty();
+
+        verify(teamMemberRepository, times(1)).findAccess(1L, "kc-1");
+        verify(teamMemberRepository, times(1)).findAccess(1L, "kc-2");
+    }
+
+    @Test
+    @Order(2)
+    @DisplayName("测试2：成员变更后清除缓存，事务结束后再清除一次")
+    void evict_ImmediatelyAndAfterCommit() {
+        when(teamMemberRepository.findAccess(1L, "kc-1")).thenReturn(ADMIN, ADMIN, MEMBER);
+        accessService.find(1L, "kc-1");
+
+        TransactionSynchronizationManager.initSynchronization();
+        accessService.evict(1L, "kc-1");
+        // 提交前的并发读取把旧结果放回缓存
+        assertThat(accessService.find(1L, "kc-1")).isEqualTo(ADMIN);
+        TransactionSynchronizationManager.getSynchronizations()
+                .forEach(sync -> sync.afterCompletion(TransactionSynchronization.STATUS_COMMITTED));
+
+        assertThat(accessService.find(1L, "kc-1")).isEqualTo(MEMBER);
+        verify(teamMemberRepository, times(3)).findAccess(1L, "kc-1");
+    }
+
+    @Test
+    @Order(3)
+    @DisplayName("测试3：查询期间发生清除时结果不写入缓存")
+    void find_SkipsCacheWhenEvictedDuringQuery() {
+        when(teamMemberRepository.findAccess(1L, "kc-1")).thenAnswer(invocation -> {
+            accessService.evict(1L, "kc-1");
+            return ADMIN;
+        }).thenReturn(MEMBER);
+
+        assertThat(accessService.find(1L, "kc-1")).isEqualTo(ADMIN);
+        assertThat(accessService.find(1L, "kc-1")).isEqualTo(MEMBER);
+        assertThat(accessService.find(1L, "kc-1")).isEqualTo(MEMBER);
+        verify(teamMemberRepository, times(2)).findAccess(1L, "kc-1");
+    }
+
+    @Test
+    @Order(4)
+    @DisplayName("测试4：删除团队清除该团队全部缓存，其他团队不受影响")
+    void evictTeam_RemovesOnlyThatTeam() {
+        when(teamMemberRepository.findAccess(1L, "kc-1")).thenReturn(ADMIN);
+        when(teamMemberRepository.findAccess(1L, "kc-2")).thenReturn(MEMBER);
+        when(teamMemberRepository.findAccess(2L, "kc-1")).thenReturn(MEMBER);
+        accessService.find(1L, "kc-1");
+        accessService.find(1L, "kc-2");
+        accessService.find(2L, "kc-1");
+
+        accessService.evictTeam(1L);
+        accessService.find(1L, "kc-1");
+        accessService.find(1L, "kc-2");
+        accessService.find(2L, "kc-1");
+
+        verify(teamMemberRepository, times(2)).findAccess(1L, "kc-1");
+        verify(teamMemberRepository, times(2)).findAccess(1L, "kc-2");
+        verify(teamMemberRepository, times(1)).findAccess(2L, "kc-1");
+    }
+
+    @Test
+    @Order(5)
+    @DisplayName("测试5：缓存过期后重新查询")
+    void find_ExpiresAfterTtl() {
+        when(teamMemberRepository.findAccess(1L, "kc-1")).thenReturn(ADMIN);
+        accessService.find(1L, "kc-1");
+
+        clock.advance(Duration.ofMinutes(6));
+        accessService.find(1L, "kc-1");
+
+        verify(teamMemberRepository, times(2)).findAccess(1L, "kc-1");
+    }
+
+    @Test
+    @Order(6)
+    @DisplayName("测试6：事务回滚后同样清除事务期间放回缓存的结果")
+    void evict_AgainAfterRollback() {
+        when(teamMemberRepository.findAccess(1L, "kc-1")).thenReturn(ADMIN, MEMBER, ADMIN);
+        accessService.find(1L, "kc-1");
+
+        TransactionSynchronizationManager.initSynchronization();
+        accessService.evict(1L, "kc-1");
+        // 事务内读取到未提交的变更并放回缓存，随后事务回滚
+        assertThat(accessService.find(1L, "kc-1")).isEqualTo(MEMBER);
+        TransactionSynchronizationManager.getSynchronizations()
+                .forEach(sync -> sync.afterCompletion(TransactionSynchronization.STATUS_ROLLED_BACK));
+
+        assertThat(accessService.find(1L, "kc-1")).isEqualTo(ADMIN);
+        verify(teamMemberRepository, times(3)).findAccess(1L, "kc-1");
+    }
+
+    private static final class MutableClock extends Clock {
+        private Instant now;
+
+        private MutableClock(Instant now) {
+            this.now = now;
+        }
+
+        void advance(Duration duration) {
+            now = now.plus(duration);
+        }
+
+        @Override
+        public ZoneId getZone() {
+            return ZoneOffset.UTC;
+        }
+
+        @Override
+        public Clock withZone(ZoneId zone) {
+            return this;
+        }
+
+        @Override
+        public Instant instant() {
+            return now;
+        }
+    }
+}
@@ -17,6 +17,8 @@ import software.amazon.awssdk.services.s3.presigner.model.GetObjectPresignReques
 import java.io.IOException;
 import java.net.URL;
 import java.time.Duration;
+import java.util.List;
+import java.util.stream.IntStream;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.ArgumentMatchers.*;
@@ -161,6 +163,33 @@ class DigitalOceanSpacesServiceTest {
         assertFalse(spacesService.deleteFile(key));
     }
 
+    @Test
+    @Order(32)
+    @DisplayName("测试32：批量删除文件 - 按1000个一批请求，扣除失败的键")
+    void testDeleteFiles_Batched() {
+        List<String> keys = IntStream.range(0, 1500).mapToObj(i -> "documents/user1/" + i + ".txt").toList();
+        when(s3Client.deleteObjects(any(DeleteObjectsRequest.class)))
+                .thenReturn(DeleteObjectsResponse.builder().build())
+                .thenReturn(DeleteObjectsResponse.builder()
+                        .errors(S3Error.builder().key("documents/user1/1499.txt").code("InternalError").build())
+                        .build());
+
+        assertEquals(1499, spacesService.deleteFiles(keys));
+        verify(s3Client, times(2)).deleteObjects(any(DeleteObjectsRequest.class));
+    }
+
+    @Test
+    @Order(33)
+    @DisplayName("测试33：批量删除文件 - 单批异常不影响其他批次")
+    void testDeleteFiles_BatchFailure() {
+        List<String> keys = IntStream.range(0, 1001).mapToObj(i -> "documents/user1/" + i + ".txt").toList();
+        when(s3Client.deleteObjects(any(DeleteObjectsRequest.class)))
+                .thenThrow(S3Exception.builder().message("network").build())
+                .thenReturn(DeleteObjectsResponse.builder().build());
+
+        assertEquals(1, spacesService.deleteFiles(keys));
+    }
+
 //  generateStoragePath
     @Test
     @Order(40)
@@ -1,7 +1,11 @@
 package com.ntdoc.notangdoccore.service.impl;
 
+import com.ntdoc.notangdoccore.dto.team.TeamAccess;
 import com.ntdoc.notangdoccore.entity.*;
 import com.ntdoc.notangdoccore.repository.*;
+import com.ntdoc.notangdoccore.service.CallerIdentityService;
+import com.ntdoc.notangdoccore.service.ResourceVersionService;
+import com.ntdoc.notangdoccore.service.TeamAccessService;
 import org.junit.jupiter.api.*;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.*;
@@ -26,9 +30,13 @@ class DocumentCommentServiceImplTest {
     @Mock
     private UserRepository userRepository;
     @Mock
+    private CallerIdentityService callerIdentityService;
+    @Mock
     private TeamRepository teamRepository;
     @Mock
-    private TeamMemberRepository teamMemberRepository;
+    private ResourceVersionService resourceVersionService;
+    @Mock
+    private TeamAccessService teamAccessService;
     @InjectMocks
     private DocumentCommentServiceImpl commentService;
 
@@ -69,6 +77,7 @@ class DocumentCommentServiceImplTest {
 
         assertThat(result.getContent()).isEqualTo("Nice doc");
         verify(commentRepository).save(any(DocumentComment.class));
+        verify(resourceVersionService).bumpAfterCommit(ResourceVersionService.Scope.COMMENTS, 10L);
     }
 
     @Test
@@ -78,8 +87,7 @@ class DocumentCommentServiceImplTest {
         when(documentRepository.findById(10L)).thenReturn(Optional.of(mockDocument));
         when(userRepository.findByKcUserId("kc-123")).thenReturn(Optional.of(mockUser));
         when(teamRepository.findById(99L)).thenReturn(Optional.of(mockTeam));
-        when(teamMemberRepository.existsByTeamAndUserAndStatus(mockTeam, mockUser, TeamMember.MemberStatus.ACTIVE))
-                .thenReturn(false);
+        when(teamAccessService.find(99L, "kc-123")).thenReturn(Optional.empty());
 
         assertThatThrownBy(() -> commentService.createComment(10L, 99L, "Hello", null, "kc-123"))
                 .isInstanceOf(SecurityException.class)
@@ -193,8 +201,8 @@ class DocumentCommentServiceImplTest {
         mockComment.setTeam(mockTeam);
         when(commentRepository.findById(5L)).thenReturn(Optional.of(mockComment));
         when(userRepository.findByKcUserId("kc-123")).thenReturn(Optional.of(mockUser));
-        when(teamMemberRepository.existsByTeamAndUserAndRoleInAndStatus(any(), any(), anyList(), any()))
-                .thenReturn(true);
+        when(teamAccessService.find(99L, "kc-123"))
+                .thenReturn(Optional.of(new TeamAccess(TeamMember.TeamRole.ADMIN, TeamMember.MemberStatus.ACTIVE)));
 
         commentService.deleteComment(5L, "kc-123");
         verify(commentRepository).save(any(DocumentComment.class));
@@ -214,12 +222,8 @@ class DocumentCommentServiceImplTest {
         when(userRepository.findByKcUserId("kc-123")).thenReturn(Optional.of(mockUser));
 
         // Mock：用户是团队成员，但不是OWNER或ADMIN
-        when(teamMemberRepository.existsByTeamAndUserAndRoleInAndStatus(
-                eq(mockTeam),
-                eq(mockUser),
-                anyList(),
-                eq(TeamMember.MemberStatus.ACTIVE)
-        )).thenReturn(false);
+        when(teamAccessService.find(99L, "kc-123"))
+                .thenReturn(Optional.of(new TeamAccess(TeamMember.TeamRole.MEMBER, TeamMember.MemberStatus.ACTIVE)));
 
         // 验证抛出权限异常
         assertThatThrownBy(() -> commentService.deleteComment(5L, "kc-123"))
@@ -263,8 +267,8 @@ class DocumentCommentServiceImplTest {
         when(documentRepository.findById(10L)).thenReturn(Optional.of(mockDocument));
         when(userRepository.findByKcUserId("kc-123")).thenReturn(Optional.of(mockUser));
         when(teamRepository.findById(99L)).thenReturn(Optional.of(mockTeam));
-        when(teamMemberRepository.existsByTeamAndUserAndStatus(mockTeam, mockUser, TeamMember.MemberStatus.ACTIVE))
-                .thenReturn(true);
+        when(teamAccessService.find(99L, "kc-123"))
+                .thenReturn(Optional.of(new TeamAccess(TeamMember.TeamRole.MEMBER, TeamMember.MemberStatus.ACTIVE)));
         when(commentRepository.findByDocumentAndTeamAndStatusOrderByCreatedAtDesc(any(), any(), any()))
                 .thenReturn(List.of(mockComment));
 
@@ -279,8 +283,8 @@ class DocumentCommentServiceImplTest {
         when(documentRepository.findById(10L)).thenReturn(Optional.of(mockDocument));
         when(userRepository.findByKcUserId("kc-123")).thenReturn(Optional.of(mockUser));
         when(teamRepository.findById(99L)).thenReturn(Optional.of(mockTeam));
-        when(teamMemberRepository.existsByTeamAndUserAndStatus(mockTeam, mockUser, TeamMember.MemberStatus.ACTIVE))
-                .thenReturn(false);
+        when(teamAccessService.find(99L, "kc-123"))
+                .thenReturn(Optional.of(new TeamAccess(TeamMember.TeamRole.MEMBER, TeamMember.MemberStatus.REMOVED)));
 
         assertThatThrownBy(() -> commentService.getDocumentComments(10L, 99L, "kc-123"))
                 .isInstanceOf(SecurityException.class)
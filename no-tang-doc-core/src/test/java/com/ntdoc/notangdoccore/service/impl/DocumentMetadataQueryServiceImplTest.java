@@ -0,0 +1,127 @@
+package com.ntdoc.notangdoccore.service.impl;
+
+import com.ntdoc.notangdoccore.config.MetadataProperties;
+import com.ntdoc.notangdoccore.dto.document.MetadataCondition;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.Query;
+import org.junit.jupiter.api.*;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+@TestMethodOrder(MethodOrderer.OrderAnnotation.class)
+@DisplayName("DocumentMetadataQueryServiceImpl服务测试")
+public class DocumentMetadataQueryServiceImplTest {
+
+    @Mock
+    private EntityManager entityManager;
+    @Mock
+    private Query countQuery;
+    @Mock
+    private Query idQuery;
+
+    private DocumentMetadataQueryServiceImpl queryService;
+
+    @BeforeEach
+    void setUp() {
+        MetadataProperties props = new MetadataProperties();
+        MetadataProperties.IndexedKey amount = new MetadataProperties.IndexedKey();
+        amount.setKey("amount");
+        amount.setColumn("meta_amount");
+        amount.setType(MetadataCondition.ValueType.NUMBER);
+        props.getIndexedKeys().add(amount);
+
+        queryService = new DocumentMetadataQueryServiceImpl(props);
+        ReflectionTestUtils.setField(queryService, "entityManager", entityManager);
+    }
+
+    @Test
+    @Order(1)
+    @DisplayName("测试1：提升键使用生成列，普通键使用 JSON_EXTRACT 并绑定路径")
+    void findDocumentIds_BuildsSqlPerKeyKind() {
+        ArgumentCaptor<String> sql = ArgumentCaptor.forClass(String.class);
+        when(entityManager.createNativeQuery(sql.capture())).thenReturn(countQuery, idQuery);
+        when(countQuery.getSingleResult()).thenReturn(3L);
+        when(idQuery.getResultList()).thenReturn(List.of(7L, 5L));
+
+        Page<Long> ids = queryService.findDocumentIds(1L, List.of(
+                new MetadataCondition("amount", MetadataCondition.Op.BETWEEN, null, "100", "500.5"),
+                new MetadataCondition("dueDate", MetadataCondition.Op.GTE, MetadataCondition.ValueType.DATE, "2025-01-01", null)
+        ), PageRequest.of(0, 2));
+
+        assertThat(ids.getContent()).containsExactly(7L, 5L);
+        assertThat(ids.getTotalElements()).isEqualTo(3);
+        assertThat(sql.getAllValues().get(0))
+                .contains("d.meta_amount BETWEEN :v0 AND :t0")
+                .contains("CAST(JSON_UNQUOTE(JSON_EXTRACT(d.metadata, :path1)) AS DATE) >= :v1");
+        verify(idQuery).setParameter("v0", new BigDecimal("100"));
+        verify(idQuery).setParameter("t0", new BigDecimal("500.5"));
+        verify(idQuery).setParameter("path1", "$.\"dueDate\"");
+        verify(idQuery).setParameter("v1", LocalDate.of(2025, 1, 1));
+        verify(idQuery).setMaxResults(2);
+    }
+
+    @Test
+    @Order(2)
+    @DisplayName("测试2：无匹配时不执行分页查询")
+    void findDocumentIds_EmptyCount() {
+        when(entityManager.createNativeQuery(anyString())).thenReturn(countQuery);
+        when(countQuery.getSingleResult()).thenReturn(0L);
+
+        Page<Long> ids = queryService.findDocumentIds(1L, List.of(
+                new MetadataCondition("vendor", MetadataCondition.Op.EQ, null, "acme", null)
+        ), PageRequest.of(0, 20));
+
+        assertThat(ids).isEmpty();
+        verify(entityManager, times(1)).createNativeQuery(anyString());
+    }
+
+    @Test
+    @Order(3)
+    @DisplayName("测试3：数值无法解析 - 抛出 IllegalArgumentException")
+    void findDocumentIds_InvalidNumber() {
+        assertThatThrownBy(() -> queryService.findDocumentIds(1L, List.of(
+                new MetadataCondition("amount", MetadataCondition.Op.GT, null, "abc", null)
+        ), PageRequest.of(0, 20)))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessageContaining("amount");
+        verifyNoInteractions(entityManager);
+    }
+
+    @Test
+    @Order(4)
+    @DisplayName("测试4：BETWEEN 缺少上界 - 抛出 IllegalArgumentException")
+    void findDocumentIds_BetweenWithoutUpperBound() {
+        assertThatThrownBy(() -> queryService.findDocumentIds(1L, List.of(
+                new MetadataCondition("amount", MetadataCondition.Op.BETWEEN, null, "1", null)
+        ), PageRequest.of(0, 20)))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessageContaining("BETWEEN");
+    }
+
+    @Test
+    @Order(5)
+    @DisplayName("测试5：写入校验 - 提升键值必须可解析，普通键不校验")
+    void validate_OnlyIndexedKeys() {
+        queryService.validate("amount", "12.50");
+        queryService.validate("amount", "");
+        queryService.validate("vendor", "anything");
+
+        assertThatThrownBy(() -> queryService.validate("amount", "twelve"))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+}
@@ -1,26 +1,49 @@
 package com.ntdoc.notangdoccore.service.impl;
 
+import com.ntdoc.notangdoccore.dto.document.DocumentBatchItem;
 import com.ntdoc.notangdoccore.dto.document.DocumentDownloadResponse;
+import com.ntdoc.notangdoccore.dto.document.DocumentFacetResponse;
+import com.ntdoc.notangdoccore.dto.document.DocumentTagResponse;
+import com.ntdoc.notangdoccore.dto.document.MetadataCondition;
 import com.ntdoc.notangdoccore.dto.document.DocumentUploadResponse;
 import com.ntdoc.notangdoccore.entity.Document;
+import com.ntdoc.notangdoccore.entity.Tag;
 import com.ntdoc.notangdoccore.entity.User;
 import com.ntdoc.notangdoccore.entity.logenum.ActorType;
 import com.ntdoc.notangdoccore.entity.logenum.OperationType;
+import com.ntdoc.notangdoccore.event.DocumentTagsChangedEvent;
 import com.ntdoc.notangdoccore.event.UserOperationEvent;
 import com.ntdoc.notangdoccore.exception.DocumentException;
 import com.ntdoc.notangdoccore.repository.DocumentRepository;
+import com.ntdoc.notangdoccore.repository.DocumentVersionRepository;
 import com.ntdoc.notangdoccore.repository.UserRepository;
+import com.ntdoc.notangdoccore.service.CallerIdentityService;
+import com.ntdoc.notangdoccore.service.DocumentMetadataQueryService;
+import com.ntdoc.notangdoccore.service.DocumentSearchService;
+import com.ntdoc.notangdoccore.service.DownloadCounterService;
 import com.ntdoc.notangdoccore.service.FileStorageService;
+import com.ntdoc.notangdoccore.service.StorageSummaryService;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.TypedQuery;
 import org.junit.jupiter.api.*;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.*;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.context.ApplicationEvent;
 import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.domain.Specification;
 import org.springframework.mock.web.MockMultipartFile;
+import org.springframework.test.util.ReflectionTestUtils;
 
 import java.net.URL;
+import java.time.Duration;
 import java.time.Instant;
 import java.util.*;
+import java.util.stream.LongStream;
 
 import static org.assertj.core.api.Assertions.*;
 import static org.mockito.ArgumentMatchers.*;
@@ -38,6 +61,18 @@ public class DocumentServiceImplTest {
     @Mock
     private FileStorageService fileStorageService;
     @Mock
+    private DocumentSearchService documentSearchService;
+    @Mock
+    private StorageSummaryService storageSummaryService;
+    @Mock
+    private DocumentMetadataQueryService metadataQueryService;
+    @Mock
+    private DocumentVersionRepository documentVersionRepository;
+    @Mock
+    private DownloadCounterService downloadCounterService;
+    @Mock
+    private CallerIdentityService callerIdentityService;
+    @Mock
     private ApplicationEventPublisher eventPublisher;
     @InjectMocks
     private DocumentServiceImpl documentService;
@@ -82,6 +117,8 @@ public class DocumentServiceImplTest {
         assertThat(response).isNotNull();
         assertThat(response.getFileName()).isEqualTo("test.pdf");
         verify(eventPublisher, atLeastOnce()).publishEvent(any(UserOperationEvent.class));
+        verify(storageSummaryService).documentAdded(argThat(d -> d.getId() == 99L));
+        verify(documentVersionRepository).save(argThat(v -> v.getVersionNo() == 1 && "kc-123/test.pdf".equals(v.getS3Key())));
     }
 
     @Test
@@ -166,13 +203,13 @@ public class DocumentServiceImplTest {
         when(userRepository.findByKcUserId("kc-123")).thenReturn(Optional.of(mockUser));
         when(documentRepository.findById(10L)).thenReturn(Optional.of(mockDocument));
         when(fileStorageService.generateDownloadUrl(anyString(), any())).thenReturn(new URL("https://mock-url.com"));
-        when(documentRepository.save(any(Document.class))).thenReturn(mockDocument);
 
         DocumentDownloadResponse response = documentService.getDocumentDownloadUrl(10L, "kc-123");
 
         assertThat(response.getDownloadUrl()).contains("mock-url");
         verify(eventPublisher).publishEvent(any(UserOperationEvent.class));
-        verify(documentRepository).save(any(Document.class));
+        verify(downloadCounterService).record(10L);
+        verify(documentRepository, never()).save(any(Document.class));
     }
 
     @Test
@@ -224,25 +261,28 @@ public class DocumentServiceImplTest {
 
     @Test
     @Order(20)
-    @DisplayName("测试20：删除文件 - 成功 - 仓库与S3删除均被调用")
+    @DisplayName("测试20：删除文件 - 成功 - 只移入回收站，不删除行")
     void testDeleteDocument_Success() {
         when(userRepository.findByKcUserId("kc-123")).thenReturn(Optional.of(mockUser));
         when(documentRepository.findById(10L)).thenReturn(Optional.of(mockDocument));
 
         documentService.deleteDocument(10L, "kc-123");
 
-        verify(documentRepository).delete(mockDocument);
-        verify(fileStorageService).deleteFile("kc-123/test.pdf");
+        assertThat(mockDocument.getStatus()).isEqualTo(Document.DocumentStatus.DELETED);
+        assertThat(mockDocument.getDeletedAt()).isNotNull();
+        verify(documentRepository).save(mockDocument);
+        verify(documentRepository, never()).delete(any());
+        verify(storageSummaryService).statusChanged(mockDocument, Document.DocumentStatus.ACTIVE);
         verify(eventPublisher, atLeastOnce()).publishEvent(any(UserOperationEvent.class));
     }
 
     @Test
     @Order(21)
-    @DisplayName("测试21：删除文件 - 失败 - S3删除异常但不抛出Runtime")
-    void testDeleteDocument_Fail_S3Error() {
+    @DisplayName("测试21：删除文件 - 失败 - 保存异常但不抛出Runtime")
+    void testDeleteDocument_Fail_SaveError() {
         when(userRepository.findByKcUserId("kc-123")).thenReturn(Optional.of(mockUser));
         when(documentRepository.findById(10L)).thenReturn(Optional.of(mockDocument));
-        doThrow(new RuntimeException("S3 delete failed")).when(fileStorageService).deleteFile(anyString());
+        when(documentRepository.save(mockDocument)).thenThrow(new RuntimeException("DB error"));
 
         // 不应抛出异常，而是记录日志并发送事件
         documentService.deleteDocument(10L, "kc-123");
@@ -251,6 +291,117 @@ public class DocumentServiceImplTest {
     }
 
 
+    @Test
+    @Order(22)
+    @DisplayName("测试22：删除文件 - 发布标签移除事件供内存索引更新计数")
+    void testDeleteDocument_PublishesTagsRemoved() {
+        mockDocument.getTags().add(Tag.builder().id(1L).tag("finance").documents(new HashSet<>()).build());
+        when(userRepository.findByKcUserId("kc-123")).thenReturn(Optional.of(mockUser));
+        when(documentRepository.findById(10L)).thenReturn(Optional.of(mockDocument));
+
+        documentService.deleteDocument(10L, "kc-123");
+
+        ArgumentCaptor<ApplicationEvent> captor = ArgumentCaptor.forClass(ApplicationEvent.class);
+        verify(eventPublisher, atLeastOnce()).publishEvent(captor.capture());
+        assertThat(captor.getAllValues())
+                .filteredOn(DocumentTagsChangedEvent.class::isInstance)
+                .singleElement()
+                .satisfies(e -> {
+                    DocumentTagsChangedEvent event = (DocumentTagsChangedEvent) e;
+                    assertThat(event.getRemovedTags()).containsExactly("finance");
+                    assertThat(event.getOwnerId()).isEqualTo(mockUser.getId());
+                });
+    }
+
+    @Test
+    @Order(23)
+    @DisplayName("测试23：删除文件 - 请求中不访问存储，存储对象由清理任务删除")
+    void testDeleteDocument_LeavesBlobsForPurge() {
+        when(userRepository.findByKcUserId("kc-123")).thenReturn(Optional.of(mockUser));
+        when(documentRepository.findById(10L)).thenReturn(Optional.of(mockDocument));
+
+        documentService.deleteDocument(10L, "kc-123");
+
+        verifyNoInteractions(fileStorageService, documentVersionRepository);
+    }
+
+    @Test
+    @Order(24)
+    @DisplayName("测试24：删除文件 - 已在回收站中时不重复处理")
+    void testDeleteDocument_AlreadyDeleted() {
+        mockDocument.setStatus(Document.DocumentStatus.DELETED);
+        when(userRepository.findByKcUserId("kc-123")).thenReturn(Optional.of(mockUser));
+        when(documentRepository.findById(10L)).thenReturn(Optional.of(mockDocument));
+
+        documentService.deleteDocument(10L, "kc-123");
+
+        verify(documentRepository, never()).save(any());
+        verifyNoInteractions(storageSummaryService, eventPublisher);
+    }
+
+    // ---------------- restoreDocument -----------------
+
+    @Test
+    @Order(25)
+    @DisplayName("测试25：恢复文档 - 成功 - 状态恢复并发布标签新增事件")
+    void testRestoreDocument_Success() {
+        ReflectionTestUtils.setField(documentService, "trashRetention", Duration.ofDays(30));
+        mockDocument.setStatus(Document.DocumentStatus.DELETED);
+        mockDocument.setDeletedAt(Instant.now().minus(Duration.ofDays(3)));
+        mockDocument.getTags().add(Tag.builder().id(1L).tag("finance").documents(new HashSet<>()).build());
+        when(userRepository.findByKcUserId("kc-123")).thenReturn(Optional.of(mockUser));
+        when(documentRepository.lockById(10L)).thenReturn(Optional.of(mockDocument));
+
+        Document restored = documentService.restoreDocument(10L, "kc-123");
+
+        assertThat(restored.getStatus()).isEqualTo(Document.DocumentStatus.ACTIVE);
+        assertThat(restored.getDeletedAt()).isNull();
+        verify(documentRepository).save(mockDocument);
+        verify(storageSummaryService).statusChanged(mockDocument, Document.DocumentStatus.DELETED);
+        ArgumentCaptor<ApplicationEvent> captor = ArgumentCaptor.forClass(ApplicationEvent.class);
+        verify(eventPublisher, atLeastOnce()).publishEvent(captor.capture());
+        assertThat(captor.getAllValues())
+                .filteredOn(DocumentTagsChangedEvent.class::isInstance)
+                .singleElement()
+                .satisfies(e -> assertThat(((DocumentTagsChangedEvent) e).getAddedTags()).containsExactly("finance"));
+        assertThat(captor.getAllValues())
+                .filteredOn(UserOperationEvent.class::isInstance)
+                .singleElement()
+                .satisfies(e -> assertThat(((UserOperationEvent) e).getOperationType())
+                        .isEqualTo(OperationType.RESTORE_DOCUMENT));
+    }
+
+    @Test
+    @Order(26)
+    @DisplayName("测试26：恢复文档 - 超过恢复期限时拒绝")
+    void testRestoreDocument_Expired() {
+        ReflectionTestUtils.setField(documentService, "trashRetention", Duration.ofDays(30));
+        mockDocument.setStatus(Document.DocumentStatus.DELETED);
+        mockDocument.setDeletedAt(Instant.now().minus(Duration.ofDays(31)));
+        when(userRepository.findByKcUserId("kc-123")).thenReturn(Optional.of(mockUser));
+        when(documentRepository.lockById(10L)).thenReturn(Optional.of(mockDocument));
+
+        assertThatThrownBy(() -> documentService.restoreDocument(10L, "kc-123"))
+                .isInstanceOf(IllegalStateException.class);
+        verify(documentRepository, never()).save(any());
+    }
+
+    @Test
+    @Order(27)
+    @DisplayName("测试27：恢复文档 - 不在回收站中或非所有者时拒绝")
+    void testRestoreDocument_NotInTrashOrNotOwner() {
+        when(userRepository.findByKcUserId("kc-123")).thenReturn(Optional.of(mockUser));
+        when(documentRepository.lockById(10L)).thenReturn(Optional.of(mockDocument));
+
+        assertThatThrownBy(() -> documentService.restoreDocument(10L, "kc-123"))
+                .isInstanceOf(IllegalStateException.class);
+
+        mockDocument.setUploadedBy(User.builder().id(2L).build());
+        assertThatThrownBy(() -> documentService.restoreDocument(10L, "kc-123"))
+                .isInstanceOf(DocumentException.DocumentAccessDeniedException.class);
+        verifyNoInteractions(storageSummaryService);
+    }
+
     // ---------------- getUserDocuments -----------------
 
     @Test
@@ -308,15 +459,12 @@ public class DocumentServiceImplTest {
 
     @Test
     @Order(50)
-    @DisplayName("测试50：下载计数自增 - 成功")
+    @DisplayName("测试50：下载计数自增 - 只在内存中累加，不读写文档行")
     void testIncrementDownloadCount_Success() {
-        mockDocument.setDownloadCount(5);
-        when(documentRepository.findById(10L)).thenReturn(Optional.of(mockDocument));
-
         documentService.incrementDownloadCount(10L);
 
-        verify(documentRepository).save(mockDocument);
-        assertThat(mockDocument.getDownloadCount()).isEqualTo(6);
+        verify(downloadCounterService).record(10L);
+        verifyNoInteractions(documentRepository);
     }
 
     // ---------------- searchDocumentsByFilename -----------------
@@ -354,4 +502,244 @@ public class DocumentServiceImplTest {
         assertThat(result).hasSize(1);
     }
 
+
+    // ---------------- searchDocuments -----------------
+
+    @Test
+    @Order(70)
+    @DisplayName("测试70：全文检索 - 成功 - 按检索结果顺序返回")
+    void testSearchDocuments_Success_KeepsRankOrder() {
+        Document second = Document.builder().id(11L).originalFilename("b.pdf").uploadedBy(mockUser).build();
+        when(userRepository.findByKcUserId("kc-123")).thenReturn(Optional.of(mockUser));
+        when(documentSearchService.search(1L, "contract", 0, 20)).thenReturn(List.of(11L, 10L));
+        when(documentRepository.findByIdIn(List.of(11L, 10L))).thenReturn(List.of(mockDocument, second));
+
+        List<Document> result = documentService.searchDocuments("kc-123", " contract ", 0, 20);
+
+        assertThat(result).extracting(Document::getId).containsExactly(11L, 10L);
+    }
+
+    @Test
+    @Order(71)
+    @DisplayName("测试71：全文检索 - 失败 - 关键字为空")
+    void testSearchDocuments_Fail_Empty() {
+        assertThatThrownBy(() -> documentService.searchDocuments("kc-123", "", 0, 20))
+                .isInstanceOf(DocumentException.class)
+                .hasMessageContaining("Search keyword must not be empty");
+        verifyNoInteractions(documentSearchService);
+    }
+
+    // ---------------- filterDocuments / facets -----------------
+
+    @Test
+    @Order(80)
+    @DisplayName("测试80：分页过滤 - 成功 - 批量加载标签并保持分页信息")
+    void testFilterDocuments_Paged_Success() {
+        Pageable pageable = PageRequest.of(0, 20);
+        when(userRepository.findByKcUserId("kc-123")).thenReturn(Optional.of(mockUser));
+        when(documentRepository.findAll(ArgumentMatchers.<Specification<Document>>any(), eq(pageable)))
+                .thenReturn(new PageImpl<>(List.of(mockDocument), pageable, 41));
+        when(documentRepository.findByIdIn(List.of(10L))).thenReturn(List.of(mockDocument));
+
+        Page<Document> result = documentService.filterDocuments("kc-123", "application/pdf", "finance", null, null, pageable);
+
+        assertThat(result.getContent()).containsExactly(mockDocument);
+        assertThat(result.getTotalElements()).isEqualTo(41);
+    }
+
+    @Test
+    @Order(81)
+    @DisplayName("测试81：分页过滤 - 空结果不再加载标签")
+    void testFilterDocuments_Paged_Empty() {
+        Pageable pageable = PageRequest.of(0, 20);
+        when(userRepository.findByKcUserId("kc-123")).thenReturn(Optional.of(mockUser));
+        when(documentRepository.findAll(ArgumentMatchers.<Specification<Document>>any(), eq(pageable)))
+                .thenReturn(Page.empty(pageable));
+
+        Page<Document> result = documentService.filterDocuments("kc-123", null, null, null, null, pageable);
+
+        assertThat(result).isEmpty();
+        verify(documentRepository, never()).findByIdIn(any());
+    }
+
+    @Test
+    @Order(82)
+    @DisplayName("测试82：分面统计 - 成功 - 聚合结果按分面归类")
+    void testGetFilterFacets_Success() {
+        when(userRepository.findByKcUserId("kc-123")).thenReturn(Optional.of(mockUser));
+        when(documentRepository.countFacets(1L, null, "finance", null, null)).thenReturn(List.of(
+                new Object[]{"contentType", "application/pdf", 3L},
+                new Object[]{"sizeBucket", "1-10MB", 3L},
+                new Object[]{"tag", "finance", 3L},
+                new Object[]{"uploadMonth", "2025-09", 1L},
+                new Object[]{"uploadMonth", "2025-10", 2L}
+        ));
+
+        DocumentFacetResponse facets = documentService.getFilterFacets("kc-123", " ", " finance ", null, null);
+
+        assertThat(facets.getContentTypes()).containsEntry("application/pdf", 3L);
+        assertThat(facets.getTags()).containsEntry("finance", 3L);
+        assertThat(facets.getUploadMonths().keySet()).containsExactly("2025-10", "2025-09");
+        assertThat(facets.getSizeBuckets()).containsExactly(
+                entry("0-1MB", 0L), entry("1-10MB", 3L), entry("10-50MB", 0L), entry("50MB+", 0L));
+    }
+
+    // ---------------- queryByMetadata -----------------
+
+    @Test
+    @Order(90)
+    @DisplayName("测试90：元数据查询 - 成功 - 按查询顺序返回并保留总数")
+    void testQueryByMetadata_Success() {
+        Pageable pageable = PageRequest.of(0, 2);
+        List<MetadataCondition> conditions = List.of(
+                new MetadataCondition("amount", MetadataCondition.Op.GTE, null, "100", null));
+        Document second = Document.builder().id(11L).originalFilename("b.pdf").uploadedBy(mockUser).build();
+        when(userRepository.findByKcUserId("kc-123")).thenReturn(Optional.of(mockUser));
+        when(metadataQueryService.findDocumentIds(1L, conditions, pageable))
+                .thenReturn(new PageImpl<>(List.of(11L, 10L), pageable, 5));
+        when(documentRepository.findByIdIn(List.of(11L, 10L))).thenReturn(List.of(mockDocument, second));
+
+        Page<Document> result = documentService.queryByMetadata("kc-123", conditions, pageable);
+
+        assertThat(result.getContent()).extracting(Document::getId).containsExactly(11L, 10L);
+        assertThat(result.getTotalElements()).isEqualTo(5);
+    }
+
+    // ---------------- streamUserDocuments -----------------
+
+    @Test
+    @Order(91)
+    @DisplayName("测试91：流式输出 - 按批加载标签并清空持久化上下文")
+    void testStreamUserDocuments_Chunked() {
+        EntityManager entityManager = mock(EntityManager.class);
+        ReflectionTestUtils.setField(documentService, "entityManager", entityManager);
+        int total = DocumentServiceImpl.STREAM_CHUNK_SIZE + 1;
+        Instant now = Instant.now();
+        when(userRepository.findByKcUserId("kc-123")).thenReturn(Optional.of(mockUser));
+        when(documentRepository.streamByOwner(1L, null)).thenReturn(LongStream.rangeClosed(1, total)
+                .mapToObj(id -> Document.builder().id(id).originalFilename("f" + id)
+                        .createdAt(now).updatedAt(now).build()));
+        when(documentRepository.findTagNamesByDocumentIds(anyCollection()))
+                .thenReturn(List.<Object[]>of(new Object[]{1L, "finance"}), List.of());
+
+        List<DocumentTagResponse> written = new ArrayList<>();
+        documentService.streamUserDocuments("kc-123", null, written::add);
+
+        assertThat(written).hasSize(total);
+        assertThat(written.get(0).getTags()).containsExactly("finance");
+        assertThat(written.get(total - 1).getTags()).isEmpty();
+        verify(documentRepository, times(2)).findTagNamesByDocumentIds(anyCollection());
+        verify(entityManager, times(2)).clear();
+    }
+
+    // ---------------- getDocumentsByIds -----------------
+
+    @Test
+    @Order(92)
+    @DisplayName("测试92：批量获取 - 按请求顺序返回并标记不存在与无权访问")
+    void testGetDocumentsByIds_OrderAndMarkers() {
+        Instant now = Instant.now();
+        mockDocument.setCreatedAt(now);
+        mockDocument.setUpdatedAt(now);
+        when(userRepository.findByKcUserId("kc-123")).thenReturn(Optional.of(mockUser));
+        when(documentRepository.findOwnedByIdIn(Set.of(30L, 10L, 20L), 1L)).thenReturn(List.of(mockDocument));
+        when(documentRepository.findExistingIdsIn(List.of(30L, 20L))).thenReturn(List.of(20L));
+        when(documentRepository.findTagNamesByDocumentIds(Set.of(10L)))
+                .thenReturn(List.<Object[]>of(new Object[]{10L, "finance"}));
+
+        List<DocumentBatchItem> items = documentService.getDocumentsByIds("kc-123", List.of(30L, 10L, 20L, 10L));
+
+        assertThat(items).extracting(DocumentBatchItem::getDocumentId).containsExactly(30L, 10L, 20L, 10L);
+        assertThat(items).extracting(DocumentBatchItem::getResult).containsExactly(
+                DocumentBatchItem.Result.NOT_FOUND,
+                DocumentBatchItem.Result.FOUND,
+                DocumentBatchItem.Result.FORBIDDEN,
+                DocumentBatchItem.Result.FOUND);
+        assertThat(items.get(1).getDocument().getTags()).containsExactly("finance");
+        assertThat(items.get(2).getDocument()).isNull();
+        verify(documentRepository, never()).findById(any());
+    }
+
+    @Test
+    @Order(93)
+    @DisplayName("测试93：批量获取 - 超过上限时拒绝且不查询")
+    void testGetDocumentsByIds_TooMany() {
+        List<Long> ids = LongStream.rangeClosed(1, DocumentServiceImpl.MAX_BATCH_IDS + 1).boxed().toList();
+
+        assertThatThrownBy(() -> documentService.getDocumentsByIds("kc-123", ids))
+                .isInstanceOf(IllegalArgumentException.class);
+        verifyNoInteractions(documentRepository);
+    }
+
+    // ---------------- getUserDocumentFields -----------------
+
+    @Test
+    @Order(94)
+    @DisplayName("测试94：按字段获取文档 - 只查询请求的列，标签批量加载")
+    @SuppressWarnings("unchecked")
+    void testGetUserDocumentFields_NarrowProjection() {
+        EntityManager entityManager = mock(EntityManager.class);
+        TypedQuery<Object[]> query = mock(TypedQuery.class);
+        ReflectionTestUtils.setField(documentService, "entityManager", entityManager);
+        when(userRepository.findByKcUserId("kc-123")).thenReturn(Optional.of(mockUser));
+        when(entityManager.createQuery(anyString(), eq(Object[].class))).thenReturn(query);
+        when(query.setParameter(anyString(), any())).thenReturn(query);
+        when(query.getResultList()).thenReturn(List.<Object[]>of(new Object[]{10L, "a.pdf"}, new Object[]{11L, "b.pdf"}));
+        when(documentRepository.findTagNamesByDocumentIds(List.of(10L, 11L)))
+                .thenReturn(List.<Object[]>of(new Object[]{11L, "finance"}));
+
+        List<DocumentTagResponse> documents = documentService.getUserDocumentFields("kc-123", null,
+                new LinkedHashSet<>(List.of("fileName", "tags")));
+
+        ArgumentCaptor<String> jpql = ArgumentCaptor.forClass(String.class);
+        verify(entityManager).createQuery(jpql.capture(), eq(Object[].class));
+        assertThat(jpql.getValue()).startsWith("SELECT d.id, d.originalFilename FROM Document d")
+                .contains("d.status <> 'DELETED'");
+        assertThat(documents).extracting(DocumentTagResponse::getFileName).containsExactly("a.pdf", "b.pdf");
+        assertThat(documents.get(0).getTags()).isEmpty();
+        assertThat(documents.get(1).getTags()).containsExactly("finance");
+        assertThat(documents.get(0).getDescription()).isNull();
+        verify(documentRepository, never()).findByUploadedByOrderByCreatedAtDesc(any());
+    }
+
+    @Test
+    @Order(95)
+    @DisplayName("测试95：调用者身份 - 已解析的当前用户不再按 Keycloak ID 查询")
+    void testGetUserDocuments_UsesResolvedCaller() {
+        when(callerIdentityService.findCaller("kc-123")).thenReturn(Optional.of(mockUser));
+        when(documentRepository.findByUploadedByOrderByCreatedAtDesc(mockUser)).thenReturn(List.of(mockDocument));
+
+        List<Document> documents = documentService.getUserDocuments("kc-123");
+
+        assertThat(documents).containsExactly(mockDocument);
+        verify(userRepository, never()).findByKcUserId(any());
+    }
+
+    @Test
+    @Order(96)
+    @DisplayName("测试96：调用者身份 - 缓存快照与文档关联用户不是同一对象时按ID识别所有者")
+    void testGetDocumentById_ResolvedCallerSnapshotIsOwner() {
+        User snapshot = User.builder().id(mockUser.getId()).kcUserId("kc-123").username("tester").build();
+        when(callerIdentityService.findCaller("kc-123")).thenReturn(Optional.of(snapshot));
+        when(documentRepository.findById(10L)).thenReturn(Optional.of(mockDocument));
+
+        Document result = documentService.getDocumentById(10L, "kc-123");
+
+        assertThat(snapshot).isNotSameAs(mockDocument.getUploadedBy());
+        assertThat(result).isSameAs(mockDocument);
+    }
+
+    // ---------------- findAccessibleIds -----------------
+
+    @Test
+    @Order(97)
+    @DisplayName("测试97：筛选可访问文档 - 只返回当前用户拥有的ID")
+    void testFindAccessibleIds_OwnedOnly() {
+        when(userRepository.findByKcUserId("kc-123")).thenReturn(Optional.of(mockUser));
+        when(documentRepository.findOwnedIdsIn(List.of(10L, 20L), 1L)).thenReturn(List.of(10L));
+
+        assertThat(documentService.findAccessibleIds("kc-123", List.of(10L, 20L))).containsExactly(10L);
+        assertThat(documentService.findAccessibleIds("kc-123", List.of())).isEmpty();
+        verify(documentRepository).findOwnedIdsIn(anyCollection(), anyLong());
+    }
 }
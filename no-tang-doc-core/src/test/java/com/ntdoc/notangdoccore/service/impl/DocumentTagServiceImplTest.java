@@ -1,18 +1,33 @@
 package com.ntdoc.notangdoccore.service.impl;
 
+import com.ntdoc.notangdoccore.dto.document.TagSuggestionResponse;
 import com.ntdoc.notangdoccore.entity.Document;
 import com.ntdoc.notangdoccore.entity.Tag;
+import com.ntdoc.notangdoccore.entity.User;
+import com.ntdoc.notangdoccore.event.DocumentTagsChangedEvent;
 import com.ntdoc.notangdoccore.repository.DocumentRepository;
 import com.ntdoc.notangdoccore.repository.TagRepository;
+import com.ntdoc.notangdoccore.repository.UserRepository;
+import com.ntdoc.notangdoccore.service.CallerIdentityService;
 import com.ntdoc.notangdoccore.service.DocumentTagService;
+import com.ntdoc.notangdoccore.service.TagBitmapIndexService;
+import com.ntdoc.notangdoccore.service.TagDictionaryService;
+import com.ntdoc.notangdoccore.service.TagSuggestionService;
 import jakarta.persistence.EntityNotFoundException;
 import org.junit.jupiter.api.*;
 import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.Mockito;
 import org.mockito.junit.jupiter.MockitoExtension;
 import org.mockito.junit.jupiter.MockitoSettings;
+import org.springframework.context.ApplicationEvent;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
 import org.springframework.test.context.bean.override.mockito.MockitoBean;
 
 import java.util.*;
@@ -32,6 +47,24 @@ public class DocumentTagServiceImplTest {
     @Mock
     private TagRepository tagRepository;
 
+    @Mock
+    private ApplicationEventPublisher eventPublisher;
+
+    @Mock
+    private UserRepository userRepository;
+
+    @Mock
+    private CallerIdentityService callerIdentityService;
+
+    @Mock
+    private TagBitmapIndexService tagBitmapIndexService;
+
+    @Mock
+    private TagSuggestionService tagSuggestionService;
+
+    @Mock
+    private TagDictionaryService tagDictionaryService;
+
     @InjectMocks
     private DocumentTagServiceImpl documentTagService;
 
@@ -55,18 +88,16 @@ public class DocumentTagServiceImplTest {
     @Order(1)
     @DisplayName("测试1：addTags - 成功添加标签")
     void addTags_Success() {
+        Document reloaded = Document.builder().id(100L).tags(new HashSet<>(Set.of(mockTag1, mockTag2))).build();
         when(documentRepository.findById(100L)).thenReturn(Optional.of(mockDocument));
-        when(tagRepository.findByTag("AI")).thenReturn(Optional.of(mockTag1));
-        when(tagRepository.findByTag("ML")).thenReturn(Optional.of(mockTag2));
-        when(documentRepository.save(Mockito.<Document>any()))
-                .thenAnswer(invocation -> invocation.getArgument(0, Document.class));
-
+        when(tagDictionaryService.resolveIds(Set.of("AI", "ML"))).thenReturn(resolved("AI", 1L, "ML", 2L));
+        when(documentRepository.findWithTagsById(100L)).thenReturn(Optional.of(reloaded));
 
         Document result = documentTagService.addTags(100L, List.of("AI", "ML"), "user-123");
 
         assertThat(result.getTags()).hasSize(2);
-        verify(documentRepository).save(Mockito.<Document>any());
-        verify(tagRepository, times(2)).findByTag(anyString());
+        verify(documentRepository).insertTagLinks(eq(100L), argThat(ids -> ids.size() == 2 && ids.containsAll(List.of(1L, 2L))));
+        verifyNoInteractions(tagRepository);
     }
 
     @Test
@@ -127,15 +158,17 @@ public class DocumentTagServiceImplTest {
     @DisplayName("测试20：replaceTags - 成功替换标签")
     void replaceTags_Success() {
         mockDocument.getTags().add(mockTag1);
+        Document reloaded = Document.builder().id(100L).tags(new HashSet<>(Set.of(mockTag2))).build();
 
         when(documentRepository.findById(100L)).thenReturn(Optional.of(mockDocument));
-        when(tagRepository.findByTag("ML")).thenReturn(Optional.of(mockTag2));
-        when(documentRepository.save(Mockito.<Document>any())).thenAnswer(inv -> inv.getArgument(0));
+        when(tagDictionaryService.resolveIds(Set.of("ML"))).thenReturn(resolved("ML", 2L));
+        when(documentRepository.findWithTagsById(100L)).thenReturn(Optional.of(reloaded));
 
         Document result = documentTagService.replaceTags(100L, List.of("ML"), "user-123");
 
         assertThat(result.getTags()).containsExactly(mockTag2);
-        verify(documentRepository,times(2)).save(Mockito.<Document>any());
+        assertThat(mockDocument.getTags()).isEmpty();
+        verify(documentRepository).insertTagLinks(eq(100L), argThat(ids -> ids.size() == 1 && ids.contains(2L)));
     }
 
     @Test
@@ -204,64 +237,140 @@ public class DocumentTagServiceImplTest {
     // ==================== convertStringsToTags ====================
     @Test
     @Order(50)
-    @DisplayName("测试50：convertStringsToTags - 成功创建新标签")
-    void convertStringsToTags_Success() {
-        when(tagRepository.findByTag("AI")).thenReturn(Optional.empty());
-        when(tagRepository.save(Mockito.<Tag>any()))
-                .thenAnswer(inv -> {
-                    Tag t = inv.getArgument(0);
-                    t.setId(1L);
-                    return t;
-                });
+    @DisplayName("测试50：normalizeTagNames - 移除特殊字符与首尾连接符")
+    void normalizeTagNames_StripsSpecialCharacters() {
+        Set<String> names = DocumentTagServiceImpl.normalizeTagNames(List.of(" #AI! ", "_ML-", "机器_学习"));
+        assertThat(names).containsExactly("AI", "ML", "机器_学习");
+    }
 
-        Set<Tag> tags = documentTagService.convertStringsToTags(List.of("AI"));
-        assertThat(tags).hasSize(1);
-        assertThat(tags.iterator().next().getTag()).isEqualTo("AI");
+    @Test
+    @Order(51)
+    @DisplayName("测试51：normalizeTagNames - 空输入返回空集合")
+    void normalizeTagNames_EmptyInput() {
+        assertThat(DocumentTagServiceImpl.normalizeTagNames(Collections.emptyList())).isEmpty();
+    }
+
+    @Test
+    @Order(52)
+    @DisplayName("测试52：normalizeTagNames - 去重并保持输入顺序")
+    void normalizeTagNames_DeduplicatesInOrder() {
+        Set<String> names = DocumentTagServiceImpl.normalizeTagNames(List.of("ML", "AI", "ML", "#AI"));
+        assertThat(names).containsExactly("ML", "AI");
+    }
 
+    @Test
+    @Order(53)
+    @DisplayName("测试53：normalizeTagNames - 忽略空或null标签")
+    void normalizeTagNames_SkipNullAndBlankTags() {
+        Set<String> names = DocumentTagServiceImpl.normalizeTagNames(Arrays.asList("AI", " ", null, "!!"));
+        assertThat(names).containsExactly("AI");
+    }
 
-        verify(tagRepository).save(Mockito.<Tag>any());
+    @Test
+    @Order(54)
+    @DisplayName("测试54：normalizeTagNames - 输入为null时返回空集合")
+    void normalizeTagNames_NullInput_ShouldReturnEmpty() {
+        assertThat(DocumentTagServiceImpl.normalizeTagNames(null)).isEmpty();
+    }
 
+    @Test
+    @Order(60)
+    @DisplayName("测试60：addTags - 仅发布新增的标签变更事件")
+    void addTags_PublishesOnlyNewlyAddedTags() {
+        mockDocument.getTags().add(mockTag1);
+        Document reloaded = Document.builder().id(100L).uploadedBy(User.builder().id(7L).build())
+                .tags(new HashSet<>(Set.of(mockTag1, mockTag2))).build();
+        when(documentRepository.findById(100L)).thenReturn(Optional.of(mockDocument));
+        when(tagDictionaryService.resolveIds(Set.of("AI", "ML"))).thenReturn(resolved("AI", 1L, "ML", 2L));
+        when(documentRepository.findWithTagsById(100L)).thenReturn(Optional.of(reloaded));
+
+        documentTagService.addTags(100L, List.of("AI", "ML"), "user-123");
+
+        verify(documentRepository).insertTagLinks(eq(100L), argThat(ids -> ids.size() == 1 && ids.contains(2L)));
+        ArgumentCaptor<ApplicationEvent> events = ArgumentCaptor.forClass(ApplicationEvent.class);
+        verify(eventPublisher, times(2)).publishEvent(events.capture());
+        assertThat(events.getAllValues()).filteredOn(DocumentTagsChangedEvent.class::isInstance)
+                .singleElement()
+                .satisfies(e -> {
+                    DocumentTagsChangedEvent event = (DocumentTagsChangedEvent) e;
+                    assertThat(event.getOwnerId()).isEqualTo(7L);
+                    assertThat(event.getAddedTags()).containsExactly("ML");
+                    assertThat(event.getRemovedTags()).isEmpty();
+                });
     }
 
     @Test
-    @Order(51)
-    @DisplayName("测试51：convertStringsToTags - 空输入返回空集合")
-    void convertStringsToTags_EmptyInput() {
-        Set<Tag> tags = documentTagService.convertStringsToTags(Collections.emptyList());
-        assertThat(tags).isEmpty();
+    @Order(61)
+    @DisplayName("测试61：queryByTagExpression - 按索引结果顺序返回文档")
+    void queryByTagExpression_Success() {
+        Pageable pageable = PageRequest.of(0, 20);
+        Document other = Document.builder().id(101L).originalFilename("b.pdf").tags(new HashSet<>()).build();
+        when(userRepository.findByKcUserId("user-123")).thenReturn(Optional.of(User.builder().id(7L).build()));
+        when(tagBitmapIndexService.query(7L, "AI AND NOT ML", pageable))
+                .thenReturn(new PageImpl<>(List.of(101L, 100L), pageable, 2));
+        when(documentRepository.findByIdIn(List.of(101L, 100L))).thenReturn(List.of(mockDocument, other));
+
+        Page<Document> result = documentTagService.queryByTagExpression("AI AND NOT ML", "user-123", pageable);
+
+        assertThat(result.getContent()).extracting(Document::getId).containsExactly(101L, 100L);
+        assertThat(result.getTotalElements()).isEqualTo(2);
     }
 
     @Test
-    @Order(52)
-    @DisplayName("测试52：convertStringsToTags - 已存在标签应直接返回数据库记录")
-    void convertStringsToTags_ExistingTag() {
-        when(tagRepository.findByTag("AI")).thenReturn(Optional.of(mockTag1));
+    @Order(62)
+    @DisplayName("测试62：queryByTagExpression - 无匹配时不查询文档")
+    void queryByTagExpression_Empty() {
+        Pageable pageable = PageRequest.of(0, 20);
+        when(userRepository.findByKcUserId("user-123")).thenReturn(Optional.of(User.builder().id(7L).build()));
+        when(tagBitmapIndexService.query(7L, "AI", pageable)).thenReturn(Page.empty(pageable));
 
-        Set<Tag> tags = documentTagService.convertStringsToTags(List.of("AI"));
+        Page<Document> result = documentTagService.queryByTagExpression("AI", "user-123", pageable);
 
-        assertThat(tags).containsExactly(mockTag1);
-        verify(tagRepository, never()).save(Mockito.<Tag>any());
+        assertThat(result).isEmpty();
+        verify(documentRepository, never()).findByIdIn(Mockito.anyCollection());
     }
 
     @Test
-    @Order(53)
-    @DisplayName("测试53：convertStringsToTags - 忽略空或null标签")
-    void convertStringsToTags_SkipNullAndBlankTags() {
-        when(tagRepository.findByTag(anyString())).thenReturn(Optional.of(mockTag1));
+    @Order(63)
+    @DisplayName("测试63：suggestTags - 按当前用户查询补全索引")
+    void suggestTags_UsesOwnerId() {
+        List<TagSuggestionResponse> suggestions = List.of(TagSuggestionResponse.builder().tag("AI").ownerCount(2).build());
+        when(userRepository.findByKcUserId("user-123")).thenReturn(Optional.of(User.builder().id(7L).build()));
+        when(tagSuggestionService.suggest(7L, "a", 10)).thenReturn(suggestions);
+
+        assertThat(documentTagService.suggestTags("a", 10, "user-123")).isEqualTo(suggestions);
+    }
 
-        Set<Tag> tags = documentTagService.convertStringsToTags(Arrays.asList("AI", " ", null));
+    @Test
+    @Order(64)
+    @DisplayName("测试64：suggestTags - 用户不存在")
+    void suggestTags_UserNotFound() {
+        when(userRepository.findByKcUserId("ghost")).thenReturn(Optional.empty());
 
-        assertThat(tags).hasSize(1).contains(mockTag1);
-        verify(tagRepository, times(1)).findByTag("AI");
+        assertThrows(EntityNotFoundException.class, () -> documentTagService.suggestTags("a", 10, "ghost"));
+        verifyNoInteractions(tagSuggestionService);
     }
 
     @Test
-    @Order(54)
-    @DisplayName("测试54：convertStringsToTags - 输入为null时返回空集合")
-    void convertStringsToTags_NullInput_ShouldReturnEmpty() {
-        Set<Tag> tags = documentTagService.convertStringsToTags(null);
-        assertThat(tags).isEmpty();
-    }
+    @Order(65)
+    @DisplayName("测试65：addTags - 标签均已关联时不写库、不发布事件")
+    void addTags_AllAlreadyLinked_NoWrites() {
+        mockDocument.getTags().add(mockTag1);
+        when(documentRepository.findById(100L)).thenReturn(Optional.of(mockDocument));
+        when(tagDictionaryService.resolveIds(Set.of("AI"))).thenReturn(resolved("AI", 1L));
 
+        Document result = documentTagService.addTags(100L, List.of("AI"), "user-123");
 
+        assertThat(result).isSameAs(mockDocument);
+        verify(documentRepository, never()).insertTagLinks(anyLong(), anyCollection());
+        verifyNoInteractions(eventPublisher);
+    }
+
+    private static Map<String, Long> resolved(Object... nameIdPairs) {
+        Map<String, Long> map = new LinkedHashMap<>();
+        for (int i = 0; i < nameIdPairs.length; i += 2) {
+            map.put((String) nameIdPairs[i], (Long) nameIdPairs[i + 1]);
+        }
+        return map;
+    }
 }
@@ -0,0 +1,93 @@
+package com.ntdoc.notangdoccore.service.impl;
+
+import com.ntdoc.notangdoccore.config.TrashProperties;
+import com.ntdoc.notangdoccore.repository.DocumentRepository;
+import com.ntdoc.notangdoccore.repository.DocumentVersionRepository;
+import com.ntdoc.notangdoccore.repository.UserStorageSummaryRepository;
+import com.ntdoc.notangdoccore.service.FileStorageService;
+import org.junit.jupiter.api.*;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InOrder;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+@TestMethodOrder(MethodOrderer.OrderAnnotation.class)
+@DisplayName("DocumentTrashServiceImpl服务测试")
+public class DocumentTrashServiceImplTest {
+
+    @Mock
+    private DocumentRepository documentRepository;
+    @Mock
+    private DocumentVersionRepository versionRepository;
+    @Mock
+    private UserStorageSummaryRepository summaryRepository;
+    @Mock
+    private FileStorageService fileStorageService;
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    private DocumentTrashServiceImpl trashService;
+
+    @BeforeEach
+    void setUp() {
+        TrashProperties props = new TrashProperties();
+        props.setRetention(Duration.ofDays(30));
+        props.setPurgeBatchSize(2);
+        trashService = new DocumentTrashServiceImpl(documentRepository, versionRepository,
+                summaryRepository, fileStorageService, props, transactionManager);
+    }
+
+    @Test
+    @Order(1)
+    @DisplayName("测试1：清理 - 按批删除过期文档，提交后批量删除全部版本的存储对象")
+    void purgeExpired_DeletesInBatches() {
+        when(documentRepository.lockExpiredTrashIds(any(Instant.class), eq(2)))
+                .thenReturn(List.of(1L, 2L))
+                .thenReturn(List.of(3L));
+        when(versionRepository.findBlobKeysByDocumentIdIn(List.of(1L, 2L))).thenReturn(List.of("a-v1", "a-v2", "b-v1"));
+        when(documentRepository.findS3KeysByIdIn(List.of(1L, 2L))).thenReturn(List.of("a-v2", "b-v1"));
+        when(versionRepository.findBlobKeysByDocumentIdIn(List.of(3L))).thenReturn(List.of("c-v1"));
+        when(documentRepository.findS3KeysByIdIn(List.of(3L))).thenReturn(List.of("c-v1"));
+
+        long purged = trashService.purgeExpired();
+
+        assertThat(purged).isEqualTo(3);
+        InOrder inOrder = inOrder(summaryRepository, documentRepository, fileStorageService);
+        inOrder.verify(summaryRepository).releasePurged(List.of(1L, 2L));
+        inOrder.verify(documentRepository).deleteTrashedByIdIn(List.of(1L, 2L));
+        inOrder.verify(fileStorageService).deleteFiles(Set.of("a-v1", "a-v2", "b-v1"));
+        inOrder.verify(summaryRepository).releasePurged(List.of(3L));
+        inOrder.verify(documentRepository).deleteTrashedByIdIn(List.of(3L));
+        inOrder.verify(fileStorageService).deleteFiles(Set.of("c-v1"));
+        // 最后一批不满，不再查询
+        verify(documentRepository, times(2)).lockExpiredTrashIds(any(Instant.class), eq(2));
+    }
+
+    @Test
+    @Order(2)
+    @DisplayName("测试2：清理 - 截止时间为当前时间减去保留期")
+    void purgeExpired_UsesRetentionCutoff() {
+        when(documentRepository.lockExpiredTrashIds(any(Instant.class), anyInt())).thenReturn(List.of());
+
+        Instant before = Instant.now().minus(Duration.ofDays(30));
+        long purged = trashService.purgeExpired();
+
+        assertThat(purged).isZero();
+        verify(documentRepository).lockExpiredTrashIds(
+                argThat(cutoff -> !cutoff.isBefore(before) && cutoff.isBefore(Instant.now().minus(Duration.ofDays(29)))),
+                eq(2));
+        verifyNoInteractions(summaryRepository, fileStorageService);
+        verify(documentRepository, never()).deleteTrashedByIdIn(any());
+    }
+}
@@ -0,0 +1,243 @@
+package com.ntdoc.notangdoccore.service.impl;
+
+import com.ntdoc.notangdoccore.common.ContentHash;
+import com.ntdoc.notangdoccore.common.UploadedFiles;
+import com.ntdoc.notangdoccore.dto.document.DocumentVersionResponse;
+import com.ntdoc.notangdoccore.entity.Document;
+import com.ntdoc.notangdoccore.entity.DocumentVersion;
+import com.ntdoc.notangdoccore.entity.User;
+import com.ntdoc.notangdoccore.event.UserOperationEvent;
+import com.ntdoc.notangdoccore.exception.DocumentException;
+import com.ntdoc.notangdoccore.repository.DocumentRepository;
+import com.ntdoc.notangdoccore.repository.DocumentVersionRepository;
+import com.ntdoc.notangdoccore.repository.UserRepository;
+import com.ntdoc.notangdoccore.service.CallerIdentityService;
+import com.ntdoc.notangdoccore.service.FileStorageService;
+import com.ntdoc.notangdoccore.service.StorageSummaryService;
+import org.junit.jupiter.api.*;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.mock.web.MockMultipartFile;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.web.multipart.MultipartFile;
+
+import java.util.List;
+import java.util.Optional;
+
+import static org.assertj.core.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+@TestMethodOrder(MethodOrderer.OrderAnnotation.class)
+@DisplayName("DocumentVersionServiceImpl服务测试")
+public class DocumentVersionServiceImplTest {
+
+    @Mock
+    private DocumentRepository documentRepository;
+    @Mock
+    private DocumentVersionRepository versionRepository;
+    @Mock
+    private UserRepository userRepository;
+    @Mock
+    private CallerIdentityService callerIdentityService;
+    @Mock
+    private FileStorageService fileStorageService;
+    @Mock
+    private StorageSummaryService storageSummaryService;
+    @Mock
+    private ApplicationEventPublisher eventPublisher;
+    @InjectMocks
+    private DocumentVersionServiceImpl versionService;
+
+    private User owner;
+    private Document document;
+    private MockMultipartFile v1File;
+    private MockMultipartFile v2File;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        owner = User.builder().id(1L).kcUserId("kc-123").username("owner").build();
+        v1File = new MockMultipartFile("file", "a.txt", "text/plain", "first".getBytes());
+        v2File = new MockMultipartFile("file", "a.txt", "text/plain", "second!".getBytes());
+        document = Document.builder()
+                .id(10L)
+                .originalFilename("a.txt")
+                .s3Key("kc-123/v1.txt")
+                .fileHash(ContentHash.sha256(v1File))
+                .fileSize(v1File.getSize())
+                .contentType("text/plain")
+                .uploadedBy(owner)
+                .status(Document.DocumentStatus.ACTIVE)
+                .currentVersion(1)
+                .build();
+        lenient().when(userRepository.findByKcUserId("kc-123")).thenReturn(Optional.of(owner));
+    }
+
+    @AfterEach
+    void tearDown() {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+    }
+
+    private DocumentVersion version(int versionNo, MockMultipartFile file, String s3Key) throws Exception {
+        return DocumentVersion.builder()
+                .document(document)
+                .versionNo(versionNo)
+                .fileSize(file.getSize())
+                .contentType(file.getContentType())
+                .fileHash(ContentHash.sha256(file))
+                .s3Key(s3Key)
+                .build();
+    }
+
+    private void versionSaveReturnsArgument() {
+        when(versionRepository.save(any(DocumentVersion.class))).thenAnswer(i -> i.getArgument(0));
+    }
+
+    @Test
+    @Order(1)
+    @DisplayName("测试1：上传新版本 - 新内容写入存储并追加版本")
+    void uploadVersion_NewContentStored() throws Exception {
+        when(documentRepository.lockById(10L)).thenReturn(Optional.of(document));
+        when(versionRepository.findFirstByDocumentIdAndFileHashOrderByVersionNoDesc(eq(10L), anyString()))
+                .thenReturn(Optional.empty());
+        when(fileStorageService.uploadFile(v2File, "kc-123")).thenReturn("kc-123/v2.txt");
+        versionSaveReturnsArgument();
+
+        DocumentVersionResponse response = versionService.uploadVersion(10L, v2File, "kc-123");
+
+        assertThat(response.getVersionNo()).isEqualTo(2);
+        assertThat(response.isCreated()).isTrue();
+        assertThat(response.isCurrent()).isTrue();
+        assertThat(document.getS3Key()).isEqualTo("kc-123/v2.txt");
+        assertThat(document.getCurrentVersion()).isEqualTo(2);
+        verify(storageSummaryService).documentAdded(document);
+        verify(eventPublisher).publishEvent(any(UserOperationEvent.class));
+    }
+
+    @Test
+    @Order(2)
+    @DisplayName("测试2：上传新版本 - 内容未变化时不写存储、不产生新版本")
+    void uploadVersion_UnchangedSkipsStorage() throws Exception {
+        when(documentRepository.lockById(10L)).thenReturn(Optional.of(document));
+        when(versionRepository.findByDocumentIdAndVersionNo(10L, 1))
+                .thenReturn(Optional.of(version(1, v1File, "kc-123/v1.txt")));
+
+        DocumentVersionResponse response = versionService.uploadVersion(10L, v1File, "kc-123");
+
+        assertThat(response.getVersionNo()).isEqualTo(1);
+        assertThat(response.isCreated()).isFalse();
+        verifyNoInteractions(fileStorageService, storageSummaryService, eventPublisher);
+        verify(versionRepository, never()).save(any());
+    }
+
+    @Test
+    @Order(3)
+    @DisplayName("测试3：上传新版本 - 历史中已有相同内容时复用存储对象")
+    void uploadVersion_ReusesBlobFromHistory() throws Exception {
+        document.setS3Key("kc-123/v2.txt");
+        document.setFileHash(ContentHash.sha256(v2File));
+        document.setCurrentVersion(2);
+        when(documentRepository.lockById(10L)).thenReturn(Optional.of(document));
+        when(versionRepository.findFirstByDocumentIdAndFileHashOrderByVersionNoDesc(10L, ContentHash.sha256(v1File)))
+                .thenReturn(Optional.of(version(1, v1File, "kc-123/v1.txt")));
+        versionSaveReturnsArgument();
+
+        DocumentVersionResponse response = versionService.uploadVersion(10L, v1File, "kc-123");
+
+        assertThat(response.getVersionNo()).isEqualTo(3);
+        assertThat(document.getS3Key()).isEqualTo("kc-123/v1.txt");
+        verify(fileStorageService, never()).uploadFile(any(), any());
+    }
+
+    @Test
+    @Order(4)
+    @DisplayName("测试4：恢复版本 - 以旧版本内容追加新版本并记录来源")
+    void restoreVersion_AppendsVersion() throws Exception {
+        document.setS3Key("kc-123/v2.txt");
+        document.setFileHash(ContentHash.sha256(v2File));
+        document.setFileSize(v2File.getSize());
+        document.setCurrentVersion(2);
+        when(documentRepository.lockById(10L)).thenReturn(Optional.of(document));
+        when(versionRepository.findByDocumentIdAndVersionNo(10L, 1))
+                .thenReturn(Optional.of(version(1, v1File, "kc-123/v1.txt")));
+        versionSaveReturnsArgument();
+
+        DocumentVersionResponse response = versionService.restoreVersion(10L, 1, "kc-123");
+
+        assertThat(response.getVersionNo()).isEqualTo(3);
+        assertThat(response.getRestoredFrom()).isEqualTo(1);
+        assertThat(document.getS3Key()).isEqualTo("kc-123/v1.txt");
+        assertThat(document.getFileSize()).isEqualTo(v1File.getSize());
+        verify(fileStorageService, never()).uploadFile(any(), any());
+    }
+
+    @Test
+    @Order(5)
+    @DisplayName("测试5：版本列表 - 非所有者拒绝访问")
+    void getVersions_NotOwnerDenied() {
+        document.setUploadedBy(User.builder().id(2L).build());
+        when(documentRepository.findById(10L)).thenReturn(Optional.of(document));
+
+        assertThatThrownBy(() -> versionService.getVersions(10L, "kc-123"))
+                .isInstanceOf(DocumentException.DocumentAccessDeniedException.class);
+        verify(versionRepository, never()).findByDocumentIdOrderByVersionNoDesc(any());
+    }
+
+    @Test
+    @Order(6)
+    @DisplayName("测试6：版本列表 - 最新在前并标记当前版本")
+    void getVersions_MarksCurrent() throws Exception {
+        document.setCurrentVersion(2);
+        when(documentRepository.findById(10L)).thenReturn(Optional.of(document));
+        when(versionRepository.findByDocumentIdOrderByVersionNoDesc(10L))
+                .thenReturn(List.of(version(2, v2File, "kc-123/v2.txt"), version(1, v1File, "kc-123/v1.txt")));
+
+        List<DocumentVersionResponse> versions = versionService.getVersions(10L, "kc-123");
+
+        assertThat(versions).extracting(DocumentVersionResponse::getVersionNo).containsExactly(2, 1);
+        assertThat(versions).extracting(DocumentVersionResponse::isCurrent).containsExactly(true, false);
+    }
+
+    @Test
+    @Order(7)
+    @DisplayName("测试7：上传新版本 - 事务回滚后删除已写入的存储对象，提交时保留")
+    void uploadVersion_RollbackDeletesStoredContent() {
+        when(documentRepository.lockById(10L)).thenReturn(Optional.of(document));
+        when(versionRepository.findFirstByDocumentIdAndFileHashOrderByVersionNoDesc(eq(10L), anyString()))
+                .thenReturn(Optional.empty());
+        when(fileStorageService.uploadFile(v2File, "kc-123")).thenReturn("kc-123/v2.txt");
+        when(versionRepository.save(any(DocumentVersion.class))).thenThrow(new IllegalStateException("db down"));
+
+        TransactionSynchronizationManager.initSynchronization();
+        assertThatThrownBy(() -> versionService.uploadVersion(10L, v2File, "kc-123"))
+                .isInstanceOf(IllegalStateException.class);
+        List<TransactionSynchronization> synchronizations = TransactionSynchronizationManager.getSynchronizations();
+
+        synchronizations.forEach(sync -> sync.afterCompletion(TransactionSynchronization.STATUS_COMMITTED));
+        verify(fileStorageService, never()).deleteFile(any());
+
+        synchronizations.forEach(sync -> sync.afterCompletion(TransactionSynchronization.STATUS_ROLLED_BACK));
+        verify(fileStorageService).deleteFile("kc-123/v2.txt");
+    }
+
+    @Test
+    @Order(8)
+    @DisplayName("测试8：上传新版本 - 超过大小上限时拒绝，不锁文档也不写存储")
+    void uploadVersion_FileTooLarge() {
+        MultipartFile largeFile = mock(MultipartFile.class);
+        when(largeFile.isEmpty()).thenReturn(false);
+        when(largeFile.getSize()).thenReturn(UploadedFiles.MAX_SIZE + 1);
+
+        assertThatThrownBy(() -> versionService.uploadVersion(10L, largeFile, "kc-123"))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessageContaining("文件大小不能超过100MB");
+        verifyNoInteractions(documentRepository, fileStorageService);
+    }
+}
@@ -0,0 +1,165 @@
+package com.ntdoc.notangdoccore.service.impl;
+
+import com.ntdoc.notangdoccore.config.RecentDocumentsProperties;
+import com.ntdoc.notangdoccore.dto.document.RecentDocumentResponse;
+import com.ntdoc.notangdoccore.entity.Log;
+import com.ntdoc.notangdoccore.entity.User;
+import com.ntdoc.notangdoccore.entity.logenum.OperationStatus;
+import com.ntdoc.notangdoccore.entity.logenum.OperationType;
+import com.ntdoc.notangdoccore.repository.LogRepository;
+import com.ntdoc.notangdoccore.repository.UserRepository;
+import com.ntdoc.notangdoccore.service.CallerIdentityService;
+import org.junit.jupiter.api.*;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.domain.Pageable;
+
+import java.time.Instant;
+import java.util.List;
+import java.util.Optional;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+@TestMethodOrder(MethodOrderer.OrderAnnotation.class)
+@DisplayName("InMemoryRecentDocumentService服务测试")
+public class InMemoryRecentDocumentServiceTest {
+
+    @Mock
+    private LogRepository logRepository;
+    @Mock
+    private UserRepository userRepository;
+
+    @Mock
+    private CallerIdentityService callerIdentityService;
+
+    private InMemoryRecentDocumentService recentService;
+    private final Instant now = Instant.parse("2025-10-01T10:00:00Z");
+
+    @BeforeEach
+    void setUp() {
+        RecentDocumentsProperties properties = new RecentDocumentsProperties();
+        properties.setCapacity(3);
+        recentService = new InMemoryRecentDocumentService(logRepository, userRepository, callerIdentityService, properties);
+    }
+
+    private void logsAre(Log... logs) {
+        when(logRepository.findRecentDocumentOperations(eq(1L), eq(OperationStatus.SUCCESS), anyCollection(), any(Pageable.class)))
+                .thenReturn(List.of(logs));
+    }
+
+    private Log log(Long documentId, OperationType type, int minutesAgo) {
+        return Log.builder()
+                .userId(1L)
+                .targetId(documentId)
+                .targetName("doc-" + documentId)
+                .operationType(type)
+                .operationStatus(OperationStatus.SUCCESS)
+                .time(now.minusSeconds(minutesAgo * 60L))
+                .build();
+    }
+
+    private void use(Long documentId, OperationType type, int minutesAgo) {
+        recentService.documentUsed(1L, documentId, "doc-" + documentId, type, now.minusSeconds(minutesAgo * 60L));
+    }
+
+    private List<Long> recentIds(int limit) {
+        return recentService.recentDocuments(1L, limit).stream().map(RecentDocumentResponse::getDocumentId).toList();
+    }
+
+    @Test
+    @Order(1)
+    @DisplayName("测试1：最新在前，同一文档去重")
+    void recent_MostRecentFirstAndDeduplicated() {
+        logsAre();
+        use(1L, OperationType.UPLOAD_DOCUMENT, 3);
+        use(2L, OperationType.UPLOAD_DOCUMENT, 2);
+        use(1L, OperationType.DOWNLOAD_DOCUMENT, 1);
+
+        List<RecentDocumentResponse> recent = recentService.recentDocuments(1L, 10);
+
+        assertThat(recent).extracting(RecentDocumentResponse::getDocumentId).containsExactly(1L, 2L);
+        assertThat(recent.get(0).getLastOperation()).isEqualTo(OperationType.DOWNLOAD_DOCUMENT);
+    }
+
+    @Test
+    @Order(2)
+    @DisplayName("测试2：超出容量时淘汰最旧的记录")
+    void recent_BoundedByCapacity() {
+        logsAre();
+        for (long id = 1; id <= 5; id++) {
+            use(id, OperationType.UPLOAD_DOCUMENT, (int) (10 - id));
+        }
+
+        assertThat(recentIds(10)).containsExactly(5L, 4L, 3L);
+        assertThat(recentIds(2)).containsExactly(5L, 4L);
+    }
+
+    @Test
+    @Order(3)
+    @DisplayName("测试3：首次查询从日志表懒加载，之后不再访问数据库")
+    void recent_LazilyRebuiltFromLog() {
+        logsAre(log(2L, OperationType.DOWNLOAD_DOCUMENT, 1),
+                log(1L, OperationType.UPLOAD_DOCUMENT, 2),
+                log(2L, OperationType.UPLOAD_DOCUMENT, 3));
+
+        assertThat(recentIds(10)).containsExactly(2L, 1L);
+        assertThat(recentIds(10)).containsExactly(2L, 1L);
+        verify(logRepository, times(1)).findRecentDocumentOperations(any(), any(), anyCollection(), any(Pageable.class));
+    }
+
+    @Test
+    @Order(4)
+    @DisplayName("测试4：日志中最新一条为删除的文档不恢复")
+    void recent_RebuildSkipsDeletedDocuments() {
+        logsAre(log(1L, OperationType.DELETE_DOCUMENT, 1),
+                log(1L, OperationType.UPLOAD_DOCUMENT, 5),
+                log(2L, OperationType.UPLOAD_DOCUMENT, 6));
+
+        assertThat(recentIds(10)).containsExactly(2L);
+    }
+
+    @Test
+    @Order(5)
+    @DisplayName("测试5：加载前收到的事件与日志合并，加载前的删除不被日志恢复")
+    void recent_MergesEventsReceivedBeforeLoad() {
+        use(3L, OperationType.UPLOAD_DOCUMENT, 0);
+        recentService.documentDeleted(1L, 2L);
+        // 日志异步写入，尚未包含上面两条事件
+        logsAre(log(2L, OperationType.UPLOAD_DOCUMENT, 5),
+                log(1L, OperationType.UPLOAD_DOCUMENT, 6));
+
+        assertThat(recentIds(10)).containsExactly(3L, 1L);
+    }
+
+    @Test
+    @Order(6)
+    @DisplayName("测试6：删除后移出列表")
+    void documentDeleted_RemovesFromRing() {
+        logsAre();
+        use(1L, OperationType.UPLOAD_DOCUMENT, 2);
+        use(2L, OperationType.UPLOAD_DOCUMENT, 1);
+        recentIds(10);
+
+        recentService.documentDeleted(1L, 2L);
+
+        assertThat(recentIds(10)).containsExactly(1L);
+    }
+
+    @Test
+    @Order(7)
+    @DisplayName("测试7：按 Keycloak 用户查询，用户不存在返回空列表")
+    void getRecentDocuments_ResolvesUser() {
+        logsAre();
+        use(1L, OperationType.UPLOAD_DOCUMENT, 1);
+        when(userRepository.findByKcUserId("kc-1")).thenReturn(Optional.of(User.builder().id(1L).kcUserId("kc-1").build()));
+        when(userRepository.findByKcUserId("missing")).thenReturn(Optional.empty());
+
+        assertThat(recentService.getRecentDocuments("kc-1", 10)).extracting(RecentDocumentResponse::getDocumentId)
+                .containsExactly(1L);
+        assertThat(recentService.getRecentDocuments("missing", 10)).isEmpty();
+    }
+}
@@ -0,0 +1,123 @@
+package com.ntdoc.notangdoccore.service.impl;
+
+import com.ntdoc.notangdoccore.entity.User;
+import com.ntdoc.notangdoccore.repository.UserRepository;
+import com.ntdoc.notangdoccore.service.CallerIdentityService;
+import com.ntdoc.notangdoccore.service.ResourceVersionService.Scope;
+import org.junit.jupiter.api.*;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.Arrays;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Optional;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+@TestMethodOrder(MethodOrderer.OrderAnnotation.class)
+@DisplayName("InMemoryResourceVersionService服务测试")
+public class InMemoryResourceVersionServiceTest {
+
+    @Mock
+    private UserRepository userRepository;
+
+    @Mock
+    private CallerIdentityService callerIdentityService;
+
+    private InMemoryResourceVersionService versionService;
+
+    @BeforeEach
+    void setUp() {
+        versionService = new InMemoryResourceVersionService(userRepository, callerIdentityService);
+    }
+
+    @AfterEach
+    void tearDown() {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+    }
+
+    @Test
+    @Order(1)
+    @DisplayName("测试1：递增后 ETag 变化，其他资源不受影响")
+    void bump_ChangesOnlyThatResource() {
+        String docs1 = versionService.etag(Scope.DOCUMENTS, 1L);
+        String docs2 = versionService.etag(Scope.DOCUMENTS, 2L);
+        String teams1 = versionService.etag(Scope.TEAMS, 1L);
+
+        versionService.bump(Scope.DOCUMENTS, 1L);
+
+        assertThat(versionService.etag(Scope.DOCUMENTS, 1L)).isNotEqualTo(docs1);
+        assertThat(versionService.etag(Scope.DOCUMENTS, 2L)).isEqualTo(docs2);
+        assertThat(versionService.etag(Scope.TEAMS, 1L)).isEqualTo(teams1);
+    }
+
+    @Test
+    @Order(2)
+    @DisplayName("测试2：查询参数不同，ETag 不同")
+    void etag_DependsOnVariant() {
+        assertThat(versionService.etag(Scope.TEAMS, 1L, true))
+                .isNotEqualTo(versionService.etag(Scope.TEAMS, 1L, false));
+        assertThat(versionService.etag(Scope.COMMENTS, 10L, null, "kc-1"))
+                .isEqualTo(versionService.etag(Scope.COMMENTS, 10L, null, "kc-1"));
+    }
+
+    @Test
+    @Order(3)
+    @DisplayName("测试3：事务中递增要等到提交后")
+    void bumpAfterCommit_DeferredUntilCommit() {
+        String before = versionService.etag(Scope.COMMENTS, 10L);
+        TransactionSynchronizationManager.initSynchronization();
+
+        versionService.bumpAfterCommit(Scope.COMMENTS, 10L);
+        assertThat(versionService.etag(Scope.COMMENTS, 10L)).isEqualTo(before);
+
+        TransactionSynchronizationManager.getSynchronizations().forEach(TransactionSynchronization::afterCommit);
+        assertThat(versionService.etag(Scope.COMMENTS, 10L)).isNotEqualTo(before);
+    }
+
+    @Test
+    @Order(4)
+    @DisplayName("测试4：按 Keycloak 用户生成 ETag，用户不存在返回 null")
+    void userEtag_ResolvesUser() {
+        when(userRepository.findByKcUserId("kc-1")).thenReturn(Optional.of(User.builder().id(1L).build()));
+        when(userRepository.findByKcUserId("missing")).thenReturn(Optional.empty());
+
+        assertThat(versionService.userEtag(Scope.LOGS, "kc-1")).isEqualTo(versionService.etag(Scope.LOGS, 1L));
+        assertThat(versionService.userEtag(Scope.LOGS, "missing")).isNull();
+    }
+
+    @Test
+    @Order(5)
+    @DisplayName("测试5：当前调用者直接使用已解析的身份，不按 Keycloak ID 查询")
+    void userEtag_UsesResolvedCaller() {
+        when(callerIdentityService.findCaller("kc-1")).thenReturn(Optional.of(User.builder().id(1L).build()));
+
+        assertThat(versionService.userEtag(Scope.LOGS, "kc-1")).isEqualTo(versionService.etag(Scope.LOGS, 1L));
+        verify(userRepository, never()).findByKcUserId(any());
+    }
+
+    @Test
+    @Order(6)
+    @DisplayName("测试6：参数组合按值编码，散列值相同的组合 ETag 不同，集合与顺序无关")
+    void etag_VariantHasNoHashCollisions() {
+        // Arrays.hashCode 对 (1, 20) 与 (0, 51) 相同
+        assertThat(Arrays.hashCode(new Object[]{1, 20})).isEqualTo(Arrays.hashCode(new Object[]{0, 51}));
+        assertThat(versionService.etag(Scope.DOCUMENTS, 1L, 1, 20))
+                .isNotEqualTo(versionService.etag(Scope.DOCUMENTS, 1L, 0, 51));
+        assertThat(versionService.etag(Scope.DOCUMENTS, 1L, "ab", "c"))
+                .isNotEqualTo(versionService.etag(Scope.DOCUMENTS, 1L, "a", "bc"));
+        assertThat(versionService.etag(Scope.DOCUMENTS, 1L, null, "x"))
+                .isNotEqualTo(versionService.etag(Scope.DOCUMENTS, 1L, "null", "x"));
+        assertThat(versionService.etag(Scope.DOCUMENTS, 1L, new LinkedHashSet<>(List.of("id", "tags"))))
+                .isEqualTo(versionService.etag(Scope.DOCUMENTS, 1L, new LinkedHashSet<>(List.of("tags", "id"))));
+    }
+}
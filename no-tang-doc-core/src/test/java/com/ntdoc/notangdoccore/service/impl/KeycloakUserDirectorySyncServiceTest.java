@@ -0,0 +1,141 @@
+package com.ntdoc.notangdoccore.service.impl;
+
+import com.ntdoc.notangdoccore.config.UserSyncProperties;
+import com.ntdoc.notangdoccore.entity.User;
+import com.ntdoc.notangdoccore.entity.UserSyncState;
+import com.ntdoc.notangdoccore.keycloak.KeycloakAdminService;
+import com.ntdoc.notangdoccore.repository.UserRepository;
+import com.ntdoc.notangdoccore.repository.UserSyncStateRepository;
+import com.ntdoc.notangdoccore.service.CallerIdentityService;
+import org.junit.jupiter.api.*;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.keycloak.representations.idm.UserRepresentation;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.time.*;
+import java.util.List;
+import java.util.Optional;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+@TestMethodOrder(MethodOrderer.OrderAnnotation.class)
+@DisplayName("KeycloakUserDirectorySyncService服务测试")
+public class KeycloakUserDirectorySyncServiceTest {
+
+    @Mock
+    private KeycloakAdminService keycloakAdminService;
+    @Mock
+    private UserRepository userRepository;
+    @Mock
+    private UserSyncStateRepository stateRepository;
+    @Mock
+    private CallerIdentityService callerIdentityService;
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    private UserSyncProperties props;
+    private KeycloakUserDirectorySyncService syncService;
+    private final Clock clock = Clock.fixed(Instant.parse("2025-01-01T00:00:00Z"), ZoneOffset.UTC);
+
+    @BeforeEach
+    void setUp() {
+        props = new UserSyncProperties();
+        props.setPageSize(2);
+        props.setPageDelay(Duration.ZERO);
+        props.setMaxPagesPerRun(10);
+        syncService = new KeycloakUserDirectorySyncService(keycloakAdminService, userRepository, stateRepository,
+                callerIdentityService, props, transactionManager, clock);
+    }
+
+    private static UserRepresentation rep(String id, String username, String email) {
+        UserRepresentation rep = new UserRepresentation();
+        rep.setId(id);
+        rep.setUsername(username);
+        rep.setEmail(email);
+        return rep;
+    }
+
+    @Test
+    @Order(1)
+    @DisplayName("测试1：首轮分页创建全部用户，完成后进度归零")
+    void syncUsers_FirstRunCreatesAll() {
+        when(stateRepository.findById("keycloak")).thenReturn(Optional.empty());
+        when(keycloakAdminService.listUsers(0, 2))
+                .thenReturn(List.of(rep("kc-1", "alice", "a@x.com"), rep("kc-2", "bob", "b@x.com")));
+        when(keycloakAdminService.listUsers(2, 2)).thenReturn(List.of(rep("kc-3", "carol", null)));
+
+        int written = syncService.syncUsers();
+
+        assertThat(written).isEqualTo(3);
+        verify(userRepository, times(2)).saveAll(anyList());
+        ArgumentCaptor<UserSyncState> state = ArgumentCaptor.forClass(UserSyncState.class);
+        verify(stateRepository, times(2)).save(state.capture());
+        assertThat(state.getValue().getNextOffset()).isZero();
+        assertThat(state.getValue().getLastCompletedAt()).isEqualTo(clock.instant());
+        verifyNoInteractions(callerIdentityService);
+    }
+
+    @Test
+    @Order(2)
+    @DisplayName("测试2：增量 - 未变化的用户不写入，资料变化的用户更新并清除身份缓存")
+    void syncUsers_WritesOnlyChanges() {
+        User alice = User.builder().id(1L).kcUserId("kc-1").username("alice").email("a@x.com").build();
+        User bob = User.builder().id(2L).kcUserId("kc-2").username("bob").email("old@x.com").build();
+        when(stateRepository.findById("keycloak")).thenReturn(Optional.empty());
+        when(keycloakAdminService.listUsers(0, 2)).thenReturn(List.of(rep("kc-1", "alice", "a@x.com"), rep("kc-2", "bob", "b@x.com")));
+        when(keycloakAdminService.listUsers(2, 2)).thenReturn(List.of());
+        when(userRepository.findByKcUserIdIn(List.of("kc-1", "kc-2"))).thenReturn(List.of(alice, bob));
+
+        int written = syncService.syncUsers();
+
+        assertThat(written).isEqualTo(1);
+        assertThat(bob.getEmail()).isEqualTo("b@x.com");
+        verify(userRepository).saveAll(List.of(bob));
+        verify(callerIdentityService).evict("kc-2");
+        verify(callerIdentityService, never()).evict("kc-1");
+    }
+
+    @Test
+    @Order(3)
+    @DisplayName("测试3：从保存的位置继续，达到单次页数上限时记录下一页位置")
+    void syncUsers_ResumesFromSavedOffset() {
+        props.setMaxPagesPerRun(1);
+        UserSyncState state = UserSyncState.builder().source("keycloak").nextOffset(4)
+                .runStartedAt(clock.instant().minusSeconds(600)).build();
+        when(stateRepository.findById("keycloak")).thenReturn(Optional.of(state));
+        when(keycloakAdminService.listUsers(4, 2)).thenReturn(List.of(rep("kc-5", "eve", null), rep("kc-6", "frank", null)));
+
+        syncService.syncUsers();
+
+        verify(keycloakAdminService, never()).listUsers(eq(0), anyInt());
+        assertThat(state.getNextOffset()).isEqualTo(6);
+        assertThat(state.getRunStartedAt()).isEqualTo(clock.instant().minusSeconds(600));
+        assertThat(state.getLastCompletedAt()).isNull();
+        verify(stateRepository).save(state);
+    }
+
+    @Test
+    @Order(4)
+    @DisplayName("测试4：批量写入冲突时逐个重试，跳过冲突用户")
+    void syncUsers_ConflictFallsBackPerUser() {
+        when(stateRepository.findById("keycloak")).thenReturn(Optional.empty());
+        when(keycloakAdminService.listUsers(0, 2)).thenReturn(List.of(rep("kc-1", "alice", null), rep("kc-2", "taken", null)));
+        when(keycloakAdminService.listUsers(2, 2)).thenReturn(List.of());
+        when(userRepository.saveAll(anyList()))
+                .thenThrow(new DataIntegrityViolationException("uq_app_user_username"))
+                .thenReturn(List.of())
+                .thenThrow(new DataIntegrityViolationException("uq_app_user_username"));
+
+        int written = syncService.syncUsers();
+
+        assertThat(written).isEqualTo(1);
+        verify(userRepository, times(3)).saveAll(anyList());
+    }
+}
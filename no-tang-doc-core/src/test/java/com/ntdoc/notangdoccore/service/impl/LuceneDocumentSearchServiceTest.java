@@ -0,0 +1,195 @@
+package com.ntdoc.notangdoccore.service.impl;
+
+import com.ntdoc.notangdoccore.config.SearchProperties;
+import com.ntdoc.notangdoccore.entity.Document;
+import com.ntdoc.notangdoccore.entity.Tag;
+import com.ntdoc.notangdoccore.entity.User;
+import com.ntdoc.notangdoccore.repository.DocumentRepository;
+import org.junit.jupiter.api.*;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.junit.jupiter.api.io.TempDir;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.domain.Pageable;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.nio.file.Path;
+import java.util.*;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+@TestMethodOrder(MethodOrderer.OrderAnnotation.class)
+@DisplayName("LuceneDocumentSearchService服务测试")
+public class LuceneDocumentSearchServiceTest {
+
+    @Mock
+    private DocumentRepository documentRepository;
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    @TempDir
+    Path indexDir;
+
+    private LuceneDocumentSearchService searchService;
+    private User owner;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        SearchProperties props = new SearchProperties();
+        props.setIndexDir(indexDir.toString());
+        searchService = new LuceneDocumentSearchService(documentRepository, props, transactionManager);
+        searchService.open();
+
+        owner = User.builder().id(1L).kcUserId("kc-123").username("owner").build();
+    }
+
+    @AfterEach
+    void tearDown() {
+        searchService.close();
+    }
+
+    private Document doc(Long id, String name, User user, String... tags) {
+        Set<Tag> tagSet = new LinkedHashSet<>();
+        for (String t : tags) {
+            tagSet.add(Tag.builder().tag(t).documents(new HashSet<>()).build());
+        }
+        return Document.builder()
+                .id(id)
+                .originalFilename(name)
+                .description("quarterly report")
+                .uploadedBy(user)
+                .status(Document.DocumentStatus.ACTIVE)
+                .tags(tagSet)
+                .metadata(new LinkedHashMap<>(Map.of("vendor", "acme")))
+                .build();
+    }
+
+    private void index(Document document) {
+        when(documentRepository.findAllWithTagsAndMetadataByIdIn(List.of(document.getId())))
+                .thenReturn(List.of(document));
+        searchService.indexDocument(document.getId());
+    }
+
+    @Test
+    @Order(1)
+    @DisplayName("测试1：按文件名、标签、元数据检索 - 成功")
+    void search_MatchesAcrossFields() {
+        index(doc(1L, "invoice.pdf", owner, "finance"));
+
+        assertThat(searchService.search(1L, "invoice", 0, 10)).containsExactly(1L);
+        assertThat(searchService.search(1L, "finance", 0, 10)).containsExactly(1L);
+        assertThat(searchService.search(1L, "acme", 0, 10)).containsExactly(1L);
+    }
+
+    @Test
+    @Order(2)
+    @DisplayName("测试2：前缀与模糊匹配 - 成功")
+    void search_PrefixAndFuzzy() {
+        index(doc(1L, "contract.pdf", owner));
+
+        assertThat(searchService.search(1L, "contr", 0, 10)).containsExactly(1L);
+        assertThat(searchService.search(1L, "contarct", 0, 10)).containsExactly(1L);
+    }
+
+    @Test
+    @Order(3)
+    @DisplayName("测试3：只返回当前用户的文档")
+    void search_FiltersByOwner() {
+        User other = User.builder().id(2L).kcUserId("kc-999").username("other").build();
+        index(doc(1L, "contract.pdf", owner));
+        index(doc(2L, "contract.pdf", other));
+
+        assertThat(searchService.search(1L, "contract", 0, 10)).containsExactly(1L);
+        assertThat(searchService.search(2L, "contract", 0, 10)).containsExactly(2L);
+    }
+
+    @Test
+    @Order(4)
+    @DisplayName("测试4：文件名命中排在描述命中之前")
+    void search_RanksNameAboveDescription() {
+        Document byDescription = doc(1L, "notes.pdf", owner);
+        byDescription.setDescription("budget");
+        index(byDescription);
+        index(doc(2L, "budget.xlsx", owner));
+
+        assertThat(searchService.search(1L, "budget", 0, 10)).containsExactly(2L, 1L);
+    }
+
+    @Test
+    @Order(5)
+    @DisplayName("测试5：删除后不再命中")
+    void removeDocument_NoLongerMatches() {
+        index(doc(1L, "contract.pdf", owner));
+
+        searchService.removeDocument(1L);
+
+        assertThat(searchService.search(1L, "contract", 0, 10)).isEmpty();
+    }
+
+    @Test
+    @Order(6)
+    @DisplayName("测试6：全量重建 - 分批加载")
+    void rebuildIndex_LoadsInBatches() {
+        when(documentRepository.findIdsAfter(eq(0L), any(Pageable.class))).thenReturn(List.of(1L, 2L));
+        when(documentRepository.findIdsAfter(eq(2L), any(Pageable.class))).thenReturn(List.of());
+        when(documentRepository.findAllWithTagsAndMetadataByIdIn(List.of(1L, 2L)))
+                .thenReturn(List.of(doc(1L, "a.pdf", owner), doc(2L, "b.pdf", owner)));
+
+        long count = searchService.rebuildIndex();
+
+        assertThat(count).isEqualTo(2);
+        assertThat(searchService.search(1L, "report", 0, 10)).containsExactlyInAnyOrder(1L, 2L);
+    }
+
+    @Test
+    @Order(7)
+    @DisplayName("测试7：空关键字返回空结果")
+    void search_BlankKeyword() {
+        assertThat(searchService.search(1L, "  ", 0, 10)).isEmpty();
+        verifyNoInteractions(documentRepository);
+    }
+
+    @Test
+    @Order(8)
+    @DisplayName("测试8：全量重建 - 已索引的文档不重复，数据库中已不存在的文档被删除")
+    void rebuildIndex_OverwritesAndDeletesStale() {
+        index(doc(1L, "a.pdf", owner));
+        index(doc(9L, "gone.pdf", owner));
+        when(documentRepository.findIdsAfter(eq(0L), any(Pageable.class))).thenReturn(List.of(1L, 2L));
+        when(documentRepository.findIdsAfter(eq(2L), any(Pageable.class))).thenReturn(List.of());
+        when(documentRepository.findAllWithTagsAndMetadataByIdIn(List.of(1L, 2L)))
+                .thenReturn(List.of(doc(1L, "a.pdf", owner), doc(2L, "b.pdf", owner)));
+
+        long count = searchService.rebuildIndex();
+
+        assertThat(count).isEqualTo(2);
+        assertThat(searchService.search(1L, "report", 0, 10)).containsExactlyInAnyOrder(1L, 2L);
+        assertThat(searchService.search(1L, "gone", 0, 10)).isEmpty();
+    }
+
+    @Test
+    @Order(9)
+    @DisplayName("测试9：全量重建 - 批次读取后被删除的文档按重放结果移除，重建期间仍可搜索")
+    void rebuildIndex_ReplaysConcurrentUpdates() {
+        index(doc(3L, "c.pdf", owner));
+        when(documentRepository.findIdsAfter(eq(0L), any(Pageable.class))).thenReturn(List.of(1L, 2L, 3L));
+        when(documentRepository.findIdsAfter(eq(3L), any(Pageable.class))).thenReturn(List.of());
+        when(documentRepository.findAllWithTagsAndMetadataByIdIn(List.of(1L, 2L, 3L))).thenAnswer(inv -> {
+            // 重建期间旧索引仍然可搜索
+            assertThat(searchService.search(1L, "report", 0, 10)).containsExactly(3L);
+            List<Document> read = List.of(doc(1L, "a.pdf", owner), doc(2L, "b.pdf", owner), doc(3L, "c.pdf", owner));
+            // 批次读取之后、写入索引之前，文档 2 被删除
+            searchService.removeDocument(2L);
+            return read;
+        });
+        when(documentRepository.findAllWithTagsAndMetadataByIdIn(List.of(2L))).thenReturn(List.of());
+
+        long count = searchService.rebuildIndex();
+
+        assertThat(count).isEqualTo(2);
+        assertThat(searchService.search(1L, "report", 0, 10)).containsExactlyInAnyOrder(1L, 3L);
+    }
+}
@@ -0,0 +1,165 @@
+package com.ntdoc.notangdoccore.service.impl;
+
+import com.ntdoc.notangdoccore.dto.document.TagSuggestionResponse;
+import com.ntdoc.notangdoccore.entity.Document;
+import com.ntdoc.notangdoccore.repository.TagRepository;
+import org.junit.jupiter.api.*;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+@TestMethodOrder(MethodOrderer.OrderAnnotation.class)
+@DisplayName("PrefixTagSuggestionService服务测试")
+public class PrefixTagSuggestionServiceTest {
+
+    @Mock
+    private TagRepository tagRepository;
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    private PrefixTagSuggestionService index;
+
+    @BeforeEach
+    void setUp() {
+        index = new PrefixTagSuggestionService(tagRepository, transactionManager);
+    }
+
+    private void rebuildWith(Object[]... rows) {
+        List<Object[]> list = new ArrayList<>(List.of(rows));
+        when(tagRepository.countUsageByTagAndOwner(Document.DocumentStatus.DELETED)).thenReturn(list);
+        index.rebuild();
+    }
+
+    private static Object[] row(String tag, Long ownerId, long count) {
+        return new Object[]{tag, ownerId, count};
+    }
+
+    private List<String> suggest(Long ownerId, String prefix, int limit) {
+        return index.suggest(ownerId, prefix, limit).stream().map(TagSuggestionResponse::getTag).toList();
+    }
+
+    @Test
+    @Order(1)
+    @DisplayName("测试1：重建 - 按所有者汇总全局次数")
+    void rebuild_AggregatesGlobalCounts() {
+        rebuildWith(row("contract", 1L, 3), row("contract", 2L, 5), row("unused", null, 0));
+
+        List<TagSuggestionResponse> result = index.suggest(1L, "con", 10);
+
+        assertThat(result).singleElement().satisfies(s -> {
+            assertThat(s.getTag()).isEqualTo("contract");
+            assertThat(s.getOwnerCount()).isEqualTo(3);
+            assertThat(s.getGlobalCount()).isEqualTo(8);
+        });
+        assertThat(suggest(1L, "un", 10)).containsExactly("unused");
+    }
+
+    @Test
+    @Order(2)
+    @DisplayName("测试2：自己用过的标签排在全局热门标签之前")
+    void suggest_OwnerUsageRanksFirst() {
+        rebuildWith(row("report", 2L, 100), row("review", 1L, 1), row("receipt", 2L, 50));
+
+        assertThat(suggest(1L, "re", 10)).containsExactly("review", "report", "receipt");
+        assertThat(suggest(3L, "re", 10)).containsExactly("report", "receipt", "review");
+    }
+
+    @Test
+    @Order(3)
+    @DisplayName("测试3：前缀不区分大小写，limit 截断")
+    void suggest_CaseInsensitiveAndLimited() {
+        rebuildWith(row("Finance", 1L, 2), row("final", 1L, 5), row("fin-2024", 1L, 1), row("other", 1L, 9));
+
+        assertThat(suggest(1L, "FIN", 2)).containsExactly("final", "Finance");
+        assertThat(suggest(1L, "  ", 1)).containsExactly("other");
+    }
+
+    @Test
+    @Order(4)
+    @DisplayName("测试4：增量挂载/移除标签更新次数")
+    void attachAndDetach_UpdateCounts() {
+        rebuildWith();
+
+        index.tagsAttached(10L, 1L, Set.of("alpha", "beta"));
+        index.tagsAttached(11L, 1L, Set.of("alpha"));
+        index.tagsDetached(10L, 1L, Set.of("beta"));
+
+        List<TagSuggestionResponse> result = index.suggest(1L, "", 10);
+        assertThat(result).extracting(TagSuggestionResponse::getTag).containsExactly("alpha", "beta");
+        assertThat(result.get(0).getOwnerCount()).isEqualTo(2);
+        assertThat(result.get(1).getOwnerCount()).isZero();
+        assertThat(result.get(1).getGlobalCount()).isZero();
+    }
+
+    @Test
+    @Order(5)
+    @DisplayName("测试5：移除未登记的标签不会产生负数")
+    void detach_UnknownTagIsClampedToZero() {
+        rebuildWith();
+
+        index.tagsDetached(10L, 1L, Set.of("ghost"));
+
+        assertThat(index.suggest(1L, "gh", 10)).singleElement().satisfies(s -> {
+            assertThat(s.getOwnerCount()).isZero();
+            assertThat(s.getGlobalCount()).isZero();
+        });
+    }
+
+    @Test
+    @Order(6)
+    @DisplayName("测试6：重建期间的增量在切换后保留")
+    void rebuild_ReplaysConcurrentUpdates() {
+        when(tagRepository.countUsageByTagAndOwner(Document.DocumentStatus.DELETED)).thenAnswer(inv -> {
+            index.tagsAttached(10L, 1L, Set.of("late"));
+            return new ArrayList<>(List.<Object[]>of(row("early", 1L, 1)));
+        });
+        when(tagRepository.findTagNamesByDocumentIds(Set.of(10L), Document.DocumentStatus.DELETED))
+                .thenReturn(new ArrayList<>());
+
+        index.rebuild();
+
+        assertThat(suggest(1L, "", 10)).containsExactlyInAnyOrder("early", "late");
+    }
+
+    @Test
+    @Order(7)
+    @DisplayName("测试7：索引未就绪 - 抛出 IllegalStateException")
+    void suggest_NotReady() {
+        assertThatThrownBy(() -> index.suggest(1L, "a", 10))
+                .isInstanceOf(IllegalStateException.class);
+    }
+
+    @Test
+    @Order(8)
+    @DisplayName("测试8：重建期间的变化已包含在快照中时不重复计数")
+    void rebuild_JournalIsIdempotentAgainstSnapshot() {
+        when(tagRepository.countUsageByTagAndOwner(Document.DocumentStatus.DELETED)).thenAnswer(inv -> {
+            // 两个变化都在快照之前提交：doc-10 挂上 early，doc-11 移除 gone
+            index.tagsAttached(10L, 1L, Set.of("early"));
+            index.tagsDetached(11L, 1L, Set.of("gone"));
+            // 快照之后提交：doc-12 挂上 early
+            index.tagsAttached(12L, 1L, Set.of("early"));
+            return new ArrayList<>(List.<Object[]>of(row("early", 1L, 1), row("gone", null, 0)));
+        });
+        when(tagRepository.findTagNamesByDocumentIds(Set.of(10L, 11L, 12L), Document.DocumentStatus.DELETED))
+                .thenReturn(new ArrayList<>(List.<Object[]>of(new Object[]{10L, "early"})));
+
+        index.rebuild();
+
+        List<TagSuggestionResponse> result = index.suggest(1L, "", 10);
+        assertThat(result).extracting(TagSuggestionResponse::getTag).containsExactly("early", "gone");
+        assertThat(result.get(0).getOwnerCount()).isEqualTo(2);
+        assertThat(result.get(0).getGlobalCount()).isEqualTo(2);
+        assertThat(result.get(1).getGlobalCount()).isZero();
+    }
+}
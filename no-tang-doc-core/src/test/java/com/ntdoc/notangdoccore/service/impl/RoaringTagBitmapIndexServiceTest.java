@@ -0,0 +1,145 @@
+package com.ntdoc.notangdoccore.service.impl;
+
+import com.ntdoc.notangdoccore.entity.Document;
+import com.ntdoc.notangdoccore.repository.DocumentRepository;
+import org.junit.jupiter.api.*;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.util.List;
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+@TestMethodOrder(MethodOrderer.OrderAnnotation.class)
+@DisplayName("RoaringTagBitmapIndexService服务测试")
+public class RoaringTagBitmapIndexServiceTest {
+
+    @Mock
+    private DocumentRepository documentRepository;
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    private RoaringTagBitmapIndexService index;
+
+    @BeforeEach
+    void setUp() {
+        index = new RoaringTagBitmapIndexService(documentRepository, transactionManager);
+        when(documentRepository.findIdAndOwnerAfter(eq(0L), eq(Document.DocumentStatus.DELETED), any(Pageable.class)))
+                .thenReturn(List.of());
+        index.rebuild();
+
+        index.addTags(1L, 1L, Set.of("contract", "2024"));
+        index.addTags(1L, 2L, Set.of("contract", "2024", "draft"));
+        index.addTags(1L, 3L, Set.of("contract", "2023"));
+        index.addTags(1L, 4L, Set.of("invoice"));
+        index.addTags(2L, 5L, Set.of("contract", "2024"));
+    }
+
+    private List<Long> query(String expression) {
+        return index.query(1L, expression, PageRequest.of(0, 50)).getContent();
+    }
+
+    @Test
+    @Order(1)
+    @DisplayName("测试1：AND / NOT 组合 - 按ID倒序返回")
+    void query_AndNot() {
+        assertThat(query("contract AND 2024 AND NOT draft")).containsExactly(1L);
+        assertThat(query("contract AND 2024")).containsExactly(2L, 1L);
+    }
+
+    @Test
+    @Order(2)
+    @DisplayName("测试2：OR、括号与隐式 AND")
+    void query_OrParenthesesAndImplicitAnd() {
+        assertThat(query("invoice OR (contract 2023)")).containsExactly(4L, 3L);
+        assertThat(query("NOT contract")).containsExactly(4L);
+        assertThat(query("2023 or 2024 and not draft")).containsExactly(3L, 1L);
+    }
+
+    @Test
+    @Order(3)
+    @DisplayName("测试3：按所有者隔离")
+    void query_PartitionedByOwner() {
+        assertThat(index.query(2L, "contract", PageRequest.of(0, 10)).getContent()).containsExactly(5L);
+        assertThat(index.query(3L, "contract", PageRequest.of(0, 10)).getContent()).isEmpty();
+    }
+
+    @Test
+    @Order(4)
+    @DisplayName("测试4：分页 - 返回总数与指定页")
+    void query_Paginated() {
+        Page<Long> page = index.query(1L, "contract", PageRequest.of(1, 2));
+
+        assertThat(page.getTotalElements()).isEqualTo(3);
+        assertThat(page.getContent()).containsExactly(1L);
+    }
+
+    @Test
+    @Order(5)
+    @DisplayName("测试5：增量移除标签与文档")
+    void removeTagsAndDocument() {
+        index.removeTags(1L, 2L, Set.of("draft"));
+        assertThat(query("contract AND 2024 AND NOT draft")).containsExactly(2L, 1L);
+
+        index.removeDocument(1L, 1L);
+        assertThat(query("contract AND 2024")).containsExactly(2L);
+        assertThat(query("NOT invoice")).containsExactly(3L, 2L);
+    }
+
+    @Test
+    @Order(6)
+    @DisplayName("测试6：语法错误 - 抛出 IllegalArgumentException")
+    void query_SyntaxErrors() {
+        assertThatThrownBy(() -> query("contract AND")).isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> query("(contract")).isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> query("contract )")).isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> query("  ")).isInstanceOf(IllegalArgumentException.class);
+    }
+
+    @Test
+    @Order(7)
+    @DisplayName("测试7：引号包裹与运算符同名的标签")
+    void query_QuotedTag() {
+        index.addTags(1L, 6L, Set.of("and"));
+
+        assertThat(query("\"and\"")).containsExactly(6L);
+    }
+
+    @Test
+    @Order(8)
+    @DisplayName("测试8：重建 - 从数据库加载并替换内存索引")
+    void rebuild_LoadsFromDatabase() {
+        when(documentRepository.findIdAndOwnerAfter(eq(0L), eq(Document.DocumentStatus.DELETED), any(Pageable.class)))
+                .thenReturn(List.of(new Object[]{10L, 1L}, new Object[]{11L, 1L}));
+        when(documentRepository.findIdAndOwnerAfter(eq(11L), eq(Document.DocumentStatus.DELETED), any(Pageable.class)))
+                .thenReturn(List.of());
+        when(documentRepository.findTagNamesByDocumentIds(anyCollection()))
+                .thenReturn(List.of(new Object[]{10L, "report"}, new Object[]{11L, "report"}, new Object[]{11L, "final"}));
+
+        long count = index.rebuild();
+
+        assertThat(count).isEqualTo(2);
+        assertThat(query("report AND NOT final")).containsExactly(10L);
+        assertThat(query("contract")).isEmpty();
+    }
+
+    @Test
+    @Order(9)
+    @DisplayName("测试9：索引未就绪 - 抛出 IllegalStateException")
+    void query_NotReady() {
+        RoaringTagBitmapIndexService fresh = new RoaringTagBitmapIndexService(documentRepository, transactionManager);
+
+        assertThatThrownBy(() -> fresh.query(1L, "contract", PageRequest.of(0, 10)))
+                .isInstanceOf(IllegalStateException.class);
+    }
+}
@@ -0,0 +1,150 @@
+package com.ntdoc.notangdoccore.service.impl;
+
+import com.ntdoc.notangdoccore.config.TrendingProperties;
+import com.ntdoc.notangdoccore.dto.document.TrendingDocumentResponse;
+import com.ntdoc.notangdoccore.service.TrendingDocumentService.Window;
+import org.junit.jupiter.api.*;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@TestMethodOrder(MethodOrderer.OrderAnnotation.class)
+@DisplayName("SketchTrendingDocumentService服务测试")
+public class SketchTrendingDocumentServiceTest {
+
+    private MutableClock clock;
+    private SketchTrendingDocumentService trendingService;
+
+    @BeforeEach
+    void setUp() {
+        TrendingProperties props = new TrendingProperties();
+        props.setTopK(3);
+        props.setSketchWidth(1024);
+        props.setTeamSketchWidth(64);
+        props.setMaxTeams(2);
+        clock = new MutableClock(Instant.parse("2025-01-01T00:00:00Z"));
+        trendingService = new SketchTrendingDocumentService(props, clock);
+    }
+
+    private void access(long documentId, int times, List<Long> teamIds) {
+        for (int i = 0; i < times; i++) {
+            trendingService.recordAccess(documentId, "doc-" + documentId, teamIds);
+        }
+    }
+
+    @Test
+    @Order(1)
+    @DisplayName("测试1：全站热门 - 按访问次数倒序")
+    void getTrending_OrderedByCount() {
+        access(1L, 2, List.of());
+        access(2L, 5, List.of());
+        access(3L, 1, List.of());
+
+        List<TrendingDocumentResponse> top = trendingService.getTrending(Window.DAY, 10);
+
+        assertThat(top).extracting(TrendingDocumentResponse::getDocumentId).containsExactly(2L, 1L, 3L);
+        assertThat(top.get(0).getCount()).isEqualTo(5);
+        assertThat(top.get(0).getFileName()).isEqualTo("doc-2");
+    }
+
+    @Test
+    @Order(2)
+    @DisplayName("测试2：候选已满时，计数更高的新文档替换最少的候选")
+    void record_ReplacesLowestCandidate() {
+        access(1L, 3, List.of());
+        access(2L, 3, List.of());
+        access(3L, 1, List.of());
+        access(4L, 1, List.of()); // 不高于最少的候选，不进入
+        assertThat(trendingService.getTrending(Window.DAY, 10))
+                .extracting(TrendingDocumentResponse::getDocumentId).containsExactly(1L, 2L, 3L);
+
+        access(4L, 1, List.of());
+        assertThat(trendingService.getTrending(Window.DAY, 10))
+                .extracting(TrendingDocumentResponse::getDocumentId).containsExactly(1L, 2L, 4L);
+    }
+
+    @Test
+    @Order(3)
+    @DisplayName("测试3：滑动窗口 - 一小时后小时榜清空，日榜仍保留")
+    void windows_SlideIndependently() {
+        access(1L, 4, List.of());
+        clock.advance(Duration.ofMinutes(30));
+        access(2L, 1, List.of());
+
+        clock.advance(Duration.ofMinutes(45));
+        assertThat(trendingService.getTrending(Window.HOUR, 10))
+                .extracting(TrendingDocumentResponse::getDocumentId).containsExactly(2L);
+        assertThat(trendingService.getTrending(Window.DAY, 10))
+                .extracting(TrendingDocumentResponse::getDocumentId).containsExactly(1L, 2L);
+
+        clock.advance(Duration.ofDays(2));
+        assertThat(trendingService.getTrending(Window.DAY, 10)).isEmpty();
+        assertThat(trendingService.getTrending(Window.WEEK, 10))
+                .extracting(TrendingDocumentResponse::getDocumentId).containsExactly(1L, 2L);
+    }
+
+    @Test
+    @Order(4)
+    @DisplayName("测试4：团队热门 - 只统计团队成员的访问，团队数超出上限时淘汰最久未访问的团队")
+    void getTeamTrending_PerTeam() {
+        access(1L, 2, List.of(10L));
+        access(2L, 1, List.of(20L));
+
+        assertThat(trendingService.getTeamTrending(10L, Window.DAY, 10))
+                .extracting(TrendingDocumentResponse::getDocumentId).containsExactly(1L);
+        assertThat(trendingService.getTrending(Window.DAY, 10))
+                .extracting(TrendingDocumentResponse::getDocumentId).containsExactly(1L, 2L);
+
+        access(3L, 1, List.of(30L));
+        assertThat(trendingService.getTeamTrending(20L, Window.DAY, 10)).isEmpty();
+        assertThat(trendingService.getTeamTrending(10L, Window.DAY, 10)).hasSize(1);
+    }
+
+    @Test
+    @Order(5)
+    @DisplayName("测试5：文档删除后从热门中移除")
+    void documentRemoved_DropsCandidate() {
+        access(1L, 2, List.of(10L));
+        access(2L, 1, List.of(10L));
+
+        trendingService.documentRemoved(1L);
+
+        assertThat(trendingService.getTrending(Window.HOUR, 10))
+                .extracting(TrendingDocumentResponse::getDocumentId).containsExactly(2L);
+        assertThat(trendingService.getTeamTrending(10L, Window.HOUR, 10))
+                .extracting(TrendingDocumentResponse::getDocumentId).containsExactly(2L);
+    }
+
+    private static final class MutableClock extends Clock {
+        private Instant now;
+
+        private MutableClock(Instant now) {
+            this.now = now;
+        }
+
+        void advance(Duration duration) {
+            now = now.plus(duration);
+        }
+
+        @Override
+        public ZoneId getZone() {
+            return ZoneOffset.UTC;
+        }
+
+        @Override
+        public Clock withZone(ZoneId zone) {
+            return this;
+        }
+
+        @Override
+        public Instant instant() {
+            return now;
+        }
+    }
+}
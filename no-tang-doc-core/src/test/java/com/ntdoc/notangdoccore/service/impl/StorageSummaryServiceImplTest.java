@@ -0,0 +1,172 @@
+package com.ntdoc.notangdoccore.service.impl;
+
+import com.ntdoc.notangdoccore.config.StorageSummaryProperties;
+import com.ntdoc.notangdoccore.dto.storage.StorageSummaryResponse;
+import com.ntdoc.notangdoccore.entity.Document;
+import com.ntdoc.notangdoccore.entity.User;
+import com.ntdoc.notangdoccore.entity.UserStorageByType;
+import com.ntdoc.notangdoccore.entity.UserStorageSummary;
+import com.ntdoc.notangdoccore.repository.UserRepository;
+import com.ntdoc.notangdoccore.repository.UserStorageByTypeRepository;
+import com.ntdoc.notangdoccore.repository.UserStorageSummaryRepository;
+import com.ntdoc.notangdoccore.service.CallerIdentityService;
+import org.junit.jupiter.api.*;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.util.List;
+import java.util.Optional;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+@TestMethodOrder(MethodOrderer.OrderAnnotation.class)
+@DisplayName("StorageSummaryServiceImpl服务测试")
+public class StorageSummaryServiceImplTest {
+
+    @Mock
+    private UserStorageSummaryRepository summaryRepository;
+    @Mock
+    private UserStorageByTypeRepository byTypeRepository;
+    @Mock
+    private UserRepository userRepository;
+    @Mock
+    private CallerIdentityService callerIdentityService;
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    private StorageSummaryServiceImpl storageSummaryService;
+    private User user;
+    private Document document;
+
+    @BeforeEach
+    void setUp() {
+        StorageSummaryProperties props = new StorageSummaryProperties();
+        props.setReconcileBatchSize(100);
+        storageSummaryService = new StorageSummaryServiceImpl(
+                summaryRepository, byTypeRepository, userRepository, callerIdentityService, props, transactionManager);
+
+        user = User.builder().id(1L).kcUserId("kc-123").username("owner").build();
+        document = Document.builder()
+                .id(10L)
+                .uploadedBy(user)
+                .fileSize(2048L)
+                .contentType("application/pdf")
+                .status(Document.DocumentStatus.ACTIVE)
+                .build();
+    }
+
+    @Test
+    @Order(1)
+    @DisplayName("测试1：新增文档 - 计数与字节数增加")
+    void documentAdded_IncrementsCounters() {
+        storageSummaryService.documentAdded(document);
+
+        verify(summaryRepository).applyDelta(1L, 1, 0, 0, 0, 2048);
+        verify(byTypeRepository).applyDelta(1L, "application/pdf", 1, 2048);
+    }
+
+    @Test
+    @Order(2)
+    @DisplayName("测试2：物理删除文档 - 计数与字节数减少，未知类型归为unknown")
+    void documentRemoved_DecrementsCounters() {
+        document.setContentType(null);
+
+        storageSummaryService.documentRemoved(document);
+
+        verify(summaryRepository).applyDelta(1L, -1, 0, 0, 0, -2048);
+        verify(byTypeRepository).applyDelta(1L, "unknown", -1, -2048);
+    }
+
+    @Test
+    @Order(3)
+    @DisplayName("测试3：状态变为DELETED - 状态计数迁移且释放空间")
+    void statusChanged_ToDeleted() {
+        document.setStatus(Document.DocumentStatus.DELETED);
+
+        storageSummaryService.statusChanged(document, Document.DocumentStatus.ACTIVE);
+
+        verify(summaryRepository).applyDelta(1L, -1, 0, 0, 1, -2048);
+        verify(byTypeRepository).applyDelta(1L, "application/pdf", -1, -2048);
+    }
+
+    @Test
+    @Order(4)
+    @DisplayName("测试4：未删除状态之间切换 - 不影响占用空间")
+    void statusChanged_BetweenStoredStates() {
+        storageSummaryService.statusChanged(document, Document.DocumentStatus.PROCESSING);
+
+        verify(summaryRepository).applyDelta(1L, 1, 0, -1, 0, 0);
+        verifyNoInteractions(byTypeRepository);
+    }
+
+    @Test
+    @Order(5)
+    @DisplayName("测试5：状态未变化 - 不写库")
+    void statusChanged_SameStatus() {
+        storageSummaryService.statusChanged(document, Document.DocumentStatus.ACTIVE);
+
+        verifyNoInteractions(summaryRepository, byTypeRepository);
+    }
+
+    @Test
+    @Order(6)
+    @DisplayName("测试6：获取汇总 - 读取汇总行")
+    void getSummary_ReadsSummaryRow() {
+        when(userRepository.findByKcUserId("kc-123")).thenReturn(Optional.of(user));
+        when(summaryRepository.findById(1L)).thenReturn(Optional.of(UserStorageSummary.builder()
+                .userId(1L).activeCount(2).deletedCount(1).totalBytes(4096).build()));
+        when(byTypeRepository.findByIdUserIdOrderByTotalBytesDesc(1L)).thenReturn(List.of(
+                UserStorageByType.builder().id(new UserStorageByType.Key(1L, "application/pdf"))
+                        .docCount(2).totalBytes(4096).build(),
+                UserStorageByType.builder().id(new UserStorageByType.Key(1L, "image/png"))
+                        .docCount(0).totalBytes(0).build()));
+
+        StorageSummaryResponse summary = storageSummaryService.getSummary("kc-123");
+
+        assertThat(summary.getActiveCount()).isEqualTo(2);
+        assertThat(summary.getDeletedCount()).isEqualTo(1);
+        assertThat(summary.getTotalBytes()).isEqualTo(4096);
+        assertThat(summary.getByContentType()).singleElement()
+                .satisfies(u -> assertThat(u.getContentType()).isEqualTo("application/pdf"));
+    }
+
+    @Test
+    @Order(7)
+    @DisplayName("测试7：获取汇总 - 用户不存在返回空汇总")
+    void getSummary_UnknownUser() {
+        when(userRepository.findByKcUserId("kc-404")).thenReturn(Optional.empty());
+
+        StorageSummaryResponse summary = storageSummaryService.getSummary("kc-404");
+
+        assertThat(summary.getTotalBytes()).isZero();
+        assertThat(summary.getByContentType()).isEmpty();
+        verifyNoInteractions(summaryRepository);
+    }
+
+    @Test
+    @Order(8)
+    @DisplayName("测试8：对账 - 分批检查，总量或分类型汇总有偏差的用户才重写")
+    void reconcile_RepairsOnlyDriftedUsers() {
+        when(summaryRepository.findMaxUserId()).thenReturn(250L);
+        when(summaryRepository.findDriftedUserIds(0L, 100L)).thenReturn(List.of());
+        when(summaryRepository.findDriftedUserIds(100L, 200L)).thenReturn(List.of(150L, 160L));
+        when(summaryRepository.findDriftedUserIds(200L, 250L)).thenReturn(List.of());
+        when(byTypeRepository.findDriftedUserIds(0L, 100L)).thenReturn(List.of());
+        // 170 只有分类型汇总偏差（总量一致），160 两张表都有偏差
+        when(byTypeRepository.findDriftedUserIds(100L, 200L)).thenReturn(List.of(170L, 160L));
+        when(byTypeRepository.findDriftedUserIds(200L, 250L)).thenReturn(List.of());
+
+        long repaired = storageSummaryService.reconcile();
+
+        assertThat(repaired).isEqualTo(3);
+        verify(summaryRepository).recompute(List.of(150L, 160L, 170L));
+        verify(byTypeRepository).deleteByUserIds(List.of(150L, 160L, 170L));
+        verify(byTypeRepository).recompute(List.of(150L, 160L, 170L));
+        verify(summaryRepository, times(1)).recompute(anyCollection());
+    }
+}
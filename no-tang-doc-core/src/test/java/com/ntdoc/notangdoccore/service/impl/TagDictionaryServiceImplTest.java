@@ -0,0 +1,126 @@
+package com.ntdoc.notangdoccore.service.impl;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.ntdoc.notangdoccore.repository.TagRepository;
+import org.junit.jupiter.api.*;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+@TestMethodOrder(MethodOrderer.OrderAnnotation.class)
+@DisplayName("TagDictionaryServiceImpl服务测试")
+public class TagDictionaryServiceImplTest {
+
+    @Mock
+    private TagRepository tagRepository;
+
+    private TagDictionaryServiceImpl dictionary;
+
+    @BeforeEach
+    void setUp() {
+        dictionary = new TagDictionaryServiceImpl(tagRepository, new ObjectMapper());
+    }
+
+    private static List<Object[]> rows(Object... idNamePairs) {
+        List<Object[]> rows = new ArrayList<>();
+        for (int i = 0; i < idNamePairs.length; i += 2) {
+            rows.add(new Object[]{idNamePairs[i], idNamePairs[i + 1]});
+        }
+        return rows;
+    }
+
+    @Test
+    @Order(1)
+    @DisplayName("测试1：已存在标签 - 一次 IN 查询，再次解析命中缓存")
+    void resolveIds_ExistingTagsAreCached() {
+        when(tagRepository.findIdsByTagIn(List.of("AI", "ML"))).thenReturn(rows(1L, "AI", 2L, "ML"));
+
+        Map<String, Long> first = dictionary.resolveIds(List.of("AI", "ML"));
+        Map<String, Long> second = dictionary.resolveIds(List.of("ML", "AI"));
+
+        assertThat(first).containsExactly(Map.entry("AI", 1L), Map.entry("ML", 2L));
+        assertThat(second).containsExactly(Map.entry("ML", 2L), Map.entry("AI", 1L));
+        verify(tagRepository, times(1)).findIdsByTagIn(anyCollection());
+        verify(tagRepository, never()).insertIgnoringDuplicates(anyString());
+    }
+
+    @Test
+    @Order(2)
+    @DisplayName("测试2：缺失标签 - 一条语句批量插入后加锁读取ID")
+    void resolveIds_InsertsMissingInOneBatch() {
+        when(tagRepository.findIdsByTagIn(List.of("AI", "new-1", "new-2"))).thenReturn(rows(1L, "AI"));
+        when(tagRepository.lockIdsByTagIn(List.of("new-1", "new-2"))).thenReturn(rows(10L, "new-1", 11L, "new-2"));
+
+        Map<String, Long> result = dictionary.resolveIds(List.of("AI", "new-1", "new-2"));
+
+        assertThat(result).containsExactly(Map.entry("AI", 1L), Map.entry("new-1", 10L), Map.entry("new-2", 11L));
+        verify(tagRepository).insertIgnoringDuplicates("[\"new-1\",\"new-2\"]");
+    }
+
+    @Test
+    @Order(3)
+    @DisplayName("测试3：不区分大小写匹配，返回库中原始名称")
+    void resolveIds_CaseInsensitive() {
+        when(tagRepository.findIdsByTagIn(List.of("finance"))).thenReturn(rows(3L, "Finance"));
+
+        Map<String, Long> result = dictionary.resolveIds(List.of("finance"));
+
+        assertThat(result).containsExactly(Map.entry("Finance", 3L));
+        assertThat(dictionary.resolveIds(List.of("FINANCE"))).containsExactly(Map.entry("Finance", 3L));
+        verify(tagRepository, times(1)).findIdsByTagIn(anyCollection());
+    }
+
+    @Test
+    @Order(4)
+    @DisplayName("测试4：事务内新插入的标签在提交后才进入缓存")
+    void resolveIds_NewTagsCachedAfterCommit() {
+        when(tagRepository.findIdsByTagIn(List.of("fresh"))).thenReturn(List.of());
+        when(tagRepository.lockIdsByTagIn(List.of("fresh"))).thenReturn(rows(5L, "fresh"));
+
+        TransactionSynchronizationManager.initSynchronization();
+        try {
+            dictionary.resolveIds(List.of("fresh"));
+            dictionary.resolveIds(List.of("fresh"));
+            verify(tagRepository, times(2)).findIdsByTagIn(anyCollection());
+
+            TransactionSynchronizationManager.getSynchronizations().forEach(TransactionSynchronization::afterCommit);
+        } finally {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+
+        assertThat(dictionary.resolveIds(List.of("fresh"))).containsExactly(Map.entry("fresh", 5L));
+        verify(tagRepository, times(2)).findIdsByTagIn(anyCollection());
+    }
+
+    @Test
+    @Order(5)
+    @DisplayName("测试5：标签名过长 - 抛出 IllegalArgumentException")
+    void resolveIds_TooLong() {
+        String name = "x".repeat(TagDictionaryServiceImpl.MAX_TAG_LENGTH + 1);
+
+        assertThatThrownBy(() -> dictionary.resolveIds(List.of(name)))
+                .isInstanceOf(IllegalArgumentException.class);
+        verifyNoInteractions(tagRepository);
+    }
+
+    @Test
+    @Order(6)
+    @DisplayName("测试6：空输入不访问数据库")
+    void resolveIds_EmptyInput() {
+        assertThat(dictionary.resolveIds(List.of())).isEmpty();
+        assertThat(dictionary.resolveIds(null)).isEmpty();
+        verifyNoInteractions(tagRepository);
+    }
+}
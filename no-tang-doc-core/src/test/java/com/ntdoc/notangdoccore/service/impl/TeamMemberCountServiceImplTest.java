@@ -0,0 +1,69 @@
+package com.ntdoc.notangdoccore.service.impl;
+
+import com.ntdoc.notangdoccore.config.TeamMemberCountProperties;
+import com.ntdoc.notangdoccore.repository.TeamRepository;
+import com.ntdoc.notangdoccore.service.ResourceVersionService;
+import org.junit.jupiter.api.*;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+@TestMethodOrder(MethodOrderer.OrderAnnotation.class)
+@DisplayName("TeamMemberCountServiceImpl服务测试")
+public class TeamMemberCountServiceImplTest {
+
+    @Mock
+    private TeamRepository teamRepository;
+    @Mock
+    private ResourceVersionService resourceVersionService;
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    private TeamMemberCountServiceImpl memberCountService;
+
+    @BeforeEach
+    void setUp() {
+        TeamMemberCountProperties props = new TeamMemberCountProperties();
+        props.setReconcileBatchSize(100);
+        memberCountService = new TeamMemberCountServiceImpl(
+                teamRepository, resourceVersionService, props, transactionManager);
+    }
+
+    @Test
+    @Order(1)
+    @DisplayName("测试1：对账 - 分批检查，只重算有偏差的团队并刷新拥有者的团队列表版本")
+    void reconcile_RepairsOnlyDriftedTeams() {
+        when(teamRepository.findMaxTeamId()).thenReturn(250L);
+        when(teamRepository.findDriftedTeamIds(0L, 100L)).thenReturn(List.of());
+        when(teamRepository.findDriftedTeamIds(100L, 200L)).thenReturn(List.of(150L, 160L));
+        when(teamRepository.findDriftedTeamIds(200L, 250L)).thenReturn(List.of());
+        when(teamRepository.findOwnerIdsByTeamIds(List.of(150L, 160L))).thenReturn(List.of(9L));
+
+        long repaired = memberCountService.reconcile();
+
+        assertThat(repaired).isEqualTo(2);
+        verify(teamRepository).recountMemberCounts(List.of(150L, 160L));
+        verify(teamRepository, times(1)).recountMemberCounts(anyCollection());
+        verify(resourceVersionService).bumpAfterCommit(ResourceVersionService.Scope.TEAMS, 9L);
+        verifyNoMoreInteractions(resourceVersionService);
+    }
+
+    @Test
+    @Order(2)
+    @DisplayName("测试2：对账 - 没有团队时不做任何检查")
+    void reconcile_NoTeams() {
+        when(teamRepository.findMaxTeamId()).thenReturn(0L);
+
+        assertThat(memberCountService.reconcile()).isZero();
+        verify(teamRepository, never()).findDriftedTeamIds(anyLong(), anyLong());
+        verifyNoInteractions(resourceVersionService, transactionManager);
+    }
+}
@@ -1,5 +1,6 @@
 package com.ntdoc.notangdoccore.service.impl;
 
+import com.ntdoc.notangdoccore.dto.team.TeamAccess;
 import com.ntdoc.notangdoccore.dto.team.TeamMemberResponse;
 import com.ntdoc.notangdoccore.entity.Team;
 import com.ntdoc.notangdoccore.entity.TeamMember;
@@ -7,6 +8,9 @@ import com.ntdoc.notangdoccore.entity.User;
 import com.ntdoc.notangdoccore.repository.TeamMemberRepository;
 import com.ntdoc.notangdoccore.repository.TeamRepository;
 import com.ntdoc.notangdoccore.repository.UserRepository;
+import com.ntdoc.notangdoccore.service.CallerIdentityService;
+import com.ntdoc.notangdoccore.service.ResourceVersionService;
+import com.ntdoc.notangdoccore.service.TeamAccessService;
 import org.junit.jupiter.api.*;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.ArgumentCaptor;
@@ -41,6 +45,15 @@ class TeamMemberServiceImplTest {
     @Mock
     private UserRepository userRepository;
 
+    @Mock
+    private CallerIdentityService callerIdentityService;
+
+    @Mock
+    private ResourceVersionService resourceVersionService;
+
+    @Mock
+    private TeamAccessService teamAccessService;
+
     @InjectMocks
     private TeamMemberServiceImpl teamMemberService;
 
@@ -98,6 +111,10 @@ class TeamMemberServiceImplTest {
                 .build();
     }
 
+    private static Optional<TeamAccess> activeAccess(TeamMember.TeamRole role) {
+        return Optional.of(new TeamAccess(role, TeamMember.MemberStatus.ACTIVE));
+    }
+
     @Test
     @Order(1)
     @DisplayName("测试1: 添加成员成功 - OWNER添加新成员")
@@ -116,19 +133,7 @@ class TeamMemberServiceImplTest {
                 .thenReturn(Optional.empty());
 
         // Mock: OWNER 有管理权限
-        TeamMember ownerMember = TeamMember.builder()
-                .team(mockTeam)
-                .user(mockOwner)
-                .role(TeamMember.TeamRole.OWNER)
-                .status(TeamMember.MemberStatus.ACTIVE)
-                .build();
-
-        when(userRepository.findByKcUserId(ownerKcId)).thenReturn(Optional.of(mockOwner));
-        when(teamMemberRepository.findByTeamAndUser(mockTeam, mockOwner))
-                .thenReturn(Optional.of(ownerMember));
-
-        lenient().when(teamMemberRepository.existsByTeamAndUserAndStatus(mockTeam, mockOwner, TeamMember.MemberStatus.ACTIVE))
-                .thenReturn(true);
+        when(teamAccessService.find(1L, ownerKcId)).thenReturn(activeAccess(TeamMember.TeamRole.OWNER));
 
         // Mock: 保存新成员
         when(teamMemberRepository.save(any(TeamMember.class))).thenAnswer(invocation -> {
@@ -137,9 +142,6 @@ class TeamMemberServiceImplTest {
             return member;
         });
 
-        // Mock: 保存团队
-        when(teamRepository.save(any(Team.class))).thenReturn(mockTeam);
-
         // When: 添加成员
         TeamMember result = teamMemberService.addMember(1L, newUserEmail, newRole, ownerKcId);
 
@@ -151,7 +153,11 @@ class TeamMemberServiceImplTest {
 
         // 验证保存操作
         verify(teamMemberRepository, times(1)).save(any(TeamMember.class));
-        verify(teamRepository, times(1)).save(mockTeam);
+        // 成员数按原子增量更新，不整行保存团队
+        verify(teamRepository).adjustMemberCount(1L, 1);
+        verify(teamRepository, never()).save(any(Team.class));
+        // 新成员的权限缓存被清除
+        verify(teamAccessService).evict(1L, newUserKcId);
     }
 
     @Test
@@ -168,7 +174,7 @@ class TeamMemberServiceImplTest {
         // Mock: 操作者不是成员或没有权限
         lenient().when(teamRepository.findById(1L)).thenReturn(Optional.of(mockTeam));
         lenient().when(userRepository.findByKcUserId(unauthorizedKcId)).thenReturn(Optional.of(unauthorizedUser));
-        lenient().when(teamMemberRepository.existsByTeamAndUserAndStatus(any(), any(), any())).thenReturn(false);
+        when(teamAccessService.find(1L, unauthorizedKcId)).thenReturn(Optional.empty());
 
         // When & Then: 应该抛出权限异常
         assertThatThrownBy(() -> teamMemberService.addMember(1L, newUserKcId, "MEMBER", unauthorizedKcId))
@@ -194,20 +200,9 @@ class TeamMemberServiceImplTest {
 
         // Mock: 权限验证通过
         when(teamRepository.findById(1L)).thenReturn(Optional.of(mockTeam));
-        when(userRepository.findByKcUserId(ownerKcId)).thenReturn(Optional.of(mockOwner));
+        when(teamAccessService.find(1L, ownerKcId)).thenReturn(activeAccess(TeamMember.TeamRole.OWNER));
         lenient().when(userRepository.findByEmail(newUserEmail)).thenReturn(Optional.of(mockNewUser));
 
-        TeamMember ownerMember = TeamMember.builder()
-                .team(mockTeam)
-                .user(mockOwner)
-                .role(TeamMember.TeamRole.OWNER)
-                .status(TeamMember.MemberStatus.ACTIVE)
-                .build();
-        when(teamMemberRepository.findByTeamAndUser(mockTeam, mockOwner))
-                .thenReturn(Optional.of(ownerMember));
-        lenient().when(teamMemberRepository.existsByTeamAndUserAndStatus(mockTeam, mockOwner, TeamMember.MemberStatus.ACTIVE))
-                .thenReturn(true);
-
         // Mock: 用户已存在
         lenient().when(teamMemberRepository.findByTeamAndUser(mockTeam, mockNewUser))
                 .thenReturn(Optional.of(existingMember));
@@ -225,17 +220,9 @@ class TeamMemberServiceImplTest {
         mockTeam.setStatus(Team.TeamStatus.DELETED);
 
         when(teamRepository.findById(1L)).thenReturn(Optional.of(mockTeam));
-        when(userRepository.findByKcUserId(ownerKcId)).thenReturn(Optional.of(mockOwner));
 
         // Mock 管理员权限
-        TeamMember ownerMember = TeamMember.builder()
-                .team(mockTeam)
-                .user(mockOwner)
-                .role(TeamMember.TeamRole.OWNER)
-                .status(TeamMember.MemberStatus.ACTIVE)
-                .build();
-        when(teamMemberRepository.findByTeamAndUser(mockTeam, mockOwner))
-                .thenReturn(Optional.of(ownerMember));
+        when(teamAccessService.find(1L, ownerKcId)).thenReturn(activeAccess(TeamMember.TeamRole.OWNER));
 
         assertThatThrownBy(() -> teamMemberService.addMember(1L, newUserKcId, "MEMBER", ownerKcId))
                 .isInstanceOf(IllegalStateException.class)
@@ -254,13 +241,8 @@ class TeamMemberServiceImplTest {
                 .build();
 
         when(teamRepository.findById(1L)).thenReturn(Optional.of(mockTeam));
-        when(userRepository.findByKcUserId(ownerKcId)).thenReturn(Optional.of(mockOwner));
+        when(teamAccessService.find(1L, ownerKcId)).thenReturn(activeAccess(TeamMember.TeamRole.OWNER));
         when(userRepository.findByEmail(newUserEmail)).thenReturn(Optional.of(mockNewUser));
-        when(teamMemberRepository.findByTeamAndUser(mockTeam, mockOwner))
-                .thenReturn(Optional.of(TeamMember.builder()
-                        .team(mockTeam).user(mockOwner)
-                        .role(TeamMember.TeamRole.OWNER)
-                        .status(TeamMember.MemberStatus.ACTIVE).build()));
         when(teamMemberRepository.findByTeamAndUser(mockTeam, mockNewUser))
                 .thenReturn(Optional.of(removedMember));
         when(teamMemberRepository.save(any(TeamMember.class))).thenReturn(removedMember);
@@ -269,6 +251,9 @@ class TeamMemberServiceImplTest {
 
         assertThat(result.getStatus()).isEqualTo(TeamMember.MemberStatus.ACTIVE);
         assertThat(result.getRole()).isEqualTo(TeamMember.TeamRole.ADMIN);
+        // 重新激活同样计入成员数
+        verify(teamRepository).adjustMemberCount(1L, 1);
+        verify(teamAccessService).evict(1L, newUserKcId);
     }
 
 
@@ -287,24 +272,11 @@ class TeamMemberServiceImplTest {
                 .build();
 
         // Mock: 权限验证
-        when(teamRepository.findById(1L)).thenReturn(Optional.of(mockTeam));
-        when(userRepository.findByKcUserId(ownerKcId)).thenReturn(Optional.of(mockOwner));
-
-        TeamMember ownerMember = TeamMember.builder()
-                .team(mockTeam)
-                .user(mockOwner)
-                .role(TeamMember.TeamRole.OWNER)
-                .status(TeamMember.MemberStatus.ACTIVE)
-                .build();
-        when(teamMemberRepository.findByTeamAndUser(mockTeam, mockOwner))
-                .thenReturn(Optional.of(ownerMember));
-        lenient().when(teamMemberRepository.existsByTeamAndUserAndStatus(mockTeam, mockOwner, TeamMember.MemberStatus.ACTIVE))
-                .thenReturn(true);
+        when(teamAccessService.find(1L, ownerKcId)).thenReturn(activeAccess(TeamMember.TeamRole.OWNER));
 
         // Mock: 成员存在
         when(teamMemberRepository.findById(memberId)).thenReturn(Optional.of(memberToRemove));
         when(teamMemberRepository.save(any(TeamMember.class))).thenReturn(memberToRemove);
-        when(teamRepository.save(any(Team.class))).thenReturn(mockTeam);
 
         // When: 移除成员
         teamMemberService.removeMember(1L, memberId, ownerKcId);
@@ -315,7 +287,10 @@ class TeamMemberServiceImplTest {
         assertThat(memberCaptor.getValue().getStatus()).isEqualTo(TeamMember.MemberStatus.REMOVED);
 
         // 验证团队成员数量减少
-        verify(teamRepository).save(mockTeam);
+        verify(teamRepository).adjustMemberCount(1L, -1);
+        verify(teamRepository, never()).save(any(Team.class));
+        // 被移除成员的权限缓存被清除
+        verify(teamAccessService).evict(1L, newUserKcId);
     }
 
     @Test
@@ -333,12 +308,7 @@ class TeamMemberServiceImplTest {
                 .build();
 
         // Mock: 权限验证通过
-        when(teamRepository.findById(1L)).thenReturn(Optional.of(mockTeam));
-        when(userRepository.findByKcUserId(ownerKcId)).thenReturn(Optional.of(mockOwner));
-        when(teamMemberRepository.findByTeamAndUser(mockTeam, mockOwner))
-                .thenReturn(Optional.of(ownerMember));
-        lenient().when(teamMemberRepository.existsByTeamAndUserAndStatus(mockTeam, mockOwner, TeamMember.MemberStatus.ACTIVE))
-                .thenReturn(true);
+        when(teamAccessService.find(1L, ownerKcId)).thenReturn(activeAccess(TeamMember.TeamRole.OWNER));
 
         // Mock: 成员存在
         when(teamMemberRepository.findById(ownerMemberId)).thenReturn(Optional.of(ownerMember));
@@ -350,6 +320,7 @@ class TeamMemberServiceImplTest {
 
         // 验证没有保存操作
         verify(teamMemberRepository, never()).save(any(TeamMember.class));
+        verify(teamAccessService, never()).evict(any(), any());
     }
 
     @Test
@@ -365,13 +336,7 @@ class TeamMemberServiceImplTest {
                 .status(TeamMember.MemberStatus.ACTIVE)
                 .build();
 
-        when(teamRepository.findById(1L)).thenReturn(Optional.of(mockTeam));
-        when(userRepository.findByKcUserId(ownerKcId)).thenReturn(Optional.of(mockOwner));
-        when(teamMemberRepository.findByTeamAndUser(mockTeam, mockOwner))
-                .thenReturn(Optional.of(TeamMember.builder()
-                        .team(mockTeam).user(mockOwner)
-                        .role(TeamMember.TeamRole.OWNER)
-                        .status(TeamMember.MemberStatus.ACTIVE).build()));
+        when(teamAccessService.find(1L, ownerKcId)).thenReturn(activeAccess(TeamMember.TeamRole.OWNER));
         when(teamMemberRepository.findById(9L)).thenReturn(Optional.of(member));
 
         assertThatThrownBy(() -> teamMemberService.removeMember(1L, 9L, ownerKcId))
@@ -382,17 +347,7 @@ class TeamMemberServiceImplTest {
     @Order(13)
     @DisplayName("测试13: 移除成员失败 - 成员不存在")
     void testRemoveMember_Fail_MemberNotFound() {
-        when(teamRepository.findById(1L)).thenReturn(Optional.of(mockTeam));
-        when(userRepository.findByKcUserId(ownerKcId)).thenReturn(Optional.of(mockOwner));
-
-        TeamMember ownerMember = TeamMember.builder()
-                .team(mockTeam)
-                .user(mockOwner)
-                .role(TeamMember.TeamRole.OWNER)
-                .status(TeamMember.MemberStatus.ACTIVE)
-                .build();
-        when(teamMemberRepository.findByTeamAndUser(mockTeam, mockOwner))
-                .thenReturn(Optional.of(ownerMember));
+        when(teamAccessService.find(1L, ownerKcId)).thenReturn(activeAccess(TeamMember.TeamRole.OWNER));
 
         when(teamMemberRepository.findById(999L)).thenReturn(Optional.empty());
 
@@ -429,6 +384,7 @@ class TeamMemberServiceImplTest {
         // Then: 验证角色已更新
         assertThat(result.getRole()).isEqualTo(TeamMember.TeamRole.ADMIN.name());
         verify(teamMemberRepository).save(any(TeamMember.class));
+        verify(teamAccessService).evict(1L, newUserKcId);
     }
 
     @Test
@@ -547,10 +503,8 @@ class TeamMemberServiceImplTest {
                 .build();
 
         // Mock: 权限验证
+        when(teamAccessService.find(1L, ownerKcId)).thenReturn(activeAccess(TeamMember.TeamRole.OWNER));
         when(teamRepository.findById(1L)).thenReturn(Optional.of(mockTeam));
-        when(userRepository.findByKcUserId(ownerKcId)).thenReturn(Optional.of(mockOwner));
-        when(teamMemberRepository.existsByTeamAndUserAndStatus(mockTeam, mockOwner, TeamMember.MemberStatus.ACTIVE))
-                .thenReturn(true);
 
         // Mock: 返回成员列表
         when(teamMemberRepository.findByTeamAndStatus(mockTeam, TeamMember.MemberStatus.ACTIVE))
@@ -571,21 +525,15 @@ class TeamMemberServiceImplTest {
     void testGetActiveTeamMembers_Fail_NotMember() {
         // Given: 非成员尝试查看
         String outsiderKcId = "outsider-kc-id";
-        User outsider = User.builder()
-                .id(99L)
-                .kcUserId(outsiderKcId)
-                .build();
 
         // Mock: 用户不是成员
-        when(teamRepository.findById(1L)).thenReturn(Optional.of(mockTeam));
-        when(userRepository.findByKcUserId(outsiderKcId)).thenReturn(Optional.of(outsider));
-        when(teamMemberRepository.existsByTeamAndUserAndStatus(mockTeam, outsider, TeamMember.MemberStatus.ACTIVE))
-                .thenReturn(false);
+        when(teamAccessService.find(1L, outsiderKcId)).thenReturn(Optional.empty());
 
         // When & Then: 应该抛出权限异常
         assertThatThrownBy(() -> teamMemberService.getActiveTeamMembers(1L, outsiderKcId))
                 .isInstanceOf(SecurityException.class)
                 .hasMessageContaining("只有团队成员可以查看成员列表");
+        verifyNoInteractions(teamMemberRepository);
     }
 
     @Test
@@ -608,10 +556,8 @@ class TeamMemberServiceImplTest {
                 .status(TeamMember.MemberStatus.ACTIVE)
                 .build();
 
+        when(teamAccessService.find(1L, ownerKcId)).thenReturn(activeAccess(TeamMember.TeamRole.OWNER));
         when(teamRepository.findById(1L)).thenReturn(Optional.of(mockTeam));
-        when(userRepository.findByKcUserId(ownerKcId)).thenReturn(Optional.of(mockOwner));
-        when(teamMemberRepository.existsByTeamAndUserAndStatus(mockTeam, mockOwner, TeamMember.MemberStatus.ACTIVE))
-                .thenReturn(true);
         when(teamMemberRepository.findByTeamOrderByJoinedAtAsc(mockTeam)).thenReturn(Arrays.asList(m1, m2));
 
         List<TeamMemberResponse> result = teamMemberService.getTeamMembers(1L, ownerKcId);
@@ -626,12 +572,10 @@ class TeamMemberServiceImplTest {
     @DisplayName("测试33: 获取团队成员列表失败 - 非成员访问")
     void testGetTeamMembers_Fail_NotMember() {
         String outsiderKcId = "outsider";
-        User outsider = User.builder().id(99L).kcUserId(outsiderKcId).build();
 
-        when(teamRepository.findById(1L)).thenReturn(Optional.of(mockTeam));
-        when(userRepository.findByKcUserId(outsiderKcId)).thenReturn(Optional.of(outsider));
-        when(teamMemberRepository.existsByTeamAndUserAndStatus(mockTeam, outsider, TeamMember.MemberStatus.ACTIVE))
-                .thenReturn(false);
+        // 曾经是成员但已被移除
+        when(teamAccessService.find(1L, outsiderKcId))
+                .thenReturn(Optional.of(new TeamAccess(TeamMember.TeamRole.MEMBER, TeamMember.MemberStatus.REMOVED)));
 
         assertThatThrownBy(() -> teamMemberService.getTeamMembers(1L, outsiderKcId))
                 .isInstanceOf(SecurityException.class)
@@ -657,7 +601,6 @@ class TeamMemberServiceImplTest {
         when(teamMemberRepository.findByTeamAndUser(mockTeam, mockNewUser))
                 .thenReturn(Optional.of(memberToLeave));
         when(teamMemberRepository.save(any(TeamMember.class))).thenReturn(memberToLeave);
-        when(teamRepository.save(any(Team.class))).thenReturn(mockTeam);
 
         // When: 成员退出
         teamMemberService.leaveTeam(1L, newUserKcId);
@@ -666,6 +609,8 @@ class TeamMemberServiceImplTest {
         ArgumentCaptor<TeamMember> memberCaptor = ArgumentCaptor.forClass(TeamMember.class);
         verify(teamMemberRepository).save(memberCaptor.capture());
         assertThat(memberCaptor.getValue().getStatus()).isEqualTo(TeamMember.MemberStatus.REMOVED);
+        verify(teamRepository).adjustMemberCount(1L, -1);
+        verify(teamAccessService).evict(1L, newUserKcId);
     }
 
     @Test
@@ -722,21 +667,17 @@ class TeamMemberServiceImplTest {
     @Order(50)
     @DisplayName("测试50: isMember - 团队或用户不存在返回false")
     void testIsMember_TeamOrUserNotFound() {
-        when(teamRepository.findById(1L)).thenReturn(Optional.empty());
+        when(teamAccessService.find(1L, ownerKcId)).thenReturn(Optional.empty());
         assertThat(teamMemberService.isMember(1L, ownerKcId)).isFalse();
 
-        when(teamRepository.findById(1L)).thenReturn(Optional.of(mockTeam));
-        when(userRepository.findByKcUserId(ownerKcId)).thenReturn(Optional.empty());
-        assertThat(teamMemberService.isMember(1L, ownerKcId)).isFalse();
+        verifyNoInteractions(teamRepository, userRepository, teamMemberRepository);
     }
 
     @Test
     @Order(60)
     @DisplayName("测试60: hasManagePermission - 用户存在但不是成员")
     void testHasManagePermission_UserNotMember() {
-        when(teamRepository.findById(1L)).thenReturn(Optional.of(mockTeam));
-        when(userRepository.findByKcUserId(ownerKcId)).thenReturn(Optional.of(mockOwner));
-        when(teamMemberRepository.findByTeamAndUser(mockTeam, mockOwner)).thenReturn(Optional.empty());
+        when(teamAccessService.find(1L, ownerKcId)).thenReturn(Optional.empty());
 
         boolean result = teamMemberService.hasManagePermission(1L, ownerKcId);
         assertThat(result).isFalse();
@@ -746,38 +687,20 @@ class TeamMemberServiceImplTest {
     @Order(61)
     @DisplayName("测试61: hasManagePermission - VIEWER 或 MEMBER 无管理权限")
     void testHasManagePermission_LowRoleNoPermission() {
-        when(teamRepository.findById(1L)).thenReturn(Optional.of(mockTeam));
-        when(userRepository.findByKcUserId(adminKcId)).thenReturn(Optional.of(mockAdmin));
-
-        TeamMember viewer = TeamMember.builder()
-                .team(mockTeam)
-                .user(mockAdmin)
-                .role(TeamMember.TeamRole.VIEWER)
-                .status(TeamMember.MemberStatus.ACTIVE)
-                .build();
-
-        when(teamMemberRepository.findByTeamAndUser(mockTeam, mockAdmin))
-                .thenReturn(Optional.of(viewer));
+        when(teamAccessService.find(1L, adminKcId)).thenReturn(activeAccess(TeamMember.TeamRole.VIEWER));
 
         boolean result = teamMemberService.hasManagePermission(1L, adminKcId);
         assertThat(result).isFalse();
+
+        when(teamAccessService.find(1L, adminKcId)).thenReturn(activeAccess(TeamMember.TeamRole.MEMBER));
+        assertThat(teamMemberService.hasManagePermission(1L, adminKcId)).isFalse();
     }
 
     @Test
     @Order(62)
     @DisplayName("测试62: hasManagePermission - OWNER 有权限")
     void testHasManagePermission_OwnerHasPermission() {
-        when(teamRepository.findById(1L)).thenReturn(Optional.of(mockTeam));
-        when(userRepository.findByKcUserId(ownerKcId)).thenReturn(Optional.of(mockOwner));
-
-        TeamMember ownerMember = TeamMember.builder()
-                .team(mockTeam)
-                .user(mockOwner)
-                .role(TeamMember.TeamRole.OWNER)
-                .status(TeamMember.MemberStatus.ACTIVE)
-                .build();
-        when(teamMemberRepository.findByTeamAndUser(mockTeam, mockOwner))
-                .thenReturn(Optional.of(ownerMember));
+        when(teamAccessService.find(1L, ownerKcId)).thenReturn(activeAccess(TeamMember.TeamRole.OWNER));
 
         boolean result = teamMemberService.hasManagePermission(1L, ownerKcId);
         assertThat(result).isTrue();
@@ -787,20 +710,21 @@ class TeamMemberServiceImplTest {
     @Order(63)
     @DisplayName("测试63: hasManagePermission - ADMIN 有权限")
     void testHasManagePermission_AdminHasPermission() {
-        when(teamRepository.findById(1L)).thenReturn(Optional.of(mockTeam));
-        when(userRepository.findByKcUserId(adminKcId)).thenReturn(Optional.of(mockAdmin));
-
-        TeamMember adminMember = TeamMember.builder()
-                .team(mockTeam)
-                .user(mockAdmin)
-                .role(TeamMember.TeamRole.ADMIN)
-                .status(TeamMember.MemberStatus.ACTIVE)
-                .build();
-        when(teamMemberRepository.findByTeamAndUser(mockTeam, mockAdmin))
-                .thenReturn(Optional.of(adminMember));
+        when(teamAccessService.find(1L, adminKcId)).thenReturn(activeAccess(TeamMember.TeamRole.ADMIN));
 
         boolean result = teamMemberService.hasManagePermission(1L, adminKcId);
         assertThat(result).isTrue();
     }
 
+    @Test
+    @Order(64)
+    @DisplayName("测试64: hasManagePermission - 已移除的 ADMIN 无权限")
+    void testHasManagePermission_RemovedAdminNoPermission() {
+        when(teamAccessService.find(1L, adminKcId))
+                .thenReturn(Optional.of(new TeamAccess(TeamMember.TeamRole.ADMIN, TeamMember.MemberStatus.REMOVED)));
+
+        assertThat(teamMemberService.hasManagePermission(1L, adminKcId)).isFalse();
+        assertThat(teamMemberService.isMember(1L, adminKcId)).isFalse();
+    }
+
 }
@@ -1,25 +1,35 @@
 package com.ntdoc.notangdoccore.service.impl;
 
 import com.ntdoc.notangdoccore.dto.team.TeamCreateRequest;
+import com.ntdoc.notangdoccore.dto.team.TeamResponse;
 import com.ntdoc.notangdoccore.entity.Team;
 import com.ntdoc.notangdoccore.entity.TeamMember;
 import com.ntdoc.notangdoccore.entity.User;
 import com.ntdoc.notangdoccore.repository.TeamMemberRepository;
 import com.ntdoc.notangdoccore.repository.TeamRepository;
 import com.ntdoc.notangdoccore.repository.UserRepository;
+import com.ntdoc.notangdoccore.service.CallerIdentityService;
+import com.ntdoc.notangdoccore.service.ResourceVersionService;
+import com.ntdoc.notangdoccore.service.TeamAccessService;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.TypedQuery;
 import org.junit.jupiter.api.*;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.ArgumentCaptor;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.test.util.ReflectionTestUtils;
 
+import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Optional;
 
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.assertj.core.api.Assertions.assertThatThrownBy;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.*;
 
 /**
@@ -40,6 +50,15 @@ class TeamServiceImplTest {
     @Mock
     private UserRepository userRepository;
 
+    @Mock
+    private CallerIdentityService callerIdentityService;
+
+    @Mock
+    private ResourceVersionService resourceVersionService;
+
+    @Mock
+    private TeamAccessService teamAccessService;
+
     @InjectMocks
     private TeamServiceImpl teamService;
 
@@ -101,6 +120,10 @@ class TeamServiceImplTest {
 
         // 验证团队保存了一次
         verify(teamRepository, times(1)).save(any(Team.class));
+        // 拥有者的团队列表版本号在提交后递增
+        verify(resourceVersionService).bumpAfterCommit(ResourceVersionService.Scope.TEAMS, mockOwner.getId());
+        // 清除新团队ID上可能缓存的"非成员"结果
+        verify(teamAccessService).evict(savedTeam.getId(), kcUserId);
 
         // 验证创建者自动被添加为团队成员，且角色为OWNER
         ArgumentCaptor<TeamMember> memberCaptor = ArgumentCaptor.forClass(TeamMember.class);
@@ -473,6 +496,7 @@ class TeamServiceImplTest {
         // Then
         assertThat(existingTeam.getStatus()).isEqualTo(Team.TeamStatus.DELETED);
         verify(teamRepository).save(existingTeam);
+        verify(teamAccessService).evictTeam(teamId);
     }
 
     @Test
@@ -562,5 +586,31 @@ class TeamServiceImplTest {
         verify(teamRepository, never()).findByOwnerAndStatusOrderByCreatedAtDesc(any(), any());
     }
 
+    @Test
+    @Order(52)
+    @DisplayName("测试52: 按字段获取团队 - 只查询请求的列，拥有者字段取自当前用户")
+    @SuppressWarnings("unchecked")
+    void testGetUserTeamFields_NarrowProjection() {
+        EntityManager entityManager = mock(EntityManager.class);
+        TypedQuery<Object[]> query = mock(TypedQuery.class);
+        ReflectionTestUtils.setField(teamService, "entityManager", entityManager);
+        when(userRepository.findByKcUserId(kcUserId)).thenReturn(Optional.of(mockOwner));
+        when(entityManager.createQuery(anyString(), eq(Object[].class))).thenReturn(query);
+        when(query.setParameter(anyString(), any())).thenReturn(query);
+        when(query.getResultList()).thenReturn(List.<Object[]>of(new Object[]{5L, "开发团队"}));
+
+        List<TeamResponse> teams = teamService.getUserTeamFields(kcUserId, true,
+                new LinkedHashSet<>(List.of("name", "ownerUsername")));
+
+        ArgumentCaptor<String> jpql = ArgumentCaptor.forClass(String.class);
+        verify(entityManager).createQuery(jpql.capture(), eq(Object[].class));
+        assertThat(jpql.getValue()).startsWith("SELECT t.id, t.name FROM Team t").contains("t.status = :status");
+        verify(query).setParameter("status", Team.TeamStatus.ACTIVE);
+        assertThat(teams).hasSize(1);
+        assertThat(teams.get(0).getTeamId()).isEqualTo(5L);
+        assertThat(teams.get(0).getName()).isEqualTo("开发团队");
+        assertThat(teams.get(0).getOwnerUsername()).isEqualTo("testuser");
+        assertThat(teams.get(0).getDescription()).isNull();
+        verifyNoInteractions(teamRepository);
+    }
 }
-
@@ -0,0 +1,85 @@
+package com.ntdoc.notangdoccore.service.impl;
+
+import com.ntdoc.notangdoccore.entity.Document;
+import com.ntdoc.notangdoccore.entity.Tag;
+import com.ntdoc.notangdoccore.entity.User;
+import org.hibernate.SessionFactory;
+import org.hibernate.cfg.AvailableSettings;
+import org.hibernate.cfg.Configuration;
+import org.junit.jupiter.api.*;
+
+import java.sql.PreparedStatement;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * 下载次数写回后再保存实体，验证实体不会用内存中的旧值覆盖数据库中的计数（H2 内存库）
+ */
+@TestMethodOrder(MethodOrderer.OrderAnnotation.class)
+@DisplayName("下载计数写回与实体保存测试")
+public class WriteBehindDownloadCounterPersistenceTest {
+
+    private SessionFactory sessionFactory;
+
+    @BeforeEach
+    void setUp() {
+        sessionFactory = new Configuration()
+                .addAnnotatedClass(Document.class)
+                .addAnnotatedClass(Tag.class)
+                .addAnnotatedClass(User.class)
+                .setProperty(AvailableSettings.JAKARTA_JDBC_URL, "jdbc:h2:mem:download-count;MODE=MySQL;DB_CLOSE_DELAY=-1")
+                .setProperty(AvailableSettings.JAKARTA_JDBC_USER, "sa")
+                .setProperty(AvailableSettings.HBM2DDL_AUTO, "create-drop")
+                .setProperty(AvailableSettings.USE_SECOND_LEVEL_CACHE, "false")
+                .buildSessionFactory();
+    }
+
+    @AfterEach
+    void tearDown() {
+        sessionFactory.close();
+    }
+
+    @Test
+    @Order(1)
+    @DisplayName("测试1：写回下载次数后保存旧实体，下载次数保留")
+    void saveAfterFlush_KeepsDownloadCount() {
+        Document stale = sessionFactory.fromTransaction(session -> {
+            User owner = User.builder().kcUserId("kc-1").username("owner").build();
+            session.persist(owner);
+            Document document = Document.builder()
+                    .originalFilename("a.txt")
+                    .storedFilename("a-1.txt")
+                    .fileSize(5L)
+                    .s3Bucket("bucket")
+                    .s3Key("kc-1/a-1.txt")
+                    .uploadedBy(owner)
+                    .status(Document.DocumentStatus.ACTIVE)
+                    .build();
+            session.persist(document);
+            return document;
+        });
+
+        // 与 WriteBehindDownloadCounterService 相同的累加语句
+        sessionFactory.inTransaction(session -> session.doWork(connection -> {
+            try (PreparedStatement ps = connection.prepareStatement(WriteBehindDownloadCounterService.INCREMENT_SQL)) {
+                ps.setLong(1, 3);
+                ps.setLong(2, stale.getId());
+                ps.executeUpdate();
+            }
+        }));
+
+        // 内存中的 downloadCount 仍是 0，之后的软删除等保存不应覆盖计数
+        stale.setDescription("changed");
+        stale.setStatus(Document.DocumentStatus.DELETED);
+        sessionFactory.inTransaction(session -> session.merge(stale));
+
+        Integer persisted = sessionFactory.fromTransaction(session -> session
+                .createNativeQuery("SELECT download_count FROM document WHERE id = :id", Integer.class)
+                .setParameter("id", stale.getId())
+                .getSingleResult());
+        String description = sessionFactory.fromTransaction(session ->
+                session.find(Document.class, stale.getId()).getDescription());
+        assertThat(persisted).isEqualTo(3);
+        assertThat(description).isEqualTo("changed");
+    }
+}
@@ -0,0 +1,138 @@
+package com.ntdoc.notangdoccore.service.impl;
+
+import com.ntdoc.notangdoccore.config.DownloadCounterProperties;
+import org.junit.jupiter.api.*;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+@TestMethodOrder(MethodOrderer.OrderAnnotation.class)
+@DisplayName("WriteBehindDownloadCounterService服务测试")
+public class WriteBehindDownloadCounterServiceTest {
+
+    @Mock
+    private JdbcTemplate jdbcTemplate;
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    private WriteBehindDownloadCounterService counterService;
+
+    @BeforeEach
+    void setUp() {
+        DownloadCounterProperties props = new DownloadCounterProperties();
+        props.setFlushBatchSize(2);
+        counterService = new WriteBehindDownloadCounterService(jdbcTemplate, props, transactionManager);
+    }
+
+    @SuppressWarnings("unchecked")
+    private List<List<Object[]>> capturedBatches(int times) {
+        ArgumentCaptor<List<Object[]>> captor = ArgumentCaptor.forClass(List.class);
+        verify(jdbcTemplate, times(times)).batchUpdate(eq(WriteBehindDownloadCounterService.INCREMENT_SQL), captor.capture());
+        return captor.getAllValues();
+    }
+
+    @Test
+    @Order(1)
+    @DisplayName("测试1：写回 - 同一文档的多次下载合并为一条增量，按文档ID排序分批")
+    void flush_CoalescesPerDocument() {
+        counterService.record(3L);
+        counterService.record(1L);
+        counterService.record(3L);
+        counterService.record(2L);
+        counterService.record(3L);
+
+        long written = counterService.flush();
+
+        assertThat(written).isEqualTo(5);
+        List<List<Object[]>> batches = capturedBatches(2);
+        assertThat(batches.get(0)).containsExactly(new Object[]{1L, 1L}, new Object[]{1L, 2L});
+        assertThat(batches.get(1)).containsExactly(new Object[]{3L, 3L});
+    }
+
+    @Test
+    @Order(2)
+    @DisplayName("测试2：写回 - 已写回的次数不重复写，只写新增部分")
+    void flush_WritesOnlyNewDownloads() {
+        counterService.record(1L);
+        counterService.flush();
+        assertThat(counterService.flush()).isZero();
+
+        counterService.record(1L);
+        counterService.record(1L);
+        assertThat(counterService.flush()).isEqualTo(2);
+
+        List<List<Object[]>> batches = capturedBatches(2);
+        assertThat(batches.get(1)).containsExactly(new Object[]{2L, 1L});
+    }
+
+    @Test
+    @Order(3)
+    @DisplayName("测试3：写回失败 - 计数保留，下次写回时重试")
+    void flush_RetriesAfterFailure() {
+        when(jdbcTemplate.batchUpdate(anyString(), anyList()))
+                .thenThrow(new RuntimeException("DB down"))
+                .thenReturn(new int[]{1});
+        counterService.record(7L);
+        counterService.record(7L);
+
+        assertThat(counterService.flush()).isZero();
+        assertThat(counterService.flush()).isEqualTo(2);
+
+        assertThat(capturedBatches(2).get(1)).containsExactly(new Object[]{2L, 7L});
+    }
+
+    @Test
+    @Order(4)
+    @DisplayName("测试4：并发下载 - 不丢失计数")
+    void record_ConcurrentDownloadsAreNotLost() throws Exception {
+        int threads = 8;
+        int perThread = 1000;
+        ExecutorService pool = Executors.newFixedThreadPool(threads);
+        CountDownLatch done = new CountDownLatch(threads);
+        for (int i = 0; i < threads; i++) {
+            pool.submit(() -> {
+                for (int j = 0; j < perThread; j++) {
+                    counterService.record(42L);
+                    if (j % 100 == 0) {
+                        counterService.flush();
+                    }
+                }
+                done.countDown();
+            });
+        }
+        assertThat(done.await(10, TimeUnit.SECONDS)).isTrue();
+        pool.shutdown();
+        counterService.flush();
+
+        List<Object[]> rows = mockingDetails(jdbcTemplate).getInvocations().stream()
+                .filter(invocation -> invocation.getMethod().getName().equals("batchUpdate"))
+                .<Object[]>flatMap(invocation -> invocation.<List<Object[]>>getArgument(1).stream())
+                .toList();
+        assertThat(rows.stream().mapToLong(row -> (Long) row[0]).sum()).isEqualTo((long) threads * perThread);
+    }
+
+    @Test
+    @Order(5)
+    @DisplayName("测试5：关闭 - 写回剩余计数")
+    void shutdown_FlushesPending() {
+        counterService.record(5L);
+
+        counterService.shutdown();
+
+        assertThat(capturedBatches(1).get(0)).containsExactly(new Object[]{1L, 5L});
+    }
+}
@@ -7,6 +7,7 @@ import com.ntdoc.notangdoccore.dto.common.ApiResponse;
 import com.ntdoc.notangdoccore.entity.*;
 import com.ntdoc.notangdoccore.repository.DocumentRepository;
 import com.ntdoc.notangdoccore.service.DocumentCommentService;
+import com.ntdoc.notangdoccore.service.ResourceVersionService;
 import lombok.extern.slf4j.Slf4j;
 import org.junit.jupiter.api.*;
 import org.mockito.Mockito;
@@ -56,6 +57,8 @@ public class DocumentCommentControllerUnitTest {
     @MockitoBean
     private DocumentRepository documentRepository;
     @MockitoBean
+    private ResourceVersionService resourceVersionService;
+    @MockitoBean
     private ClientRegistrationRepository clientRegistrationRepository;
     @MockitoBean
     private OAuth2AuthorizedClientManager authorizedClientManager;
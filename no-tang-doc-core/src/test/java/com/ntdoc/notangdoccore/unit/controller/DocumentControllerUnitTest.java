@@ -5,19 +5,35 @@ import com.fasterxml.jackson.databind.ObjectMapper;
 import com.ntdoc.notangdoccore.controller.DocumentController;
 import com.ntdoc.notangdoccore.dto.common.ApiResponse;
 import com.ntdoc.notangdoccore.dto.document.DeleteDocumentResponse;
+import com.ntdoc.notangdoccore.dto.document.DocumentBatchItem;
+import com.ntdoc.notangdoccore.dto.document.DocumentBatchRequest;
 import com.ntdoc.notangdoccore.dto.document.DocumentDownloadResponse;
+import com.ntdoc.notangdoccore.dto.document.DocumentFacetResponse;
+import com.ntdoc.notangdoccore.dto.document.DocumentTagResponse;
+import com.ntdoc.notangdoccore.dto.document.MetadataCondition;
+import com.ntdoc.notangdoccore.dto.document.RecentDocumentResponse;
 import com.ntdoc.notangdoccore.dto.document.DocumentUploadResponse;
+import com.ntdoc.notangdoccore.dto.document.TagSuggestionResponse;
+import com.ntdoc.notangdoccore.dto.storage.StorageSummaryResponse;
 import com.ntdoc.notangdoccore.entity.Document;
 import com.ntdoc.notangdoccore.entity.User;
+import com.ntdoc.notangdoccore.entity.logenum.OperationType;
+import com.ntdoc.notangdoccore.exception.DocumentException;
 import com.ntdoc.notangdoccore.service.DocumentService;
 import com.ntdoc.notangdoccore.service.DocumentTagService;
 import com.ntdoc.notangdoccore.service.FileStorageService;
+import com.ntdoc.notangdoccore.service.RecentDocumentService;
+import com.ntdoc.notangdoccore.service.ResourceVersionService;
+import com.ntdoc.notangdoccore.service.StorageSummaryService;
 import com.ntdoc.notangdoccore.service.impl.UserSyncServiceImpl;
 import lombok.extern.slf4j.Slf4j;
 import org.junit.jupiter.api.*;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
 import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
 import org.springframework.http.MediaType;
 import org.springframework.mock.web.MockMultipartFile;
 import org.springframework.security.oauth2.client.OAuth2AuthorizedClientManager;
@@ -34,8 +50,14 @@ import java.time.Instant;
 import java.time.LocalDateTime;
 import java.util.Arrays;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Consumer;
 
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.hamcrest.Matchers.hasKey;
+import static org.hamcrest.Matchers.not;
+import static org.hamcrest.Matchers.nullValue;
 import static org.mockito.ArgumentMatchers.*;
 import static org.mockito.Mockito.*;
 import static org.springframework.security.test.web.servlet.request.SecurityMockMvcRequestPostProcessors.jwt;
@@ -68,6 +90,15 @@ public class DocumentControllerUnitTest {
     @MockitoBean
     private DocumentTagService tagService;
 
+    @MockitoBean
+    private StorageSummaryService storageSummaryService;
+
+    @MockitoBean
+    private RecentDocumentService recentDocumentService;
+
+    @MockitoBean
+    private ResourceVersionService resourceVersionService;
+
     @MockitoBean
     private ClientRegistrationRepository clientRegistrationRepository;
 
@@ -1012,4 +1043,501 @@ public class DocumentControllerUnitTest {
 
         verify(documentService).searchDocumentsByFilename("user-123", "ai");
     }
+
+    @Test
+    @Order(91)
+    @DisplayName("测试101：全文检索文档 - 成功 - 保持相关度顺序")
+    void fullTextSearch_Success() throws Exception {
+        log.info("Test: Full-text Search - Success");
+
+        Document doc1 = createMockDocument(2L, "contract_2024.pdf", testUser);
+        Document doc2 = createMockDocument(1L, "contracts.pdf", testUser);
+
+        when(documentService.searchDocuments("user-123", "contract", 0, 20))
+                .thenReturn(List.of(doc1, doc2));
+
+        mockMvc.perform(
+                        get("/api/v1/documents/fulltext")
+                                .param("q", "contract")
+                                .with(jwt().jwt(builder -> builder.claim("sub", "user-123")))
+                )
+                .andDo(print())
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.data.documents.length()").value(2))
+                .andExpect(jsonPath("$.data.documents[0].documentId").value(2))
+                .andExpect(jsonPath("$.data.documents[1].documentId").value(1));
+
+        verify(documentService).searchDocuments("user-123", "contract", 0, 20);
+    }
+
+    @Test
+    @Order(92)
+    @DisplayName("测试102：过滤文档 - 成功 - 分页并附带分面计数")
+    void filterDocuments_WithFacets_Success() throws Exception {
+        log.info("Test: Filter Documents With Facets - Success");
+
+        Document doc = createMockDocument(1L, "report.pdf", testUser);
+        when(documentService.filterDocuments(eq("user-123"), eq("application/pdf"), eq("finance"),
+                isNull(), isNull(), any(Pageable.class)))
+                .thenReturn(new PageImpl<>(List.of(doc), PageRequest.of(0, 20), 21));
+        when(documentService.getFilterFacets("user-123", "application/pdf", "finance", null, null))
+                .thenReturn(DocumentFacetResponse.builder()
+                        .contentTypes(Map.of("application/pdf", 21L))
+                        .tags(Map.of("finance", 21L))
+                        .uploadMonths(Map.of("2025-10", 21L))
+                        .sizeBuckets(Map.of("0-1MB", 21L))
+                        .build());
+
+        mockMvc.perform(
+                        get("/api/v1/documents/filter")
+                                .param("contentType", "application/pdf")
+                                .param("tag", "finance")
+                                .with(jwt().jwt(builder -> builder.claim("sub", "user-123")))
+                )
+                .andDo(print())
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.data.documents.length()").value(1))
+                .andExpect(jsonPath("$.data.total").value(21))
+                .andExpect(jsonPath("$.data.page").value(0))
+                .andExpect(jsonPath("$.data.facets.contentTypes['application/pdf']").value(21))
+                .andExpect(jsonPath("$.data.facets.tags.finance").value(21));
+    }
+
+    @Test
+    @Order(93)
+    @DisplayName("测试103：过滤文档 - facets=false 时不统计分面")
+    void filterDocuments_WithoutFacets() throws Exception {
+        log.info("Test: Filter Documents Without Facets");
+
+        when(documentService.filterDocuments(eq("user-123"), isNull(), isNull(), isNull(), isNull(), any(Pageable.class)))
+                .thenReturn(new PageImpl<>(List.of(), PageRequest.of(0, 20), 0));
+
+        mockMvc.perform(
+                        get("/api/v1/documents/filter")
+                                .param("facets", "false")
+                                .with(jwt().jwt(builder -> builder.claim("sub", "user-123")))
+                )
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.data.total").value(0))
+                .andExpect(jsonPath("$.data.facets").doesNotExist());
+
+        verify(documentService, never()).getFilterFacets(any(), any(), any(), any(), any());
+    }
+
+    @Test
+    @Order(94)
+    @DisplayName("测试104：我的存储 - 成功 - 返回汇总行")
+    void getMyStorage_Success() throws Exception {
+        log.info("Test: Get My Storage - Success");
+
+        when(storageSummaryService.getSummary("user-123")).thenReturn(StorageSummaryResponse.builder()
+                .activeCount(3)
+                .totalBytes(4096)
+                .byContentType(List.of(StorageSummaryResponse.ContentTypeUsage.builder()
+                        .contentType("application/pdf").documentCount(3).totalBytes(4096).build()))
+                .build());
+
+        mockMvc.perform(
+                        get("/api/v1/documents/storage")
+                                .with(jwt().jwt(builder -> builder.claim("sub", "user-123")))
+                )
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.success").value(true))
+                .andExpect(jsonPath("$.data.activeCount").value(3))
+                .andExpect(jsonPath("$.data.totalBytes").value(4096))
+                .andExpect(jsonPath("$.data.byContentType[0].contentType").value("application/pdf"));
+    }
+
+    @Test
+    @Order(95)
+    @DisplayName("测试105：元数据查询 - 成功")
+    void queryByMetadata_Success() throws Exception {
+        log.info("Test: Query By Metadata - Success");
+
+        Document doc = createMockDocument(1L, "invoice.pdf", testUser);
+        when(documentService.queryByMetadata(eq("user-123"), anyList(), any(Pageable.class)))
+                .thenReturn(new PageImpl<>(List.of(doc), PageRequest.of(0, 20), 1));
+
+        mockMvc.perform(
+                        post("/api/v1/documents/metadata/query")
+                                .contentType(MediaType.APPLICATION_JSON)
+                                .content("""
+                                        {"conditions":[{"key":"amount","op":"BETWEEN","value":"100","to":"500"}]}
+                                        """)
+                                .with(jwt().jwt(builder -> builder.claim("sub", "user-123")))
+                )
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.data.documents.length()").value(1))
+                .andExpect(jsonPath("$.data.total").value(1));
+
+        verify(documentService).queryByMetadata(eq("user-123"),
+                eq(List.of(new MetadataCondition("amount", MetadataCondition.Op.BETWEEN, null, "100", "500"))),
+                any(Pageable.class));
+    }
+
+    @Test
+    @Order(96)
+    @DisplayName("测试106：元数据查询 - 条件不合法返回400")
+    void queryByMetadata_BadRequest() throws Exception {
+        log.info("Test: Query By Metadata - Bad Request");
+
+        when(documentService.queryByMetadata(eq("user-123"), anyList(), any(Pageable.class)))
+                .thenThrow(new IllegalArgumentException("Invalid NUMBER value for metadata 'amount': abc"));
+
+        mockMvc.perform(
+                        post("/api/v1/documents/metadata/query")
+                                .contentType(MediaType.APPLICATION_JSON)
+                                .content("""
+                                        {"conditions":[{"key":"amount","op":"GT","value":"abc"}]}
+                                        """)
+                                .with(jwt().jwt(builder -> builder.claim("sub", "user-123")))
+                )
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.code").value(400));
+    }
+
+    @Test
+    @Order(97)
+    @DisplayName("测试107：标签表达式查询 - 成功")
+    void queryByTagExpression_Success() throws Exception {
+        log.info("Test: Query By Tag Expression - Success");
+
+        Document doc = createMockDocument(1L, "contract.pdf", testUser);
+        when(tagService.queryByTagExpression(eq("contract AND NOT draft"), eq("user-123"), any(Pageable.class)))
+                .thenReturn(new PageImpl<>(List.of(doc), PageRequest.of(0, 20), 1));
+
+        mockMvc.perform(
+                        get("/api/v1/documents/by-tags")
+                                .param("q", "contract AND NOT draft")
+                                .with(jwt().jwt(builder -> builder.claim("sub", "user-123")))
+                )
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.data.documents[0].fileName").value("contract.pdf"))
+                .andExpect(jsonPath("$.data.total").value(1));
+    }
+
+    @Test
+    @Order(98)
+    @DisplayName("测试108：标签表达式查询 - 语法错误返回400")
+    void queryByTagExpression_BadRequest() throws Exception {
+        log.info("Test: Query By Tag Expression - Bad Request");
+
+        when(tagService.queryByTagExpression(eq("contract AND"), eq("user-123"), any(Pageable.class)))
+                .thenThrow(new IllegalArgumentException("Unexpected end of tag expression"));
+
+        mockMvc.perform(
+                        get("/api/v1/documents/by-tags")
+                                .param("q", "contract AND")
+                                .with(jwt().jwt(builder -> builder.claim("sub", "user-123")))
+                )
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.message").value("Unexpected end of tag expression"));
+    }
+
+    @Test
+    @Order(99)
+    @DisplayName("测试109：标签自动补全 - 成功")
+    void suggestTags_Success() throws Exception {
+        log.info("Test: Suggest Tags - Success");
+
+        when(tagService.suggestTags("fin", 5, "user-123"))
+                .thenReturn(List.of(TagSuggestionResponse.builder().tag("finance").ownerCount(3).globalCount(10).build()));
+
+        mockMvc.perform(
+                        get("/api/v1/documents/tags/suggest")
+                                .param("prefix", "fin")
+                                .param("limit", "5")
+                                .with(jwt().jwt(builder -> builder.claim("sub", "user-123")))
+                )
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.data[0].tag").value("finance"))
+                .andExpect(jsonPath("$.data[0].ownerCount").value(3));
+    }
+
+    @Test
+    @Order(100)
+    @DisplayName("测试110：标签自动补全 - 索引未就绪返回503")
+    void suggestTags_NotReady() throws Exception {
+        log.info("Test: Suggest Tags - Not Ready");
+
+        when(tagService.suggestTags("fin", 10, "user-123"))
+                .thenThrow(new IllegalStateException("Tag suggestion index is not ready yet"));
+
+        mockMvc.perform(
+                        get("/api/v1/documents/tags/suggest")
+                                .param("prefix", "fin")
+                                .with(jwt().jwt(builder -> builder.claim("sub", "user-123")))
+                )
+                .andExpect(status().isServiceUnavailable());
+    }
+
+    @Test
+    @Order(101)
+    @DisplayName("测试111：最近使用的文档 - 成功")
+    void getRecentDocuments_Success() throws Exception {
+        log.info("Test: Get Recent Documents - Success");
+
+        when(recentDocumentService.getRecentDocuments("user-123", 5))
+                .thenReturn(List.of(RecentDocumentResponse.builder()
+                        .documentId(7L)
+                        .fileName("report.pdf")
+                        .lastOperation(OperationType.DOWNLOAD_DOCUMENT)
+                        .lastUsedAt(Instant.now())
+                        .build()));
+
+        mockMvc.perform(
+                        get("/api/v1/documents/recent")
+                                .param("limit", "5")
+                                .with(jwt().jwt(builder -> builder.claim("sub", "user-123")))
+                )
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.data[0].documentId").value(7))
+                .andExpect(jsonPath("$.data[0].lastOperation").value("DOWNLOAD_DOCUMENT"));
+    }
+
+    @Test
+    @Order(102)
+    @DisplayName("测试112：文档列表 - 返回 ETag，且要求重新验证")
+    void getUserDocuments_ReturnsEtag() throws Exception {
+        log.info("Test: Get User Documents - ETag");
+
+        when(resourceVersionService.userEtag(eq(ResourceVersionService.Scope.DOCUMENTS), eq("user-123"), isNull(), isNull()))
+                .thenReturn("abc-D1-7-1f");
+        when(documentService.getUserDocuments("user-123")).thenReturn(List.of());
+
+        mockMvc.perform(
+                        get("/api/v1/documents")
+                                .with(jwt().jwt(builder -> builder.claim("sub", "user-123")))
+                )
+                .andExpect(status().isOk())
+                .andExpect(header().string("ETag", "\"abc-D1-7-1f\""))
+                .andExpect(header().string("Cache-Control", "no-cache, private"));
+    }
+
+    @Test
+    @Order(103)
+    @DisplayName("测试113：文档列表 - ETag 匹配返回304，不加载文档")
+    void getUserDocuments_NotModified() throws Exception {
+        log.info("Test: Get User Documents - Not Modified");
+
+        when(resourceVersionService.userEtag(eq(ResourceVersionService.Scope.DOCUMENTS), eq("user-123"), isNull(), isNull()))
+                .thenReturn("abc-D1-7-1f");
+
+        mockMvc.perform(
+                        get("/api/v1/documents")
+                                .header("If-None-Match", "\"abc-D1-7-1f\"")
+                                .with(jwt().jwt(builder -> builder.claim("sub", "user-123")))
+                )
+                .andExpect(status().isNotModified())
+                .andExpect(content().string(""));
+
+        verify(documentService, never()).getUserDocuments(anyString());
+    }
+
+    @Test
+    @Order(104)
+    @DisplayName("测试114：文档列表 - NDJSON 流式输出，每行一个文档")
+    void streamUserDocuments_Ndjson() throws Exception {
+        log.info("Test: Stream User Documents - NDJSON");
+
+        doAnswer(invocation -> {
+            Consumer<DocumentTagResponse> sink = invocation.getArgument(2);
+            sink.accept(DocumentTagResponse.builder().documentId(1L).fileName("a.pdf").tags(List.of("finance")).build());
+            sink.accept(DocumentTagResponse.builder().documentId(2L).fileName("b.pdf").tags(List.of()).build());
+            return null;
+        }).when(documentService).streamUserDocuments(eq("user-123"), isNull(), any());
+
+        MvcResult result = mockMvc.perform(
+                        get("/api/v1/documents")
+                                .accept(MediaType.APPLICATION_NDJSON)
+                                .with(jwt().jwt(builder -> builder.claim("sub", "user-123")))
+                )
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        String body = mockMvc.perform(asyncDispatch(result))
+                .andExpect(status().isOk())
+                .andExpect(content().contentTypeCompatibleWith(MediaType.APPLICATION_NDJSON))
+                .andReturn().getResponse().getContentAsString();
+
+        String[] lines = body.split("\n");
+        assertThat(lines).hasSize(2);
+        assertThat(objectMapper.readValue(lines[0], DocumentTagResponse.class).getTags()).containsExactly("finance");
+        assertThat(objectMapper.readValue(lines[1], DocumentTagResponse.class).getDocumentId()).isEqualTo(2L);
+        verify(documentService, never()).getUserDocuments(anyString());
+    }
+
+    @Test
+    @Order(105)
+    @DisplayName("测试115：文档列表 - 未指定 NDJSON 时仍返回 JSON 列表")
+    void getUserDocuments_DefaultsToJson() throws Exception {
+        log.info("Test: Get User Documents - Default JSON");
+
+        when(documentService.getUserDocuments("user-123")).thenReturn(List.of());
+
+        mockMvc.perform(
+                        get("/api/v1/documents")
+                                .accept(MediaType.ALL)
+                                .with(jwt().jwt(builder -> builder.claim("sub", "user-123")))
+                )
+                .andExpect(status().isOk())
+                .andExpect(content().contentTypeCompatibleWith(MediaType.APPLICATION_JSON));
+
+        verify(documentService, never()).streamUserDocuments(any(), any(), any());
+    }
+
+    @Test
+    @Order(106)
+    @DisplayName("测试116：恢复文档 - 成功")
+    void restoreDocument_Success() throws Exception {
+        log.info("Test: Restore Document - Success");
+
+        when(documentService.restoreDocument(100L, "user-123"))
+                .thenReturn(createMockDocument(100L, "restored.pdf", testUser));
+
+        mockMvc.perform(
+                        post("/api/v1/documents/100/restore")
+                                .with(jwt().jwt(builder -> builder.claim("sub", "user-123")))
+                )
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.message").value("文档恢复成功"))
+                .andExpect(jsonPath("$.data.status").value("ACTIVE"));
+    }
+
+    @Test
+    @Order(107)
+    @DisplayName("测试117：恢复文档 - 超过恢复期限返回409")
+    void restoreDocument_Expired() throws Exception {
+        log.info("Test: Restore Document - Expired");
+
+        when(documentService.restoreDocument(100L, "user-123"))
+                .thenThrow(new IllegalStateException("文档已超过恢复期限: 100"));
+
+        mockMvc.perform(
+                        post("/api/v1/documents/100/restore")
+                                .with(jwt().jwt(builder -> builder.claim("sub", "user-123")))
+                )
+                .andExpect(status().isConflict())
+                .andExpect(jsonPath("$.code").value(409));
+    }
+
+    @Test
+    @Order(108)
+    @DisplayName("测试118：恢复文档 - 文档不存在返回404")
+    void restoreDocument_NotFound() throws Exception {
+        log.info("Test: Restore Document - Not Found");
+
+        when(documentService.restoreDocument(100L, "user-123"))
+                .thenThrow(new DocumentException.DocumentNotFoundException(100L));
+
+        mockMvc.perform(
+                        post("/api/v1/documents/100/restore")
+                                .with(jwt().jwt(builder -> builder.claim("sub", "user-123")))
+                )
+                .andExpect(status().isNotFound());
+    }
+
+    @Test
+    @Order(109)
+    @DisplayName("测试119：批量获取文档 - 成功 - 保留请求顺序与标记")
+    void getDocumentsByIds_Success() throws Exception {
+        log.info("Test: Batch Get Documents - Success");
+
+        when(documentService.getDocumentsByIds("user-123", List.of(2L, 1L))).thenReturn(List.of(
+                DocumentBatchItem.missing(2L, DocumentBatchItem.Result.FORBIDDEN),
+                DocumentBatchItem.found(DocumentTagResponse.builder().documentId(1L).fileName("a.pdf").build())));
+
+        mockMvc.perform(
+                        post("/api/v1/documents/batch")
+                                .contentType(MediaType.APPLICATION_JSON)
+                                .content(objectMapper.writeValueAsString(
+                                        DocumentBatchRequest.builder().documentIds(List.of(2L, 1L)).build()))
+                                .with(jwt().jwt(builder -> builder.claim("sub", "user-123")))
+                )
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.data[0].result").value("FORBIDDEN"))
+                .andExpect(jsonPath("$.data[1].result").value("FOUND"))
+                .andExpect(jsonPath("$.data[1].document.fileName").value("a.pdf"));
+    }
+
+    @Test
+    @Order(110)
+    @DisplayName("测试120：批量获取文档 - 超过上限返回400")
+    void getDocumentsByIds_TooMany() throws Exception {
+        log.info("Test: Batch Get Documents - Too Many");
+
+        when(documentService.getDocumentsByIds(eq("user-123"), anyList()))
+                .thenThrow(new IllegalArgumentException("一次最多查询 200 个文档"));
+
+        mockMvc.perform(
+                        post("/api/v1/documents/batch")
+                                .contentType(MediaType.APPLICATION_JSON)
+                                .content("{\"documentIds\":[1,2]}")
+                                .with(jwt().jwt(builder -> builder.claim("sub", "user-123")))
+                )
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.code").value(400));
+    }
+
+    @Test
+    @Order(111)
+    @DisplayName("测试121：文档列表 - 指定 fields 时只返回请求的字段")
+    void getUserDocuments_SparseFields() throws Exception {
+        log.info("Test: Get User Documents - Sparse Fields");
+
+        DocumentTagResponse sparse = new DocumentTagResponse.Sparse();
+        sparse.setDocumentId(1L);
+        sparse.setFileName("a.pdf");
+        when(documentService.getUserDocumentFields("user-123", null, Set.of("fileName")))
+                .thenReturn(List.of(sparse));
+
+        mockMvc.perform(
+                        get("/api/v1/documents")
+                                .param("fields", "fileName")
+                                .with(jwt().jwt(builder -> builder.claim("sub", "user-123")))
+                )
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.data.documents[0].documentId").value(1))
+                .andExpect(jsonPath("$.data.documents[0].fileName").value("a.pdf"))
+                .andExpect(jsonPath("$.data.documents[0]", not(hasKey("description"))))
+                .andExpect(jsonPath("$.data.documents[0]", not(hasKey("tags"))));
+
+        verify(documentService, never()).getUserDocuments(anyString());
+    }
+
+    @Test
+    @Order(112)
+    @DisplayName("测试122：文档列表 - 不支持的字段返回400")
+    void getUserDocuments_UnknownField() throws Exception {
+        log.info("Test: Get User Documents - Unknown Field");
+
+        mockMvc.perform(
+                        get("/api/v1/documents")
+                                .param("fields", "fileName,s3Key")
+                                .with(jwt().jwt(builder -> builder.claim("sub", "user-123")))
+                )
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.code").value(400));
+
+        verifyNoInteractions(documentService);
+    }
+
+    @Test
+    @Order(113)
+    @DisplayName("测试123：文档列表 - 未指定 fields 时仍输出值为 null 的字段")
+    void getUserDocuments_FullResponseKeepsNullFields() throws Exception {
+        log.info("Test: Get User Documents - Full Response Keeps Null Fields");
+
+        Document doc = createMockDocument(1L, "file1.pdf", testUser);
+        doc.setDescription(null);
+        when(documentService.getUserDocuments("user-123")).thenReturn(List.of(doc));
+
+        mockMvc.perform(
+                        get("/api/v1/documents")
+                                .with(jwt().jwt(builder -> builder.claim("sub", "user-123")))
+                )
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.data.documents[0]", hasKey("description")))
+                .andExpect(jsonPath("$.data.documents[0].description").value(nullValue()));
+    }
 }
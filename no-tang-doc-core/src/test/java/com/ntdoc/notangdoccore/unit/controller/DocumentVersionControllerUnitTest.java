@@ -0,0 +1,106 @@
+package com.ntdoc.notangdoccore.unit.controller;
+
+import com.ntdoc.notangdoccore.controller.DocumentVersionController;
+import com.ntdoc.notangdoccore.dto.document.DocumentVersionResponse;
+import com.ntdoc.notangdoccore.exception.DocumentException;
+import com.ntdoc.notangdoccore.service.DocumentVersionService;
+import lombok.extern.slf4j.Slf4j;
+import org.junit.jupiter.api.*;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
+import org.springframework.mock.web.MockMultipartFile;
+import org.springframework.security.oauth2.client.OAuth2AuthorizedClientManager;
+import org.springframework.security.oauth2.client.registration.ClientRegistrationRepository;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.util.List;
+
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+import static org.springframework.security.test.web.servlet.request.SecurityMockMvcRequestPostProcessors.jwt;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+@WebMvcTest(controllers = {DocumentVersionController.class})
+@AutoConfigureMockMvc
+@Slf4j
+@ActiveProfiles("test")
+@TestMethodOrder(MethodOrderer.OrderAnnotation.class)
+@DisplayName("DocumentVersionController单元测试")
+public class DocumentVersionControllerUnitTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @MockitoBean
+    private DocumentVersionService versionService;
+    @MockitoBean
+    private ClientRegistrationRepository clientRegistrationRepository;
+    @MockitoBean
+    private OAuth2AuthorizedClientManager authorizedClientManager;
+
+    private DocumentVersionResponse version(int versionNo, boolean created) {
+        return DocumentVersionResponse.builder()
+                .documentId(1L)
+                .versionNo(versionNo)
+                .fileSize(5L)
+                .current(true)
+                .created(created)
+                .build();
+    }
+
+    @Test
+    @Order(1)
+    @DisplayName("测试1：版本列表 - 成功")
+    void getVersions_Success() throws Exception {
+        when(versionService.getVersions(1L, "kc-123")).thenReturn(List.of(version(2, false), version(1, false)));
+
+        mockMvc.perform(get("/api/v1/documents/1/versions")
+                        .with(jwt().jwt(builder -> builder.claim("sub", "kc-123"))))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.data[0].versionNo").value(2))
+                .andExpect(jsonPath("$.data[1].versionNo").value(1));
+    }
+
+    @Test
+    @Order(2)
+    @DisplayName("测试2：上传新版本 - 内容未变化时提示未创建")
+    void uploadVersion_Unchanged() throws Exception {
+        MockMultipartFile file = new MockMultipartFile("file", "a.txt", "text/plain", "same".getBytes());
+        when(versionService.uploadVersion(eq(1L), any(), eq("kc-123"))).thenReturn(version(1, false));
+
+        mockMvc.perform(multipart("/api/v1/documents/1/versions")
+                        .file(file)
+                        .with(jwt().jwt(builder -> builder.claim("sub", "kc-123"))))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.message").value("内容未变化，未创建新版本"))
+                .andExpect(jsonPath("$.data.created").value(false));
+    }
+
+    @Test
+    @Order(3)
+    @DisplayName("测试3：恢复版本 - 文档不存在返回404")
+    void restoreVersion_NotFound() throws Exception {
+        when(versionService.restoreVersion(1L, 1, "kc-123"))
+                .thenThrow(new DocumentException.DocumentNotFoundException(1L));
+
+        mockMvc.perform(post("/api/v1/documents/1/versions/1/restore")
+                        .with(jwt().jwt(builder -> builder.claim("sub", "kc-123"))))
+                .andExpect(status().isNotFound());
+    }
+
+    @Test
+    @Order(4)
+    @DisplayName("测试4：恢复版本 - 非所有者返回403")
+    void restoreVersion_Forbidden() throws Exception {
+        when(versionService.restoreVersion(1L, 1, "kc-123"))
+                .thenThrow(new DocumentException.DocumentAccessDeniedException("document 1"));
+
+        mockMvc.perform(post("/api/v1/documents/1/versions/1/restore")
+                        .with(jwt().jwt(builder -> builder.claim("sub", "kc-123"))))
+                .andExpect(status().isForbidden());
+    }
+}
@@ -7,7 +7,8 @@ import com.ntdoc.notangdoccore.entity.User;
 import com.ntdoc.notangdoccore.entity.logenum.ActorType;
 import com.ntdoc.notangdoccore.entity.logenum.OperationStatus;
 import com.ntdoc.notangdoccore.entity.logenum.OperationType;
-import com.ntdoc.notangdoccore.service.impl.UserSyncServiceImpl;
+import com.ntdoc.notangdoccore.service.CallerIdentityService;
+import com.ntdoc.notangdoccore.service.ResourceVersionService;
 import com.ntdoc.notangdoccore.service.impl.LogServiceImpl;
 import jakarta.servlet.ServletException;
 import jakarta.validation.ConstraintViolationException;
@@ -52,7 +53,10 @@ public class LogControllerUnitTest {
     private LogServiceImpl logService;
 
     @MockitoBean
-    private UserSyncServiceImpl userSyncService;
+    private CallerIdentityService callerIdentityService;
+
+    @MockitoBean
+    private ResourceVersionService resourceVersionService;
 
     private User mockUser;
     private Log mockLog;
@@ -96,7 +100,7 @@ public class LogControllerUnitTest {
     @Order(1)
     @DisplayName("测试1：获取用户的所有日志 - 成功")
     void testGetLogs_Found() throws Exception {
-        when(userSyncService.ensureFromJwt(any())).thenReturn(mockUser);
+        when(callerIdentityService.resolve(any())).thenReturn(mockUser);
         when(logService.getAllLogsByUserId(100L)).thenReturn(mockLogs);
 
         mockMvc.perform(get("/api/v1/logs/list")
@@ -113,7 +117,7 @@ public class LogControllerUnitTest {
                 .andExpect(jsonPath("$[1].id", is(2)))
                 .andExpect(jsonPath("$[1].operationType", is("DELETE_DOCUMENT")));
 
-        verify(userSyncService,times(1)).ensureFromJwt(any());
+        verify(callerIdentityService,times(1)).resolve(any());
         verify(logService,times(1)).getAllLogsByUserId(100L);
     }
 
@@ -122,7 +126,7 @@ public class LogControllerUnitTest {
     @Order(2)
     @DisplayName("测试2：获取用户的所有日志 - 未找到{空列表}")
     void testGetLogs_NotFound() throws Exception {
-        when(userSyncService.ensureFromJwt(any())).thenReturn(mockUser);
+        when(callerIdentityService.resolve(any())).thenReturn(mockUser);
         when(logService.getAllLogsByUserId(100L)).thenReturn(Collections.emptyList());
 
         mockMvc.perform(get("/api/v1/logs/list").with(jwt()))
@@ -131,7 +135,7 @@ public class LogControllerUnitTest {
                 .andExpect(content().contentType("application/json"))
                 .andExpect(jsonPath("$",hasSize(0)));
 
-        verify(userSyncService,times(1)).ensureFromJwt(any());
+        verify(callerIdentityService,times(1)).resolve(any());
         verify(logService,times(1)).getAllLogsByUserId(100L);
     }
 
@@ -140,13 +144,13 @@ public class LogControllerUnitTest {
     @Order(3)
     @DisplayName("测试3：获取用户的所有日志 - 用户认证失败")
     void testGetLogs_UserAuthFailed() throws Exception {
-        when(userSyncService.ensureFromJwt(any())).thenThrow(new RuntimeException("User Auth Failed"));
+        when(callerIdentityService.resolve(any())).thenThrow(new RuntimeException("User Auth Failed"));
 
         mockMvc.perform(get("/api/v1/logs/list").with(jwt()))
                 .andDo(print())
                 .andExpect(status().isInternalServerError());
 
-        verify(userSyncService,times(1)).ensureFromJwt(any());
+        verify(callerIdentityService,times(1)).resolve(any());
         verify(logService,never()).getAllLogsByUserId(anyLong());
     }
 
@@ -154,14 +158,14 @@ public class LogControllerUnitTest {
     @Order(4)
     @DisplayName("测试4：获取用户的所有日志 - 服务异常导致500返回")
     void testGetLogs_ServiceException() throws Exception {
-        when(userSyncService.ensureFromJwt(any())).thenReturn(mockUser);
+        when(callerIdentityService.resolve(any())).thenReturn(mockUser);
         when(logService.getAllLogsByUserId(anyLong())).thenThrow(new RuntimeException("DB Error"));
 
         mockMvc.perform(get("/api/v1/logs/list").with(jwt()))
                 .andDo(print())
                 .andExpect(status().isInternalServerError());
 
-        verify(userSyncService, times(1)).ensureFromJwt(any());
+        verify(callerIdentityService, times(1)).resolve(any());
         verify(logService, times(1)).getAllLogsByUserId(100L);
     }
 
@@ -169,7 +173,7 @@ public class LogControllerUnitTest {
     @Order(5)
     @DisplayName("测试5：获取用户的所有日志 - 空列表但成功触发log.info")
     void testGetLogs_EmptyButSuccess() throws Exception {
-        when(userSyncService.ensureFromJwt(any())).thenReturn(mockUser);
+        when(callerIdentityService.resolve(any())).thenReturn(mockUser);
         when(logService.getAllLogsByUserId(100L)).thenReturn(Collections.emptyList());
 
         mockMvc.perform(get("/api/v1/logs/list").with(jwt()))
@@ -195,7 +199,7 @@ public class LogControllerUnitTest {
         weeklyCount.put("2025-10-14", 6L);
         weeklyCount.put("2025-10-15", 7L);
 
-        when(userSyncService.ensureFromJwt(any())).thenReturn(mockUser);
+        when(callerIdentityService.resolve(any())).thenReturn(mockUser);
         when(logService.getLogsCountByUser(100L,"week")).thenReturn(weeklyCount);
 
         mockMvc.perform(get("/api/v1/logs/count")
@@ -211,7 +215,7 @@ public class LogControllerUnitTest {
                 .andExpect(jsonPath("$['2025-10-14']", is(6)))
                 .andExpect(jsonPath("$['2025-10-15']", is(7)));
 
-        verify(userSyncService,times(1)).ensureFromJwt(any());
+        verify(callerIdentityService,times(1)).resolve(any());
         verify(logService,times(1)).getLogsCountByUser(100L,"week");
     }
 
@@ -224,7 +228,7 @@ public class LogControllerUnitTest {
         weeklyCount.put("2025-10-13", 8L);
         weeklyCount.put("2025-10-15", 5L);
 
-        when(userSyncService.ensureFromJwt(any())).thenReturn(mockUser);
+        when(callerIdentityService.resolve(any())).thenReturn(mockUser);
         when(logService.getLogsCountByUser(100L, "week")).thenReturn(weeklyCount);
 
         // When & Then
@@ -245,7 +249,7 @@ public class LogControllerUnitTest {
     @Order(12)
     @DisplayName("测试12：获取周日志统计 - 无数据")
     void testGetLogsCount_Week_NoData() throws Exception {
-        when(userSyncService.ensureFromJwt(any())).thenReturn(mockUser);
+        when(callerIdentityService.resolve(any())).thenReturn(mockUser);
         when(logService.getLogsCountByUser(100L,"week")).thenReturn(Collections.emptyMap());
 
         mockMvc.perform(get("/api/v1/logs/count")
@@ -270,7 +274,7 @@ public class LogControllerUnitTest {
         monthlyCount.put("W202540", 18L);  // 10月第1周
         monthlyCount.put("W202541", 22L);  // 10月第2周
 
-        when(userSyncService.ensureFromJwt(any())).thenReturn(mockUser);
+        when(callerIdentityService.resolve(any())).thenReturn(mockUser);
         when(logService.getLogsCountByUser(100L, "month")).thenReturn(monthlyCount);
 
         // When & Then
@@ -286,7 +290,7 @@ public class LogControllerUnitTest {
                 .andExpect(jsonPath("$.W202541", is(22)))
                 .andExpect(jsonPath("$", aMapWithSize(4)));
 
-        verify(userSyncService, times(1)).ensureFromJwt(any());
+        verify(callerIdentityService, times(1)).resolve(any());
         verify(logService, times(1)).getLogsCountByUser(100L, "month");
     }
 
@@ -299,7 +303,7 @@ public class LogControllerUnitTest {
         monthlyCount.put("W202540", 25L);
         monthlyCount.put("W202541", 30L);
 
-        when(userSyncService.ensureFromJwt(any())).thenReturn(mockUser);
+        when(callerIdentityService.resolve(any())).thenReturn(mockUser);
         when(logService.getLogsCountByUser(100L, "month")).thenReturn(monthlyCount);
 
         // When & Then
@@ -321,7 +325,7 @@ public class LogControllerUnitTest {
     @DisplayName("测试15：获取月日志统计 - 无数据")
     void testGetLogsCount_Month_NoData() throws Exception {
         // Given
-        when(userSyncService.ensureFromJwt(any())).thenReturn(mockUser);
+        when(callerIdentityService.resolve(any())).thenReturn(mockUser);
         when(logService.getLogsCountByUser(100L, "month")).thenReturn(Collections.emptyMap());
 
         // When & Then
@@ -340,7 +344,7 @@ public class LogControllerUnitTest {
     @Order(16)
     @DisplayName("测试16：获取日志统计 - 无效period参数")
     void testGetLogsCount_InvalidPeriod() throws Exception {
-        when(userSyncService.ensureFromJwt(any())).thenReturn(mockUser);
+        when(callerIdentityService.resolve(any())).thenReturn(mockUser);
 
         ServletException ex = assertThrows(
                 ServletException.class,
@@ -365,7 +369,7 @@ public class LogControllerUnitTest {
     @Order(17)
     @DisplayName("测试17：获取日志统计 - 服务异常导致400返回")
     void testGetLogsCount_ServiceException() throws Exception {
-        when(userSyncService.ensureFromJwt(any())).thenReturn(mockUser);
+        when(callerIdentityService.resolve(any())).thenReturn(mockUser);
         when(logService.getLogsCountByUser(anyLong(), anyString()))
                 .thenThrow(new RuntimeException("Query failed"));
 
@@ -8,6 +8,7 @@ import com.ntdoc.notangdoccore.dto.team.TeamCreateRequest;
 import com.ntdoc.notangdoccore.dto.team.TeamResponse;
 import com.ntdoc.notangdoccore.entity.Team;
 import com.ntdoc.notangdoccore.entity.User;
+import com.ntdoc.notangdoccore.service.ResourceVersionService;
 import com.ntdoc.notangdoccore.service.TeamService;
 import lombok.extern.slf4j.Slf4j;
 import org.junit.jupiter.api.*;
@@ -26,8 +27,12 @@ import org.springframework.test.web.servlet.MvcResult;
 import java.time.Instant;
 import java.util.Arrays;
 import java.util.List;
+import java.util.Set;
 
 import static org.assertj.core.api.AssertionsForClassTypes.assertThat;
+import static org.hamcrest.Matchers.hasKey;
+import static org.hamcrest.Matchers.not;
+import static org.hamcrest.Matchers.nullValue;
 import static org.mockito.Mockito.*;
 import static org.springframework.security.test.web.servlet.request.SecurityMockMvcRequestPostProcessors.jwt;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
@@ -50,6 +55,9 @@ public class TeamControllerUnitTest {
     @MockitoBean
     private TeamService teamService;
 
+    @MockitoBean
+    private ResourceVersionService resourceVersionService;
+
     @MockitoBean
     private ClientRegistrationRepository clientRegistrationRepository;
 
@@ -573,5 +581,69 @@ public class TeamControllerUnitTest {
                 .andExpect(jsonPath("$.code").value(404))
                 .andExpect(jsonPath("$.message").value("团队不存在"));
     }
-}
 
+    @Test
+    @Order(50)
+    @DisplayName("测试50：获取团队列表 - ETag 匹配返回304，不查询团队")
+    void getUserTeams_NotModified() throws Exception {
+        log.info("Test: Get User Teams - Not Modified");
+
+        when(resourceVersionService.userEtag(ResourceVersionService.Scope.TEAMS, "user-123", true, null))
+                .thenReturn("abc-T1-3-1f");
+
+        mockMvc.perform(
+                        get("/api/v1/teams")
+                                .header("If-None-Match", "\"abc-T1-3-1f\"")
+                                .with(jwt().jwt(builder -> builder.claim("sub", "user-123")))
+                )
+                .andExpect(status().isNotModified())
+                .andExpect(header().string("ETag", "\"abc-T1-3-1f\""));
+
+        verify(teamService, never()).getUserActiveTeams(anyString());
+    }
+
+    @Test
+    @Order(51)
+    @DisplayName("测试51：获取团队列表 - 指定 fields 时只返回请求的字段")
+    void getUserTeams_SparseFields() throws Exception {
+        log.info("Test: Get User Teams - Sparse Fields");
+
+        TeamResponse sparse = new TeamResponse.Sparse();
+        sparse.setTeamId(1L);
+        sparse.setName("开发团队");
+        when(teamService.getUserTeamFields("user-123", true, Set.of("name")))
+                .thenReturn(List.of(sparse));
+
+        mockMvc.perform(
+                        get("/api/v1/teams")
+                                .param("fields", "name")
+                                .with(jwt().jwt(builder -> builder.claim("sub", "user-123")))
+                )
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.data.teams[0].teamId").value(1))
+                .andExpect(jsonPath("$.data.teams[0].name").value("开发团队"))
+                .andExpect(jsonPath("$.data.teams[0]", not(hasKey("description"))))
+                .andExpect(jsonPath("$.data.total").value(1));
+
+        verify(teamService, never()).getUserActiveTeams(anyString());
+    }
+
+    @Test
+    @Order(52)
+    @DisplayName("测试52：获取团队列表 - 未指定 fields 时仍输出值为 null 的字段")
+    void getUserTeams_FullResponseKeepsNullFields() throws Exception {
+        log.info("Test: Get User Teams - Full Response Keeps Null Fields");
+
+        Team team = createMockTeam(1L, "Team 1", testUser, Team.TeamStatus.ACTIVE);
+        team.setDescription(null);
+        when(teamService.getUserActiveTeams("user-123")).thenReturn(List.of(team));
+
+        mockMvc.perform(
+                        get("/api/v1/teams")
+                                .with(jwt().jwt(builder -> builder.claim("sub", "user-123")))
+                )
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.data.teams[0]", hasKey("description")))
+                .andExpect(jsonPath("$.data.teams[0].description").value(nullValue()));
+    }
+}
@@ -0,0 +1,126 @@
+package com.ntdoc.notangdoccore.unit.controller;
+
+import com.ntdoc.notangdoccore.controller.TrendingController;
+import com.ntdoc.notangdoccore.dto.document.TrendingDocumentResponse;
+import com.ntdoc.notangdoccore.service.DocumentService;
+import com.ntdoc.notangdoccore.service.TeamMemberService;
+import com.ntdoc.notangdoccore.service.TrendingDocumentService;
+import lombok.extern.slf4j.Slf4j;
+import org.junit.jupiter.api.*;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+import org.springframework.security.oauth2.client.OAuth2AuthorizedClientManager;
+import org.springframework.security.oauth2.client.registration.ClientRegistrationRepository;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.util.List;
+import java.util.Set;
+
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+import static org.springframework.security.test.web.servlet.request.SecurityMockMvcRequestPostProcessors.jwt;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+@WebMvcTest(controllers = {TrendingController.class})
+@AutoConfigureMockMvc
+@Slf4j
+@ActiveProfiles("test")
+@TestMethodOrder(MethodOrderer.OrderAnnotation.class)
+@DisplayName("TrendingController单元测试")
+public class TrendingControllerUnitTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @MockitoBean
+    private TrendingDocumentService trendingDocumentService;
+    @MockitoBean
+    private TeamMemberService teamMemberService;
+    @MockitoBean
+    private DocumentService documentService;
+    @MockitoBean
+    private ClientRegistrationRepository clientRegistrationRepository;
+    @MockitoBean
+    private OAuth2AuthorizedClientManager authorizedClientManager;
+
+    @Test
+    @Order(1)
+    @DisplayName("测试1：团队热门 - 成员可以查看")
+    void getTeamTrending_Member() throws Exception {
+        when(teamMemberService.isMember(5L, "kc-123")).thenReturn(true);
+        when(trendingDocumentService.getTeamTrending(5L, TrendingDocumentService.Window.WEEK, 50))
+                .thenReturn(List.of(TrendingDocumentResponse.builder().documentId(1L).fileName("a.pdf").count(9).build()));
+        when(documentService.findAccessibleIds("kc-123", List.of(1L))).thenReturn(Set.of(1L));
+
+        mockMvc.perform(get("/api/v1/teams/5/documents/trending")
+                        .param("window", "week")
+                        .param("limit", "3")
+                        .with(jwt().jwt(builder -> builder.claim("sub", "kc-123"))))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.data[0].documentId").value(1))
+                .andExpect(jsonPath("$.data[0].count").value(9));
+    }
+
+    @Test
+    @Order(2)
+    @DisplayName("测试2：团队热门 - 非成员返回403")
+    void getTeamTrending_NotMember() throws Exception {
+        when(teamMemberService.isMember(5L, "kc-123")).thenReturn(false);
+
+        mockMvc.perform(get("/api/v1/teams/5/documents/trending")
+                        .with(jwt().jwt(builder -> builder.claim("sub", "kc-123"))))
+                .andExpect(status().isForbidden());
+        verify(trendingDocumentService, never()).getTeamTrending(any(), any(), anyInt());
+    }
+
+    @Test
+    @Order(3)
+    @DisplayName("测试3：团队热门 - 无效窗口返回400")
+    void getTeamTrending_InvalidWindow() throws Exception {
+        mockMvc.perform(get("/api/v1/teams/5/documents/trending")
+                        .param("window", "month")
+                        .with(jwt().jwt(builder -> builder.claim("sub", "kc-123"))))
+                .andExpect(status().isBadRequest());
+        verifyNoInteractions(teamMemberService, trendingDocumentService);
+    }
+
+    @Test
+    @Order(4)
+    @DisplayName("测试4：全站热门 - 条数超过上限时截断")
+    void getTrending_ClampsLimit() throws Exception {
+        when(trendingDocumentService.getTrending(TrendingDocumentService.Window.DAY, 50)).thenReturn(List.of());
+
+        mockMvc.perform(get("/api/admin/documents/trending")
+                        .param("limit", "500")
+                        .with(jwt().jwt(builder -> builder.claim("sub", "kc-admin"))
+                                .authorities(new SimpleGrantedAuthority("ROLE_ADMIN"))))
+                .andExpect(status().isOk());
+        verify(trendingDocumentService).getTrending(TrendingDocumentService.Window.DAY, 50);
+    }
+
+    @Test
+    @Order(5)
+    @DisplayName("测试5：团队热门 - 不返回其他成员的私有文档，按权限过滤后再截断")
+    void getTeamTrending_FiltersInaccessible() throws Exception {
+        when(teamMemberService.isMember(5L, "kc-123")).thenReturn(true);
+        when(trendingDocumentService.getTeamTrending(5L, TrendingDocumentService.Window.DAY, 50))
+                .thenReturn(List.of(
+                        TrendingDocumentResponse.builder().documentId(1L).fileName("secret.pdf").count(20).build(),
+                        TrendingDocumentResponse.builder().documentId(2L).fileName("mine.pdf").count(9).build(),
+                        TrendingDocumentResponse.builder().documentId(3L).fileName("also-mine.pdf").count(4).build()));
+        when(documentService.findAccessibleIds("kc-123", List.of(1L, 2L, 3L))).thenReturn(Set.of(2L, 3L));
+
+        mockMvc.perform(get("/api/v1/teams/5/documents/trending")
+                        .param("limit", "1")
+                        .with(jwt().jwt(builder -> builder.claim("sub", "kc-123"))))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.data.length()").value(1))
+                .andExpect(jsonPath("$.data[0].documentId").value(2))
+                .andExpect(jsonPath("$.data[0].fileName").value("mine.pdf"));
+    }
+}